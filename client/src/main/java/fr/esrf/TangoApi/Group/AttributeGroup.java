@@ -3,9 +3,11 @@ package fr.esrf.TangoApi.Group;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
@@ -17,20 +19,33 @@ import org.tango.utils.TangoUtil;
 
 import fr.esrf.Tango.DevError;
 import fr.esrf.Tango.DevFailed;
+import fr.esrf.TangoApi.ApiUtil;
+import fr.esrf.TangoApi.AsynReplyNotArrived;
 import fr.esrf.TangoApi.AttributeInfoEx;
+import fr.esrf.TangoApi.CallBack;
 import fr.esrf.TangoApi.DeviceAttribute;
 import fr.esrf.TangoApi.DeviceProxy;
+import fr.esrf.TangoApi.events.EventData;
+import fr.esrf.TangoDs.TangoConst;
 import fr.esrf.TangoDs.NamedDevFailed;
 import fr.esrf.TangoDs.NamedDevFailedList;
 import fr.soleil.tango.clientapi.factory.ProxyFactory;
 
 /**
  * Tentative to manage group of Attributes.
+ * <p>
+ * The read replies are polled for all devices in turn, all devices sharing the group timeout, so that a slow device
+ * does not delay the replies of the others. The attributes configurations are kept up to date by attribute
+ * configuration events, they are read from the devices only when these events are not received. {@link #close()}
+ * unsubscribes from these events.
  *
  * @author ABEILLE
  */
 public final class AttributeGroup {
 
+    private static final int MIN_REPLY_POLL_PERIOD = 1;
+    private static final int MAX_REPLY_POLL_PERIOD = 10;
+
     private final Logger logger = LoggerFactory.getLogger(AttributeGroup.class);
     private final XLogger xlogger = XLoggerFactory.getXLogger(AttributeGroup.class);
 
@@ -41,7 +56,7 @@ public final class AttributeGroup {
     private DeviceProxy[] devices;
 
     /**
-     * Used to read. Group all attributes per device
+     * Used to read. Group all attributes per device, each one once even if it is several times in the group
      */
     private final Map<String, List<String>> attributesMap = new HashMap<String, List<String>>();
     private final Map<String, DeviceProxy> devicesMap = new HashMap<String, DeviceProxy>();
@@ -50,11 +65,29 @@ public final class AttributeGroup {
     private final Map<String, Integer> writeAnswersIDs = new HashMap<String, Integer>();
 
     private List<DeviceAttribute> readReply = new ArrayList<DeviceAttribute>();
+    /**
+     * true between {@link #readAsync()} and {@link #getReadReplies()}
+     */
+    private boolean readPending;
     private int timeout;
     private final boolean throwExceptions;
 
     private final Map<String, DevError[]> errorsMap = new HashMap<String, DevError[]>();
 
+    /**
+     * Indexes of each attribute in the user order
+     */
+    private final Map<String, List<Integer>> attributeIndexes = new HashMap<String, List<Integer>>();
+
+    /**
+     * Configurations received by events, by attribute name
+     */
+    private final Map<String, AttributeInfoEx> configCache = new ConcurrentHashMap<String, AttributeInfoEx>();
+    /**
+     * Configuration events subscriptions ids, by attribute name. The id is null if the subscription has failed.
+     */
+    private final Map<String, Integer> configSubscriptions = new HashMap<String, Integer>();
+
     public AttributeGroup(final String... attributes) throws DevFailed {
         throwExceptions = true;
         add(attributes);
@@ -97,6 +130,12 @@ public final class AttributeGroup {
             final String fullAttribute = TangoUtil.getfullAttributeNameForAttribute(attributeName).toLowerCase(
                     Locale.ENGLISH);
             userAttributesNames[i] = fullAttribute;
+            List<Integer> indexes = attributeIndexes.get(fullAttribute);
+            if (indexes == null) {
+                indexes = new ArrayList<Integer>(1);
+                attributeIndexes.put(fullAttribute, indexes);
+            }
+            indexes.add(i);
             try {
                 final DeviceProxy device = ProxyFactory.getInstance().createDeviceProxy(deviceName);
                 devices[i++] = device;
@@ -118,7 +157,8 @@ public final class AttributeGroup {
                 final List<String> attributesNames = new ArrayList<String>();
                 attributesNames.add(attribute);
                 attributesMap.put(deviceName, attributesNames);
-            } else {
+            } else if (!attributesMap.get(deviceName).contains(attribute)) {
+                // its replies are notified to all its indexes
                 attributesMap.get(deviceName).add(attribute);
             }
         }
@@ -126,11 +166,12 @@ public final class AttributeGroup {
 
     public synchronized void readAsync() {
         xlogger.entry(devicesMap.keySet());
-        if (!readAnswersIDs.isEmpty()) {
+        if (readPending) {
             // remove requests to avoid memory leak
             getReadReplies();
         }
         errorsMap.clear();
+        readPending = true;
         for (final String deviceName : devicesMap.keySet()) {
             final List<String> attributeNames = attributesMap.get(deviceName);
             final DeviceProxy devElement = devicesMap.get(deviceName);
@@ -147,44 +188,46 @@ public final class AttributeGroup {
                         errorsMap.put(deviceName + "/" + attribute, e.errors);
                     }
                 }
+            } else {
+                // the proxy could not be created
+                final DevError[] errors = DevFailedUtils.buildDevError("CONNECTION_ERROR", deviceName
+                        + " is not reachable", 0);
+                for (final String attribute : attributeNames) {
+                    errorsMap.put(deviceName + "/" + attribute, errors);
+                }
             }
         }
         xlogger.exit();
     }
 
     public synchronized DeviceAttribute[] getReadReplies() {
-        xlogger.entry(devicesMap.keySet());
-        if (!readAnswersIDs.isEmpty()) {
+        return getReadReplies(null);
+    }
 
+    /**
+     * Get the replies of the last {@link #readAsync()}. The pending replies are polled in turn, sleeping from 1 to 10
+     * ms between two rounds, until all have arrived or the group timeout has expired. The listener is notified when a
+     * reply is found, so the notification may come up to 10 ms after the reply has arrived.
+     *
+     * @param listener notified of each reply as it arrives, may be null
+     * @return the replies in the group order, null for the attributes which read has failed
+     */
+    public synchronized DeviceAttribute[] getReadReplies(final IAttributeGroupReplyListener listener) {
+        xlogger.entry(devicesMap.keySet());
+        if (readPending) {
+            readPending = false;
+            if (listener != null) {
+                // the devices that have failed in readAsync
+                for (final Map.Entry<String, DevError[]> entry : errorsMap.entrySet()) {
+                    for (final int index : attributeIndexes.get(entry.getKey())) {
+                        listener.replyFailed(index, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
             final Map<String, DeviceAttribute> replies = new HashMap<String, DeviceAttribute>();
             try {
                 readReply = new ArrayList<DeviceAttribute>();
-                for (final String deviceName : devicesMap.keySet()) {
-
-                    final List<String> attributeNames = attributesMap.get(deviceName);
-                    // logger.debug("getReadReplies on device {} and attributes {}", deviceName, attributeNames);
-                    final DeviceProxy devElement = devicesMap.get(deviceName);
-                    if (devElement != null) {
-                        try {
-                            final Integer id = readAnswersIDs.get(deviceName);
-                            if (id != null) {// can be null if read_attribute_asynch has failed (i.e. a device is down)
-                                final DeviceAttribute[] subReply = devElement.read_attribute_reply(id, timeout);
-                                // memorize the replies per attribute name
-                                int i = 0;
-                                for (final String attribute : attributeNames) {
-                                    replies.put(deviceName + "/" + attribute, subReply[i++]);
-                                }
-                            }
-                        } catch (final DevFailed e) {
-                            logger.error("error", e);
-                            logger.error(DevFailedUtils.toString(e));
-
-                            for (final String attribute : attributeNames) {
-                                errorsMap.put(deviceName + "/" + attribute, e.errors);
-                            }
-                        }
-                    }
-                }
+                collectReadReplies(replies, listener);
             } finally {
                 readAnswersIDs.clear();
             }
@@ -198,10 +241,96 @@ public final class AttributeGroup {
         return readReply.toArray(new DeviceAttribute[readReply.size()]);
     }
 
+    private void collectReadReplies(final Map<String, DeviceAttribute> replies,
+            final IAttributeGroupReplyListener listener) {
+        final long deadline = System.currentTimeMillis() + timeout;
+        int pollPeriod = MIN_REPLY_POLL_PERIOD;
+        // can be missing if read_attribute_asynch has failed (i.e. a device is down)
+        final Map<String, DevFailed> pending = new HashMap<String, DevFailed>();
+        for (final String deviceName : readAnswersIDs.keySet()) {
+            pending.put(deviceName, null);
+        }
+        while (!pending.isEmpty()) {
+            final Iterator<Map.Entry<String, DevFailed>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, DevFailed> entry = it.next();
+                final String deviceName = entry.getKey();
+                final List<String> attributeNames = attributesMap.get(deviceName);
+                try {
+                    final DeviceAttribute[] subReply = devicesMap.get(deviceName).read_attribute_reply(
+                            readAnswersIDs.get(deviceName));
+                    it.remove();
+                    // memorize the replies per attribute name
+                    int i = 0;
+                    for (final String attribute : attributeNames) {
+                        final String attributeName = deviceName + "/" + attribute;
+                        replies.put(attributeName, subReply[i]);
+                        if (listener != null) {
+                            for (final int index : attributeIndexes.get(attributeName)) {
+                                listener.replyArrived(index, attributeName, subReply[i]);
+                            }
+                        }
+                        i++;
+                    }
+                } catch (final AsynReplyNotArrived e) {
+                    entry.setValue(e);
+                } catch (final DevFailed e) {
+                    it.remove();
+                    readFailed(deviceName, e, listener);
+                }
+            }
+            if (!pending.isEmpty()) {
+                boolean expired = timeout > 0 && System.currentTimeMillis() >= deadline;
+                if (!expired) {
+                    try {
+                        Thread.sleep(pollPeriod);
+                        pollPeriod = Math.min(pollPeriod * 2, MAX_REPLY_POLL_PERIOD);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        expired = true;
+                    }
+                }
+                if (expired) {
+                    for (final Map.Entry<String, DevFailed> entry : pending.entrySet()) {
+                        ApiUtil.remove_async_request(readAnswersIDs.get(entry.getKey()));
+                        readFailed(entry.getKey(), entry.getValue(), listener);
+                    }
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    private void readFailed(final String deviceName, final DevFailed e, final IAttributeGroupReplyListener listener) {
+        logger.error("error", e);
+        logger.error(DevFailedUtils.toString(e));
+
+        for (final String attribute : attributesMap.get(deviceName)) {
+            final String attributeName = deviceName + "/" + attribute;
+            errorsMap.put(attributeName, e.errors);
+            if (listener != null) {
+                for (final int index : attributeIndexes.get(attributeName)) {
+                    listener.replyFailed(index, attributeName, e.errors);
+                }
+            }
+        }
+    }
+
     public synchronized DeviceAttribute[] read() throws DevFailed {
+        return read(null);
+    }
+
+    /**
+     * Read all attributes
+     *
+     * @param listener notified of each reply as it arrives, may be null
+     * @return the replies in the group order
+     * @throws DevFailed if a read has failed and the group throws exceptions
+     */
+    public synchronized DeviceAttribute[] read(final IAttributeGroupReplyListener listener) throws DevFailed {
         xlogger.entry();
         readAsync();
-        final DeviceAttribute[] replies = getReadReplies();
+        final DeviceAttribute[] replies = getReadReplies(listener);
         if (throwExceptions && !errorsMap.isEmpty()) {
             DevError[] allErrors = null;
             for (final DevError[] errors : errorsMap.values()) {
@@ -333,12 +462,26 @@ public final class AttributeGroup {
             final DeviceProxy devElement = devicesMap.get(deviceName);
             if (devElement != null) {
                 try {
-                    final AttributeInfoEx[] subReply = devElement.get_attribute_info_ex(attributeNames
-                            .toArray(new String[attributeNames.size()]));
-                    int i = 0;
-                    // order reply per attribute
+                    // read only the configurations that are not kept up to date by events
+                    final List<String> toRead = new ArrayList<String>();
                     for (final String attribute : attributeNames) {
-                        replies.put(deviceName + "/" + attribute, subReply[i++]);
+                        final String attributeName = deviceName + "/" + attribute;
+                        subscribeConfig(devElement, attribute, attributeName);
+                        final AttributeInfoEx config = configCache.get(attributeName);
+                        if (config == null) {
+                            toRead.add(attribute);
+                        } else {
+                            replies.put(attributeName, config);
+                        }
+                    }
+                    if (!toRead.isEmpty()) {
+                        final AttributeInfoEx[] subReply = devElement.get_attribute_info_ex(toRead
+                                .toArray(new String[toRead.size()]));
+                        int i = 0;
+                        // order reply per attribute
+                        for (final String attribute : toRead) {
+                            replies.put(deviceName + "/" + attribute, subReply[i++]);
+                        }
                     }
                 } catch (final DevFailed e) {
                     logger.error("error", e);
@@ -366,6 +509,63 @@ public final class AttributeGroup {
         return result;
     }
 
+    /**
+     * Subscribe once to the configuration events of an attribute. Without a working subscription, its configuration
+     * is read at each {@link #getConfig()}.
+     */
+    private void subscribeConfig(final DeviceProxy device, final String attribute, final String attributeName) {
+        if (!configSubscriptions.containsKey(attributeName)) {
+            Integer id = null;
+            try {
+                id = device.subscribe_event(attribute, TangoConst.ATT_CONF_EVENT, new ConfigCallBack(attributeName),
+                        new String[0], true);
+            } catch (final DevFailed e) {
+                logger.debug("no configuration event for {}: {}", attributeName, DevFailedUtils.toString(e));
+            }
+            configSubscriptions.put(attributeName, id);
+        }
+    }
+
+    /**
+     * Unsubscribe from the configuration events. The group can still be used: the next {@link #getConfig()}
+     * subscribes again.
+     */
+    public synchronized void close() {
+        for (final Map.Entry<String, Integer> entry : configSubscriptions.entrySet()) {
+            if (entry.getValue() != null) {
+                try {
+                    getDevice(entry.getKey()).unsubscribe_event(entry.getValue());
+                } catch (final DevFailed e) {
+                    logger.error("failed to unsubscribe from the configuration events of {}: {}", entry.getKey(),
+                            DevFailedUtils.toString(e));
+                }
+            }
+        }
+        configSubscriptions.clear();
+        configCache.clear();
+    }
+
+    /**
+     * Keeps the configuration of an attribute from its events
+     */
+    private final class ConfigCallBack extends CallBack {
+        private static final long serialVersionUID = 1L;
+        private final String attributeName;
+
+        ConfigCallBack(final String attributeName) {
+            this.attributeName = attributeName;
+        }
+
+        @Override
+        public void push_event(final EventData event) {
+            if (event.err || event.attr_config == null) {
+                configCache.remove(attributeName);
+            } else {
+                configCache.put(attributeName, event.attr_config);
+            }
+        }
+    }
+
     public DeviceProxy getDeviceProxy(final String attributeName) {
         return devicesMap.get(attributeName.toLowerCase(Locale.ENGLISH));
     }
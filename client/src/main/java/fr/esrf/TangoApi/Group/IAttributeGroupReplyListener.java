@@ -0,0 +1,29 @@
+package fr.esrf.TangoApi.Group;
+
+import fr.esrf.Tango.DevError;
+import fr.esrf.TangoApi.DeviceAttribute;
+
+/**
+ * Receives the replies of an {@link AttributeGroup} read as they arrive, device by device. Called in the thread
+ * collecting the replies.
+ */
+public interface IAttributeGroupReplyListener {
+
+    /**
+     * The reply of an attribute has arrived
+     *
+     * @param index the index of the attribute in the group
+     * @param attributeName the full attribute name
+     * @param reply the reply
+     */
+    void replyArrived(int index, String attributeName, DeviceAttribute reply);
+
+    /**
+     * The read of an attribute has failed
+     *
+     * @param index the index of the attribute in the group
+     * @param attributeName the full attribute name
+     * @param errors the errors
+     */
+    void replyFailed(int index, String attributeName, DevError[] errors);
+}
@@ -16,6 +16,7 @@ import fr.esrf.Tango.DevError;
 import fr.esrf.Tango.DevFailed;
 import fr.esrf.TangoApi.AttributeInfoEx;
 import fr.esrf.TangoApi.DeviceAttribute;
+import fr.esrf.TangoApi.Group.IAttributeGroupReplyListener;
 import fr.soleil.tango.clientapi.InsertExtractUtils;
 import fr.soleil.tango.clientapi.TangoGroupAttribute;
 
@@ -51,13 +52,28 @@ public class AttributeGroupReader implements Runnable {
     public void valueReader() {
 
         try {
-            DeviceAttribute[] resultGroup = null;
             AttributeInfoEx[] attributeInfoExList = null;
 
-            final String[] attributeNames = attributeGroup.getGroup().getAttributeNames();
+            // get attributes' config first, to extract each value as soon as it arrives
+            if (readAttributeInfo || readWriteValue) {
+                try {
+                    attributeInfoExList = attributeGroup.getConfig();
+                } catch (final DevFailed devFailed) {
+                    DevFailedUtils.logDevFailed(devFailed, logger);
+                    logger.error("error read attribute info", devFailed);
+                    logger.error(DevFailedUtils.toString(devFailed));
+                    attributeGroupListener.catchDevFailed(devFailed);
+                }
+            }
+            // group is configure to not throw exceptions, so retrieve them before reading
+            Map<String, DevError[]> configErrors = null;
+            if (attributeInfoExList != null && !attributeGroup.isThrowExceptions() && attributeGroup.hasFailed()) {
+                configErrors = attributeGroup.getErrors();
+            }
 
+            final ReplyExtractor extractor = new ReplyExtractor(attributeInfoExList);
             try {
-                resultGroup = attributeGroup.read();
+                final DeviceAttribute[] resultGroup = attributeGroup.read(extractor);
                 attributeGroupListener.updateDeviceAttribute(resultGroup);
             } catch (final DevFailed devFailed) {
                 DevFailedUtils.logDevFailed(devFailed, logger);
@@ -66,7 +82,7 @@ public class AttributeGroupReader implements Runnable {
                 attributeGroupListener.catchDevFailed(devFailed);
                 return;
             }
-            boolean hasFailed = false;
+            boolean hasFailed = extractor.hasFailed;
             // group is configure to not throw exceptions, so retrieve them
             if (!attributeGroup.isThrowExceptions() && attributeGroup.hasFailed()) {
                 hasFailed = true;
@@ -81,91 +97,17 @@ public class AttributeGroupReader implements Runnable {
                             + DevFailedUtils.toString(e));
                 }
             }
-
-            // get attributes' config
-            if (readAttributeInfo || readWriteValue) {
-                try {
-                    attributeInfoExList = attributeGroup.getConfig();
-                } catch (final DevFailed devFailed) {
-                    DevFailedUtils.logDevFailed(devFailed, logger);
-                    logger.error("error read attribute info", devFailed);
-                    logger.error(DevFailedUtils.toString(devFailed));
-                    attributeGroupListener.catchDevFailed(devFailed);
-                }
-                // group is configure to not throw exceptions, so retrieve them
-                if (!attributeGroup.isThrowExceptions() && attributeGroup.hasFailed()) {
-                    final Map<String, DevError[]> errors = attributeGroup.getErrors();
-                    for (final Entry<String, DevError[]> entry : errors.entrySet()) {
-                        final String attributeName = entry.getKey();
-                        final DevFailed e = new DevFailed(entry.getValue());
-                        logger.error("error read attribute info", e);
-                        logger.error(DevFailedUtils.toString(e));
-//                        attributeGroupListener.updateErrorMessage(attributeName, DATE_FORMAT.format(new Date()) + " : "
-//                                + DevFailedUtils.toString(e));
-                        attributeGroupListener.updateAttributeInfoErrorMessage(attributeName,
-                                DATE_FORMAT.format(new Date()) + " : " + DevFailedUtils.toString(e));
-                    }
+            if (configErrors != null) {
+                for (final Entry<String, DevError[]> entry : configErrors.entrySet()) {
+                    final String attributeName = entry.getKey();
+                    final DevFailed e = new DevFailed(entry.getValue());
+                    logger.error("error read attribute info", e);
+                    logger.error(DevFailedUtils.toString(e));
+                    attributeGroupListener.updateAttributeInfoErrorMessage(attributeName,
+                            DATE_FORMAT.format(new Date()) + " : " + DevFailedUtils.toString(e));
                 }
             }
 
-            // extract results
-            int i = 0;
-            String attrName = null;
-            for (final DeviceAttribute deviceAttribute : resultGroup) {
-                attrName = attributeNames[i];
-                AttributeInfoEx attributeInfo = null;
-                if (attributeInfoExList != null && i >= 0 && i < attributeInfoExList.length) {
-                    attributeInfo = attributeInfoExList[i];
-                }
-                if (deviceAttribute != null) {
-                    try {
-                        final AttrDataFormat format = deviceAttribute.getDataFormat();
-
-                        final Object tmpReadValue = InsertExtractUtils.extractRead(deviceAttribute, format);
-                        attributeGroupListener.updateReadValue(attrName, tmpReadValue);
-
-                        if (readAttributeInfo) {
-                            if (attributeInfo != null) {
-                                attributeGroupListener.updateAttributeInfoEx(attrName, attributeInfo);
-                            } else {
-                                attributeGroupListener.updateAttributeInfoErrorMessage(attrName,
-                                        DATE_FORMAT.format(new Date()) + " : Can't read attribute info of" + attrName);
-                            }
-                        }
-
-                        if (readQuality) {
-                            attributeGroupListener.updateQuality(attrName, deviceAttribute.getQuality());
-                        }
-
-                        if (readWriteValue) {
-                            try {
-                                if (attributeInfo != null && attributeInfo.writable != AttrWriteType.READ) {
-                                    final Object tmpWriteValue = InsertExtractUtils.extractWrite(deviceAttribute,
-                                            attributeInfo.writable, format);
-                                    attributeGroupListener.updateWriteValue(attrName, tmpWriteValue);
-                                }
-                            } catch (final DevFailed e) {
-                                DevFailedUtils.logDevFailed(e, logger);
-                                logger.error("error extract write value", e);
-                                logger.error(DevFailedUtils.toString(e));
-                                attributeGroupListener.updateWriteValueErrorMessage(attrName,
-                                        DATE_FORMAT.format(new Date()) + " : " + DevFailedUtils.toString(e));
-                            }
-                        }
-
-                    } catch (final DevFailed devFailed) {
-                        DevFailedUtils.logDevFailed(devFailed, logger);
-                        logger.error("error extract group", devFailed);
-                        logger.error(DevFailedUtils.toString(devFailed));
-                        hasFailed = true;
-                        attributeGroupListener.updateQuality(attrName, AttrQuality.ATTR_INVALID);
-                        attributeGroupListener.updateErrorMessage(attrName, DATE_FORMAT.format(new Date()) + " : "
-                                + DevFailedUtils.toString(devFailed));
-                    }
-
-                }
-                i++;
-            }
             if (hasFailed) {
                 attributeGroupListener.catchException(new Exception(DATE_FORMAT.format(new Date())
                         + " : at least, one attribute reading has failed"));
@@ -179,6 +121,78 @@ public class AttributeGroupReader implements Runnable {
 
     }
 
+    /**
+     * Extracts the results of each attribute as soon as its reply arrives
+     */
+    private final class ReplyExtractor implements IAttributeGroupReplyListener {
+        private final AttributeInfoEx[] attributeInfoExList;
+        private boolean hasFailed = false;
+
+        ReplyExtractor(final AttributeInfoEx[] attributeInfoExList) {
+            this.attributeInfoExList = attributeInfoExList;
+        }
+
+        @Override
+        public void replyArrived(final int index, final String attributeName, final DeviceAttribute deviceAttribute) {
+            if (deviceAttribute == null) {
+                return;
+            }
+            AttributeInfoEx attributeInfo = null;
+            if (attributeInfoExList != null && index >= 0 && index < attributeInfoExList.length) {
+                attributeInfo = attributeInfoExList[index];
+            }
+            try {
+                final AttrDataFormat format = deviceAttribute.getDataFormat();
+
+                final Object tmpReadValue = InsertExtractUtils.extractRead(deviceAttribute, format);
+                attributeGroupListener.updateReadValue(attributeName, tmpReadValue);
+
+                if (readAttributeInfo) {
+                    if (attributeInfo != null) {
+                        attributeGroupListener.updateAttributeInfoEx(attributeName, attributeInfo);
+                    } else {
+                        attributeGroupListener.updateAttributeInfoErrorMessage(attributeName,
+                                DATE_FORMAT.format(new Date()) + " : Can't read attribute info of" + attributeName);
+                    }
+                }
+
+                if (readQuality) {
+                    attributeGroupListener.updateQuality(attributeName, deviceAttribute.getQuality());
+                }
+
+                if (readWriteValue) {
+                    try {
+                        if (attributeInfo != null && attributeInfo.writable != AttrWriteType.READ) {
+                            final Object tmpWriteValue = InsertExtractUtils.extractWrite(deviceAttribute,
+                                    attributeInfo.writable, format);
+                            attributeGroupListener.updateWriteValue(attributeName, tmpWriteValue);
+                        }
+                    } catch (final DevFailed e) {
+                        DevFailedUtils.logDevFailed(e, logger);
+                        logger.error("error extract write value", e);
+                        logger.error(DevFailedUtils.toString(e));
+                        attributeGroupListener.updateWriteValueErrorMessage(attributeName,
+                                DATE_FORMAT.format(new Date()) + " : " + DevFailedUtils.toString(e));
+                    }
+                }
+
+            } catch (final DevFailed devFailed) {
+                DevFailedUtils.logDevFailed(devFailed, logger);
+                logger.error("error extract group", devFailed);
+                logger.error(DevFailedUtils.toString(devFailed));
+                hasFailed = true;
+                attributeGroupListener.updateQuality(attributeName, AttrQuality.ATTR_INVALID);
+                attributeGroupListener.updateErrorMessage(attributeName, DATE_FORMAT.format(new Date()) + " : "
+                        + DevFailedUtils.toString(devFailed));
+            }
+        }
+
+        @Override
+        public void replyFailed(final int index, final String attributeName, final DevError[] errors) {
+            // reported with the group errors once all replies are collected
+        }
+    }
+
     boolean isReadWriteValue() {
         return readWriteValue;
     }
@@ -11,6 +11,7 @@ import fr.esrf.Tango.DevFailed;
 import fr.esrf.TangoApi.AttributeInfoEx;
 import fr.esrf.TangoApi.DeviceAttribute;
 import fr.esrf.TangoApi.Group.AttributeGroup;
+import fr.esrf.TangoApi.Group.IAttributeGroupReplyListener;
 import fr.soleil.tango.clientapi.factory.ProxyFactory;
 
 public final class TangoGroupAttribute {
@@ -140,6 +141,17 @@ public final class TangoGroupAttribute {
         return group.read();
     }
 
+    /**
+     * Read all attributes of the group, each reply being notified as soon as it arrives
+     *
+     * @param listener notified of each reply
+     * @return all the replies, in the group order
+     * @throws DevFailed
+     */
+    public DeviceAttribute[] read(final IAttributeGroupReplyListener listener) throws DevFailed {
+        return group.read(listener);
+    }
+
     /**
      * Read attributes and extract their values
      *
@@ -179,6 +191,18 @@ public final class TangoGroupAttribute {
         return group.getReadReplies();
     }
 
+    /**
+     * Get replies of last call to {@link TangoGroupAttribute#readAync()}, each reply being notified as soon as it
+     * arrives
+     *
+     * @param listener notified of each reply
+     * @return all the replies, in the group order
+     * @throws DevFailed
+     */
+    public DeviceAttribute[] getReadAsyncReplies(final IAttributeGroupReplyListener listener) throws DevFailed {
+        return group.getReadReplies(listener);
+    }
+
     /**
      * @return The attributes configuration @see {@link AttributeInfoEx}
      * @throws DevFailed
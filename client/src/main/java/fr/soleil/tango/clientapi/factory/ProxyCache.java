@@ -0,0 +1,221 @@
+package fr.soleil.tango.clientapi.factory;
+
+import fr.esrf.Tango.DevFailed;
+import org.tango.utils.DevFailedUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of proxies keeping the last used ones. A proxy is created only once, by the first thread asking for it: the
+ * threads asking for the same proxy wait for its creation, the other ones are not blocked. A failed creation is kept,
+ * and its error is thrown without retrying until a delay, doubled at each new failure, has expired.
+ *
+ * @param <V> the proxy type
+ */
+final class ProxyCache<V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long minRetryDelay;
+    private final long maxRetryDelay;
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<String, Entry<V>>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong failedHitCount = new AtomicLong();
+    private final AtomicLong creationTime = new AtomicLong();
+    private final AtomicLong maxCreationTime = new AtomicLong();
+
+    /**
+     * @param name the name of the cache, for statistics
+     * @param maxEntries the maximum number of proxies
+     * @param minRetryDelay the delay before retrying a failed creation, in milliseconds
+     * @param maxRetryDelay the maximum delay before retrying a creation that has failed several times, in milliseconds
+     */
+    ProxyCache(final String name, final int maxEntries, final long minRetryDelay, final long maxRetryDelay) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.minRetryDelay = minRetryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * Get a proxy, creating it if necessary
+     *
+     * @param key the proxy key
+     * @param creator creates the proxy, called in the current thread
+     * @return the proxy
+     * @throws DevFailed if the creation has failed, now or lately
+     */
+    V get(final String key, final Callable<V> creator) throws DevFailed {
+        while (true) {
+            final Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                final Entry<V> newEntry = new Entry<V>(creator, 0);
+                if (entries.putIfAbsent(key, newEntry) == null) {
+                    create(newEntry);
+                    evict();
+                    return newEntry.get();
+                }
+            } else if (entry.isRetryable()) {
+                // the last creation has failed, retry it
+                final Entry<V> newEntry = new Entry<V>(creator, entry.failures);
+                if (entries.replace(key, entry, newEntry)) {
+                    create(newEntry);
+                    return newEntry.get();
+                }
+            } else {
+                entry.lastAccess = System.nanoTime();
+                if (entry.retryTime == 0) {
+                    hitCount.incrementAndGet();
+                } else {
+                    failedHitCount.incrementAndGet();
+                }
+                // wait if the proxy is being created
+                return entry.get();
+            }
+        }
+    }
+
+    /**
+     * @return the created proxies
+     */
+    List<V> getValues() {
+        final List<V> values = new ArrayList<V>();
+        for (final Entry<V> entry : entries.values()) {
+            if (entry.task.isDone() && entry.retryTime == 0) {
+                try {
+                    values.add(entry.get());
+                } catch (final DevFailed e) {
+                    // failed meanwhile
+                }
+            }
+        }
+        return values;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return the number of requests for a proxy which creation has failed lately, answered without retrying
+     */
+    long getFailedHitCount() {
+        return failedHitCount.get();
+    }
+
+    @Override
+    public String toString() {
+        final long misses = missCount.get();
+        final StringBuilder sb = new StringBuilder(name).append(": ").append(entries.size()).append(" proxies, ")
+                .append(hitCount.get()).append(" hits, ").append(misses).append(" misses, ")
+                .append(failureCount.get()).append(" failed creations, ").append(failedHitCount.get())
+                .append(" requests of failed proxies");
+        if (misses > 0) {
+            sb.append(", average creation time = ").append(TimeUnit.NANOSECONDS.toMillis(creationTime.get() / misses))
+                    .append(" ms, max = ").append(TimeUnit.NANOSECONDS.toMillis(maxCreationTime.get())).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private void create(final Entry<V> entry) {
+        missCount.incrementAndGet();
+        final long start = System.nanoTime();
+        entry.task.run();
+        final long duration = System.nanoTime() - start;
+        creationTime.addAndGet(duration);
+        long max = maxCreationTime.get();
+        while (duration > max && !maxCreationTime.compareAndSet(max, duration)) {
+            max = maxCreationTime.get();
+        }
+        try {
+            entry.task.get();
+        } catch (final ExecutionException e) {
+            failureCount.incrementAndGet();
+            entry.failures++;
+            final long delay = minRetryDelay << Math.min(entry.failures - 1, 20);
+            entry.retryTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(delay, maxRetryDelay));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Remove the least recently used proxies
+     */
+    private void evict() {
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry<V>> eldest = null;
+            for (final Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+                if (eldest == null || entry.getValue().lastAccess - eldest.getValue().lastAccess < 0) {
+                    eldest = entry;
+                }
+            }
+            if (eldest != null) {
+                entries.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final FutureTask<V> task;
+        private volatile long lastAccess = System.nanoTime();
+        // set when the creation has failed
+        private volatile long retryTime;
+        // number of consecutive failed creations, written before retryTime
+        private int failures;
+
+        Entry(final Callable<V> creator, final int failures) {
+            task = new FutureTask<V>(creator);
+            this.failures = failures;
+        }
+
+        boolean isRetryable() {
+            final long time = retryTime;
+            return time != 0 && System.nanoTime() - time >= 0;
+        }
+
+        V get() throws DevFailed {
+            try {
+                return task.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw DevFailedUtils.newDevFailed(e);
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof DevFailed) {
+                    throw (DevFailed) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw DevFailedUtils.newDevFailed(cause);
+            }
+        }
+    }
+}
@@ -6,32 +6,39 @@ import fr.esrf.TangoApi.DeviceProxy;
 import fr.esrf.TangoApi.DeviceProxyFactory;
 import fr.esrf.TangoApi.Group.AttributeGroup;
 import fr.esrf.TangoApi.Group.Group;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tango.utils.TangoUtil;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.Callable;
 
+/**
+ * Creates and keeps the proxies of the client API. Proxies are created out of any global lock: a device that does not
+ * answer only blocks the threads asking for it. A failed creation is retried only after a delay, starting at
+ * {@value #MIN_RETRY_DELAY} ms and doubled at each new failure up to {@value #MAX_RETRY_DELAY} ms.
+ */
 public final class ProxyFactory {
-    private static final float LOAD = .75F;
     private static final int DEFAULT_TMOUT = 3000;
-    // private static final Logger logger =
-    // Logger.getLogger(ProxyFactory.class);
+    private static final Logger logger = LoggerFactory.getLogger(ProxyFactory.class);
     private static final int MAX_ENTRIES = 100;
+    private static final long MIN_RETRY_DELAY = 1000;
+    private static final long MAX_RETRY_DELAY = 30000;
     private static final ProxyFactory instance = new ProxyFactory();
-    private final Map<String, DeviceProxy> devicesMap;
-    private final Map<String, AttributeProxy> attributesMap;
-    private final Map<String, Group> groupMap;
-    private final Map<String, AttributeGroup> attributeGroupMap;
-    private int timeout = DEFAULT_TMOUT;
+    private final ProxyCache<DeviceProxy> devicesMap;
+    private final ProxyCache<AttributeProxy> attributesMap;
+    private final ProxyCache<Group> groupMap;
+    private final ProxyCache<AttributeGroup> attributeGroupMap;
+    private volatile int timeout = DEFAULT_TMOUT;
 
     private ProxyFactory() {
-        // create cache map with a fix capacity. least-recently accessed entries
+        // create caches with a fix capacity. least-recently accessed entries
         // will be removed
-        devicesMap = new LRUMap<String, DeviceProxy>(MAX_ENTRIES + 1, LOAD, true);
-        attributesMap = new LRUMap<String, AttributeProxy>(MAX_ENTRIES + 1, .75F, true);
-        attributeGroupMap = new LRUMap<String, AttributeGroup>(MAX_ENTRIES + 1, .75F, true);
-        groupMap = new LRUMap<String, Group>(MAX_ENTRIES + 1, .75F, true);
+        devicesMap = new ProxyCache<DeviceProxy>("devices", MAX_ENTRIES, MIN_RETRY_DELAY, MAX_RETRY_DELAY);
+        attributesMap = new ProxyCache<AttributeProxy>("attributes", MAX_ENTRIES, MIN_RETRY_DELAY, MAX_RETRY_DELAY);
+        attributeGroupMap = new ProxyCache<AttributeGroup>("attribute groups", MAX_ENTRIES, MIN_RETRY_DELAY,
+                MAX_RETRY_DELAY);
+        groupMap = new ProxyCache<Group>("groups", MAX_ENTRIES, MIN_RETRY_DELAY, MAX_RETRY_DELAY);
     }
 
     /**
@@ -50,21 +57,18 @@ public final class ProxyFactory {
      * @throws DevFailed
      */
     public DeviceProxy createDeviceProxy(final String deviceName) throws DevFailed {
-        DeviceProxy dev;
         final String fullDeviceName = TangoUtil.getfullNameForDevice(deviceName);
-        synchronized (devicesMap) {
-            if (!devicesMap.containsKey(fullDeviceName)) {
-                dev = DeviceProxyFactory.get(fullDeviceName);
+        return devicesMap.get(fullDeviceName, new Callable<DeviceProxy>() {
+            @Override
+            public DeviceProxy call() throws DevFailed {
+                final DeviceProxy dev = DeviceProxyFactory.get(fullDeviceName);
                 try {
                     dev.set_timeout_millis(timeout);
                 } catch (final DevFailed e) {
                 }
-                devicesMap.put(fullDeviceName, dev);
-            } else {
-                dev = devicesMap.get(fullDeviceName);
+                return dev;
             }
-        }
-        return dev;
+        });
     }
 
     /**
@@ -74,18 +78,15 @@ public final class ProxyFactory {
      * @throws DevFailed
      */
     public AttributeProxy createAttributeProxy(final String attrName) throws DevFailed {
-        AttributeProxy attr;
         final String fullAttrName = TangoUtil.getfullAttributeNameForAttribute(attrName);
-        synchronized (attributesMap) {
-            if (!attributesMap.containsKey(fullAttrName)) {
-                attr = new AttributeProxy(fullAttrName);
+        return attributesMap.get(fullAttrName, new Callable<AttributeProxy>() {
+            @Override
+            public AttributeProxy call() throws DevFailed {
+                final AttributeProxy attr = new AttributeProxy(fullAttrName);
                 attr.set_timeout_millis(timeout);
-                attributesMap.put(fullAttrName, attr);
-            } else {
-                attr = attributesMap.get(fullAttrName);
+                return attr;
             }
-        }
-        return attr;
+        });
     }
 
     /**
@@ -96,35 +97,29 @@ public final class ProxyFactory {
      * @throws DevFailed
      */
     public Group createGroup(final String groupName, final String... deviceNames) throws DevFailed {
-        Group grp;
         final String key = Arrays.toString(deviceNames);
-        synchronized (groupMap) {
-            if (!groupMap.containsKey(key)) {
-                grp = new Group(groupName);
+        return groupMap.get(key, new Callable<Group>() {
+            @Override
+            public Group call() throws DevFailed {
+                final Group grp = new Group(groupName);
                 grp.set_timeout_millis(timeout, true);
                 grp.add(deviceNames);
-                groupMap.put(key, grp);
-            } else {
-                grp = groupMap.get(key);
+                return grp;
             }
-        }
-        return grp;
+        });
     }
 
     public AttributeGroup createAttributeGroup(final boolean throwExceptions, final String... attributeNames)
             throws DevFailed {
-        AttributeGroup grp;
         final String key = Arrays.toString(attributeNames);
-        synchronized (attributeGroupMap) {
-            if (!attributeGroupMap.containsKey(key)) {
-                grp = new AttributeGroup(throwExceptions, attributeNames);
+        return attributeGroupMap.get(key, new Callable<AttributeGroup>() {
+            @Override
+            public AttributeGroup call() throws DevFailed {
+                final AttributeGroup grp = new AttributeGroup(throwExceptions, attributeNames);
                 grp.setTimeout(timeout);
-                attributeGroupMap.put(key, grp);
-            } else {
-                grp = attributeGroupMap.get(key);
+                return grp;
             }
-        }
-        return grp;
+        });
     }
 
     /**
@@ -134,26 +129,18 @@ public final class ProxyFactory {
      */
     public void setTimout(final int timeout) throws DevFailed {
         this.timeout = timeout;
-        synchronized (devicesMap) {
-            for (final DeviceProxy dev : devicesMap.values()) {
-                dev.set_timeout_millis(timeout);
-            }
+        for (final DeviceProxy dev : devicesMap.getValues()) {
+            dev.set_timeout_millis(timeout);
         }
-        synchronized (attributesMap) {
-            for (final AttributeProxy attr : attributesMap.values()) {
-                attr.getDeviceProxy().set_timeout_millis(timeout);
-                attr.set_timeout_millis(timeout);
-            }
+        for (final AttributeProxy attr : attributesMap.getValues()) {
+            attr.getDeviceProxy().set_timeout_millis(timeout);
+            attr.set_timeout_millis(timeout);
         }
-        synchronized (groupMap) {
-            for (final Group group : groupMap.values()) {
-                group.set_timeout_millis(timeout, true);
-            }
+        for (final Group group : groupMap.getValues()) {
+            group.set_timeout_millis(timeout, true);
         }
-        synchronized (attributeGroupMap) {
-            for (final AttributeGroup group : attributeGroupMap.values()) {
-                group.setTimeout(timeout);
-            }
+        for (final AttributeGroup group : attributeGroupMap.getValues()) {
+            group.setTimeout(timeout);
         }
     }
 
@@ -162,24 +149,20 @@ public final class ProxyFactory {
     }
 
     public void clearAllMap() {
+        logger.debug("clear proxies, {}", Arrays.toString(getStatistics()));
         devicesMap.clear();
         attributesMap.clear();
         attributeGroupMap.clear();
         groupMap.clear();
     }
 
-    private static class LRUMap<K, V> extends LinkedHashMap<K, V> {
-
-        private static final long serialVersionUID = -6898381007090501228L;
-
-        public LRUMap(final int initialCapacity, final float loadFactor, final boolean accessOrder) {
-            super(initialCapacity, loadFactor, accessOrder);
-        }
-
-        @Override
-        public boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
-            return size() > MAX_ENTRIES;
-        }
+    /**
+     * @return for devices, attributes, groups and attribute groups: the number of proxies, of cache hits and misses,
+     *         of failed creations, of requests answered with a previous failure, and the creation times
+     */
+    public String[] getStatistics() {
+        return new String[] { devicesMap.toString(), attributesMap.toString(), groupMap.toString(),
+                attributeGroupMap.toString() };
     }
 
 }
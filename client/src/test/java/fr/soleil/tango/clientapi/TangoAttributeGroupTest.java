@@ -1,14 +1,19 @@
 package fr.soleil.tango.clientapi;
 
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
 import java.lang.reflect.Array;
 
 import org.junit.Ignore;
 import org.junit.Test;
 import org.tango.utils.DevFailedUtils;
 
+import fr.esrf.Tango.DevError;
 import fr.esrf.Tango.DevFailed;
 import fr.esrf.TangoApi.AttributeInfoEx;
 import fr.esrf.TangoApi.DeviceAttribute;
+import fr.esrf.TangoApi.Group.IAttributeGroupReplyListener;
 
 @Ignore
 public class TangoAttributeGroupTest {
@@ -78,4 +83,62 @@ public class TangoAttributeGroupTest {
 	}
     }
 
+    @Test
+    public void testReadListener() throws DevFailed {
+	try {
+	    final TangoGroupAttribute group = new TangoGroupAttribute(false, "tango/tangotest/1/short_spectrum",
+		    "tango/tangotest/2/short_spectrum", "tango/tangotest/1/double_spectrum");
+	    final int[] arrived = new int[3];
+	    final int[] failed = new int[3];
+	    // replies are notified as they arrive
+	    final DeviceAttribute[] result = group.read(new IAttributeGroupReplyListener() {
+		@Override
+		public void replyArrived(final int index, final String attributeName, final DeviceAttribute reply) {
+		    arrived[index]++;
+		}
+
+		@Override
+		public void replyFailed(final int index, final String attributeName, final DevError[] errors) {
+		    assertThat(errors.length > 0, equalTo(true));
+		    failed[index]++;
+		}
+	    });
+	    for (int i = 0; i < result.length; i++) {
+		// each attribute is notified once, as a reply or as a failure
+		assertThat(arrived[i] + failed[i], equalTo(1));
+		assertThat(failed[i] == 1, equalTo(result[i] == null));
+	    }
+	} catch (final DevFailed e) {
+	    DevFailedUtils.printDevFailed(e);
+	    throw e;
+	}
+    }
+
+    @Test
+    public void testReadListenerSameAttributeTwice() throws DevFailed {
+	try {
+	    final TangoGroupAttribute group = new TangoGroupAttribute(false, "tango/tangotest/1/short_spectrum",
+		    "tango/tangotest/1/double_spectrum", "tango/tangotest/1/short_spectrum");
+	    final int[] notified = new int[3];
+	    group.read(new IAttributeGroupReplyListener() {
+		@Override
+		public void replyArrived(final int index, final String attributeName, final DeviceAttribute reply) {
+		    notified[index]++;
+		}
+
+		@Override
+		public void replyFailed(final int index, final String attributeName, final DevError[] errors) {
+		    notified[index]++;
+		}
+	    });
+	    // each index is notified once, even for the attribute that is twice in the group
+	    assertThat(notified[0], equalTo(1));
+	    assertThat(notified[1], equalTo(1));
+	    assertThat(notified[2], equalTo(1));
+	} catch (final DevFailed e) {
+	    DevFailedUtils.printDevFailed(e);
+	    throw e;
+	}
+    }
+
 }
@@ -0,0 +1,126 @@
+package fr.soleil.tango.clientapi.factory;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+
+public class ProxyCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void singleCreationPerKey() throws Exception {
+        final ProxyCache<String> cache = new ProxyCache<String>("test", 10, 1000, 1000);
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger creations = new AtomicInteger();
+        final Callable<String> slowCreator = new Callable<String>() {
+            @Override
+            public String call() throws InterruptedException {
+                creations.incrementAndGet();
+                creating.countDown();
+                release.await();
+                return "slow";
+            }
+        };
+        final Callable<String> get = new Callable<String>() {
+            @Override
+            public String call() throws DevFailed {
+                return cache.get("slow", slowCreator);
+            }
+        };
+        final Future<String> first = executor.submit(get);
+        creating.await();
+        final Future<String> second = executor.submit(get);
+        // another proxy is not blocked by the one being created
+        assertThat(cache.get("fast", new Callable<String>() {
+            @Override
+            public String call() {
+                return "fast";
+            }
+        }), equalTo("fast"));
+        release.countDown();
+        assertThat(first.get(), equalTo("slow"));
+        assertThat(second.get(), equalTo("slow"));
+        assertThat(creations.get(), equalTo(1));
+        assertThat(cache.getMissCount(), equalTo(2L));
+        assertThat(cache.getHitCount(), equalTo(1L));
+    }
+
+    @Test
+    public void failedCreationRetriedAfterDelay() throws Exception {
+        final ProxyCache<String> cache = new ProxyCache<String>("test", 10, 50, 1000);
+        final AtomicInteger creations = new AtomicInteger();
+        final Callable<String> failing = new Callable<String>() {
+            @Override
+            public String call() throws DevFailed {
+                creations.incrementAndGet();
+                throw DevFailedUtils.newDevFailed("API_CantConnectToDevice", "not running");
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            try {
+                cache.get("dead", failing);
+                fail("creation must fail");
+            } catch (final DevFailed e) {
+                assertThat(e.errors[0].reason, equalTo("API_CantConnectToDevice"));
+            }
+        }
+        // not retried before the delay
+        assertThat(creations.get(), equalTo(1));
+        assertThat(cache.getFailedHitCount(), equalTo(2L));
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(cache.get("dead", new Callable<String>() {
+            @Override
+            public String call() {
+                return "alive";
+            }
+        }), equalTo("alive"));
+        assertThat(cache.getFailureCount(), equalTo(1L));
+    }
+
+    @Test
+    public void leastRecentlyUsedEvicted() throws DevFailed {
+        final ProxyCache<String> cache = new ProxyCache<String>("test", 2, 1000, 1000);
+        cache.get("a", new Constant("a"));
+        cache.get("b", new Constant("b"));
+        cache.get("a", new Constant("a2"));
+        cache.get("c", new Constant("c"));
+        assertThat(cache.size(), equalTo(2));
+        // a is kept, b has been removed
+        assertThat(cache.get("a", new Constant("a3")), equalTo("a"));
+        assertThat(cache.get("b", new Constant("b2")), equalTo("b2"));
+    }
+
+    private static final class Constant implements Callable<String> {
+        private final String value;
+
+        Constant(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String call() {
+            return value;
+        }
+    }
+}
@@ -96,4 +96,18 @@ public class CallBack implements java.io.Serializable {
     //===============================================================
     public void push_event(EventData evt) {
     }
+
+    //===============================================================
+    /**
+     * Returns the executor used to call push_event() for the events received on ZMQ.
+     * The events of a subscription are always pushed one after the other, in their reception order.
+     *
+     * @return the executor, or null to use the threads shared by all callbacks.
+     *          Overload it to return an executor running the task in the calling thread
+     *          to push the events in the ZMQ reception thread (old behaviour).
+     */
+    //===============================================================
+    public java.util.concurrent.Executor getEventExecutor() {
+        return null;
+    }
 }
@@ -8,6 +8,7 @@ import org.tango.client.database.cache.ICachableDatabase;
 import org.tango.client.database.cache.NoCacheDatabase;
 import org.tango.utils.DevFailedUtils;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +21,7 @@ public final class Database implements ITangoDB {
     private final Logger logger = LoggerFactory.getLogger(Database.class);
     private final fr.esrf.TangoApi.Database database;
     private ICachableDatabase cache;
+    private final NoCacheDatabase noCache;
 
     /**
      * Ctr
@@ -32,7 +34,7 @@ public final class Database implements ITangoDB {
      */
     Database(final String host, final String port) throws DevFailed {
         database = new fr.esrf.TangoApi.Database(host, port);
-        final NoCacheDatabase noCache = new NoCacheDatabase(host, port);
+        noCache = new NoCacheDatabase(host, port);
         try {
             final DatabaseCache tmp = new DatabaseCache(database, noCache);
             if (tmp.isCacheAvailable()) {
@@ -64,6 +66,20 @@ public final class Database implements ITangoDB {
         cache.exportDevice(info);
     }
 
+    /**
+     * Export several tango devices into the tango db, without waiting for each DbExportDevice reply before sending the
+     * next request. Not part of {@link ITangoDB}, so that other implementations are not broken.
+     * 
+     * @param infos
+     *            export infos {@link DeviceExportInfo}
+     * @throws DevFailed
+     *             the first error, once all devices have been exported
+     */
+    public void exportDevices(final List<DeviceExportInfo> infos) throws DevFailed {
+        // the cache exports through the device too
+        noCache.exportDevices(infos);
+    }
+
     /**
      * Get the list of instance for an executable.(execute DbGetInstanceNameList on DB device)
      * 
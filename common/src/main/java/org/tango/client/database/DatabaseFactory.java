@@ -21,6 +21,10 @@ public final class DatabaseFactory {
      */
     private static Map<String, ITangoDB> databaseMap = new HashMap<String, ITangoDB>();
     private static ITangoDB fileDatabase;
+    /**
+     * tango db used for all tango hosts, see {@link #setDatabase(ITangoDB)}
+     */
+    private static ITangoDB customDatabase;
     private static boolean useDb = true;
 
     private DatabaseFactory() {
@@ -37,7 +41,9 @@ public final class DatabaseFactory {
      */
     public static synchronized ITangoDB getDatabase(final String host, final String port) throws DevFailed {
         final ITangoDB dbase;
-        if (useDb) {
+        if (useDb && customDatabase != null) {
+            dbase = customDatabase;
+        } else if (useDb) {
             final String tangoHost = host + ":" + port;
             // Search if database object already created for this host and port
             if (databaseMap.containsKey(tangoHost)) {
@@ -60,7 +66,9 @@ public final class DatabaseFactory {
      */
     public static synchronized ITangoDB getDatabase() throws DevFailed {
         ITangoDB tangoDb = null;
-        if (useDb) {
+        if (useDb && customDatabase != null) {
+            tangoDb = customDatabase;
+        } else if (useDb) {
             final String tangoHost = TangoHostManager.getFirstTangoHost();
             // Search if database object already created for this host and port
             if (databaseMap.containsKey(tangoHost)) {
@@ -108,6 +116,7 @@ public final class DatabaseFactory {
      */
     public static void setDbFile(final File dbFile, final String[] devices, final String className) throws DevFailed {
         DatabaseFactory.useDb = false;
+        DatabaseFactory.customDatabase = null;
         DatabaseFactory.fileDatabase = new FileTangoDB(dbFile, Arrays.copyOf(devices, devices.length), className);
     }
 
@@ -119,6 +128,18 @@ public final class DatabaseFactory {
      */
     public static void setNoDbDevices(final String[] devices, final String className) {
         DatabaseFactory.useDb = false;
+        DatabaseFactory.customDatabase = null;
         DatabaseFactory.fileDatabase = new FileTangoDB(Arrays.copyOf(devices, devices.length), className);
     }
+
+    /**
+     * Use a tango db implementation for all tango hosts, e.g. an in-process stand-in for tests. Unlike
+     * {@link #setNoDbDevices(String[], String)}, the devices are then exported to it like to a real tango db.
+     *
+     * @param database
+     */
+    static synchronized void setDatabase(final ITangoDB database) {
+        DatabaseFactory.useDb = true;
+        DatabaseFactory.customDatabase = database;
+    }
 }
@@ -4,7 +4,10 @@ import fr.esrf.Tango.DevFailed;
 import fr.esrf.Tango.DevVarLongStringArray;
 import fr.esrf.TangoApi.DbDatum;
 import fr.esrf.TangoApi.DeviceData;
+import fr.esrf.TangoApi.DeviceProxy;
 import org.apache.commons.lang3.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tango.TangoHostManager;
 import org.tango.client.database.DeviceExportInfo;
 import org.tango.client.database.DeviceImportInfo;
@@ -14,7 +17,15 @@ import java.util.*;
 
 public final class NoCacheDatabase implements ICachableDatabase {
 
+    private final Logger logger = LoggerFactory.getLogger(NoCacheDatabase.class);
     private final fr.esrf.TangoApi.Database database;
+    private final String host;
+    private final String port;
+    /**
+     * Proxy on the database device, to send asynchronous requests
+     */
+    private DeviceProxy asynchProxy;
+    private boolean asynchProxyFailed;
 
     /**
      * Ctr
@@ -26,11 +37,29 @@ public final class NoCacheDatabase implements ICachableDatabase {
      * @throws DevFailed
      */
     public NoCacheDatabase(final String host, final String port) throws DevFailed {
+        this.host = host;
+        this.port = port;
         database = new fr.esrf.TangoApi.Database(host, port);
         // force check access control
         database.isCommandAllowed("database", "DbImportDevice");
     }
 
+    /**
+     * Ctr with existing connections, for tests
+     *
+     * @param database
+     *            the tango db
+     * @param asynchProxy
+     *            the proxy to send asynchronous requests, null to export the devices one by one
+     */
+    NoCacheDatabase(final fr.esrf.TangoApi.Database database, final DeviceProxy asynchProxy) {
+        host = null;
+        port = null;
+        this.database = database;
+        this.asynchProxy = asynchProxy;
+        asynchProxyFailed = asynchProxy == null;
+    }
+
     /**
      * Export a tango device into the tango db (execute DbExportDevice on DB
      * device)
@@ -47,6 +76,63 @@ public final class NoCacheDatabase implements ICachableDatabase {
         database.command_inout("DbExportDevice", argin);
     }
 
+    /**
+     * Export tango devices into the tango db. All DbExportDevice requests are sent asynchronously before reading their
+     * replies, so that their round trips overlap.
+     *
+     * @param infos
+     *            export infos {@link DeviceExportInfo}
+     * @throws DevFailed
+     *             the first error, once all replies have been received
+     */
+    public void exportDevices(final List<DeviceExportInfo> infos) throws DevFailed {
+        final DeviceProxy proxy = getAsynchProxy();
+        if (proxy == null) {
+            for (final DeviceExportInfo info : infos) {
+                exportDevice(info);
+            }
+            return;
+        }
+        DevFailed error = null;
+        final List<Integer> ids = new ArrayList<Integer>(infos.size());
+        try {
+            for (final DeviceExportInfo info : infos) {
+                final DeviceData argin = new DeviceData();
+                argin.insert(info.toStringArray());
+                ids.add(proxy.command_inout_asynch("DbExportDevice", argin));
+            }
+        } catch (final DevFailed e) {
+            error = e;
+        }
+        // wait for the requests that have been sent, even if a sending has failed
+        final int timeout = proxy.get_timeout_millis();
+        for (final int id : ids) {
+            try {
+                proxy.command_inout_reply(id, timeout);
+            } catch (final DevFailed e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private synchronized DeviceProxy getAsynchProxy() {
+        if (asynchProxy == null && !asynchProxyFailed) {
+            try {
+                asynchProxy = new DeviceProxy("tango://" + host + ":" + port + "/" + database.get_name());
+            } catch (final DevFailed e) {
+                // export devices one by one
+                asynchProxyFailed = true;
+                logger.warn("cannot send asynchronous requests to the database: {}", e.errors[0].desc);
+            }
+        }
+        return asynchProxy;
+    }
+
     /**
      * Get the list of instance for an executable.(execute DbGetInstanceNameList
      * on DB device)
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.client.database.cache;
+
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.tango.client.database.DeviceExportInfo;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.TangoApi.Database;
+import fr.esrf.TangoApi.DeviceData;
+import fr.esrf.TangoApi.DeviceProxy;
+
+public class NoCacheDatabaseTest {
+
+    private static final String EXPORT = "DbExportDevice";
+    private static final int TIMEOUT = 3000;
+
+    private final List<DeviceExportInfo> infos = Arrays.asList(newInfo(1), newInfo(2), newInfo(3));
+
+    @Test
+    public void allRequestsAreSentBeforeReadingReplies() throws DevFailed {
+        final DeviceProxy proxy = newProxy();
+        when(proxy.command_inout_asynch(eq(EXPORT), any(DeviceData.class))).thenReturn(1, 2, 3);
+        new NoCacheDatabase(mock(Database.class), proxy).exportDevices(infos);
+        verify(proxy, times(3)).command_inout_asynch(eq(EXPORT), any(DeviceData.class));
+        verify(proxy).command_inout_reply(1, TIMEOUT);
+        verify(proxy).command_inout_reply(2, TIMEOUT);
+        verify(proxy).command_inout_reply(3, TIMEOUT);
+    }
+
+    @Test
+    public void firstErrorIsThrownOnceAllRepliesAreRead() throws DevFailed {
+        final DeviceProxy proxy = newProxy();
+        when(proxy.command_inout_asynch(eq(EXPORT), any(DeviceData.class))).thenReturn(1, 2, 3);
+        final DevFailed first = DevFailedUtils.newDevFailed("first");
+        when(proxy.command_inout_reply(2, TIMEOUT)).thenThrow(first);
+        when(proxy.command_inout_reply(3, TIMEOUT)).thenThrow(DevFailedUtils.newDevFailed("second"));
+        try {
+            new NoCacheDatabase(mock(Database.class), proxy).exportDevices(infos);
+            fail("export error not thrown");
+        } catch (final DevFailed e) {
+            assertThat(e, sameInstance(first));
+        }
+        verify(proxy).command_inout_reply(1, TIMEOUT);
+        verify(proxy).command_inout_reply(3, TIMEOUT);
+    }
+
+    @Test
+    public void sentRequestsAreReadAfterASendError() throws DevFailed {
+        final DeviceProxy proxy = newProxy();
+        final DevFailed sendError = DevFailedUtils.newDevFailed("send");
+        when(proxy.command_inout_asynch(eq(EXPORT), any(DeviceData.class))).thenReturn(1).thenThrow(sendError);
+        when(proxy.command_inout_reply(1, TIMEOUT)).thenThrow(DevFailedUtils.newDevFailed("reply"));
+        try {
+            new NoCacheDatabase(mock(Database.class), proxy).exportDevices(infos);
+            fail("send error not thrown");
+        } catch (final DevFailed e) {
+            assertThat(e, sameInstance(sendError));
+        }
+        // the third request is not sent
+        verify(proxy, times(2)).command_inout_asynch(eq(EXPORT), any(DeviceData.class));
+        verify(proxy, times(1)).command_inout_reply(anyInt(), anyInt());
+    }
+
+    @Test
+    public void oneByOneWithoutAsynchProxy() throws DevFailed {
+        final Database database = mock(Database.class);
+        new NoCacheDatabase(database, null).exportDevices(infos);
+        verify(database, times(3)).command_inout(eq(EXPORT), any(DeviceData.class));
+    }
+
+    @Test
+    public void oneByOneStopsAtFirstError() throws DevFailed {
+        final Database database = mock(Database.class);
+        final DevFailed error = DevFailedUtils.newDevFailed("export");
+        when(database.command_inout(eq(EXPORT), any(DeviceData.class))).thenReturn(null).thenThrow(error);
+        try {
+            new NoCacheDatabase(database, null).exportDevices(infos);
+            fail("export error not thrown");
+        } catch (final DevFailed e) {
+            assertThat(e, sameInstance(error));
+        }
+        verify(database, times(2)).command_inout(eq(EXPORT), any(DeviceData.class));
+    }
+
+    private static DeviceProxy newProxy() throws DevFailed {
+        final DeviceProxy proxy = mock(DeviceProxy.class);
+        when(proxy.get_timeout_millis()).thenReturn(TIMEOUT);
+        return proxy;
+    }
+
+    private static DeviceExportInfo newInfo(final int i) {
+        return new DeviceExportInfo("test/export/" + i, "IOR:" + i, "localhost", "5", "1", "ExportDevice");
+    }
+}
@@ -0,0 +1,223 @@
+//+======================================================================
+// $Source$
+//
+// Project:   Tango
+//
+// Description:  java source code for the TANGO client/server API.
+//
+// $Author: pascal_verdier $
+//
+// Copyright (C) :      2004,2005,2006,2007,2008,2009,2010,2011,2012,2013,2014,
+//						European Synchrotron Radiation Facility
+//                      BP 220, Grenoble 38043
+//                      FRANCE
+//
+// This file is part of Tango.
+//
+// Tango is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+// 
+// Tango is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+// 
+// You should have received a copy of the GNU Lesser General Public License
+// along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+//
+// $Revision:  $
+//
+//-======================================================================
+
+
+package fr.esrf.TangoApi.events;
+
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.ErrSeverity;
+import fr.esrf.TangoApi.CallBack;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ *	This class dispatches the events received by ZmqMainThread to the callbacks,
+ *	in order that the socket reading never waits for user code.
+ *	<br>
+ *	The events of a subscription are pushed one after the other, in their reception order,
+ *	by the executor returned by CallBack.getEventExecutor(),
+ *	or by a pool of threads shared by all callbacks if it returns null.
+ *	The size of this pool is set by the TANGO_EVENT_DISPATCH_THREADS environment
+ *	variable or system property (4 by default).
+ *	<br>
+ *	When a callback is too slow, at most TANGO_EVENT_DISPATCH_QUEUE events
+ *	(10000 by default) are kept for its subscription, the next ones are lost and
+ *	an Api_MissedEvents error is pushed before the following event.
+ */
+
+//===============================================================
+//===============================================================
+public class CallBackDispatcher {
+    private static final int DefaultThreads = 4;
+    private static final int DefaultQueueSize = 10000;
+    private static final int queueSize = getConfiguration("TANGO_EVENT_DISPATCH_QUEUE", DefaultQueueSize);
+    private static final AtomicInteger backlog = new AtomicInteger();
+    private static final AtomicLong droppedNr = new AtomicLong();
+    private static final ThreadPoolExecutor sharedPool;
+    static {
+        int nbThreads = getConfiguration("TANGO_EVENT_DISPATCH_THREADS", DefaultThreads);
+        sharedPool = new ThreadPoolExecutor(nbThreads, nbThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CallBackDispatcher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sharedPool.allowCoreThreadTimeOut(true);
+    }
+    //===============================================================
+    //===============================================================
+    private CallBackDispatcher() {
+    }
+    //===============================================================
+    //===============================================================
+    private static int getConfiguration(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value==null)
+            value = System.getProperty(name);
+        if (value!=null) {
+            try {
+                int i = Integer.parseInt(value.trim());
+                if (i>0)
+                    return i;
+            } catch (NumberFormatException e) {
+                System.err.println(name + " value " + e);
+            }
+        }
+        return defaultValue;
+    }
+    //===============================================================
+    /**
+     * @return the number of events waiting to be pushed to the callbacks
+     */
+    //===============================================================
+    public static int getBacklog() {
+        return backlog.get();
+    }
+    //===============================================================
+    /**
+     * @return the number of events lost because a callback was too slow
+     */
+    //===============================================================
+    public static long getDroppedNr() {
+        return droppedNr.get();
+    }
+    //===============================================================
+    /**
+     * @return the number of shared threads which are pushing events
+     */
+    //===============================================================
+    public static int getActiveThreadNr() {
+        return sharedPool.getActiveCount();
+    }
+    //===============================================================
+    /**
+     *	The events of a subscription, waiting to be pushed
+     */
+    //===============================================================
+    static class SubscriptionQueue implements Runnable {
+        private final CallBack callback;
+        private final Executor executor;
+        private final ArrayDeque<EventData> events = new ArrayDeque<EventData>();
+        private boolean scheduled = false;
+        private long missed = 0;
+        //===========================================================
+        SubscriptionQueue(CallBack callback) {
+            this.callback = callback;
+            Executor callbackExecutor = callback.getEventExecutor();
+            executor = (callbackExecutor==null)? sharedPool : callbackExecutor;
+        }
+        //===========================================================
+        /**
+         * Queue an event and schedule its push if not already done
+         * @param eventData the event to be pushed
+         */
+        //===========================================================
+        void dispatch(EventData eventData) {
+            synchronized (this) {
+                if (events.size()>=queueSize) {
+                    missed++;
+                    droppedNr.incrementAndGet();
+                    return;
+                }
+                if (missed>0) {
+                    events.add(buildMissedEvents(eventData));
+                    backlog.incrementAndGet();
+                    missed = 0;
+                }
+                events.add(eventData);
+                backlog.incrementAndGet();
+                if (scheduled)
+                    return;
+                scheduled = true;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                //  Executor shut down: push in this thread
+                run();
+            }
+        }
+        //===========================================================
+        private EventData buildMissedEvents(EventData eventData) {
+            DevError[] errors = new DevError[] {
+                    new DevError("Api_MissedEvents", ErrSeverity.ERR,
+                            "Missed " + missed + " events ! Callback is too slow to push them",
+                            "CallBackDispatcher.dispatch()") };
+            return new EventData(eventData.device, eventData.name, eventData.event,
+                    eventData.event_type, eventData.event_source,
+                    null, null, null, null, null, errors);
+        }
+        //===========================================================
+        /**
+         * Push the queued events, until there is no more
+         */
+        //===========================================================
+        public void run() {
+            while (true) {
+                EventData eventData;
+                synchronized (this) {
+                    eventData = events.poll();
+                    if (eventData==null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                backlog.decrementAndGet();
+                try {
+                    callback.push_event(eventData);
+                }
+                catch (Exception e) {
+                    e.printStackTrace();
+                }
+                catch (Error e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        //===========================================================
+    }
+    //===============================================================
+    //===============================================================
+}
@@ -38,6 +38,13 @@ import fr.esrf.TangoApi.ApiUtil;
 import fr.esrf.TangoApi.CallBack;
 import fr.esrf.TangoApi.DeviceProxy;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author pascal_verdier
  */
@@ -60,6 +67,22 @@ public class EventCallBackStruct implements java.io.Serializable {
     public EventConsumer    consumer;
     private long zmqCounter = Long.MAX_VALUE;
     private boolean synchronousDone = false;
+    private transient CallBackDispatcher.SubscriptionQueue dispatchQueue = null;
+    //  ZMQ events received before the end of the synchronous call
+    private transient List<EventData> heldEvents = null;
+    private transient long holdStart;
+    //  If the synchronous call is not done after this delay, the events are pushed anyway
+    //  (not final to be shortened by tests)
+    static long maxHoldTime = 5000;
+    //  Releases the held events when the synchronous call is too long
+    private static final ScheduledExecutorService holdTimer =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "EventCallBackStruct hold timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
 
     //-======================================================================
     /*
@@ -140,16 +163,150 @@ public class EventCallBackStruct implements java.io.Serializable {
     }
     //=======================================================================
     //=======================================================================
-    public boolean isSynchronousDone() {
+    public synchronized boolean isSynchronousDone() {
         return synchronousDone;
     }
     //=======================================================================
+    /**
+     * Set the synchronous call state. When set to true,
+     * the events received during the synchronous call are pushed.
+     * @param synchronousDone true if the synchronous call is done.
+     */
     //=======================================================================
-    public void setSynchronousDone(boolean synchronousDone) {
+    public synchronized void setSynchronousDone(boolean synchronousDone) {
         this.synchronousDone = synchronousDone;
-        if (!synchronousDone)   //  When start synchronous, it is a reconnection.
+        if (synchronousDone)
+            releaseHeldEvents();
+        else {
+            //  When start synchronous, it is a reconnection.
             zmqCounter = Long.MAX_VALUE;    //  reset the event counter
-
+            holdStart = System.currentTimeMillis();
+            if (heldEvents!=null)
+                scheduleHoldRelease();
+        }
+    }
+    //=======================================================================
+    /**
+     * Push the result of the synchronous call done at subscription or reconnection,
+     * then the events received during this call.
+     * @param eventData the synchronous call result.
+     */
+    //=======================================================================
+    void pushSynchronousEvent(EventData eventData) {
+        if (consumer instanceof ZmqEventConsumer) {
+            //  Use the same way as ZMQ events to keep the order
+            synchronized (this) {
+                pushEvent(eventData);
+                setSynchronousDone(true);
+            }
+        }
+        else {
+            if (use_ev_queue) {
+                EventQueue ev_queue = device.getEventQueue();
+                ev_queue.insert_event(eventData);
+            } else
+                callback.push_event(eventData);
+            setSynchronousDone(true);
+        }
+    }
+    //=======================================================================
+    /**
+     * Push an event received on ZMQ. It is held until the end of
+     * the synchronous call, to be pushed after its result.
+     * @param eventData the received event.
+     */
+    //=======================================================================
+    void pushZmqEvent(EventData eventData) {
+        synchronized (this) {
+            if (!synchronousDone) {
+                if (heldEvents==null) {
+                    heldEvents = new ArrayList<EventData>();
+                    if (holdStart==0)
+                        holdStart = System.currentTimeMillis();
+                    scheduleHoldRelease();
+                }
+                heldEvents.add(eventData);
+                releaseTooLongHold();
+                return;
+            }
+        }
+        pushEvent(eventData);
+    }
+    //=======================================================================
+    /**
+     * Release the held events when the hold is too long,
+     * without waiting for another event
+     */
+    //=======================================================================
+    private void scheduleHoldRelease() {
+        holdTimer.schedule(new Runnable() {
+            public void run() {
+                releaseTooLongHold();
+            }
+        }, Math.max(holdStart+maxHoldTime-System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+    }
+    //=======================================================================
+    /**
+     * Release the held events if the synchronous call is too long
+     */
+    //=======================================================================
+    private synchronized void releaseTooLongHold() {
+        if (synchronousDone || heldEvents==null ||
+                System.currentTimeMillis()-holdStart<maxHoldTime)
+            return;
+        //  Synchronous call is too long: do not wait anymore
+        System.err.println("Synchronous call not done for " + event_name +
+                " on " + (device==null ? "" : device.name()) + "/" + attr_name + ": push events anyway");
+        synchronousDone = true;
+        releaseHeldEvents();
+    }
+    //=======================================================================
+    //=======================================================================
+    private void releaseHeldEvents() {
+        if (heldEvents!=null) {
+            for (EventData eventData : heldEvents)
+                pushEvent(eventData);
+            heldEvents = null;
+        }
+        holdStart = 0;
+    }
+    //=======================================================================
+    //=======================================================================
+    private void pushEvent(EventData eventData) {
+        if (use_ev_queue) {
+            EventQueue ev_queue = device.getEventQueue();
+            ev_queue.insert_event(eventData);
+        } else if (callback != null) {
+            //  Do not wait for user code in the ZMQ thread
+            getDispatchQueue().dispatch(eventData);
+        }
+    }
+    //=======================================================================
+    /**
+     * Push an event built by the consumer (error, reconnection failure...).
+     * For ZMQ, it goes through the dispatch queue, to keep the order
+     * with the events received on ZMQ.
+     * @param eventData the event to be pushed.
+     */
+    //=======================================================================
+    void pushConsumerEvent(EventData eventData) {
+        if (consumer instanceof ZmqEventConsumer)
+            pushEvent(eventData);
+        else if (use_ev_queue) {
+            EventQueue ev_queue = device.getEventQueue();
+            ev_queue.insert_event(eventData);
+        } else
+            callback.push_event(eventData);
+    }
+    //=======================================================================
+    /**
+     * @return the queue used to push the events of this subscription to its callback
+     */
+    //=======================================================================
+    synchronized CallBackDispatcher.SubscriptionQueue getDispatchQueue() {
+        if (dispatchQueue==null)
+            dispatchQueue = new CallBackDispatcher.SubscriptionQueue(callback);
+        return dispatchQueue;
     }
     //=======================================================================
     //=======================================================================
@@ -355,6 +355,9 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
                 (event == ATT_CONF_EVENT)) {
             new PushAttrValueLater(new_event_callback_struct).start();
         }
+        else
+            //  No synchronous call: do not hold the events
+            new_event_callback_struct.setSynchronousDone(true);
         return evnt_id;
     }
     //===============================================================
@@ -436,12 +439,7 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
                 new EventData(cs.device, callbackKey,
                         cs.event_name, source,
                         cs.event_type, null, null, null, null, null, e.errors);
-
-        if (cs.use_ev_queue) {
-            EventQueue ev_queue = cs.device.getEventQueue();
-            ev_queue.insert_event(eventData);
-        } else
-            cs.callback.push_event(eventData);
+        cs.pushConsumerEvent(eventData);
     }
      //===============================================================
     //===============================================================
@@ -548,16 +546,10 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
                             domain_name, callback_struct.event_name, callback_struct.event_type,
                             eventSource, null, null, null, null, null, errors);
 
-            CallBack callback = callback_struct.callback;
             event_data.device = callback_struct.device;
             event_data.name = callback_struct.device.name();
             event_data.event = callback_struct.event_name;
-
-            if (callback_struct.use_ev_queue) {
-                EventQueue ev_queue = callback_struct.device.getEventQueue();
-                ev_queue.insert_event(event_data);
-            } else
-                callback.push_event(event_data);
+            callback_struct.pushConsumerEvent(event_data);
 
         } catch (DevFailed e) { /* */ }
     }
@@ -574,7 +566,20 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
         if (!found)
             return;
 
-        //	Else do the synchronous call
+        try {
+            pushSynchronousValue(eventChannelStruct, callbackStruct);
+        } finally {
+            //  Do not hold the ZMQ events if the push has failed
+            if (!callbackStruct.isSynchronousDone())
+                callbackStruct.setSynchronousDone(true);
+        }
+    }
+    //===============================================================
+    /*
+     * Do the synchronous call and push its result as event.
+     */
+    //===============================================================
+    private void pushSynchronousValue(EventChannelStruct eventChannelStruct, EventCallBackStruct callbackStruct) {
         DeviceAttribute deviceAttribute = null;
         DevicePipe      devicePipe = null;
         AttributeInfoEx info = null;
@@ -599,7 +604,6 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
             else {
                 deviceAttribute = callbackStruct.device.read_attribute(callbackStruct.attr_name);
             }
-            callbackStruct.setSynchronousDone(true);
 
             // The reconnection worked fine. The heartbeat should come back now,
             // when the notifd has not closed the connection.
@@ -620,13 +624,8 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
                         getSource(eventChannelStruct.consumer),
                         deviceAttribute, devicePipe,
                         info, null, deviceInterface, err);
-
-        if (callbackStruct.use_ev_queue) {
-            EventQueue ev_queue = callbackStruct.device.getEventQueue();
-            ev_queue.insert_event(eventData);
-        } else {
-            callbackStruct.callback.push_event(eventData);
-        }
+        //  Then push the events received meanwhile
+        callbackStruct.pushSynchronousEvent(eventData);
     }
 
 
@@ -656,6 +655,17 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
 
         //===============================================================
         public void run() {
+            try {
+                readAndPush();
+            } finally {
+                //  Do not hold the ZMQ events if the push has failed
+                if (!cb_struct.isSynchronousDone())
+                    cb_struct.setSynchronousDone(true);
+            }
+        }
+
+        //===============================================================
+        private void readAndPush() {
              //	Then read attribute
             DeviceAttribute deviceAttribute = null;
             DevicePipe      devicePipe = null;
@@ -698,12 +708,8 @@ abstract public class EventConsumer extends StructuredPushConsumerPOA
                             deviceAttribute,
                             devicePipe,
                             attributeInfo, null, deviceInterface, err);
-            if (cb_struct.use_ev_queue) {
-                EventQueue ev_queue = cb_struct.device.getEventQueue();
-                ev_queue.insert_event(event_data);
-            } else
-                cb_struct.callback.push_event(event_data);
-            cb_struct.setSynchronousDone(true);
+            //  Then push the events received meanwhile
+            cb_struct.pushSynchronousEvent(event_data);
         }
     }
     //===============================================================
@@ -81,6 +81,8 @@ public class  ZMQutils {
     private static ZMQ.Context     context = ZMQ.context(1);
 	private static ZMQutils instance = null;
     private static double  zmqVersion = -1.0;
+    //  Stream used by each thread to de marshall the received frames
+    private static final ThreadLocal<ZmqInputStream> inputStreams = new ThreadLocal<ZmqInputStream>();
 
     //===============================================================
     //===============================================================
@@ -97,6 +99,45 @@ public class  ZMQutils {
     }
 
 	//===============================================================
+    /**
+     * Returns a stream to de marshall a received frame in place, without copy.
+     * The stream is re used by the calling thread for each received frame.
+     * @param recData   receive data
+     * @param offset    CDR data start in receive data (added for c++ alignment)
+     * @param littleIndian endianness to de marshall
+     * @return the stream reading the frame
+     */
+	//===============================================================
+    private static CDRInputStream getInputStream(byte[] recData, int offset, boolean littleIndian) {
+        ZmqInputStream inputStream = inputStreams.get();
+        if (inputStream==null) {
+            inputStream = new ZmqInputStream();
+            inputStreams.set(inputStream);
+        }
+        inputStream.wrap(recData, offset, littleIndian);
+        return inputStream;
+    }
+	//===============================================================
+    /**
+     * Drop the stream of the calling thread after a failure,
+     * to not re use it in an unknown state.
+     */
+	//===============================================================
+    private static void discardInputStream() {
+        inputStreams.remove();
+    }
+	//===============================================================
+    /**
+     * Release the frame read by the stream of the calling thread,
+     * to not keep it in memory until the next one.
+     */
+	//===============================================================
+    private static void releaseInputStream() {
+        ZmqInputStream inputStream = inputStreams.get();
+        if (inputStream!=null)
+            inputStream.release();
+    }
+	//===============================================================
 	//===============================================================
     public static double getZmqVersion() {
         if (zmqVersion<0.0) {   //  Not already checked.
@@ -592,17 +633,19 @@ public class  ZMQutils {
 	//===============================================================
     static DevError[] deMarshallErrorList(byte[] recData, boolean littleIndian) throws DevFailed {
         try {
-            //  Remove the 4 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-4];
-            System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-            CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+            //  Skip the 4 first bytes (added for c++ alignment)
+            CDRInputStream is = getInputStream(recData, 4, littleIndian);
             return DevErrorListHelper.read(is);
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
             return null;    //  Cannot occur
         }
+        finally {
+            releaseInputStream();
+        }
     }
 	//===============================================================
     /**
@@ -615,14 +658,18 @@ public class  ZMQutils {
 	//===============================================================
     static ZmqCallInfo deMarshallZmqCallInfo(byte[] recData, boolean littleIndian) throws DevFailed {
         try {
-            CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), recData, littleIndian);
+            CDRInputStream is = getInputStream(recData, 0, littleIndian);
             return ZmqCallInfoHelper.read(is);
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception \'" + e + "\' has been catch");
             return null;    //  Cannot occur
         }
+        finally {
+            releaseInputStream();
+        }
     }
 	//===============================================================
     /**
@@ -635,17 +682,19 @@ public class  ZMQutils {
 	//===============================================================
     static AttDataReady deMarshallAttDataReady(byte[] recData, boolean littleIndian) throws DevFailed {
         try {
-            //  Remove the 4 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-4];
-            System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-            CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+            //  Skip the 4 first bytes (added for c++ alignment)
+            CDRInputStream is = getInputStream(recData, 4, littleIndian);
             return AttDataReadyHelper.read(is);
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
             return null;    //  Cannot occur
         }
+        finally {
+            releaseInputStream();
+        }
     }
 	//===============================================================
     /**
@@ -658,17 +707,19 @@ public class  ZMQutils {
 	//===============================================================
     static DeviceInterface deMarshallAttInterfaceChange(byte[] recData, boolean littleIndian) throws DevFailed {
         try {
-            //  Remove the 4 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-4];
-            System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-            CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+            //  Skip the 4 first bytes (added for c++ alignment)
+            CDRInputStream is = getInputStream(recData, 4, littleIndian);
             return new DeviceInterface(DevIntrChangeHelper.read(is));
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
             return null;    //  Cannot occur
         }
+        finally {
+            releaseInputStream();
+        }
     }
 	//===============================================================
     /**
@@ -681,10 +732,8 @@ public class  ZMQutils {
 	//===============================================================
     static AttributeInfoEx deMarshallAttributeConfig(byte[] recData, boolean littleIndian, int idl) throws DevFailed{
         try {
-            //  Remove the 4 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-4];
-            System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-            CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+            //  Skip the 4 first bytes (added for c++ alignment)
+            CDRInputStream is = getInputStream(recData, 4, littleIndian);
             if (idl>=5) {
                 AttributeConfig_5 attributeConfig_5 = AttributeConfig_5Helper.read(is);
                 return new AttributeInfoEx(attributeConfig_5);
@@ -695,10 +744,14 @@ public class  ZMQutils {
             }
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
             return null;    //  Cannot occur
         }
+        finally {
+            releaseInputStream();
+        }
     }
 	//===============================================================
     /**
@@ -712,8 +765,6 @@ public class  ZMQutils {
 	//===============================================================
     static DeviceAttribute deMarshallAttribute(byte[] recData, boolean littleIndian, int idl) throws DevFailed {
         try {
-            //  Remove the 4 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-4];
             //for (byte b : recData)
             //    System.out.println(b&0xff);
 
@@ -723,15 +774,15 @@ public class  ZMQutils {
                         "ZMQ events are not supported for IDL " + idl);
             }
             else if (idl<5) {
-                System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-                CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+                //  Skip the 4 first bytes (added for c++ alignment)
+                CDRInputStream is = getInputStream(recData, 4, littleIndian);
 
                 AttributeValue_4    attributeValue_4 = AttributeValue_4Helper.read(is);
                 return new DeviceAttribute(attributeValue_4);
             }
             else {
-                System.arraycopy(recData, 4, buffer, 0, recData.length - 4);
-                CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+                //  Skip the 4 first bytes (added for c++ alignment)
+                CDRInputStream is = getInputStream(recData, 4, littleIndian);
 
                 AttributeValue_5    attributeValue_5 = AttributeValue_5Helper.read(is);
                 return new DeviceAttribute(attributeValue_5);
@@ -741,9 +792,13 @@ public class  ZMQutils {
             throw e;
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
         }
+        finally {
+            releaseInputStream();
+        }
         return null;    //  Cannot occur
     }
 	//===============================================================
@@ -758,8 +813,6 @@ public class  ZMQutils {
 	//===============================================================
     static DevicePipe deMarshallPipe(byte[] recData, boolean littleIndian, int idl) throws DevFailed {
         try {
-            //  Remove the 8 first bytes (added for c++ alignment)
-            byte[]  buffer = new byte[recData.length-8];
             /*
             int cnt = 0;
             for (byte b : recData) {
@@ -774,8 +827,8 @@ public class  ZMQutils {
                         "Pipe events are not supported for IDL " + idl);
             }
             else {
-                System.arraycopy(recData, 8, buffer, 0, recData.length - 8);
-                CDRInputStream inputStream = new CDRInputStream(ApiUtil.getOrb(), buffer, littleIndian);
+                //  Skip the 8 first bytes (added for c++ alignment)
+                CDRInputStream inputStream = getInputStream(recData, 8, littleIndian);
                 DevPipeData devPipeData = DevPipeDataHelper.read(inputStream);
                 return new DevicePipe(devPipeData);
             }
@@ -784,9 +837,13 @@ public class  ZMQutils {
             throw e;
         }
         catch (Exception e) {
+            discardInputStream();
             Except.throw_exception("Api_ConversionFailed",
                     "An exception " + e + " has been catch");
         }
+        finally {
+            releaseInputStream();
+        }
         return null;    //  Cannot occur
     }
  	//===============================================================
@@ -976,6 +1033,46 @@ public class  ZMQutils {
             return sb.toString();
         }
         //===========================================================
+    }
+	//===============================================================
+    /**
+     *	A CDR stream reading a received frame in place.
+     *	Creating a CDRInputStream reads the ORB configuration,
+     *	so the same one is used for all frames received by a thread.
+     */
+	//===============================================================
+    private static class ZmqInputStream extends CDRInputStream {
+        private static final byte[] EMPTY_FRAME = new byte[0];
+        //===========================================================
+        private ZmqInputStream() {
+            super(ApiUtil.getOrb(), EMPTY_FRAME, false);
+        }
+        //===========================================================
+        /**
+         * Read a new frame
+         * @param recData   receive data
+         * @param offset    CDR data start in receive data
+         * @param littleIndian endianness to de marshall
+         */
+        //===========================================================
+        private void wrap(byte[] recData, int offset, boolean littleIndian) {
+            buffer = recData;
+            pos = offset;
+            //  Alignment is computed from the CDR data start
+            index = 0;
+            setLittleEndian(littleIndian);
+        }
+        //===========================================================
+        /**
+         * Drop the reference to the last frame read
+         */
+        //===========================================================
+        private void release() {
+            buffer = EMPTY_FRAME;
+            pos = 0;
+            index = 0;
+        }
+        //===========================================================
     }
 	//===============================================================
 	//===============================================================
@@ -498,12 +498,8 @@ public class ZmqMainThread extends Thread {
                     TangoConst.eventNames[TangoConst.DATA_READY_EVENT])) {
                 callBackStruct.setSynchronousDone(true);
             }
-            //  To be sure to have first event after synchronous call,
-            //      wait the event pushed in dedicated thread.
-            int timeout = 5000;
-            for (int i=0 ; !callBackStruct.isSynchronousDone() && i<timeout ; i++) {
-                try { Thread.sleep(1); } catch (InterruptedException e) { /* */ }
-            }
+            //  The first events are held by pushEventData()
+            //      until the synchronous call result has been pushed.
             return true;
         }
 
@@ -559,13 +555,8 @@ public class ZmqMainThread extends Thread {
     //===============================================================
     //===============================================================
     private void pushEventData(EventCallBackStruct callBackStruct, EventData eventData) {
-
-        if (callBackStruct.use_ev_queue) {
-            EventQueue ev_queue = callBackStruct.device.getEventQueue();
-            ev_queue.insert_event(eventData);
-        } else if (callBackStruct.callback != null) {
-            callBackStruct.callback.push_event(eventData);
-        }
+        //  Held until the end of the synchronous call if not already done
+        callBackStruct.pushZmqEvent(eventData);
     }
 
     /**
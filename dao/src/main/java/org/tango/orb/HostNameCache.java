@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.orb;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded cache of the clients host names, by IP address. Reverse DNS lookups are done only when a name is
+ * requested, and are kept for a limited time.
+ * <ul>
+ * <li>org.tango.orb.hostname.ttl: time to live of a name, in seconds (default 300)</li>
+ * <li>org.tango.orb.hostname.size: maximum number of names (default 1024)</li>
+ * </ul>
+ */
+public final class HostNameCache implements HostNameCacheMXBean {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(Long.getLong("org.tango.orb.hostname.ttl", 300));
+    private static final int MAX_SIZE = Integer.getInteger("org.tango.orb.hostname.size", 1024);
+    private static final int MAX_PENDING_LOOKUPS = 64;
+    private static final HostNameCache INSTANCE = new HostNameCache();
+
+    private final Logger logger = LoggerFactory.getLogger(HostNameCache.class);
+
+    private final Map<String, Entry> names = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * Background lookups, for callers that must not wait for the DNS
+     */
+    private final ExecutorService resolver = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(MAX_PENDING_LOOKUPS), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Host name resolver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final AtomicLong hitNr = new AtomicLong();
+    private final AtomicLong missNr = new AtomicLong();
+    private final AtomicLong lookupNr = new AtomicLong();
+    private final AtomicLong lookupDuration = new AtomicLong();
+    private final AtomicLong maxLookupDuration = new AtomicLong();
+
+    private HostNameCache() {
+    }
+
+    public static HostNameCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the host name of an address. Blocks on a reverse DNS lookup if the name is not cached or has expired.
+     *
+     * @param address the client address
+     * @return the canonical host name
+     */
+    public String getHostName(final InetAddress address) {
+        final String ip = address.getHostAddress();
+        final Entry entry = get(ip);
+        if (entry != null && !entry.isExpired()) {
+            hitNr.incrementAndGet();
+            return entry.hostName;
+        }
+        missNr.incrementAndGet();
+        return resolve(ip, address);
+    }
+
+    /**
+     * Get the host name of an address without waiting for the DNS. If the name is not cached or has expired, it is
+     * resolved in background.
+     *
+     * @param address the client address
+     * @return the cached host name (possibly expired), or the IP address if not known yet
+     */
+    public String getCachedHostName(final InetAddress address) {
+        final String ip = address.getHostAddress();
+        final Entry entry = get(ip);
+        if (entry != null && !entry.isExpired()) {
+            hitNr.incrementAndGet();
+            return entry.hostName;
+        }
+        missNr.incrementAndGet();
+        try {
+            resolver.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Entry current = get(ip);
+                    if (current == null || current.isExpired()) {
+                        resolve(ip, address);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            logger.debug("too many pending host name lookups, {} not resolved", ip);
+        }
+        return entry == null ? ip : entry.hostName;
+    }
+
+    private Entry get(final String ip) {
+        synchronized (names) {
+            return names.get(ip);
+        }
+    }
+
+    private String resolve(final String ip, final InetAddress address) {
+        final long start = System.nanoTime();
+        final String hostName = address.getCanonicalHostName();
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lookupNr.incrementAndGet();
+        lookupDuration.addAndGet(duration);
+        long max = maxLookupDuration.get();
+        while (duration > max && !maxLookupDuration.compareAndSet(max, duration)) {
+            max = maxLookupDuration.get();
+        }
+        if (duration > 1000) {
+            logger.warn("reverse DNS lookup of {} took {} ms", ip, duration);
+        }
+        synchronized (names) {
+            names.put(ip, new Entry(hostName));
+        }
+        return hostName;
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (names) {
+            return names.size();
+        }
+    }
+
+    @Override
+    public long getHitNr() {
+        return hitNr.get();
+    }
+
+    @Override
+    public long getMissNr() {
+        return missNr.get();
+    }
+
+    @Override
+    public long getLookupNr() {
+        return lookupNr.get();
+    }
+
+    /**
+     * @return the average duration of the reverse DNS lookups, in milliseconds
+     */
+    @Override
+    public long getAverageLookupDuration() {
+        final long nr = lookupNr.get();
+        return nr == 0 ? 0 : lookupDuration.get() / nr;
+    }
+
+    /**
+     * @return the maximum duration of the reverse DNS lookups, in milliseconds
+     */
+    @Override
+    public long getMaxLookupDuration() {
+        return maxLookupDuration.get();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (names) {
+            names.clear();
+        }
+        hitNr.set(0);
+        missNr.set(0);
+        lookupNr.set(0);
+        lookupDuration.set(0);
+        maxLookupDuration.set(0);
+    }
+
+    private static final class Entry {
+        private final String hostName;
+        private final long expiration = System.nanoTime() + TTL;
+
+        Entry(final String hostName) {
+            this.hostName = hostName;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiration > 0;
+        }
+    }
+}
@@ -50,7 +50,8 @@ public final class ServerRequestInterceptor extends org.omg.CORBA.LocalObject im
     private static final long serialVersionUID = 1L;
     private static final ServerRequestInterceptor INSTANCE = new ServerRequestInterceptor();
     private final Logger logger = LoggerFactory.getLogger(ServerRequestInterceptor.class);
-    private final ThreadLocal<String> clientHostName = new ThreadLocal<String>();
+    private final ThreadLocal<InetAddress> clientAddress = new ThreadLocal<InetAddress>();
+    private volatile InetAddress localAddress;
     private volatile ThreadLocal<String> giopHostAddress = new ThreadLocal<String>();
     private volatile ThreadLocal<String> clientIPAddress = new ThreadLocal<String>();
 
@@ -82,17 +83,21 @@ public final class ServerRequestInterceptor extends org.omg.CORBA.LocalObject im
                         // final int localPort = sock.getLocalPort();
 
                         // remote informations
+                        // the host name is resolved only when requested
+                        clientAddress.set(sock.getInetAddress());
                         clientIPAddress.set(sock.getInetAddress().getHostAddress());
                         final int remotePort = sock.getPort();
-                        clientHostName.set(InetAddress.getByName(clientIPAddress.get()).getCanonicalHostName());
                         giopHostAddress.set(GIOP_TCP + clientIPAddress.get() + ":" + remotePort);
                     }
                 } else {
                     // when client is in the same process as the server, connection instance of
                     // org.jacorb.orb.iiop.IIOPListener$LoopbackAcceptor
-                    final InetAddress addr = InetAddress.getLocalHost();
+                    if (localAddress == null) {
+                        localAddress = InetAddress.getLocalHost();
+                    }
+                    final InetAddress addr = localAddress;
+                    clientAddress.set(addr);
                     clientIPAddress.set(addr.getHostAddress());
-                    clientHostName.set(addr.getCanonicalHostName());
                     giopHostAddress.set(GIOP_TCP + clientIPAddress.get());
                 }
             }
@@ -123,8 +128,22 @@ public final class ServerRequestInterceptor extends org.omg.CORBA.LocalObject im
     public void destroy() {
     }
 
+    /**
+     * Get the host name of the client of the current request. May block on a reverse DNS lookup, the names are cached
+     * by {@link HostNameCache}.
+     *
+     * @return the client host name
+     */
     public String getClientHostName() {
-        return clientHostName.get();
+        final InetAddress address = clientAddress.get();
+        return address == null ? null : HostNameCache.getInstance().getHostName(address);
+    }
+
+    /**
+     * @return the address of the client of the current request
+     */
+    public InetAddress getClientAddress() {
+        return clientAddress.get();
     }
 
     public String getClientIPAddress() {
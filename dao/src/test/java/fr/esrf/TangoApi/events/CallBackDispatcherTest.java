@@ -0,0 +1,125 @@
+package fr.esrf.TangoApi.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import fr.esrf.TangoApi.CallBack;
+
+public class CallBackDispatcherTest {
+
+    @Test
+    public void eventsArePushedInOrder() throws InterruptedException {
+        final int nbEvents = 1000;
+        final RecordingCallBack callback = new RecordingCallBack(null, nbEvents);
+        final CallBackDispatcher.SubscriptionQueue queue = new CallBackDispatcher.SubscriptionQueue(callback);
+        for (int i = 0; i < nbEvents; i++) {
+            queue.dispatch(newEvent(Integer.toString(i)));
+        }
+        assertTrue("events not pushed", callback.pushed.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < nbEvents; i++) {
+            assertThat(callback.events.get(i).name, equalTo(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void eventsArePushedByTheCallBackExecutor() {
+        final ManualExecutor executor = new ManualExecutor();
+        final RecordingCallBack callback = new RecordingCallBack(executor, 3);
+        final CallBackDispatcher.SubscriptionQueue queue = new CallBackDispatcher.SubscriptionQueue(callback);
+        queue.dispatch(newEvent("1"));
+        queue.dispatch(newEvent("2"));
+        queue.dispatch(newEvent("3"));
+        // one task pushes all the queued events
+        assertThat(executor.tasks.size(), equalTo(1));
+        assertThat(callback.events.size(), equalTo(0));
+        executor.runAll();
+        assertThat(callback.events.size(), equalTo(3));
+        assertThat(callback.events.get(2).name, equalTo("3"));
+        assertThat(callback.threads.get(0), equalTo(Thread.currentThread()));
+    }
+
+    @Test
+    public void missedEventsAreReported() {
+        final ManualExecutor executor = new ManualExecutor();
+        final RecordingCallBack callback = new RecordingCallBack(executor, 0);
+        final CallBackDispatcher.SubscriptionQueue queue = new CallBackDispatcher.SubscriptionQueue(callback);
+        // fill the queue until an event is lost
+        final long dropped = CallBackDispatcher.getDroppedNr();
+        int queued = 0;
+        while (CallBackDispatcher.getDroppedNr() == dropped) {
+            queue.dispatch(newEvent("queued"));
+            queued++;
+        }
+        queued--;
+        queue.dispatch(newEvent("lost"));
+        executor.runAll();
+        assertThat(callback.events.size(), equalTo(queued));
+
+        queue.dispatch(newEvent("last"));
+        executor.runAll();
+        assertThat(callback.events.size(), equalTo(queued + 2));
+        final EventData missed = callback.events.get(queued);
+        assertTrue(missed.err);
+        assertThat(missed.errors[0].reason, equalTo("Api_MissedEvents"));
+        assertTrue(missed.errors[0].desc, missed.errors[0].desc.startsWith("Missed 2 events"));
+        assertThat(callback.events.get(queued + 1).name, equalTo("last"));
+    }
+
+    private static EventData newEvent(final String name) {
+        return new EventData(null, name, "change", 0, EventData.ZMQ_EVENT, null, null, null, null, null, null);
+    }
+
+    private static final class RecordingCallBack extends CallBack {
+        private static final long serialVersionUID = 1L;
+        private final Executor executor;
+        private final List<EventData> events = new ArrayList<EventData>();
+        private final List<Thread> threads = new ArrayList<Thread>();
+        private final CountDownLatch pushed;
+
+        RecordingCallBack(final Executor executor, final int expected) {
+            this.executor = executor;
+            pushed = new CountDownLatch(expected);
+        }
+
+        @Override
+        public Executor getEventExecutor() {
+            return executor;
+        }
+
+        @Override
+        public void push_event(final EventData event) {
+            synchronized (this) {
+                events.add(event);
+                threads.add(Thread.currentThread());
+            }
+            pushed.countDown();
+        }
+    }
+
+    /**
+     * Runs the tasks when asked, in the calling thread
+     */
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package fr.esrf.TangoApi.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import fr.esrf.TangoApi.CallBack;
+
+public class EventCallBackStructTest {
+
+    private final long defaultHoldTime = EventCallBackStruct.maxHoldTime;
+
+    @After
+    public void restoreHoldTime() {
+        EventCallBackStruct.maxHoldTime = defaultHoldTime;
+    }
+
+    @Test
+    public void heldEventsArePushedAfterTheSynchronousValue() {
+        final RecordingCallBack callback = new RecordingCallBack(3);
+        final EventCallBackStruct struct = newStruct(callback);
+        struct.setSynchronousDone(false);
+        struct.pushZmqEvent(newEvent("1"));
+        struct.pushZmqEvent(newEvent("2"));
+        assertThat(callback.names.size(), equalTo(0));
+        struct.pushSynchronousEvent(newEvent("synchronous"));
+        assertThat(callback.names.size(), equalTo(3));
+        assertThat(callback.names.get(0), equalTo("synchronous"));
+        assertThat(callback.names.get(1), equalTo("1"));
+        assertThat(callback.names.get(2), equalTo("2"));
+        // not held anymore
+        struct.pushZmqEvent(newEvent("3"));
+        assertThat(callback.names.get(3), equalTo("3"));
+    }
+
+    @Test
+    public void heldEventsAreReleasedWithoutAnotherEvent() throws InterruptedException {
+        EventCallBackStruct.maxHoldTime = 50;
+        final RecordingCallBack callback = new RecordingCallBack(1);
+        final EventCallBackStruct struct = newStruct(callback);
+        struct.setSynchronousDone(false);
+        struct.pushZmqEvent(newEvent("1"));
+        assertThat(callback.names.size(), equalTo(0));
+        assertTrue("held event not released", callback.pushed.await(5, TimeUnit.SECONDS));
+        assertThat(callback.names.get(0), equalTo("1"));
+        assertTrue(struct.isSynchronousDone());
+    }
+
+    private static EventCallBackStruct newStruct(final CallBack callback) {
+        return new EventCallBackStruct(null, "test/attr", "change", "", callback, 0, 1, 0, new String[0], true);
+    }
+
+    private static EventData newEvent(final String name) {
+        return new EventData(null, name, "change", 0, EventData.ZMQ_EVENT, null, null, null, null, null, null);
+    }
+
+    /**
+     * Pushes the events in the dispatching thread
+     */
+    private static final class RecordingCallBack extends CallBack {
+        private static final long serialVersionUID = 1L;
+        private final List<String> names = new ArrayList<String>();
+        private final CountDownLatch pushed;
+
+        RecordingCallBack(final int expected) {
+            pushed = new CountDownLatch(expected);
+        }
+
+        @Override
+        public Executor getEventExecutor() {
+            return new Executor() {
+                @Override
+                public void execute(final Runnable command) {
+                    command.run();
+                }
+            };
+        }
+
+        @Override
+        public synchronized void push_event(final EventData event) {
+            names.add(event.name);
+            pushed.countDown();
+        }
+    }
+}
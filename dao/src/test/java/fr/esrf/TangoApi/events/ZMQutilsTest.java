@@ -0,0 +1,190 @@
+package fr.esrf.TangoApi.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.jacorb.orb.CDRInputStream;
+import org.jacorb.orb.CDROutputStream;
+import org.junit.Test;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.AttributeDim;
+import fr.esrf.Tango.AttributeValue_4;
+import fr.esrf.Tango.AttributeValue_4Helper;
+import fr.esrf.Tango.AttributeValue_5;
+import fr.esrf.Tango.AttributeValue_5Helper;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevErrorListHelper;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevPipeBlob;
+import fr.esrf.Tango.DevPipeData;
+import fr.esrf.Tango.DevPipeDataElt;
+import fr.esrf.Tango.DevPipeDataHelper;
+import fr.esrf.Tango.ErrSeverity;
+import fr.esrf.Tango.TimeVal;
+import fr.esrf.TangoApi.ApiUtil;
+import fr.esrf.TangoDs.TangoConst;
+
+/**
+ * Checks that the frames de marshalled in place give the same values as the copy of the CDR data that was de
+ * marshalled before.
+ */
+public class ZMQutilsTest {
+
+    private static final int ATTRIBUTE_OFFSET = 4;
+    private static final int PIPE_OFFSET = 8;
+
+    @Test
+    public void attribute5MatchesCopy() throws DevFailed {
+        // names of 1 to 8 characters move the following dimensions on every alignment
+        for (int length = 1; length <= 8; length++) {
+            final byte[] data = encode(newAttributeValue5(newName(length), length));
+            final byte[] frame = newFrame(data, ATTRIBUTE_OFFSET);
+
+            final AttributeValue_5 copied = AttributeValue_5Helper.read(newCopyStream(data));
+            final AttributeValue_5 inPlace = ZMQutils.deMarshallAttribute(frame, false, 5).getAttributeValueObject_5();
+            assertThat(encode(inPlace), equalTo(encode(copied)));
+        }
+    }
+
+    @Test
+    public void attribute4MatchesCopy() throws DevFailed {
+        for (int length = 1; length <= 8; length++) {
+            final byte[] data = encode(newAttributeValue4(newName(length), length));
+            final byte[] frame = newFrame(data, ATTRIBUTE_OFFSET);
+
+            final AttributeValue_4 copied = AttributeValue_4Helper.read(newCopyStream(data));
+            final AttributeValue_4 inPlace = ZMQutils.deMarshallAttribute(frame, false, 4).getAttributeValueObject_4();
+            assertThat(encode(inPlace), equalTo(encode(copied)));
+        }
+    }
+
+    @Test
+    public void pipeMatchesCopy() throws DevFailed {
+        // the pipe name is read first, so the doubles of the blob are moved on every alignment
+        for (int length = 1; length <= 8; length++) {
+            final byte[] data = encode(newPipeData(newName(length), length));
+            final byte[] frame = newFrame(data, PIPE_OFFSET);
+
+            final DevPipeData copied = DevPipeDataHelper.read(newCopyStream(data));
+            final DevPipeData inPlace = ZMQutils.deMarshallPipe(frame, false, 5).getDevPipeDataObject();
+            assertThat(encode(inPlace), equalTo(encode(copied)));
+        }
+    }
+
+    @Test
+    public void errorListMatchesCopy() throws DevFailed {
+        for (int length = 1; length <= 8; length++) {
+            final DevError[] errors = newErrors(newName(length));
+            final byte[] data = encode(errors);
+            final byte[] frame = newFrame(data, ATTRIBUTE_OFFSET);
+
+            final DevError[] copied = DevErrorListHelper.read(newCopyStream(data));
+            final DevError[] inPlace = ZMQutils.deMarshallErrorList(frame, false);
+            assertThat(encode(inPlace), equalTo(encode(copied)));
+        }
+    }
+
+    @Test
+    public void streamIsReusedAfterAnotherFrame() throws DevFailed {
+        // a long pipe frame then a short attribute frame, decoded by the same thread
+        final byte[] pipeData = encode(newPipeData(newName(100), 100));
+        ZMQutils.deMarshallPipe(newFrame(pipeData, PIPE_OFFSET), false, 5);
+
+        final byte[] data = encode(newAttributeValue5(newName(3), 1));
+        final AttributeValue_5 copied = AttributeValue_5Helper.read(newCopyStream(data));
+        final AttributeValue_5 inPlace = ZMQutils.deMarshallAttribute(newFrame(data, ATTRIBUTE_OFFSET), false, 5)
+                .getAttributeValueObject_5();
+        assertThat(encode(inPlace), equalTo(encode(copied)));
+    }
+
+    /**
+     * The frame sent by the C++ servers: an alignment prefix then the CDR data
+     */
+    private static byte[] newFrame(final byte[] data, final int offset) {
+        final byte[] frame = new byte[offset + data.length];
+        Arrays.fill(frame, 0, offset, (byte) 0x5a);
+        System.arraycopy(data, 0, frame, offset, data.length);
+        return frame;
+    }
+
+    /**
+     * The stream built for each event before reading in place
+     */
+    private static CDRInputStream newCopyStream(final byte[] data) {
+        return new CDRInputStream(ApiUtil.getOrb(), data, false);
+    }
+
+    private static String newName(final int length) {
+        final char[] name = new char[length];
+        Arrays.fill(name, 'a');
+        return new String(name);
+    }
+
+    private static AttrValUnion newDoubles(final int length) {
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = i + 0.5;
+        }
+        final AttrValUnion value = new AttrValUnion();
+        value.double_att_value(values);
+        return value;
+    }
+
+    private static AttrValUnion newStrings(final String name) {
+        final AttrValUnion value = new AttrValUnion();
+        value.string_att_value(new String[] { name, name + name });
+        return value;
+    }
+
+    private static AttributeValue_5 newAttributeValue5(final String name, final int length) {
+        return new AttributeValue_5(newDoubles(length), AttrQuality.ATTR_VALID, AttrDataFormat.SPECTRUM,
+                TangoConst.Tango_DEV_DOUBLE, new TimeVal(1, 2, 0), name, new AttributeDim(length, 0),
+                new AttributeDim(0, 0), new DevError[0]);
+    }
+
+    private static AttributeValue_4 newAttributeValue4(final String name, final int length) {
+        return new AttributeValue_4(newDoubles(length), AttrQuality.ATTR_VALID, AttrDataFormat.SPECTRUM,
+                new TimeVal(1, 2, 0), name, new AttributeDim(length, 0), new AttributeDim(0, 0), new DevError[0]);
+    }
+
+    private static DevPipeData newPipeData(final String name, final int length) {
+        final DevPipeDataElt[] elements = new DevPipeDataElt[] {
+                new DevPipeDataElt(name, newStrings(name), new DevPipeDataElt[0], ""),
+                new DevPipeDataElt("doubles", newDoubles(length), new DevPipeDataElt[0], "") };
+        return new DevPipeData(name, new TimeVal(1, 2, 0), new DevPipeBlob(name, elements));
+    }
+
+    private static DevError[] newErrors(final String name) {
+        return new DevError[] { new DevError(name, ErrSeverity.ERR, "first error", "origin"),
+                new DevError("reason", ErrSeverity.PANIC, name, name) };
+    }
+
+    private static byte[] encode(final AttributeValue_5 value) {
+        final CDROutputStream os = new CDROutputStream(ApiUtil.getOrb());
+        AttributeValue_5Helper.write(os, value);
+        return os.getBufferCopy();
+    }
+
+    private static byte[] encode(final AttributeValue_4 value) {
+        final CDROutputStream os = new CDROutputStream(ApiUtil.getOrb());
+        AttributeValue_4Helper.write(os, value);
+        return os.getBufferCopy();
+    }
+
+    private static byte[] encode(final DevPipeData value) {
+        final CDROutputStream os = new CDROutputStream(ApiUtil.getOrb());
+        DevPipeDataHelper.write(os, value);
+        return os.getBufferCopy();
+    }
+
+    private static byte[] encode(final DevError[] value) {
+        final CDROutputStream os = new CDROutputStream(ApiUtil.getOrb());
+        DevErrorListHelper.write(os, value);
+        return os.getBufferCopy();
+    }
+}
@@ -0,0 +1,93 @@
+package fr.esrf.TangoApi.events;
+
+import java.lang.management.ManagementFactory;
+
+import org.jacorb.orb.CDRInputStream;
+import org.jacorb.orb.CDROutputStream;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.AttributeDim;
+import fr.esrf.Tango.AttributeValue_5;
+import fr.esrf.Tango.AttributeValue_5Helper;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.TimeVal;
+import fr.esrf.TangoApi.ApiUtil;
+import fr.esrf.TangoApi.DeviceAttribute;
+import fr.esrf.TangoDs.TangoConst;
+
+/**
+ * Allocation and time per received AttributeValue_5 event, de marshalled from a copy of the CDR data in a new stream
+ * as before, and in place by {@link ZMQutils#deMarshallAttribute(byte[], boolean, int)}. Run its main method, the
+ * allocation is measured with the HotSpot ThreadMXBean.
+ */
+public class ZmqDeMarshallPerf {
+
+    private static final int WARM_UP = 50000;
+    private static final int NB_DECODES = 200000;
+
+    private interface Decoder {
+        DeviceAttribute decode(byte[] frame) throws DevFailed;
+    }
+
+    private static final Decoder COPY = new Decoder() {
+        @Override
+        public DeviceAttribute decode(final byte[] frame) {
+            final byte[] buffer = new byte[frame.length - 4];
+            System.arraycopy(frame, 4, buffer, 0, buffer.length);
+            final CDRInputStream is = new CDRInputStream(ApiUtil.getOrb(), buffer, false);
+            return new DeviceAttribute(AttributeValue_5Helper.read(is));
+        }
+    };
+
+    private static final Decoder IN_PLACE = new Decoder() {
+        @Override
+        public DeviceAttribute decode(final byte[] frame) throws DevFailed {
+            return ZMQutils.deMarshallAttribute(frame, false, 5);
+        }
+    };
+
+    public static void main(final String[] args) throws DevFailed {
+        for (final int length : new int[] { 1, 1000 }) {
+            final byte[] frame = newFrame(length);
+            measure("copy,     " + length + " doubles", COPY, frame);
+            measure("in place, " + length + " doubles", IN_PLACE, frame);
+        }
+    }
+
+    private static void measure(final String name, final Decoder decoder, final byte[] frame) throws DevFailed {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            decoder.decode(frame);
+        }
+        final long startBytes = bean.getThreadAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < NB_DECODES; i++) {
+            decoder.decode(frame);
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        final long bytes = bean.getThreadAllocatedBytes(threadId) - startBytes;
+        System.out.println(name + ": " + bytes / NB_DECODES + " bytes, " + nanos / NB_DECODES + " ns per event");
+    }
+
+    /**
+     * A frame as sent by the C++ servers: 4 bytes for alignment then the CDR data
+     */
+    private static byte[] newFrame(final int length) {
+        final AttrValUnion value = new AttrValUnion();
+        value.double_att_value(new double[length]);
+        final AttributeValue_5 attributeValue = new AttributeValue_5(value, AttrQuality.ATTR_VALID,
+                AttrDataFormat.SPECTRUM, TangoConst.Tango_DEV_DOUBLE, new TimeVal(0, 0, 0), "perf",
+                new AttributeDim(length, 0), new AttributeDim(0, 0), new DevError[0]);
+        final CDROutputStream os = new CDROutputStream(ApiUtil.getOrb());
+        AttributeValue_5Helper.write(os, attributeValue);
+        final byte[] data = os.getBufferCopy();
+        final byte[] frame = new byte[data.length + 4];
+        System.arraycopy(data, 0, frame, 4, data.length);
+        return frame;
+    }
+}
@@ -24,6 +24,21 @@
  */
 package org.tango.logging;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.servant.DeviceImpl;
@@ -37,7 +52,11 @@ import fr.esrf.TangoApi.DeviceData;
 import fr.esrf.TangoApi.DeviceProxy;
 
 /**
- * Manage logging to another device
+ * Manage logging to another device. The logs are buffered and sent from a background thread, one per logging device,
+ * so that an unreachable logging device does not delay the others. The thread ends when the last appender to its
+ * logging device is stopped. Each call of the Log command carries up to {@link #BATCH_SIZE} records of 6 strings
+ * (timestamp, level, logger, message, context, thread). When the buffer is 3/4 full, only warnings and errors are
+ * kept; when it is full, the logs are dropped.
  *
  * @author ABEILLE
  *
@@ -45,41 +64,203 @@ import fr.esrf.TangoApi.DeviceProxy;
 public final class DeviceAppender extends AppenderBase<ILoggingEvent> implements ITangoAppender {
 
     private static final int ARGIN_SIZE = 6;
+    /**
+     * Maximum number of records sent in one call. Batching is opt-in: the other Tango implementations send one record
+     * per call, and a log consumer written for them reads only the first record of the argument, so a larger default
+     * would silently lose logs. With the default, 1, the records are still sent from the background thread.
+     */
+    static final int BATCH_SIZE = Integer.getInteger("org.tango.logging.device.batchSize", 1);
+    private static final int QUEUE_SIZE = Integer.getInteger("org.tango.logging.device.queueSize", 4096);
+    private static final long FLUSH_PERIOD = Long.getLong("org.tango.logging.device.flushPeriod", 200);
+    /**
+     * flush threads, by lower case logging device name
+     */
+    private static final Map<String, SharedFlusher> FLUSHERS = new HashMap<String, SharedFlusher>();
     private static Logger logger = LoggerFactory.getLogger(DeviceAppender.class);
-    private final DeviceProxy loggerDevice;
+
+    /**
+     * Sends a Log command
+     */
+    interface LogSender {
+        void send(String[] records) throws DevFailed;
+    }
+
+    private final LogSender sender;
     private final String loggingDeviceName;
     private Level level;
     private final String deviceName;
+    private final int batchSize;
+    private final int queueSize;
+    private final long flushPeriod;
+    /**
+     * set by start, the appender lock is held by start, stop and append
+     */
+    private ScheduledExecutorService flusher;
+    private final BlockingQueue<String[]> queue;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong sampledCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private ScheduledFuture<?> periodicFlush;
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushRequested.set(false);
+            flush();
+        }
+    };
 
     public DeviceAppender(final String deviceTargetName, final String deviceName) throws DevFailed {
-        loggerDevice = new DeviceProxy(deviceTargetName);
+        this(new ProxySender(new DeviceProxy(deviceTargetName)), deviceTargetName, deviceName, BATCH_SIZE,
+                QUEUE_SIZE, FLUSH_PERIOD);
+    }
+
+    DeviceAppender(final LogSender sender, final String deviceTargetName, final String deviceName,
+            final int batchSize, final int queueSize, final long flushPeriod) {
+        this.sender = sender;
         this.loggingDeviceName = deviceTargetName;
         this.deviceName = deviceName;
+        this.batchSize = batchSize;
+        this.queueSize = queueSize;
+        this.flushPeriod = flushPeriod;
+        queue = new ArrayBlockingQueue<String[]>(queueSize);
         level = Level.DEBUG;
     }
 
+    private static ScheduledExecutorService acquireFlusher(final String deviceTargetName) {
+        final String key = deviceTargetName.toLowerCase(Locale.ENGLISH);
+        synchronized (FLUSHERS) {
+            SharedFlusher flusher = FLUSHERS.get(key);
+            if (flusher == null) {
+                flusher = new SharedFlusher(Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "DeviceAppender flush to " + key);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }));
+                FLUSHERS.put(key, flusher);
+            }
+            flusher.users++;
+            return flusher.executor;
+        }
+    }
+
+    /**
+     * Shut down the flush thread of a logging device when its last appender is stopped. The tasks already submitted
+     * are still executed.
+     */
+    private static void releaseFlusher(final String deviceTargetName) {
+        final String key = deviceTargetName.toLowerCase(Locale.ENGLISH);
+        synchronized (FLUSHERS) {
+            final SharedFlusher flusher = FLUSHERS.get(key);
+            if (flusher != null && --flusher.users == 0) {
+                FLUSHERS.remove(key);
+                flusher.executor.shutdown();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!isStarted()) {
+            flusher = acquireFlusher(loggingDeviceName);
+            periodicFlush = flusher.scheduleWithFixedDelay(flushTask, flushPeriod, flushPeriod, TimeUnit.MILLISECONDS);
+            super.start();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (isStarted()) {
+            super.stop();
+            periodicFlush.cancel(false);
+            // send the remaining logs
+            flusher.execute(flushTask);
+            releaseFlusher(loggingDeviceName);
+        }
+    }
+
     @Override
     protected void append(final ILoggingEvent eventObject) {
-        if (eventObject.getMDCPropertyMap().get(DeviceImpl.MDC_KEY).equalsIgnoreCase(deviceName)
+        if (deviceName.equalsIgnoreCase(eventObject.getMDCPropertyMap().get(DeviceImpl.MDC_KEY))
                 && eventObject.getLevel().isGreaterOrEqual(level)) {
+            final int size = queue.size();
+            if (size >= queueSize * 3 / 4 && !eventObject.getLevel().isGreaterOrEqual(Level.WARN)) {
+                // back-pressure, keep only warnings and errors
+                sampledCount.incrementAndGet();
+                return;
+            }
+            final String[] record = new String[ARGIN_SIZE];
+            int i = 0;
+            record[i++] = String.valueOf(eventObject.getTimeStamp());
+            record[i++] = eventObject.getLevel().toString();
+            record[i++] = eventObject.getLoggerName();
+            record[i++] = eventObject.getFormattedMessage();
+            record[i++] = "";
+            record[i] = eventObject.getThreadName();
+            if (!queue.offer(record)) {
+                droppedCount.incrementAndGet();
+            } else if (size + 1 >= batchSize && flushRequested.compareAndSet(false, true)) {
+                flusher.execute(flushTask);
+            }
+        }
+    }
+
+    /**
+     * Send the buffered logs
+     */
+    private void flush() {
+        final List<String[]> batch = new ArrayList<String[]>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            final String[] dvsa = new String[batch.size() * ARGIN_SIZE];
+            int i = 0;
+            for (final String[] record : batch) {
+                System.arraycopy(record, 0, dvsa, i, ARGIN_SIZE);
+                i += ARGIN_SIZE;
+            }
             try {
-                final String[] dvsa = new String[ARGIN_SIZE];
-                int i = 0;
-                dvsa[i++] = String.valueOf(eventObject.getTimeStamp());
-                dvsa[i++] = eventObject.getLevel().toString();
-                dvsa[i++] = eventObject.getLoggerName();
-                dvsa[i++] = eventObject.getFormattedMessage();
-                dvsa[i++] = "";
-                dvsa[i] = eventObject.getThreadName();
-                final DeviceData dd = new DeviceData();
-                dd.insert(dvsa);
-                loggerDevice.command_inout_asynch("Log", dd, true);
+                sender.send(dvsa);
+                sentCount.addAndGet(batch.size());
+                callCount.incrementAndGet();
             } catch (final DevFailed e) {
-                logger.error("failed to send log to {} : {}", loggerDevice.get_name(), DevFailedUtils.toString(e));
+                droppedCount.addAndGet(batch.size());
+                logger.error("failed to send log to {} : {}", loggingDeviceName, DevFailedUtils.toString(e));
             }
+            batch.clear();
         }
     }
 
+    /**
+     * @return the number of logs sent to the logging device
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return the number of calls of the Log command
+     */
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    /**
+     * @return the number of debug and info logs discarded because the buffer was filling up
+     */
+    public long getSampledCount() {
+        return sampledCount.get();
+    }
+
+    /**
+     * @return the number of logs lost because the buffer was full or the logging device failed
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
     public String getLoggingDeviceName() {
         return loggingDeviceName;
     }
@@ -93,4 +274,34 @@ public final class DeviceAppender extends AppenderBase<ILoggingEvent> implements
     public String getDeviceName() {
         return deviceName;
     }
+
+    /**
+     * Flush thread of a logging device and the number of started appenders that use it
+     */
+    private static final class SharedFlusher {
+        private final ScheduledExecutorService executor;
+        private int users;
+
+        SharedFlusher(final ScheduledExecutorService executor) {
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * Sends the logs with the Log command of the logging device, without waiting for the reply
+     */
+    private static final class ProxySender implements LogSender {
+        private final DeviceProxy loggerDevice;
+
+        ProxySender(final DeviceProxy loggerDevice) {
+            this.loggerDevice = loggerDevice;
+        }
+
+        @Override
+        public void send(final String[] records) throws DevFailed {
+            final DeviceData dd = new DeviceData();
+            dd.insert(records);
+            loggerDevice.command_inout_asynch("Log", dd, true);
+        }
+    }
 }
@@ -27,6 +27,7 @@ package org.tango.logging;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -285,6 +286,20 @@ public final class LoggingManager {
         return targets.toArray(new String[targets.size()]);
     }
 
+    /**
+     * @return the number of logs sent, sampled and dropped by each device appender
+     */
+    public String[] getDeviceLogStats() {
+        final List<String> result = new ArrayList<String>();
+        for (final DeviceAppender appender : deviceAppenders.values()) {
+            result.add(appender.getDeviceName() + " -> " + appender.getLoggingDeviceName() + ": sent "
+                    + appender.getSentCount() + " logs in " + appender.getCallCount() + " calls, "
+                    + appender.getSampledCount() + " sampled, " + appender.getDroppedCount() + " dropped");
+        }
+        Collections.sort(result);
+        return result.toArray(new String[result.size()]);
+    }
+
     @SuppressWarnings("unchecked")
     public void startAll() {
         for (final ITangoAppender appender : deviceAppenders.values()) {
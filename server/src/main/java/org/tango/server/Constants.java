@@ -55,6 +55,24 @@ public final class Constants {
      * Retrieve the default value of STATE_CHECK_ATTR_ALARM from a system property. {@link stateCheckAttrAlarm}
      */
     public static final String STATE_CHECK_ALARMS_DEFAULT = System.getProperty("org.tango.server.checkalarms", "true");
+    /**
+     * Maximum age in milliseconds of an attribute value to be used for the alarms check of the state. Older non polled
+     * attributes are read.
+     */
+    public static final long STATE_CHECK_ALARMS_MAX_AGE = Long.getLong("org.tango.server.checkalarms.maxAge", 1000);
+    /**
+     * Number of threads shared by all devices to read the attributes for the alarms check of the state
+     */
+    public static final int STATE_CHECK_ALARMS_THREADS = Integer.getInteger("org.tango.server.checkalarms.threads", 4);
+    /**
+     * Number of threads building and initializing the devices at server startup. Keep 1 for device classes which
+     * initialization is not thread safe.
+     */
+    public static final int EXPORT_THREADS = Integer.getInteger("org.tango.server.export.threads", 1);
+    /**
+     * Number of devices registered together in the tango db at server startup
+     */
+    public static final int EXPORT_BATCH_SIZE = Integer.getInteger("org.tango.server.export.batchSize", 100);
 
     // attribute properties names in tango db
     public static final String MEMORIZED_VALUE = "__value";
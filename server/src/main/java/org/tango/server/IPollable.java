@@ -58,4 +58,14 @@ public interface IPollable {
 
     void setPollingStats(double executionDuration, double lastUpdateTime, double deltaTime);
 
+    /**
+     * @return the number of polls discarded because the polling thread was late
+     */
+    long getLatePollCount();
+
+    /**
+     * Notify that a poll has been discarded because the polling thread was late
+     */
+    void addLatePoll();
+
 }
@@ -24,10 +24,12 @@
  */
 package org.tango.server;
 
+import java.net.InetAddress;
 import java.util.Arrays;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.tango.orb.HostNameCache;
 import org.tango.orb.ServerRequestInterceptor;
 import org.tango.server.annotation.AroundInvoke;
 import org.tango.utils.ClientIDUtil;
@@ -164,7 +166,7 @@ public final class InvocationContext {
 
     private final String[] names;
     private final ClntIdent clientID;
-    private final String clientHostName;
+    private final InetAddress clientAddress;
 
     /**
      * Ctr
@@ -180,7 +182,7 @@ public final class InvocationContext {
         this.callType = callType;
         this.names = names;
         this.clientID = ClientIDUtil.copyClntIdent(clientID);
-        this.clientHostName = ServerRequestInterceptor.getInstance().getClientHostName();
+        this.clientAddress = ServerRequestInterceptor.getInstance().getClientAddress();
     }
 
     /**
@@ -236,6 +238,7 @@ public final class InvocationContext {
      * @return
      */
     public String getClientHostName() {
-        return clientHostName;
+        // resolved only when requested
+        return clientAddress == null ? null : HostNameCache.getInstance().getHostName(clientAddress);
     }
 }
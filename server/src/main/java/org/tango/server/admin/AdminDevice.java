@@ -46,6 +46,7 @@ import org.tango.server.attribute.ForwardedAttribute;
 import org.tango.server.build.DeviceClassBuilder;
 import org.tango.server.cache.TangoCacheManager;
 import org.tango.server.command.CommandImpl;
+import org.tango.server.device.InitExecutor;
 import org.tango.server.events.EventManager;
 import org.tango.server.events.EventType;
 import org.tango.server.export.IExporter;
@@ -54,6 +55,7 @@ import org.tango.server.monitoring.TangoStats;
 import org.tango.server.pipe.PipeImpl;
 import org.tango.server.properties.ClassPropertyImpl;
 import org.tango.server.properties.DevicePropertyImpl;
+import org.tango.server.properties.MemorizedValueWriter;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
 import org.tango.utils.TangoUtil;
@@ -996,6 +998,105 @@ public final class AdminDevice implements TangoMXBean {
         return tangoStats.getErrorNr();
     }
 
+    @Override
+    @Attribute
+    public double getRequestDurationP50() {
+        return tangoStats.getRequestDurationP50();
+    }
+
+    @Override
+    @Attribute
+    public double getRequestDurationP99() {
+        return tangoStats.getRequestDurationP99();
+    }
+
+    @Override
+    @Attribute
+    public double getRequestDurationP999() {
+        return tangoStats.getRequestDurationP999();
+    }
+
+    @Override
+    @Attribute
+    public String[] getRequestStats() {
+        return tangoStats.getRequestStats();
+    }
+
+    /**
+     * @return the number of logs sent, sampled and dropped, by logged device and logging device
+     */
+    @Attribute
+    public String[] getDeviceLogStats() {
+        return LoggingManager.getInstance().getDeviceLogStats();
+    }
+
+    /**
+     * @return the age of the oldest memorized value not yet stored in tango db, in milliseconds
+     */
+    @Attribute
+    public long getMemorizedPendingLag() {
+        return MemorizedValueWriter.getInstance().getPendingLag();
+    }
+
+    /**
+     * @return the maximum delay between the write of a memorized value and its store in tango db, in milliseconds
+     */
+    @Attribute
+    public long getMemorizedMaxFlushLag() {
+        return MemorizedValueWriter.getInstance().getMaxFlushLag();
+    }
+
+    /**
+     * @return the number of lazy inits waiting for a thread
+     */
+    @Attribute
+    public int getInitQueueSize() {
+        return InitExecutor.getInstance().getQueueSize();
+    }
+
+    /**
+     * @return the average delay between the submission of a lazy init and its end, in milliseconds
+     */
+    @Attribute
+    public long getInitAverageLatency() {
+        return InitExecutor.getInstance().getAverageLatency();
+    }
+
+    /**
+     * @return the maximum delay between the submission of a lazy init and its end, in milliseconds
+     */
+    @Attribute
+    public long getInitMaxLatency() {
+        return InitExecutor.getInstance().getMaxLatency();
+    }
+
+    /**
+     * @return the memory used by the history of each polled attribute and command
+     */
+    @Attribute
+    public String[] getPollingMemory() {
+        final List<String> result = new ArrayList<String>();
+        for (final DeviceClassBuilder clazz : classList) {
+            for (final DeviceImpl dev : clazz.getDeviceImplList()) {
+                for (final AttributeImpl attribute : dev.getAttributeList()) {
+                    if (attribute.isPolled()) {
+                        result.add(dev.getName() + "/" + attribute.getName() + ": "
+                                + attribute.getHistory().getMemoryFootprint() + " bytes for "
+                                + dev.getAttributeHistorySize(attribute) + " records");
+                    }
+                }
+                for (final CommandImpl command : dev.getCommandList()) {
+                    if (command.isPolled()) {
+                        result.add(dev.getName() + "/" + command.getName() + ": "
+                                + command.getHistory().getMemoryFootprint() + " bytes for "
+                                + dev.getCommandHistorySize(command) + " records");
+                    }
+                }
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
     @Override
     public long getMaxRequestsPerSecond() {
         return tangoStats.getMaxRequestsPerSecond();
@@ -1011,6 +1112,22 @@ public final class AdminDevice implements TangoMXBean {
         return tangoStats.getMinRequestsPerSecond();
     }
 
+    /**
+     * @return the number of events waiting to be published, when events are published asynchronously
+     */
+    @Attribute
+    public int getEventQueueSize() {
+        return EventManager.getInstance().getEventQueueSize();
+    }
+
+    /**
+     * @return the number of events dropped or merged because the event publication queue was full
+     */
+    @Attribute
+    public long getEventDropNr() {
+        return EventManager.getInstance().getEventDropNr();
+    }
+
     // public void setQuartzThreadsPoolSize(final int quartzThreadsPoolSize) {
     // this.quartzThreadsPoolSize = quartzThreadsPoolSize;
     // DeviceScheduler.setThreadPoolSize(quartzThreadsPoolSize);
@@ -37,6 +37,7 @@ import org.tango.server.ExceptionMessages;
 import org.tango.server.IPollable;
 import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.build.DeviceClassBuilder;
+import org.tango.server.cache.TangoCacheManager;
 import org.tango.server.command.CommandImpl;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
@@ -169,6 +170,15 @@ public class PollStatusCommand implements Callable<String[]> {
             buf.append(" mS\nDelta between last records (in mS) = ");
             buf.append(pollable.getDeltaTime());
         }
+        final int threadId = TangoCacheManager.getPollingThreadId(device.getName());
+        if (threadId > 0) {
+            buf.append("\nPolling thread id = ");
+            buf.append(threadId);
+        }
+        if (pollable.getLatePollCount() > 0) {
+            buf.append("\nPolling thread late, discarded polls = ");
+            buf.append(pollable.getLatePollCount());
+        }
         return buf;
     }
 }
@@ -169,4 +169,13 @@ public @interface Attribute {
      */
     boolean checkArchivingEvent() default true;
 
+    /**
+     * The value returned by the getter is kept as is by the server, without copying it. The device must not modify it
+     * once returned: a new array must be allocated for each new value. Images should be returned as 1D arrays with
+     * their dimensions set in an {@link org.tango.server.attribute.AttributeValue}.
+     * 
+     * @return true if the ownership of the read value is transferred to the server
+     */
+    boolean transferValueOwnership() default false;
+
 }
@@ -59,6 +59,7 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
     private boolean checkChangeEvent;
     private boolean pushArchiveEvent;
     private boolean checkArchivingEvent;
+    private boolean transferValueOwnership;
 
     public AttributeConfiguration() {
 
@@ -81,6 +82,7 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
         checkChangeEvent = config.checkChangeEvent;
         pushArchiveEvent = config.pushArchiveEvent;
         checkArchivingEvent = config.checkArchivingEvent;
+        transferValueOwnership = config.transferValueOwnership;
         attributeProperties = config.attributeProperties;
     }
 
@@ -276,6 +278,19 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
         this.isPolled = isPolled;
     }
 
+    public boolean isTransferValueOwnership() {
+        return transferValueOwnership;
+    }
+
+    /**
+     * If true, the read value is not copied on update. The device must not modify a value once it has been returned.
+     *
+     * @param transferValueOwnership
+     */
+    public void setTransferValueOwnership(final boolean transferValueOwnership) {
+        this.transferValueOwnership = transferValueOwnership;
+    }
+
     public boolean isPushDataReady() {
         return pushDataReady;
     }
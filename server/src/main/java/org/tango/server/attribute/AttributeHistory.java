@@ -24,16 +24,13 @@
  */
 package org.tango.server.attribute;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.tango.server.Constants;
+import org.tango.server.history.HistoryRing;
 
 import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
 import fr.esrf.Tango.DevAttrHistory_4;
 import fr.esrf.Tango.DevAttrHistory_5;
 import fr.esrf.Tango.DevError;
@@ -41,9 +38,8 @@ import fr.esrf.Tango.DevFailed;
 
 public final class AttributeHistory {
 
-    private final Logger logger = LoggerFactory.getLogger(AttributeHistory.class);
     private final String attributeName;
-    private final Deque<HistoryItem> valueHistory = new ArrayDeque<HistoryItem>(Constants.QUEUE_CAPACITY);
+    private final HistoryRing valueHistory;
     private final boolean isReadWrite;
     private final int tangoType;
     private int maxSize = Constants.DEFAULT_POLL_DEPTH;
@@ -55,16 +51,20 @@ public final class AttributeHistory {
         this.isReadWrite = isReadWrite;
         this.tangoType = tangoType;
         this.format = format;
+        valueHistory = new HistoryRing(maxSize - 1, isReadWrite);
     }
 
     public synchronized void addToHistory(final AttributeValue readValue, final AttributeValue writeValue,
             final DevError[] error) {
-        while (valueHistory.size() >= maxSize - 1) {
-            valueHistory.poll();
-        }
-        final boolean isInserted = valueHistory.offer(new HistoryItem(readValue, writeValue, error));
-        if (!isInserted) {
-            logger.debug("{} not inserted in history queue ", readValue);
+        final Object writePart = writeValue == null ? null : writeValue.getValue();
+        final int writeX = writeValue == null ? 0 : writeValue.getXDim();
+        final int writeY = writeValue == null ? 0 : writeValue.getYDim();
+        if (readValue == null) {
+            valueHistory.add(System.currentTimeMillis(), AttrQuality.ATTR_INVALID, null, 0, 0, writePart, writeX,
+                    writeY, error);
+        } else {
+            valueHistory.add(readValue.getTime(), readValue.getQuality(), readValue.getValue(), readValue.getXDim(),
+                    readValue.getYDim(), writePart, writeX, writeY, error);
         }
     }
 
@@ -76,6 +76,13 @@ public final class AttributeHistory {
         valueHistory.clear();
     }
 
+    /**
+     * @return an estimation of the memory used by the history, in bytes
+     */
+    public synchronized long getMemoryFootprint() {
+        return valueHistory.getMemoryFootprint();
+    }
+
     public synchronized DevAttrHistory_4 getAttrHistory4(final int maxSize) throws DevFailed {
         return new AttributeHistoryConvertor(attributeName, valueHistory, maxSize, tangoType, format, isReadWrite)
         .getAttrHistory4();
@@ -89,7 +96,7 @@ public final class AttributeHistory {
     @Override
     public String toString() {
         final ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.MULTI_LINE_STYLE);
-        builder.append("history size", valueHistory.size());
+        builder.append("history size", size());
         return builder.toString();
     }
 
@@ -97,7 +104,8 @@ public final class AttributeHistory {
         return maxSize;
     }
 
-    public void setMaxSize(final int maxSize) {
+    public synchronized void setMaxSize(final int maxSize) {
         this.maxSize = maxSize;
+        valueHistory.setCapacity(maxSize - 1);
     }
 }
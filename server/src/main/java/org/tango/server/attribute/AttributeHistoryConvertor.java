@@ -25,12 +25,11 @@
 package org.tango.server.attribute;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Deque;
 import java.util.LinkedList;
 
 import org.omg.CORBA.Any;
 import org.tango.orb.ORBManager;
+import org.tango.server.history.HistoryRing;
 import org.tango.server.idl.CleverAnyAttribute;
 import org.tango.server.idl.TangoIDLUtil;
 
@@ -46,7 +45,6 @@ import fr.esrf.Tango.TimeVal;
 import fr.esrf.TangoApi.DeviceDataHistory;
 
 public class AttributeHistoryConvertor {
-    private final Deque<HistoryItem> valueHistory;
     private TimeVal[] times;
     private AttrQuality[] qualitiesArray;
     private EltInArray[] qualSizeArray;
@@ -62,22 +60,17 @@ public class AttributeHistoryConvertor {
     private final int tangoType;
     private final AttrDataFormat format;
 
-    AttributeHistoryConvertor(final String attributeName, final Deque<HistoryItem> valueHistory, final int maxSize,
+    AttributeHistoryConvertor(final String attributeName, final HistoryRing valueHistory, final int maxSize,
             final int tangoType, final AttrDataFormat format, final boolean isReadWrite) throws DevFailed {
         this.attributeName = attributeName;
-        this.valueHistory = valueHistory;
         this.isReadWrite = isReadWrite;
         this.tangoType = tangoType;
         this.format = format;
-        if (!valueHistory.isEmpty()) {
-            final HistoryItem[] historyArray = Collections.asLifoQueue(valueHistory).toArray(
-                    new HistoryItem[valueHistory.size()]);
-            final HistoryItem[] returnedhistoryArray = createHistoryArray(maxSize, historyArray);
-            times = new TimeVal[returnedhistoryArray.length];
-
-            final Object array = fillHistoryArray(returnedhistoryArray);
-
-            values = CleverAnyAttribute.set(tangoType, array);
+        if (valueHistory.size() > 0) {
+            // the last maxSize records
+            final int from = Math.max(valueHistory.size() - Math.max(maxSize, 0), 0);
+            fillHistoryArray(valueHistory, from);
+            values = CleverAnyAttribute.set(tangoType, valueHistory.getValues(from));
         } else {
             createEmptyValues();
         }
@@ -86,7 +79,6 @@ public class AttributeHistoryConvertor {
     public AttributeHistoryConvertor(final DeviceDataHistory[] attributeHistory, final boolean isReadWrite)
             throws DevFailed {
         this.isReadWrite = isReadWrite;
-        valueHistory = null;
         if (attributeHistory.length > 0) {
             this.attributeName = attributeHistory[0].name;
             this.tangoType = attributeHistory[0].dataType;
@@ -200,96 +192,81 @@ public class AttributeHistoryConvertor {
                 readDimArray, readDimSizeArray, writeDimArray, writeDimSizeArray, errorsHist, errorsArrayHist);
     }
 
-    private HistoryItem[] createHistoryArray(final int maxSize, final HistoryItem[] historyArray) {
-        HistoryItem[] returnedhistoryArray;
-        if (valueHistory.size() > maxSize) {
-            returnedhistoryArray = new HistoryItem[maxSize];
-            System.arraycopy(historyArray, historyArray.length - maxSize, returnedhistoryArray, 0,
-                    returnedhistoryArray.length);
-        } else {
-            returnedhistoryArray = historyArray;
-        }
-        return returnedhistoryArray;
-    }
-
-    private Object fillHistoryArray(final HistoryItem[] returnedhistoryArray) {
-        Object array = null;
-        int i = 0;
-        final LinkedList<AttrQuality> qualities = new LinkedList<AttrQuality>();
-        final LinkedList<EltInArray> qualSize = new LinkedList<EltInArray>();
-        final LinkedList<AttributeDim> readDim = new LinkedList<AttributeDim>();
-        final LinkedList<EltInArray> readDimSize = new LinkedList<EltInArray>();
-        final LinkedList<AttributeDim> writeDim = new LinkedList<AttributeDim>();
-        final LinkedList<EltInArray> writeDimSize = new LinkedList<EltInArray>();
-        final LinkedList<DevError[]> errors = new LinkedList<DevError[]>();
-        final LinkedList<EltInArray> errorsArray = new LinkedList<EltInArray>();
-        // stack all history information
-        for (final HistoryItem item : returnedhistoryArray) {
-            times[i] = TangoIDLUtil.getTime(item.getReadValue().getTime());
-            if (item.getError() != null && item.getError().length != 0) {
-                errors.add(item.getError());
-                errorsArray.add(new EltInArray(i, 1));
-            } else {
-                // write value
-                if (item.getWriteValue() != null && item.getWriteValue().getValue() != null && isReadWrite) {
-                    array = org.tango.utils.ArrayUtils.addAll(item.getWriteValue().getValue(), array);
-                }
-                // read value
-                if (item.getReadValue().getValue() != null) {
-                    array = org.tango.utils.ArrayUtils.addAll(item.getReadValue().getValue(), array);
-                }
+    /**
+     * Build the times, and the qualities, dimensions and errors (each stored once for consecutive identical records,
+     * with the index of the last one) of the records from the record from
+     */
+    private void fillHistoryArray(final HistoryRing valueHistory, final int from) {
+        final int length = valueHistory.size() - from;
+        times = new TimeVal[length];
+        final AttrQuality[] qualities = new AttrQuality[length];
+        final EltInArray[] qualSize = new EltInArray[length];
+        int nbQualities = 0;
+        final AttributeDim[] readDim = new AttributeDim[length];
+        final EltInArray[] readDimSize = new EltInArray[length];
+        int nbReadDims = 0;
+        final AttributeDim[] writeDim = new AttributeDim[length];
+        final EltInArray[] writeDimSize = new EltInArray[length];
+        int nbWriteDims = 0;
+        final DevError[][] errors = new DevError[length][];
+        final EltInArray[] errorsArray = new EltInArray[length];
+        int nbErrors = 0;
+        for (int i = 0; i < length; i++) {
+            final int record = from + i;
+            times[i] = TangoIDLUtil.getTime(valueHistory.getTime(record));
+            final DevError[] error = valueHistory.getErrors(record);
+            if (error != null) {
+                errors[nbErrors] = error;
+                errorsArray[nbErrors++] = new EltInArray(i, 1);
             }
-            i++;
-
             // qualities
-            if (qualities.isEmpty() || !qualities.isEmpty() && item.getReadValue().getQuality() != qualities.getLast()) {
-                qualSize.add(new EltInArray(i - 1, 1));
-                qualities.add(item.getReadValue().getQuality());
+            final AttrQuality quality = valueHistory.getQuality(record);
+            if (nbQualities == 0 || quality != qualities[nbQualities - 1]) {
+                qualSize[nbQualities] = new EltInArray(i, 1);
+                qualities[nbQualities++] = quality;
             } else {
-                qualSize.getLast().nb_elt++;
-                qualSize.getLast().start++;
+                qualSize[nbQualities - 1].nb_elt++;
+                qualSize[nbQualities - 1].start++;
             }
             // readDim
-            if (readDim.isEmpty()
-                    || !readDim.isEmpty()
-                    && (item.getReadValue().getXDim() != readDim.getLast().dim_x || item.getReadValue().getYDim() != readDim
-                            .getLast().dim_y)) {
-                readDimSize.add(new EltInArray(i - 1, 1));
-                readDim.add(new AttributeDim(item.getReadValue().getXDim(), item.getReadValue().getYDim()));
+            final int readX = valueHistory.getReadDimX(record);
+            final int readY = valueHistory.getReadDimY(record);
+            if (nbReadDims == 0 || readX != readDim[nbReadDims - 1].dim_x || readY != readDim[nbReadDims - 1].dim_y) {
+                readDimSize[nbReadDims] = new EltInArray(i, 1);
+                readDim[nbReadDims++] = new AttributeDim(readX, readY);
             } else {
-                readDimSize.getLast().nb_elt++;
-                readDimSize.getLast().start++;
+                readDimSize[nbReadDims - 1].nb_elt++;
+                readDimSize[nbReadDims - 1].start++;
             }
             // writeDim
             if (isReadWrite) {
-                if (writeDim.isEmpty()
-                        || !writeDim.isEmpty()
-                        && (item.getWriteValue().getXDim() != writeDim.getLast().dim_x || item.getWriteValue()
-                                .getYDim() != writeDim.getLast().dim_y)) {
-                    writeDimSize.add(new EltInArray(i - 1, 1));
-                    writeDim.add(new AttributeDim(item.getWriteValue().getXDim(), item.getWriteValue().getYDim()));
+                final int writeX = valueHistory.getWriteDimX(record);
+                final int writeY = valueHistory.getWriteDimY(record);
+                if (nbWriteDims == 0 || writeX != writeDim[nbWriteDims - 1].dim_x
+                        || writeY != writeDim[nbWriteDims - 1].dim_y) {
+                    writeDimSize[nbWriteDims] = new EltInArray(i, 1);
+                    writeDim[nbWriteDims++] = new AttributeDim(writeX, writeY);
                 } else {
-                    writeDimSize.getLast().nb_elt++;
-                    writeDimSize.getLast().start++;
+                    writeDimSize[nbWriteDims - 1].nb_elt++;
+                    writeDimSize[nbWriteDims - 1].start++;
                 }
             }
         }
-        qualitiesArray = qualities.toArray(new AttrQuality[qualities.size()]);
-        qualSizeArray = qualSize.toArray(new EltInArray[qualSize.size()]);
-        readDimArray = readDim.toArray(new AttributeDim[readDim.size()]);
-        readDimSizeArray = readDimSize.toArray(new EltInArray[readDimSize.size()]);
+        qualitiesArray = Arrays.copyOf(qualities, nbQualities);
+        qualSizeArray = Arrays.copyOf(qualSize, nbQualities);
+        readDimArray = Arrays.copyOf(readDim, nbReadDims);
+        readDimSizeArray = Arrays.copyOf(readDimSize, nbReadDims);
 
         if (isReadWrite) {
-            writeDimArray = writeDim.toArray(new AttributeDim[writeDim.size()]);
-            writeDimSizeArray = writeDimSize.toArray(new EltInArray[writeDimSize.size()]);
+            writeDimArray = Arrays.copyOf(writeDim, nbWriteDims);
+            writeDimSizeArray = Arrays.copyOf(writeDimSize, nbWriteDims);
         } else {
             writeDimArray = new AttributeDim[readDimArray.length];
             Arrays.fill(writeDimArray, new AttributeDim(0, 0));
             writeDimSizeArray = Arrays.copyOf(readDimSizeArray, readDimSizeArray.length);
         }
-        errorsArrayHist = errorsArray.toArray(new EltInArray[errorsArray.size()]);
-        errorsHist = errors.toArray(new DevError[0][0]);
-        return array;
+        errorsArrayHist = Arrays.copyOf(errorsArray, nbErrors);
+        errorsHist = Arrays.copyOf(errors, nbErrors);
     }
 
 }
@@ -40,10 +40,14 @@ import org.tango.server.cache.PollingUtils;
 import org.tango.server.events.EventManager;
 import org.tango.server.idl.TangoIDLAttributeUtil;
 import org.tango.server.properties.AttributePropertiesManager;
+import org.tango.server.properties.MemorizedValueWriter;
 import org.tango.utils.ArrayUtils;
 import org.tango.utils.DevFailedUtils;
 
 import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Tango attribute
@@ -64,15 +68,26 @@ public class AttributeImpl extends DeviceBehaviorObject
     private final boolean isFwdAttribute;
     private final String deviceName;
     private AttributeValue readValue;
+    /**
+     * IDL union of the read value, built when checking it. Read outside the attribute lock, so the value and its union
+     * are published together.
+     */
+    private volatile ValidatedRead validatedRead;
     private AttributeValue writeValue = null;
     private DevFailed lastError;
-    private boolean isAlarmToHigh;
-    private boolean isOutOfLimits;
+    private volatile boolean isAlarmToHigh;
+    private volatile boolean isOutOfLimits;
     private long writtenTimestamp = 0;
-    private boolean isDeltaAlarm;
+    private volatile boolean isDeltaAlarm;
+    private volatile IAlarmListener alarmListener;
+    /**
+     * time of the last successful update of the read value, in milliseconds
+     */
+    private volatile long valueUpdateTime;
     private volatile double executionDuration;
     private volatile double lastUpdateTime;
     private volatile double deltaTime;
+    private final AtomicLong latePollCount = new AtomicLong();
 
     public AttributeImpl(final IAttributeBehavior behavior, final String deviceName) throws DevFailed {
         super();
@@ -87,27 +102,44 @@ public class AttributeImpl extends DeviceBehaviorObject
         isAlarmToHigh = false;
     }
 
-    private Object getMemorizedValue() throws DevFailed {
-        final String value = attributePropertiesManager.getAttributePropertyFromDB(getName(),
-                Constants.MEMORIZED_VALUE);
-        Object obj = null;
-        if (value != null && !value.isEmpty() && config.getFormat().equals(AttrDataFormat.SCALAR)) {
-            final Transmorph transmorph = new Transmorph(new DefaultConverters());
-            try {
-                obj = transmorph.convert(value, config.getType());
-            } catch (final ConverterException e) {
-                throw DevFailedUtils.newDevFailed(e);
+    private AttributeValue getMemorizedValue() throws DevFailed {
+        final Map<String, String[]> properties = attributePropertiesManager.getAttributePropertiesFromDB(getName());
+        final String[] value = properties.get(Constants.MEMORIZED_VALUE);
+        if (value == null || value.length == 0 || value.length == 1 && value[0].isEmpty()) {
+            return null;
+        }
+        final Transmorph transmorph = new Transmorph(new DefaultConverters());
+        AttributeValue result = null;
+        try {
+            if (config.getFormat().equals(AttrDataFormat.SCALAR)) {
+                result = new AttributeValue(transmorph.convert(value[0], config.getType()), AttrQuality.ATTR_VALID);
+            } else {
+                final Object array = Array.newInstance(config.getScalarType(), value.length);
+                for (int i = 0; i < value.length; i++) {
+                    Array.set(array, i, transmorph.convert(value[i], config.getScalarType()));
+                }
+                int dimX = value.length;
+                int dimY = 0;
+                final String[] dims = properties.get(Constants.MEMORIZED_VALUE_DIM);
+                if (config.getFormat().equals(AttrDataFormat.IMAGE) && dims != null && dims.length == 2) {
+                    dimX = Integer.parseInt(dims[0]);
+                    dimY = Integer.parseInt(dims[1]);
+                }
+                result = new AttributeValue(array, AttrQuality.ATTR_VALID, dimX, dimY);
             }
+        } catch (final ConverterException e) {
+            throw DevFailedUtils.newDevFailed(e);
+        } catch (final NumberFormatException e) {
+            throw DevFailedUtils.newDevFailed(e);
         }
-        return obj;
+        return result;
     }
 
     public void applyMemorizedValue() throws DevFailed {
         if (isMemorized() && !config.getWritable().equals(AttrWriteType.READ)) {
             xlogger.entry(config.getName());
-            final Object value = getMemorizedValue();
-            if (value != null) {
-                final AttributeValue attrValue = new AttributeValue(value, AttrQuality.ATTR_VALID);
+            final AttributeValue attrValue = getMemorizedValue();
+            if (attrValue != null) {
                 synchronized (this) {
                     if (config.isMemorizedAtInit()) {
                         setValue(attrValue);
@@ -116,37 +148,30 @@ public class AttributeImpl extends DeviceBehaviorObject
                     }
                 }
             }
-            // TODO manage performance issues for arrays
-            // else {
-            // final int dimX = 0;
-            // final int dimY = 0;
-            // if (getFormat().equals(AttrDataFormat.IMAGE)) {
-            // final String[] dims = attributePropertiesManager.getAttributePropertyFromDB(getName(),
-            // Constants.MEMORIZED_VALUE_DIM);
-            // if (dims != null && dims.length == 2) {
-            // dimX = Integer.valueOf(dims[0]);
-            // dimY = Integer.valueOf(dims[1]);
-            // }
-            // }
-            // obj = Array.newInstance(type.getAttrClass(), value.length);
-            // for (int i = 0; i < value.length; i++) {
-            // Array.set(obj, i, MiscellaneousUtils.toObject(value[i], type));
-            // }
-            // }
-            // logger.info("{} is memorized with value {} ", config.getName(),
-            // Arrays.toString(value));
-
             xlogger.exit();
         }
     }
 
+    /**
+     * Store the written value in tango db, see {@link MemorizedValueWriter}
+     */
+    private void memorizeWriteValue() throws DevFailed {
+        final Map<String, String[]> properties = new HashMap<String, String[]>();
+        properties.put(Constants.MEMORIZED_VALUE, getValueAsString());
+        if (getFormat().equals(AttrDataFormat.IMAGE)) {
+            properties.put(Constants.MEMORIZED_VALUE_DIM, new String[] { Integer.toString(writeValue.getXDim()),
+                    Integer.toString(writeValue.getYDim()) });
+        }
+        MemorizedValueWriter.getInstance().write(deviceName, getName(), properties);
+    }
+
     private String[] getValueAsString() throws DevFailed {
         String[] result;
         if (config.getFormat().equals(AttrDataFormat.SCALAR)) {
             result = new String[1];
             result[0] = writeValue.getValue().toString();
         } else {
-            final Object obj = writeValue.getValue();
+            final Object obj = ArrayUtils.from2DArrayToArray(writeValue.getValue());
             final int length = Array.getLength(obj);
             result = new String[length];
             for (int i = 0; i < result.length; i++) {
@@ -183,12 +208,14 @@ public class AttributeImpl extends DeviceBehaviorObject
             }
         }
         if (config.getWritable().equals(AttrWriteType.WRITE)) {
+            validatedRead = null;
             if (writeValue == null) {
                 readValue = new AttributeValue();
                 readValue.setValue(AttributeTangoType.getDefaultValue(config.getType()));
             } else {
                 readValue = writeValue;
             }
+            valueUpdateTime = System.currentTimeMillis();
         } else {
             // attribute with a read part
             final AttributeValue returnedValue = behavior.getValue();
@@ -214,11 +241,18 @@ public class AttributeImpl extends DeviceBehaviorObject
                     name + " read value has not been updated");
         }
 
-        try {
-            // copy value
-            readValue = (AttributeValue) inValue.clone();
-        } catch (final CloneNotSupportedException e) {
-            throw DevFailedUtils.newDevFailed(e);
+        validatedRead = null;
+        if (config.isTransferValueOwnership()) {
+            // the device will not modify the value, only its quality and dimensions may be updated here
+            readValue = new AttributeValue(inValue.getValue(), inValue.getQuality(), inValue.getXDim(),
+                    inValue.getYDim(), inValue.getTime());
+        } else {
+            try {
+                // copy value
+                readValue = (AttributeValue) inValue.clone();
+            } catch (final CloneNotSupportedException e) {
+                throw DevFailedUtils.newDevFailed(e);
+            }
         }
 
         // update quality if necessary
@@ -234,10 +268,13 @@ public class AttributeImpl extends DeviceBehaviorObject
                 checkUpdateErrors(readValue);
                 // profilerPeriod.start("from2DArrayToArray");
                 // get as array if necessary (for image)
-                readValue.setValueWithoutDim(ArrayUtils.from2DArrayToArray(readValue.getValue()));
-                // force conversion to check types
+                if (is2DArray(readValue.getValue())) {
+                    readValue.setValueWithoutDim(ArrayUtils.from2DArrayToArray(readValue.getValue()));
+                }
+                // force conversion to check types, and keep it for reads and events
                 // profilerPeriod.start("toAttributeValue5");
-                TangoIDLAttributeUtil.toAttributeValue5(this, readValue, null);
+                validatedRead = new ValidatedRead(readValue,
+                        TangoIDLAttributeUtil.toAttributeValue5(this, readValue, null).value);
             } else {
                 throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_VALUE_NOT_SET,
                         name + " read value has not been updated");
@@ -245,6 +282,7 @@ public class AttributeImpl extends DeviceBehaviorObject
             // profilerPeriod.start("updateDefaultWritePart");
             updateDefaultWritePart();
             // profilerPeriod.stop().print();
+            valueUpdateTime = System.currentTimeMillis();
 
         } catch (final DevFailed e) {
             // readValue.setQuality(AttrQuality.ATTR_INVALID);
@@ -256,6 +294,21 @@ public class AttributeImpl extends DeviceBehaviorObject
         xlogger.exit(getName());
     }
 
+    private static boolean is2DArray(final Object value) {
+        return value.getClass().isArray() && value.getClass().getComponentType().isArray();
+    }
+
+    /**
+     * Get the IDL union built when the read value has been updated
+     *
+     * @param read a read value
+     * @return the IDL union if read is the current read value, null otherwise
+     */
+    public AttrValUnion getReadValueUnion(final AttributeValue read) {
+        final ValidatedRead validated = validatedRead;
+        return validated != null && validated.value == read ? validated.union : null;
+    }
+
     private void checkUpdateErrors(final AttributeValue returnedValue) throws DevFailed {
         if (config.getFormat().equals(AttrDataFormat.SCALAR) && returnedValue.getXDim() != 1
                 && returnedValue.getYDim() != 0) {
@@ -286,6 +339,9 @@ public class AttributeImpl extends DeviceBehaviorObject
     }
 
     private void updateQuality(final AttributeValue returnedValue) {
+        final boolean wasOutOfLimits = isOutOfLimits;
+        final boolean wasDeltaAlarm = isDeltaAlarm;
+        final boolean wasAlarmToHigh = isAlarmToHigh;
         isOutOfLimits = false;
         isDeltaAlarm = false;
         final AttributePropertiesImpl props = config.getAttributeProperties();
@@ -307,6 +363,12 @@ public class AttributeImpl extends DeviceBehaviorObject
                 checkSpectrumQuality(returnedValue, maxAlarm, minAlarm, maxWarning, minWarning, deltaT);
             }
         }
+        final IAlarmListener listener = alarmListener;
+        if (listener != null
+                && (wasOutOfLimits != isOutOfLimits || wasDeltaAlarm != isDeltaAlarm || isOutOfLimits
+                        && wasAlarmToHigh != isAlarmToHigh)) {
+            listener.alarmChanged(this);
+        }
     }
 
     private void checkSpectrumQuality(final AttributeValue returnedValue, final double maxAlarm, final double minAlarm,
@@ -415,6 +477,29 @@ public class AttributeImpl extends DeviceBehaviorObject
         return isAlarmToHigh;
     }
 
+    /**
+     * @return true if the read value is out of the alarm or warning limits, or has a delta alarm
+     */
+    public boolean isAlarm() {
+        return isOutOfLimits || isDeltaAlarm;
+    }
+
+    /**
+     * Set the listener notified when the alarm state of this attribute changes
+     *
+     * @param alarmListener the listener, or null
+     */
+    public void setAlarmListener(final IAlarmListener alarmListener) {
+        this.alarmListener = alarmListener;
+    }
+
+    /**
+     * @return the time of the last successful update of the read value, in milliseconds, 0 if never updated
+     */
+    public long getValueUpdateTime() {
+        return valueUpdateTime;
+    }
+
     /**
      * write attribute
      *
@@ -446,17 +531,8 @@ public class AttributeImpl extends DeviceBehaviorObject
             value.setValue(ArrayUtils.fromArrayTo2DArray(writeValue.getValue(), writeValue.getXDim(), dimY),
                     writtenTimestamp);
             behavior.setValue(value);
-            if (isMemorized() && getFormat().equals(AttrDataFormat.SCALAR)) {
-                // TODO: refactoring to manage performance issues for spectrum and
-                // images
-                attributePropertiesManager.setAttributePropertyInDB(getName(), Constants.MEMORIZED_VALUE,
-                        getValueAsString()[0]);
-                // if (getFormat().equals(AttrDataFormat.IMAGE)) {
-                // deviceImpl.setAttributePropertyInDB(att.getName(),
-                // Constants.MEMORIZED_VALUE_DIM,
-                // Integer.toString(value4.w_dim.dim_x),
-                // Integer.toString(value4.w_dim.dim_y));
-                // }
+            if (isMemorized()) {
+                memorizeWriteValue();
             }
             // profilerPeriod.stop().print();
         } else {
@@ -575,7 +651,8 @@ public class AttributeImpl extends DeviceBehaviorObject
     public String toString() {
         final ReflectionToStringBuilder reflectionToStringBuilder = new ReflectionToStringBuilder(this,
                 ToStringStyle.MULTI_LINE_STYLE);
-        reflectionToStringBuilder.setExcludeFieldNames(new String[] { "readValue", "writeValue", "history", "type" });
+        reflectionToStringBuilder.setExcludeFieldNames(new String[] { "readValue", "validatedRead", "writeValue",
+                "history", "type" });
         return reflectionToStringBuilder.toString();
     }
 
@@ -770,7 +847,30 @@ public class AttributeImpl extends DeviceBehaviorObject
         this.deltaTime = deltaTime;
     }
 
+    @Override
+    public long getLatePollCount() {
+        return latePollCount.get();
+    }
+
+    @Override
+    public void addLatePoll() {
+        latePollCount.incrementAndGet();
+    }
+
     public boolean isFwdAttribute() {
         return isFwdAttribute;
     }
+
+    /**
+     * A read value with the IDL union built from it
+     */
+    private static final class ValidatedRead {
+        private final AttributeValue value;
+        private final AttrValUnion union;
+
+        ValidatedRead(final AttributeValue value, final AttrValUnion union) {
+            this.value = value;
+            this.union = union;
+        }
+    }
 }
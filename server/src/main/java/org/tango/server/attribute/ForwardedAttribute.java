@@ -62,6 +62,11 @@ public class ForwardedAttribute implements IAttributeBehavior {
     private String localLabel;
     private String remoteLabel;
     private String deviceName;
+    /**
+     * Last value received from the root attribute events, null if not subscribed or if the root event channel is in
+     * error (heartbeat lost, root device down...)
+     */
+    private volatile AttributeValue_5 lastEventValue;
 
     /**
      * Create a forwarded attribute.
@@ -129,6 +134,15 @@ public class ForwardedAttribute implements IAttributeBehavior {
         return readValue;
     }
 
+    /**
+     * Get the last value received from the root attribute events, without remote call.
+     *
+     * @return the value, or null if no root event has been received, or if the root event channel is in error
+     */
+    public AttributeValue_5 getLastEventValue5() {
+        return lastEventValue;
+    }
+
     public AttributeValue_5 getValue5() throws DevFailed {
         final AttributeValue_5 read5 = proxy.getAttributeProxy().read().getAttributeValueObject_5();
         read5.name = attributeName;
@@ -184,6 +198,8 @@ public class ForwardedAttribute implements IAttributeBehavior {
             public void push_event(final EventData evt) {
                 try {
                     if (evt.errors != null && evt.errors.length > 0) {
+                        // the client API reports a lost heartbeat as an error event
+                        lastEventValue = null;
                         EventManager.getInstance().pushAttributeEvent(deviceName, attributeName,
                                 new DevFailed(evt.errors));
                     } else {
@@ -193,6 +209,7 @@ public class ForwardedAttribute implements IAttributeBehavior {
                             case PERIODIC_EVENT:
                             case CHANGE_EVENT:
                             case USER_EVENT:
+                                updateLastEventValue(evt);
                                 EventManager.getInstance().forceAttributePushEvent(deviceName, attributeName, evtT);
                                 break;
                             case ATT_CONF_EVENT:
@@ -216,4 +233,15 @@ public class ForwardedAttribute implements IAttributeBehavior {
         proxy.getAttributeProxy().subscribe_event(eventType.getValue(), callback, new String[] {});
     }
 
+    private void updateLastEventValue(final EventData evt) {
+        final AttributeValue_5 value = evt.attr_value == null ? null : evt.attr_value.getAttributeValueObject_5();
+        if (value == null) {
+            lastEventValue = null;
+        } else {
+            // the event value belongs to the event data, rename a copy
+            lastEventValue = new AttributeValue_5(value.value, value.quality, value.data_format, value.data_type,
+                    value.time, attributeName, value.r_dim, value.w_dim, value.err_list);
+        }
+    }
+
 }
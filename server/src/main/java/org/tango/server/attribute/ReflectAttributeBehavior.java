@@ -54,6 +54,20 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
     private final Method getter;
     private final Method setter;
     private final Object businessObject;
+    /**
+     * setter parameter, resolved at build time. null if there is no setter with one parameter
+     */
+    private final Class<?> paramSetter;
+    private final SetterType setterType;
+    /**
+     * class of the values accepted without further check
+     */
+    private final Class<?> acceptedInput;
+    private final Object[] enumConstants;
+
+    private enum SetterType {
+        DEVICE_STATE, DEVICE_STATE_ARRAY, ENUM, VALUE
+    }
 
     /**
      * Ctr
@@ -73,6 +87,40 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
         this.getter = getter;
         this.setter = setter;
         this.config = config;
+        setAccessible(getter);
+        setAccessible(setter);
+        if (setter != null && setter.getParameterTypes().length == 1) {
+            paramSetter = getParamSetter();
+            if (DeviceState.class.equals(paramSetter)) {
+                setterType = SetterType.DEVICE_STATE;
+            } else if (Enum.class.isAssignableFrom(paramSetter)) {
+                setterType = SetterType.ENUM;
+            } else if (DeviceState[].class.equals(paramSetter)) {
+                setterType = SetterType.DEVICE_STATE_ARRAY;
+            } else {
+                setterType = SetterType.VALUE;
+            }
+            enumConstants = paramSetter.getEnumConstants();
+            acceptedInput = ClassUtils.primitiveToWrapper(paramSetter);
+        } else {
+            paramSetter = null;
+            setterType = null;
+            enumConstants = null;
+            acceptedInput = null;
+        }
+    }
+
+    /**
+     * Skip the access check on each invocation
+     */
+    private static void setAccessible(final Method method) {
+        if (method != null) {
+            try {
+                method.setAccessible(true);
+            } catch (final RuntimeException e) {
+                // not allowed, checked on each invocation
+            }
+        }
     }
 
     @Override
@@ -130,26 +178,31 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
 
     @Override
     public void setValue(final AttributeValue value) throws DevFailed {
-
-        if (setter != null && setter.getParameterTypes().length == 1) {
-            final Class<?> paramSetter = getParamSetter();
+        if (paramSetter != null) {
             try {
-                if (paramSetter.equals(DeviceState.class)) {
-                    setter.invoke(businessObject, DeviceState.getDeviceState((DevState) value.getValue()));
-                } else if (Enum.class.isAssignableFrom(paramSetter)) {
-                    final short enumValue = (Short) value.getValue();
-                    setter.invoke(businessObject, paramSetter.getEnumConstants()[enumValue]);
-                } else if (paramSetter.equals(DeviceState[].class)) {
-                    final DevState[] states = (DevState[]) value.getValue();
-                    final DeviceState[] devStates = new DeviceState[states.length];
-                    for (int i = 0; i < devStates.length; i++) {
-                        devStates[i] = DeviceState.getDeviceState(states[i]);
-                    }
-                    setter.invoke(businessObject, (Object) devStates);
-                } else {
-                    final Class<?> input = getInputClass(value);
-                    checkParamTypes(value, paramSetter, input);
-                    setter.invoke(businessObject, value.getValue());
+                switch (setterType) {
+                    case DEVICE_STATE:
+                        setter.invoke(businessObject, DeviceState.getDeviceState((DevState) value.getValue()));
+                        break;
+                    case ENUM:
+                        final short enumValue = (Short) value.getValue();
+                        setter.invoke(businessObject, enumConstants[enumValue]);
+                        break;
+                    case DEVICE_STATE_ARRAY:
+                        final DevState[] states = (DevState[]) value.getValue();
+                        final DeviceState[] devStates = new DeviceState[states.length];
+                        for (int i = 0; i < devStates.length; i++) {
+                            devStates[i] = DeviceState.getDeviceState(states[i]);
+                        }
+                        setter.invoke(businessObject, (Object) devStates);
+                        break;
+                    default:
+                        if (!acceptedInput.isInstance(value.getValue())) {
+                            final Class<?> input = getInputClass(value);
+                            checkParamTypes(value, paramSetter, input);
+                        }
+                        setter.invoke(businessObject, value.getValue());
+                        break;
                 }
             } catch (final IllegalArgumentException e) {
                 DevFailedUtils.throwDevFailed(e);
@@ -159,7 +212,6 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
                 throwDevFailed(e);
             }
         }
-
     }
 
     private void checkParamTypes(final AttributeValue value, final Class<?> paramSetter, final Class<?> input)
@@ -180,9 +232,12 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
     }
 
     private Class<?> getParamSetter() {
-        Class<?> paramSetter = setter.getParameterTypes()[0];
+        final Class<?> paramSetter = setter.getParameterTypes()[0];
         if (Number.class.isAssignableFrom(paramSetter) || Boolean.class.isAssignableFrom(paramSetter)) {
-            paramSetter = ClassUtils.wrapperToPrimitive(setter.getParameterTypes()[0]);
+            final Class<?> primitive = ClassUtils.wrapperToPrimitive(paramSetter);
+            if (primitive != null) {
+                return primitive;
+            }
         }
         return paramSetter;
     }
@@ -129,6 +129,7 @@ final class BuilderUtils {
         config.setCheckChangeEvent(annot.checkChangeEvent());
         config.setPushArchiveEvent(annot.pushArchiveEvent());
         config.setCheckArchivingEvent(annot.checkArchivingEvent());
+        config.setTransferValueOwnership(annot.transferValueOwnership());
         if (setter == null) {
             config.setWritable(AttrWriteType.READ);
         } else if (getter == null) {
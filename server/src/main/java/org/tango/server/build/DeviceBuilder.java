@@ -85,8 +85,8 @@ public final class DeviceBuilder {
         xlogger.entry();
 
         checkIsTangoDevice(clazz, name);
-        DeviceManagerBuilder.clear();
-        DynamicManagerBuilder.clear();
+        DeviceManagerBuilder.clear(name);
+        DynamicManagerBuilder.clear(name);
 
         try {
             final Device annotation = clazz.getAnnotation(Device.class);
@@ -122,6 +122,9 @@ public final class DeviceBuilder {
             DevFailedUtils.throwDevFailed(e);
         } catch (final IllegalAccessException e) {
             DevFailedUtils.throwDevFailed(e);
+        } finally {
+            DeviceManagerBuilder.clear(name);
+            DynamicManagerBuilder.clear(name);
         }
         device.initDevice();
         xlogger.exit();
@@ -65,15 +65,35 @@ public class DeviceClassBuilder {
     }
 
     public DeviceImpl buildDevice(final String name) throws DevFailed {
-        final String lowerName = name.toLowerCase(Locale.ENGLISH);
-        logger.debug("create device {} of class {}", lowerName, clazz.getName());
-        final DeviceImpl dev = new DeviceBuilder(clazz, className, name).createDevice();
-        deviceImplMap.put(lowerName, dev);
-
+        final DeviceImpl dev = createDevice(name);
+        addDevice(dev);
         return dev;
 
     }
 
+    /**
+     * Create and initialize a device without adding it to this class. May be called concurrently.
+     * 
+     * @param name
+     *            The device name
+     * @return the device
+     * @throws DevFailed
+     */
+    public DeviceImpl createDevice(final String name) throws DevFailed {
+        logger.debug("create device {} of class {}", name.toLowerCase(Locale.ENGLISH), clazz.getName());
+        return new DeviceBuilder(clazz, className, name).createDevice();
+    }
+
+    /**
+     * Add a device created by {@link #createDevice(String)}
+     * 
+     * @param dev
+     *            The device
+     */
+    public void addDevice(final DeviceImpl dev) {
+        deviceImplMap.put(dev.getName().toLowerCase(Locale.ENGLISH), dev);
+    }
+
     public void removeDevice(final String name) {
         final String lowerName = name.toLowerCase(Locale.ENGLISH);
         logger.debug("remove device {}", lowerName);
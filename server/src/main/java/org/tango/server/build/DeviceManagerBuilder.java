@@ -27,9 +27,9 @@ package org.tango.server.build;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,10 +48,15 @@ final class DeviceManagerBuilder {
     /**
      * keep record of DeviceManagers for device inheritance
      */
-    private static final Map<String, DeviceManager> DEV_MNGERS = new HashMap<String, DeviceManager>();
+    private static final Map<String, DeviceManager> DEV_MNGERS = new ConcurrentHashMap<String, DeviceManager>();
 
-    public static void clear() {
-        DEV_MNGERS.clear();
+    /**
+     * Forget the record of a device, before building it. Devices may be built concurrently.
+     * 
+     * @param deviceName
+     */
+    public static void clear(final String deviceName) {
+        DEV_MNGERS.remove(deviceName.toLowerCase(Locale.ENGLISH));
     }
 
     /**
@@ -27,9 +27,9 @@ package org.tango.server.build;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,10 +56,15 @@ final class DynamicManagerBuilder {
     /**
      * keep record of DynamicManager for device inheritance
      */
-    private static final Map<String, DynamicManager> DYN_MNGRS = new HashMap<String, DynamicManager>();
+    private static final Map<String, DynamicManager> DYN_MNGRS = new ConcurrentHashMap<String, DynamicManager>();
 
-    public static void clear() {
-        DYN_MNGRS.clear();
+    /**
+     * Forget the record of a device, before building it. Devices may be built concurrently.
+     * 
+     * @param deviceName
+     */
+    public static void clear(final String deviceName) {
+        DYN_MNGRS.remove(deviceName.toLowerCase(Locale.ENGLISH));
     }
 
     /**
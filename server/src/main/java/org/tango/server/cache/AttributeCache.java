@@ -24,15 +24,10 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.attribute.AttributeImpl;
@@ -43,29 +38,20 @@ public final class AttributeCache {
     private final Logger logger = LoggerFactory.getLogger(AttributeCache.class);
 
     private ScheduledFuture<?> result;
-    private final SelfPopulatingCache cache;
+    private final PollingCache cache;
     private final AttributeImpl attribute;
 
-    public AttributeCache(final CacheManager manager, final AttributeImpl attr, final String deviceName,
-            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public AttributeCache(final AttributeImpl attr, final String deviceName, final DeviceLocker deviceLock,
+            final AroundInvokeImpl aroundInvoke) {
         attribute = attr;
         final String cacheName = "attrTangoPollingCache." + deviceName + "/" + attr.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new AttributeCacheEntryFactory(attr, deviceLock, deviceName,
+        cache = new PollingCache(cacheName, new AttributeCacheEntryFactory(attr, deviceLock, deviceName,
                 aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         logger.debug("start refresh cache of {} ", attribute.getName());
-        final CacheRefresher refresher = new CacheRefresher(cache, attribute.getName().toLowerCase(Locale.ENGLISH));
+        final CacheRefresher refresher = new CacheRefresher(cache, attribute);
         result = pollingPool.scheduleAtFixedRate(refresher, 0L, attribute.getPollingPeriod(), TimeUnit.MILLISECONDS);
     }
 
@@ -76,7 +62,7 @@ public final class AttributeCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    public PollingCache getCache() {
         return cache;
     }
 }
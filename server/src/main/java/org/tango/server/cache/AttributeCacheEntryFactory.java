@@ -24,10 +24,6 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
-
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.InvocationContext;
@@ -63,63 +59,36 @@ public final class AttributeCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
-
-        logger.debug("Creating entry for key = {} , attribute {}/{} ",
-                new Object[] { key, deviceName, attribute.getName() });
-
-        // profilerPeriod.stop().print();
-        // profilerPeriod = new Profiler("period");
-        // profilerPeriod.start(attribute.getName());
-        // if (element != null) {
-        // logger.debug("{} hint {}", element.getHitCount());
-        // System.out.println(element.getExpirationTime());
-        // }
-        // final Profiler profiler = new Profiler("read time");
-        // profiler.start(attribute.getName());
+    public Object createEntry() throws DevFailed {
+        logger.debug("Creating entry for attribute {}/{} ", deviceName, attribute.getName());
         Object result = null;
-
-        if (key.equals(attribute.getName().toLowerCase(Locale.ENGLISH))) {
-            final Object lock = deviceLock.getAttributeLock();
-            synchronized (lock != null ? lock : new Object()) {
-                aroundInvoke.aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTE, CallType.POLLING, null,
-                        attribute.getName()));
-                try {
-                    synchronized (attribute) {
-                        final long time1 = System.nanoTime();
-                        attribute.updateValue();
-                        final long now = System.nanoTime();
-                        final long nowMilli = System.currentTimeMillis();
-                        final long deltaTime = now - lastUpdateTime;
-                        lastUpdateTime = now;
-                        final long executionDuration = lastUpdateTime - time1;
-                        attribute.setPollingStats(executionDuration / NANO_TO_MILLI, nowMilli, deltaTime
-                                / NANO_TO_MILLI);
-                        attribute.addToHistory();
-                        result = attribute.getReadValue();
-                        EventManager.getInstance().pushAttributeEvent(deviceName, attribute.getName());
-                    }
-                } catch (final DevFailed e) {
-                    attribute.addErrorToHistory(e);
-                    EventManager.getInstance().pushAttributeEvent(deviceName, attribute.getName(), e);
-                    throw e;
-                } finally {
-                    aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, CallType.POLLING,
-                            null, attribute.getName()));
+        final Object lock = deviceLock.getAttributeLock();
+        synchronized (lock != null ? lock : new Object()) {
+            aroundInvoke.aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTE, CallType.POLLING, null,
+                    attribute.getName()));
+            try {
+                synchronized (attribute) {
+                    final long time1 = System.nanoTime();
+                    attribute.updateValue();
+                    final long now = System.nanoTime();
+                    final long nowMilli = System.currentTimeMillis();
+                    final long deltaTime = now - lastUpdateTime;
+                    lastUpdateTime = now;
+                    final long executionDuration = lastUpdateTime - time1;
+                    attribute.setPollingStats(executionDuration / NANO_TO_MILLI, nowMilli, deltaTime / NANO_TO_MILLI);
+                    attribute.addToHistory();
+                    result = attribute.getReadValue();
+                    EventManager.getInstance().pushAttributeEvent(deviceName, attribute.getName());
                 }
-            }// synchronized
-        }
-
-        // profiler.stop().print();
-
+            } catch (final DevFailed e) {
+                attribute.addErrorToHistory(e);
+                EventManager.getInstance().pushAttributeEvent(deviceName, attribute.getName(), e);
+                throw e;
+            } finally {
+                aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, CallType.POLLING,
+                        null, attribute.getName()));
+            }
+        }// synchronized
         return result;
     }
-    // @Override
-    // public void updateEntryValue(final Object key, final Object value) throws
-    // Exception {
-    // System.out.println("~~~~~~UPDATING entry for key = " + key);
-    // final StringBuffer stringBuffer = (StringBuffer) value;
-    // stringBuffer.append(stringBuffer.length());
-    //
-    // }
 }
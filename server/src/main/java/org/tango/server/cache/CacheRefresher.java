@@ -24,39 +24,55 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
-
-import net.sf.ehcache.CacheException;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tango.server.IPollable;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
 
+/**
+ * Periodic poll of an object. The polling deadlines of the object are tracked: when the polling thread is late of at
+ * least one period (because another object of the same thread was slow), the poll is discarded and counted as late,
+ * so the thread catches up its schedule instead of running all the delayed polls in a row.
+ */
 public final class CacheRefresher implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(CacheRefresher.class);
-    private final SelfPopulatingCache cache;
-    private final String name;
+    private final PollingCache cache;
+    private final IPollable pollable;
+    private final long period;
+    private long deadline;
+    private boolean isFirstPoll = true;
 
-//    private final Profiler profiler;
-
-    public CacheRefresher(final SelfPopulatingCache cache, final String name) {
+    public CacheRefresher(final PollingCache cache, final IPollable pollable) {
         this.cache = cache;
-        this.name = name.toLowerCase(Locale.ENGLISH);
-//        profiler = new Profiler("tangoCache");
-//        profiler.start(cache.getName());
+        this.pollable = pollable;
+        period = TimeUnit.MILLISECONDS.toNanos(pollable.getPollingPeriod());
     }
 
     @Override
     public void run() {
+        final long now = System.nanoTime();
+        // nanoTime may be 0 or negative, it cannot mark the first poll
+        if (isFirstPoll) {
+            isFirstPoll = false;
+            deadline = now;
+        }
+        final long lateness = now - deadline;
+        deadline += period;
+        if (period > 0 && lateness >= period) {
+            pollable.addLatePoll();
+            logger.debug("polling thread is late of {} ms, discard poll of {}",
+                    TimeUnit.NANOSECONDS.toMillis(lateness), cache.getName());
+            return;
+        }
         logger.debug("refresh {}", cache.getName());
-
-//        profiler.stop().print();
-//        profiler.start(cache.getName());
         try {
-            cache.get(name);
             cache.refresh();
-        } catch (final CacheException e) {
-            logger.error("error {}", e.getCause());
+        } catch (final DevFailed e) {
+            logger.error("error {}", DevFailedUtils.toString(e));
         }
 
     }
@@ -24,15 +24,10 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.command.CommandImpl;
@@ -43,29 +38,20 @@ public final class CommandCache {
     private final Logger logger = LoggerFactory.getLogger(CommandCache.class);
 
     private ScheduledFuture<?> result;
-    private final SelfPopulatingCache cache;
+    private final PollingCache cache;
     private final CommandImpl command;
 
-    public CommandCache(final CacheManager manager, final CommandImpl command, final String deviceName,
-            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public CommandCache(final CommandImpl command, final String deviceName, final DeviceLocker deviceLock,
+            final AroundInvokeImpl aroundInvoke) {
         this.command = command;
         final String cacheName = "cmdTangoPollingCache." + deviceName + "/" + command.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new CommandCacheEntryFactory(command, deviceLock, aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
+        cache = new PollingCache(cacheName, new CommandCacheEntryFactory(command, deviceLock, aroundInvoke));
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         logger.debug("start command refresh cache of {} at a rate of {} ms", command.getName(),
                 command.getPollingPeriod());
-        final CacheRefresher refresher = new CacheRefresher(cache, command.getName().toLowerCase(Locale.ENGLISH));
+        final CacheRefresher refresher = new CacheRefresher(cache, command);
         result = pollingPool.scheduleAtFixedRate(refresher, 0L, command.getPollingPeriod(), TimeUnit.MILLISECONDS);
     }
 
@@ -76,7 +62,7 @@ public final class CommandCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    public PollingCache getCache() {
         return cache;
     }
 }
@@ -24,8 +24,6 @@
  */
 package org.tango.server.cache;
 
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.InvocationContext;
@@ -56,8 +54,8 @@ public final class CommandCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
-        logger.debug("Creating entry for key = {} , command {} ", key, command.getName());
+    public Object createEntry() throws DevFailed {
+        logger.debug("Creating entry for command {} ", command.getName());
         Object result = null;
         final Object lock = deviceLock.getCommandLock();
         synchronized (lock != null ? lock : new Object()) {
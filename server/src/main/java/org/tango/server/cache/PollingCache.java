@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Cache of a polled attribute or command. It holds only the last polled value, in a slot that is atomically swapped
+ * at each refresh so readers never wait for the polling thread. If the value is missing or older than its time to
+ * live, it is read again through the {@link CacheEntryFactory}.
+ */
+public final class PollingCache {
+
+    private static final long TIME_TO_LIVE = TimeUnit.SECONDS.toNanos(60);
+
+    private final String name;
+    private final CacheEntryFactory factory;
+    private final AtomicReference<Entry> slot = new AtomicReference<Entry>();
+    /**
+     * serialize the reads of the polled object
+     */
+    private final Object populateLock = new Object();
+
+    public PollingCache(final String name, final CacheEntryFactory factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Get the cached value. If it has expired or was never populated, the polled object is read.
+     *
+     * @return the cached value
+     * @throws DevFailed
+     *             if the polled object could not be read
+     */
+    public Object get() throws DevFailed {
+        Entry entry = slot.get();
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            synchronized (populateLock) {
+                entry = slot.get();
+                if (entry == null || entry.isExpired(System.nanoTime())) {
+                    entry = populate();
+                }
+            }
+        }
+        return entry.value;
+    }
+
+    /**
+     * Read the polled object and replace the cached value. If the read fails, the previous value is kept.
+     *
+     * @throws DevFailed
+     *             if the polled object could not be read
+     */
+    public void refresh() throws DevFailed {
+        synchronized (populateLock) {
+            populate();
+        }
+    }
+
+    /**
+     * Remove the cached value
+     */
+    public void clear() {
+        slot.set(null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private Entry populate() throws DevFailed {
+        final Object value;
+        try {
+            value = factory.createEntry();
+        } catch (final RuntimeException e) {
+            throw DevFailedUtils.newDevFailed(e);
+        }
+        final Entry entry = new Entry(value, System.nanoTime());
+        slot.set(entry);
+        return entry;
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long creationTime;
+
+        Entry(final Object value, final long creationTime) {
+            this.value = value;
+            this.creationTime = creationTime;
+        }
+
+        boolean isExpired(final long now) {
+            return now - creationTime > TIME_TO_LIVE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -24,16 +24,12 @@
  */
 package org.tango.server.cache;
 
-import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import net.sf.ehcache.CacheException;
-import net.sf.ehcache.Element;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.client.database.DatabaseFactory;
@@ -175,44 +171,20 @@ public final class PollingManager {
      * @throws DevFailed
      */
     public void triggerPolling(final String objectName) throws DevFailed {
-        boolean isACommand = false;
-        CommandImpl cmd = null;
-        try {
-            cmd = CommandGetter.getCommand(objectName, commandList);
-            isACommand = true;
-        } catch (final DevFailed e) {
-        }
-        if (!isACommand) {
+        final CommandImpl cmd = CommandGetter.findCommand(objectName, commandList);
+        if (cmd == null) {
             // polled object is not a command. May be an attribute
-            AttributeImpl att = null;
-            try {
-                att = AttributeGetterSetter.getAttribute(objectName, attributeList);
-            } catch (final DevFailed e) {
+            final AttributeImpl att = AttributeGetterSetter.findAttribute(objectName, attributeList);
+            if (att == null) {
                 logger.error(Constants.POLLED_OBJECT + objectName + " not found");
                 DevFailedUtils.throwDevFailed(ExceptionMessages.POLL_OBJ_NOT_FOUND, Constants.POLLED_OBJECT
                         + objectName + " not found");
             }
             checkPolling(objectName, att);
-            try {
-                cacheManager.getAttributeCache(att).refresh(att.getName());
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                } else {
-                    DevFailedUtils.throwDevFailed(e.getCause());
-                }
-            }
+            cacheManager.getAttributeCache(att).refresh();
         } else {
             checkPolling(objectName, cmd);
-            try {
-                cacheManager.getCommandCache(cmd).refresh(cmd.getName());
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                } else {
-                    DevFailedUtils.throwDevFailed(e.getCause());
-                }
-            }
+            cacheManager.getCommandCache(cmd).refresh();
         }
     }
 
@@ -362,28 +334,18 @@ public final class PollingManager {
 
     public Object getCommandCacheElement(final CommandImpl cmd) throws DevFailed {
         Object ret;
-        try {
-            final Element element = cacheManager.getCommandCache(cmd).get(cmd.getName().toLowerCase(Locale.ENGLISH));
-            final Serializable cmdValue = element.getValue();
-            if (cmdValue instanceof org.tango.server.attribute.AttributeValue) {
-                // state or status are returned as attribute value
-                ret = ((org.tango.server.attribute.AttributeValue) cmdValue).getValue();
-            } else {
-                ret = element.getValue();
-            }
-        } catch (final CacheException e) {
-            if (e.getCause() instanceof DevFailed) {
-                throw (DevFailed) e.getCause();
-            } else {
-                throw DevFailedUtils.newDevFailed(e.getCause());
-            }
+        final Object cmdValue = cacheManager.getCommandCache(cmd).get();
+        if (cmdValue instanceof org.tango.server.attribute.AttributeValue) {
+            // state or status are returned as attribute value
+            ret = ((org.tango.server.attribute.AttributeValue) cmdValue).getValue();
+        } else {
+            ret = cmdValue;
         }
         return ret;
     }
 
-    public AttributeValue getAttributeCacheElement(final AttributeImpl att) throws CacheException {
-        final Element element = cacheManager.getAttributeCache(att).get(att.getName().toLowerCase(Locale.ENGLISH));
-        return (AttributeValue) element.getValue();
+    public AttributeValue getAttributeCacheElement(final AttributeImpl att) throws DevFailed {
+        return (AttributeValue) cacheManager.getAttributeCache(att).get();
     }
 
     public void setPollRingDepth(final int pollRingDepth) {
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The polling threads of a server. Like in C++ Tango servers, all polled objects of a device are polled by the same
+ * thread, so that a slow device only delays itself and the devices sharing its thread.
+ * <ul>
+ * <li>the maximum number of threads comes from the admin device property polling_threads_pool_size</li>
+ * <li>the device to thread association comes from the admin device property polling_threads_pool_conf: one element
+ * per thread, containing the device names of this thread separated by commas</li>
+ * </ul>
+ * A device that is not configured gets a new thread while the pool is not full, else the thread with the fewest
+ * configured devices. It is then added to the configuration, which keeps all configured devices, polling or not, at
+ * their thread index.
+ */
+public final class PollingThreadPool {
+
+    private final int size;
+    private final List<PollingThread> threads = new ArrayList<PollingThread>();
+    /**
+     * key is the lower case device name
+     */
+    private final Map<String, PollingThread> deviceThreads = new HashMap<String, PollingThread>();
+    /**
+     * configured devices, with their thread index. Key is the lower case device name
+     */
+    private final Map<String, Integer> configuredDevices = new HashMap<String, Integer>();
+    /**
+     * device names of each configured thread, as saved in polling_threads_pool_conf
+     */
+    private final List<List<String>> configuration = new ArrayList<List<String>>();
+
+    /**
+     * Build a pool
+     *
+     * @param size
+     *            the maximum number of threads
+     * @param poolConf
+     *            the value of polling_threads_pool_conf, may be empty
+     */
+    public PollingThreadPool(final int size, final String[] poolConf) {
+        this.size = size;
+        for (final String threadConf : poolConf) {
+            final int threadIndex = Math.min(configuration.size(), size - 1);
+            boolean isEmpty = true;
+            for (final String device : StringUtils.split(threadConf, ',')) {
+                final String deviceName = device.trim();
+                if (!deviceName.isEmpty() && !configuredDevices.containsKey(deviceName.toLowerCase(Locale.ENGLISH))) {
+                    if (isEmpty && threadIndex == configuration.size()) {
+                        configuration.add(new ArrayList<String>());
+                    }
+                    configure(deviceName, threadIndex);
+                    isEmpty = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the executor polling a device. The device is associated to a thread if it is not already.
+     *
+     * @param deviceName
+     * @return the executor of the device thread
+     */
+    public synchronized ScheduledExecutorService getExecutor(final String deviceName) {
+        return getThread(deviceName).executor;
+    }
+
+    /**
+     * Associate a device to a polling thread
+     *
+     * @param deviceName
+     * @return true if the device was not configured, i.e. the configuration has changed
+     */
+    public synchronized boolean addDevice(final String deviceName) {
+        final boolean isNew = !configuredDevices.containsKey(deviceName.toLowerCase(Locale.ENGLISH));
+        getThread(deviceName);
+        return isNew;
+    }
+
+    /**
+     * Release a device from its polling thread. The thread is kept for the next devices and the device keeps its place
+     * in the configuration, so that it is polled by the same thread when it is added again.
+     *
+     * @param deviceName
+     */
+    public synchronized void removeDevice(final String deviceName) {
+        deviceThreads.remove(deviceName.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     *
+     * @param deviceName
+     * @return the id of the thread polling this device (starting at 1), 0 if the device is not polled
+     */
+    public synchronized int getThreadId(final String deviceName) {
+        final PollingThread thread = deviceThreads.get(deviceName.toLowerCase(Locale.ENGLISH));
+        return thread == null ? 0 : thread.id;
+    }
+
+    /**
+     *
+     * @return the configuration, i.e. the initial one with the devices added since, to be saved as
+     *         polling_threads_pool_conf
+     */
+    public synchronized String[] getPoolConf() {
+        final String[] conf = new String[configuration.size()];
+        for (int i = 0; i < conf.length; i++) {
+            conf[i] = StringUtils.join(configuration.get(i), ',');
+        }
+        return conf;
+    }
+
+    public synchronized int getThreadCount() {
+        return threads.size();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Stop all threads
+     */
+    public synchronized void shutdown() {
+        for (final PollingThread thread : threads) {
+            thread.executor.shutdownNow();
+        }
+        threads.clear();
+        deviceThreads.clear();
+    }
+
+    private PollingThread getThread(final String deviceName) {
+        final String key = deviceName.toLowerCase(Locale.ENGLISH);
+        PollingThread thread = deviceThreads.get(key);
+        if (thread == null) {
+            Integer threadIndex = configuredDevices.get(key);
+            if (threadIndex == null) {
+                if (configuration.size() < size) {
+                    threadIndex = configuration.size();
+                    configuration.add(new ArrayList<String>());
+                } else {
+                    threadIndex = getLeastLoadedIndex();
+                }
+                configure(deviceName, threadIndex);
+            }
+            while (threads.size() <= threadIndex) {
+                threads.add(new PollingThread(threads.size() + 1));
+            }
+            thread = threads.get(threadIndex);
+            deviceThreads.put(key, thread);
+        }
+        return thread;
+    }
+
+    private void configure(final String deviceName, final int threadIndex) {
+        configuration.get(threadIndex).add(deviceName);
+        configuredDevices.put(deviceName.toLowerCase(Locale.ENGLISH), threadIndex);
+    }
+
+    private int getLeastLoadedIndex() {
+        int result = 0;
+        for (int i = 1; i < configuration.size(); i++) {
+            if (configuration.get(i).size() < configuration.get(result).size()) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private static final class PollingThread {
+        private final int id;
+        private final ScheduledThreadPoolExecutor executor;
+
+        PollingThread(final int id) {
+            this.id = id;
+            executor = new ScheduledThreadPoolExecutor(1, new TangoCacheThreadFactory(id));
+        }
+    }
+}
@@ -28,10 +28,6 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.attribute.AttributeImpl;
@@ -43,29 +39,20 @@ public final class StateStatusCache {
     private final Logger logger = LoggerFactory.getLogger(StateStatusCache.class);
 
     private ScheduledFuture<?> result;
-    private final SelfPopulatingCache cache;
+    private final PollingCache cache;
     private final CommandImpl command;
 
-    public StateStatusCache(final CacheManager manager, final CommandImpl command, final AttributeImpl attribute,
-            final String deviceName, final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public StateStatusCache(final CommandImpl command, final AttributeImpl attribute, final String deviceName,
+            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
         this.command = command;
         final String cacheName = "stateStatusTangoPollingCache." + deviceName + "/" + command.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new StateStatusCacheEntryFactory(command, attribute, deviceLock,
+        cache = new PollingCache(cacheName, new StateStatusCacheEntryFactory(command, attribute, deviceLock,
                 deviceName, aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         logger.debug("start refresh cache of {} at period of {}", command.getName(), command.getPollingPeriod());
-        final CacheRefresher refresher = new CacheRefresher(cache, command.getName());
+        final CacheRefresher refresher = new CacheRefresher(cache, command);
         result = pollingPool.scheduleAtFixedRate(refresher, 0L, command.getPollingPeriod(), TimeUnit.MILLISECONDS);
 
     }
@@ -83,7 +70,7 @@ public final class StateStatusCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    public PollingCache getCache() {
         return cache;
     }
 }
@@ -24,8 +24,6 @@
  */
 package org.tango.server.cache;
 
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
-
 import org.tango.server.InvocationContext;
 import org.tango.server.InvocationContext.CallType;
 import org.tango.server.InvocationContext.ContextType;
@@ -57,7 +55,7 @@ public final class StateStatusCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
+    public Object createEntry() throws DevFailed {
 
         Object result = null;
         final Object lock = deviceLock.getAttributeLock();
@@ -24,22 +24,11 @@
  */
 package org.tango.server.cache;
 
-import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-
-import javax.management.MBeanServer;
-
-import net.sf.ehcache.CacheException;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.config.CacheConfiguration;
-import net.sf.ehcache.config.Configuration;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-import net.sf.ehcache.management.ManagementService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +40,7 @@ import org.tango.server.device.AroundInvokeImpl;
 import org.tango.server.device.DeviceLocker;
 import org.tango.server.properties.PropertiesUtils;
 import org.tango.server.servant.DeviceImpl;
+import org.tango.utils.DevFailedUtils;
 
 import fr.esrf.Tango.DevFailed;
 
@@ -68,8 +58,8 @@ public final class TangoCacheManager {
 
     private static final int POOL_SIZE = 1;
 
-    private static volatile ScheduledExecutorService POLLING_POOL = new ScheduledThreadPoolExecutor(POOL_SIZE,
-            new TangoCacheThreadFactory());
+    private static volatile PollingThreadPool POLLING_POOL;
+    private static final Object POOL_LOCK = new Object();
 
     private final Map<AttributeImpl, AttributeCache> attributeCacheMap = new HashMap<AttributeImpl, AttributeCache>();
     private final Map<CommandImpl, CommandCache> commandCacheMap = new HashMap<CommandImpl, CommandCache>();
@@ -79,14 +69,13 @@ public final class TangoCacheManager {
     private final Map<AttributeImpl, AttributeCache> extTrigAttributeCacheMap = new HashMap<AttributeImpl, AttributeCache>();
     private final Map<CommandImpl, CommandCache> extTrigCommandCacheMap = new HashMap<CommandImpl, CommandCache>();
     /**
-     * Maintains the ordered list of polled device of the server
+     * The device to polling thread association, as read from or saved in polling_threads_pool_conf
      */
-    private static List<String> polledDevices = new LinkedList<String>();
+    private static String[] poolConf = new String[0];
 
     private StateStatusCache stateCache;
     private StateStatusCache statusCache;
 
-    private volatile static CacheManager MANAGER;
     private final DeviceLocker deviceLock;
 
     private final String deviceName;
@@ -95,7 +84,7 @@ public final class TangoCacheManager {
 
     private static int poolSize = POOL_SIZE;
 
-    private static Map<String, TangoCacheManager> cacheList = new HashMap<String, TangoCacheManager>();
+    private static Map<String, TangoCacheManager> cacheList = new ConcurrentHashMap<String, TangoCacheManager>();
 
     public TangoCacheManager(final String deviceName, final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
         this.deviceLock = deviceLock;
@@ -104,103 +93,112 @@ public final class TangoCacheManager {
         cacheList.put(deviceName, this);
     }
 
-    private static void startCache() {
-        final Configuration config = new Configuration();
-        config.setUpdateCheck(false);
-        final CacheConfiguration defaultCacheConfiguration = new CacheConfiguration();
-        defaultCacheConfiguration.setDiskPersistent(false);
-        defaultCacheConfiguration.setOverflowToDisk(false);
-        defaultCacheConfiguration.setMaxElementsInMemory(1);
-        config.setDefaultCacheConfiguration(defaultCacheConfiguration);
-        MANAGER = CacheManager.create(config);
-        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
-        ManagementService.registerMBeans(MANAGER, mBeanServer, true, true, true, true, true);
-        setPollSize(POOL_SIZE);
+    private static PollingThreadPool startPollingPool() {
+        synchronized (POOL_LOCK) {
+            if (POLLING_POOL == null) {
+                POLLING_POOL = new PollingThreadPool(poolSize, poolConf);
+            }
+            return POLLING_POOL;
+        }
     }
 
     public static void shutdown() {
-        if (MANAGER != null) {
-            MANAGER.shutdown();
-            MANAGER = null;
+        synchronized (POOL_LOCK) {
+            if (POLLING_POOL != null) {
+                POLLING_POOL.shutdown();
+                POLLING_POOL = null;
+            }
         }
-        if (POLLING_POOL != null) {
-            POLLING_POOL.shutdownNow();
-            POLLING_POOL = null;
+    }
+
+    /**
+     * Restart the polling of all devices with a new pool, built from the current size and configuration
+     */
+    private static void restartPollingPool() {
+        for (final TangoCacheManager cache : cacheList.values()) {
+            cache.stop();
+        }
+        shutdown();
+        for (final TangoCacheManager cache : cacheList.values()) {
+            cache.start();
         }
     }
 
     /**
-     * Add the current device in polled list and persist it as device property of admin device. This property is not
-     * used. Just here to have the same behavior as C++ Tango API.
+     *
+     * @return the executor of the polling thread of this device
+     */
+    private ScheduledExecutorService getPollingExecutor() {
+        return startPollingPool().getExecutor(deviceName);
+    }
+
+    /**
+     * Associate the current device to a polling thread and persist the pool configuration as device property of admin
+     * device (polling_threads_pool_conf), like the C++ Tango API.
      *
      * @throws DevFailed
      */
     private void updatePoolConf() throws DevFailed {
-        if (!polledDevices.contains(deviceName)) {
-            polledDevices.add(deviceName);
+        final PollingThreadPool pool = startPollingPool();
+        if (pool.addDevice(deviceName)) {
+            poolConf = pool.getPoolConf();
             final Map<String, String[]> properties = new HashMap<String, String[]>();
-            properties.put(POLLING_THREADS_POOL_CONF, polledDevices.toArray(new String[polledDevices.size()]));
+            properties.put(POLLING_THREADS_POOL_CONF, poolConf);
             DatabaseFactory.getDatabase().setDeviceProperties(ServerManager.getInstance().getAdminDeviceName(),
                     properties);
         }
     }
 
     /**
-     * Retrieve the ordered list of polled devices
+     * Retrieve the device to polling thread association. Must be called before the polling of the devices starts.
      *
      * @throws DevFailed
      */
     public static void initPoolConf() throws DevFailed {
-        polledDevices.clear();
         final Map<String, String[]> prop = PropertiesUtils.getDeviceProperties(ServerManager.getInstance()
                 .getAdminDeviceName());
         if (prop.containsKey(POLLING_THREADS_POOL_CONF)) {
-            final String[] pollingThreadsPoolConf = prop.get(POLLING_THREADS_POOL_CONF);
-            for (int i = 0; i < pollingThreadsPoolConf.length; i++) {
-                if (cacheList.containsKey(pollingThreadsPoolConf[i]) && !pollingThreadsPoolConf[i].isEmpty()
-                        && !polledDevices.contains(pollingThreadsPoolConf[i])) {
-                    polledDevices.add(pollingThreadsPoolConf[i]);
-                }
-            }
+            poolConf = prop.get(POLLING_THREADS_POOL_CONF);
+        } else {
+            poolConf = new String[0];
         }
+        restartPollingPool();
     }
 
     public static void setPollSize(final int poolSize) {
         if (poolSize > 0) {
             TangoCacheManager.poolSize = poolSize;
-            for (final TangoCacheManager cache : cacheList.values()) {
-                cache.stop();
-            }
-            if (POLLING_POOL != null) {
-                POLLING_POOL.shutdownNow();
-            }
-            POLLING_POOL = new ScheduledThreadPoolExecutor(poolSize, new TangoCacheThreadFactory());
-            for (final TangoCacheManager cache : cacheList.values()) {
-                cache.start();
-            }
+            restartPollingPool();
             LOGGER.debug("polling pool size is {}", poolSize);
         }
     }
 
+    /**
+     *
+     * @param deviceName
+     * @return the id of the thread polling this device (starting at 1), 0 if the device is not polled
+     */
+    public static int getPollingThreadId(final String deviceName) {
+        final PollingThreadPool pool = POLLING_POOL;
+        return pool == null ? 0 : pool.getThreadId(deviceName);
+    }
+
     public synchronized void startStateStatusPolling(final CommandImpl command, final AttributeImpl attribute) {
-        if (MANAGER == null) {
-            startCache();
-        }
         if (command.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             if (stateCache != null) {
                 stateCache.stopRefresh();
             }
-            stateCache = new StateStatusCache(MANAGER, command, attribute, deviceName, deviceLock, aroundInvoke);
+            stateCache = new StateStatusCache(command, attribute, deviceName, deviceLock, aroundInvoke);
             if (command.getPollingPeriod() != 0) {
-                stateCache.startRefresh(POLLING_POOL);
+                stateCache.startRefresh(getPollingExecutor());
             }
         } else if (command.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
             if (statusCache != null) {
                 statusCache.stopRefresh();
             }
-            statusCache = new StateStatusCache(MANAGER, command, attribute, deviceName, deviceLock, aroundInvoke);
+            statusCache = new StateStatusCache(command, attribute, deviceName, deviceLock, aroundInvoke);
             if (command.getPollingPeriod() != 0) {
-                statusCache.startRefresh(POLLING_POOL);
+                statusCache.startRefresh(getPollingExecutor());
             }
         }
     }
@@ -216,7 +214,7 @@ public final class TangoCacheManager {
         addCommandPolling(command);
         LOGGER.debug("starting command {} for polling on device {}", command.getName(), deviceName);
         if (command.getPollingPeriod() != 0) {
-            commandCacheMap.get(command).startRefresh(POLLING_POOL);
+            commandCacheMap.get(command).startRefresh(getPollingExecutor());
         }
     }
 
@@ -227,11 +225,8 @@ public final class TangoCacheManager {
      * @throws DevFailed
      */
     private void addCommandPolling(final CommandImpl command) throws DevFailed {
-        if (MANAGER == null) {
-            startCache();
-        }
         removeCommandPolling(command);
-        final CommandCache cache = new CommandCache(MANAGER, command, deviceName, deviceLock, aroundInvoke);
+        final CommandCache cache = new CommandCache(command, deviceName, deviceLock, aroundInvoke);
         if (command.getPollingPeriod() == 0) {
             extTrigCommandCacheMap.put(command, cache);
         } else {
@@ -251,7 +246,7 @@ public final class TangoCacheManager {
         addAttributePolling(attr);
         LOGGER.debug("starting attribute {} for polling on device {}", attr.getName(), deviceName);
         if (attr.getPollingPeriod() != 0) {
-            attributeCacheMap.get(attr).startRefresh(POLLING_POOL);
+            attributeCacheMap.get(attr).startRefresh(getPollingExecutor());
         }
     }
 
@@ -262,11 +257,8 @@ public final class TangoCacheManager {
      * @throws DevFailed
      */
     private void addAttributePolling(final AttributeImpl attr) throws DevFailed {
-        if (MANAGER == null) {
-            startCache();
-        }
         removeAttributePolling(attr);
-        final AttributeCache cache = new AttributeCache(MANAGER, attr, deviceName, deviceLock, aroundInvoke);
+        final AttributeCache cache = new AttributeCache(attr, deviceName, deviceLock, aroundInvoke);
         if (attr.getPollingPeriod() == 0) {
             extTrigAttributeCacheMap.put(attr, cache);
         } else {
@@ -320,6 +312,10 @@ public final class TangoCacheManager {
             statusCache = null;
         }
         cacheList.remove(deviceName);
+        final PollingThreadPool pool = POLLING_POOL;
+        if (pool != null) {
+            pool.removeDevice(deviceName);
+        }
     }
 
     /**
@@ -349,16 +345,16 @@ public final class TangoCacheManager {
      */
     public synchronized void start() {
         for (final AttributeCache cache : attributeCacheMap.values()) {
-            cache.startRefresh(POLLING_POOL);
+            cache.startRefresh(getPollingExecutor());
         }
         for (final CommandCache cache : commandCacheMap.values()) {
-            cache.startRefresh(POLLING_POOL);
+            cache.startRefresh(getPollingExecutor());
         }
         if (stateCache != null) {
-            stateCache.startRefresh(POLLING_POOL);
+            stateCache.startRefresh(getPollingExecutor());
         }
         if (statusCache != null) {
-            statusCache.startRefresh(POLLING_POOL);
+            statusCache.startRefresh(getPollingExecutor());
         }
     }
 
@@ -378,10 +374,6 @@ public final class TangoCacheManager {
         if (statusCache != null) {
             statusCache.stopRefresh();
         }
-        if (POLLING_POOL != null) {
-            POLLING_POOL.shutdownNow();
-            POLLING_POOL = new ScheduledThreadPoolExecutor(poolSize, new TangoCacheThreadFactory());
-        }
     }
 
     /**
@@ -391,8 +383,8 @@ public final class TangoCacheManager {
      *            the attribute
      * @return the attribute cache
      */
-    public synchronized SelfPopulatingCache getAttributeCache(final AttributeImpl attr) {
-        SelfPopulatingCache cache = null;
+    public synchronized PollingCache getAttributeCache(final AttributeImpl attr) throws DevFailed {
+        PollingCache cache = null;
         if (attr.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             cache = stateCache.getCache();
         } else if (attr.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
@@ -402,7 +394,7 @@ public final class TangoCacheManager {
             if (attrCache == null) {
                 attrCache = extTrigAttributeCacheMap.get(attr);
                 if (attrCache == null)
-                    throw new CacheException("No cache found for " + attr.getName());
+                    throw DevFailedUtils.newDevFailed("CACHE_ERROR", "No cache found for " + attr.getName());
             }
             cache = attrCache.getCache();
         }
@@ -416,8 +408,8 @@ public final class TangoCacheManager {
      *            The command
      * @return The command cache
      */
-    public synchronized SelfPopulatingCache getCommandCache(final CommandImpl cmd) {
-        SelfPopulatingCache cache = null;
+    public synchronized PollingCache getCommandCache(final CommandImpl cmd) throws DevFailed {
+        PollingCache cache = null;
         if (cmd.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             cache = stateCache.getCache();
         } else if (cmd.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
@@ -426,6 +418,9 @@ public final class TangoCacheManager {
             CommandCache cmdCache = commandCacheMap.get(cmd);
             if (cmdCache == null) {
                 cmdCache = extTrigCommandCacheMap.get(cmd);
+                if (cmdCache == null) {
+                    throw DevFailedUtils.newDevFailed("CACHE_ERROR", "No cache found for " + cmd.getName());
+                }
             }
             cache = cmdCache.getCache();
         }
@@ -436,8 +431,8 @@ public final class TangoCacheManager {
         return poolSize;
     }
 
-    public static List<String> getPolledDevices() {
-        return polledDevices;
+    public static String[] getPoolConf() {
+        return Arrays.copyOf(poolConf, poolConf.length);
     }
 
 }
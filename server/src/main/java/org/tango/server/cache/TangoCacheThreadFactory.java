@@ -25,18 +25,17 @@
 package org.tango.server.cache;
 
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TangoCacheThreadFactory implements ThreadFactory {
-    private static final AtomicInteger THREAD_NR = new AtomicInteger(0);
+    private final int threadId;
 
-    public TangoCacheThreadFactory() {
-        THREAD_NR.set(0);
+    public TangoCacheThreadFactory(final int threadId) {
+        this.threadId = threadId;
     }
 
     @Override
     public Thread newThread(final Runnable r) {
-        return new Thread(r, "Polling " + THREAD_NR.incrementAndGet());
+        return new Thread(r, "Polling " + threadId);
     }
 
 }
\ No newline at end of file
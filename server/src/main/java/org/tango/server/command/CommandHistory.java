@@ -25,21 +25,16 @@
 package org.tango.server.command;
 
 import java.lang.reflect.Array;
-import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.tango.orb.ORBManager;
-import org.tango.server.Constants;
+import org.tango.server.history.HistoryRing;
 import org.tango.server.idl.CleverAnyCommand;
 import org.tango.server.idl.TangoIDLUtil;
 
+import fr.esrf.Tango.AttrQuality;
 import fr.esrf.Tango.AttributeDim;
 import fr.esrf.Tango.DevCmdHistory_4;
 import fr.esrf.Tango.DevError;
@@ -50,7 +45,6 @@ import fr.esrf.TangoDs.TangoConst;
 
 public final class CommandHistory {
 
-    private final Logger logger = LoggerFactory.getLogger(CommandHistory.class);
     /**
      * Utility to get array type of a scalar type
      */
@@ -88,51 +82,29 @@ public final class CommandHistory {
 	SCALAR_TO_ARRAY.put(TangoConst.Tango_DEVVAR_CHARARRAY, TangoConst.Tango_DEVVAR_CHARARRAY);
     }
 
-    private static class HistoryItem {
-	private final TimeVal date;
-	private final Object value;
-	private final DevError[] error;
-
-	public HistoryItem(final Object value, final long date, final DevError[] error) throws DevFailed {
-	    this.value = value;
-	    this.date = TangoIDLUtil.getTime(date);
-	    this.error = Arrays.copyOf(error, error.length);
-	}
-
-	public TimeVal getDate() {
-	    return date;
-	}
-
-	public Object getValue() {
-	    return value;
-	}
-
-	public DevError[] getError() {
-	    return error;
-	}
-    }
-
-    private final Deque<HistoryItem> commandHistory = new ArrayDeque<HistoryItem>(Constants.QUEUE_CAPACITY);
+    private final HistoryRing commandHistory;
 
     private final int type;
     private int maxSize = 10;
 
     public CommandHistory(final int type) {
 	this.type = type;
+	commandHistory = new HistoryRing(maxSize - 1, false);
     }
 
-    public void setMaxSize(final int maxSize) {
+    public synchronized void setMaxSize(final int maxSize) {
 	this.maxSize = maxSize;
+	commandHistory.setCapacity(maxSize - 1);
     }
 
     public synchronized void addToHistory(final Object value, final DevError[] error) throws DevFailed {
-	while (commandHistory.size() >= maxSize - 1) {
-	    commandHistory.poll();
-	}
-	final boolean isInserted = commandHistory.offer(new HistoryItem(value, System.currentTimeMillis(), error));
-	if (!isInserted) {
-	    logger.debug("{} not inserted in command history queue ", value);
+	int dimX = 1;
+	if (value == null) {
+	    dimX = 0;
+	} else if (value.getClass().isArray()) {
+	    dimX = Array.getLength(value);
 	}
+	commandHistory.add(System.currentTimeMillis(), AttrQuality.ATTR_VALID, value, dimX, 1, null, 0, 0, error);
     }
 
     public synchronized int size() {
@@ -143,26 +115,23 @@ public final class CommandHistory {
 	commandHistory.clear();
     }
 
+    /**
+     * @return an estimation of the memory used by the history, in bytes
+     */
+    public synchronized long getMemoryFootprint() {
+	return commandHistory.getMemoryFootprint();
+    }
+
     public synchronized DevCmdHistory_4 toDevCmdHistory4(final int maxSize) throws DevFailed {
 
 	final DevCmdHistory_4 history = new DevCmdHistory_4();
-	if (!commandHistory.isEmpty()) {
-	    final HistoryItem[] returnedhistoryArray = createHistoryArray(maxSize);
-	    final TimeVal[] times = new TimeVal[returnedhistoryArray.length];
-
-	    final LinkedList<AttributeDim> dim = new LinkedList<AttributeDim>();
-	    final LinkedList<EltInArray> dimSize = new LinkedList<EltInArray>();
-	    final LinkedList<DevError[]> errors = new LinkedList<DevError[]>();
-	    final LinkedList<EltInArray> errorsArray = new LinkedList<EltInArray>();
-	    final Object array = fillHistoryArray(returnedhistoryArray, times, dim, dimSize, errors, errorsArray);
-	    history.errors_array = errorsArray.toArray(new EltInArray[errorsArray.size()]);
-	    history.errors = errors.toArray(new DevError[0][0]);
+	if (commandHistory.size() > 0) {
+	    // the last maxSize records
+	    final int from = Math.max(commandHistory.size() - Math.max(maxSize, 0), 0);
+	    fillHistoryArray(history, from);
 	    history.cmd_type = type;
-	    history.dates = times;
-	    history.dims = dim.toArray(new AttributeDim[dim.size()]);
-	    history.dims_array = dimSize.toArray(new EltInArray[dimSize.size()]);
 	    if (type != TangoConst.Tango_DEV_VOID) {
-		history.value = CleverAnyCommand.set(SCALAR_TO_ARRAY.get(type), array);
+		history.value = CleverAnyCommand.set(SCALAR_TO_ARRAY.get(type), commandHistory.getValues(from));
 	    } else {
 		history.value = ORBManager.createAny();
 	    }
@@ -178,55 +147,44 @@ public final class CommandHistory {
 	return history;
     }
 
-    private Object fillHistoryArray(final HistoryItem[] returnedhistoryArray, final TimeVal[] times,
-	    final Deque<AttributeDim> dim, final Deque<EltInArray> dimSize, final Deque<DevError[]> errors,
-	    final Deque<EltInArray> errorsArray) {
-	int i = 0;
-	Object array = null;
-	for (final HistoryItem item : returnedhistoryArray) {
-	    times[i++] = item.getDate();
-	    final Object value = item.getValue();
-
-	    int dimX = 1;
-	    if (value == null) {
-		dimX = 0;
-	    } else if (value.getClass().isArray()) {
-		dimX = Array.getLength(value);
-		array = org.tango.utils.ArrayUtils.addAll(value, array);
-	    } else {
-		array = org.tango.utils.ArrayUtils.addAll(value, array);
-	    }
-
-	    if (item.getError() != null && item.getError().length != 0) {
-		errors.add(item.getError());
-		errorsArray.add(new EltInArray(i - 1, 1));
+    /**
+     * Fill the dates, and the dimensions and errors (each stored once for consecutive identical records, with the index
+     * of the last one) of the records from the record from
+     */
+    private void fillHistoryArray(final DevCmdHistory_4 history, final int from) {
+	final int length = commandHistory.size() - from;
+	final TimeVal[] times = new TimeVal[length];
+	final AttributeDim[] dim = new AttributeDim[length];
+	final EltInArray[] dimSize = new EltInArray[length];
+	int nbDims = 0;
+	final DevError[][] errors = new DevError[length][];
+	final EltInArray[] errorsArray = new EltInArray[length];
+	int nbErrors = 0;
+	for (int i = 0; i < length; i++) {
+	    final int record = from + i;
+	    times[i] = TangoIDLUtil.getTime(commandHistory.getTime(record));
+	    final DevError[] error = commandHistory.getErrors(record);
+	    if (error != null) {
+		errors[nbErrors] = error;
+		errorsArray[nbErrors++] = new EltInArray(i, 1);
 	    }
 	    // dim - each dim contains the number of elements that have the same size
-	    if (dim.isEmpty() || !dim.isEmpty() && dimX != dim.getLast().dim_x) {
+	    final int dimX = commandHistory.getReadDimX(record);
+	    if (nbDims == 0 || dimX != dim[nbDims - 1].dim_x) {
 		// the size has changed so create a new AttributeDim
-		dimSize.add(new EltInArray(i - 1, 1));
-		dim.add(new AttributeDim(dimX, 1));
+		dimSize[nbDims] = new EltInArray(i, 1);
+		dim[nbDims++] = new AttributeDim(dimX, 1);
 	    } else {
-		dimSize.getLast().nb_elt++;
+		dimSize[nbDims - 1].nb_elt++;
 		// start is the idx lastest
-		dimSize.getLast().start++;
+		dimSize[nbDims - 1].start++;
 	    }
 	}
-	return array;
-    }
-
-    private HistoryItem[] createHistoryArray(final int maxSize) {
-	final HistoryItem[] historyArray = Collections.asLifoQueue(commandHistory).toArray(
-		new HistoryItem[commandHistory.size()]);
-	HistoryItem[] returnedhistoryArray;
-	if (commandHistory.size() > maxSize) {
-	    returnedhistoryArray = new HistoryItem[maxSize];
-	    System.arraycopy(historyArray, historyArray.length - maxSize, returnedhistoryArray, 0,
-		    returnedhistoryArray.length);
-	} else {
-	    returnedhistoryArray = historyArray;
-	}
-	return returnedhistoryArray;
+	history.dates = times;
+	history.dims = Arrays.copyOf(dim, nbDims);
+	history.dims_array = Arrays.copyOf(dimSize, nbDims);
+	history.errors = Arrays.copyOf(errors, nbErrors);
+	history.errors_array = Arrays.copyOf(errorsArray, nbErrors);
     }
 
     public int getMaxSize() {
@@ -37,6 +37,8 @@ import org.tango.server.IPollable;
 import org.tango.server.cache.PollingUtils;
 import org.tango.server.properties.AttributePropertiesManager;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class CommandImpl extends DeviceBehaviorObject implements Comparable<CommandImpl>, IPollable {
 
     public static final int TANGO_OPERATOR_CMD = 0;
@@ -63,6 +65,7 @@ public class CommandImpl extends DeviceBehaviorObject implements Comparable<Comm
     private volatile double executionDuration;
     private volatile double lastUpdateTime;
     private volatile double deltaTime;
+    private final AtomicLong latePollCount = new AtomicLong();
 
     private DevFailed lastError;
 
@@ -287,6 +290,16 @@ public class CommandImpl extends DeviceBehaviorObject implements Comparable<Comm
         this.deltaTime = deltaTime;
     }
 
+    @Override
+    public long getLatePollCount() {
+        return latePollCount.get();
+    }
+
+    @Override
+    public void addLatePoll() {
+        latePollCount.incrementAndGet();
+    }
+
     @Override
     public String getLastDevFailed() {
         return PollingUtils.toString(lastError);
@@ -44,12 +44,43 @@ public final class ReflectCommandBehavior implements ICommandBehavior {
     private final Method executeMethod;
     private final Object businessObject;
     private final CommandConfiguration config;
+    private final boolean hasParameter;
+    /**
+     * parameter type, resolved at build time
+     */
+    private final Class<?> paramMethod;
+    /**
+     * class of the arguments accepted without further check
+     */
+    private final Class<?> acceptedInput;
 
     public ReflectCommandBehavior(final Method executeMethod, final Object businessObject,
             final CommandConfiguration config) {
         this.executeMethod = executeMethod;
         this.businessObject = businessObject;
         this.config = config;
+        try {
+            // skip the access check on each invocation
+            executeMethod.setAccessible(true);
+        } catch (final RuntimeException e) {
+            // not allowed, checked on each invocation
+        }
+        hasParameter = !config.getInType().equals(Void.class);
+        final Class<?>[] paramType = executeMethod.getParameterTypes();
+        if (hasParameter && paramType.length == 1) {
+            Class<?> param = paramType[0];
+            if (Number.class.isAssignableFrom(param) || Boolean.class.isAssignableFrom(param)) {
+                final Class<?> primitive = ClassUtils.wrapperToPrimitive(param);
+                if (primitive != null) {
+                    param = primitive;
+                }
+            }
+            paramMethod = param;
+            acceptedInput = ClassUtils.primitiveToWrapper(param);
+        } else {
+            paramMethod = null;
+            acceptedInput = null;
+        }
     }
 
     @Override
@@ -57,7 +88,7 @@ public final class ReflectCommandBehavior implements ICommandBehavior {
         xlogger.entry();
         Object obj = null;
         try {
-            if (!config.getInType().equals(Void.class)) {
+            if (hasParameter) {
                 checkInputType(arg);
                 // execute with params
                 obj = executeMethod.invoke(businessObject, arg);
@@ -82,13 +113,11 @@ public final class ReflectCommandBehavior implements ICommandBehavior {
     }
 
     private void checkInputType(final Object arg) throws DevFailed {
-        final Class<?>[] paramType = executeMethod.getParameterTypes();
-        if (paramType.length > 1) {
+        if (paramMethod == null) {
             DevFailedUtils.throwDevFailed("INIT_FAILED", "Command can have only one parameter");
         }
-        Class<?> paramMethod = paramType[0];
-        if (Number.class.isAssignableFrom(paramMethod) || Boolean.class.isAssignableFrom(paramMethod)) {
-            paramMethod = ClassUtils.wrapperToPrimitive(paramMethod);
+        if (acceptedInput.isInstance(arg)) {
+            return;
         }
         Class<?> input = arg.getClass();
         if (Number.class.isAssignableFrom(input) || Boolean.class.isAssignableFrom(input)) {
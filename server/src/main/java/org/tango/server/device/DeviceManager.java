@@ -36,7 +36,6 @@ import org.tango.server.events.EventManager;
 import org.tango.server.events.EventType;
 import org.tango.server.pipe.PipeImpl;
 import org.tango.server.pipe.PipeValue;
-import org.tango.server.servant.AttributeGetterSetter;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.ClientIDUtil;
 import org.tango.utils.DevFailedUtils;
@@ -102,7 +101,7 @@ public final class DeviceManager {
      * @throws DevFailed
      */
     public AttributePropertiesImpl getAttributeProperties(final String attributeName) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         return attr.getProperties();
     }
 
@@ -117,7 +116,7 @@ public final class DeviceManager {
      */
     public void setAttributeProperties(final String attributeName, final AttributePropertiesImpl properties)
             throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         attr.setProperties(properties);
     }
 
@@ -129,7 +128,7 @@ public final class DeviceManager {
      * @throws DevFailed
      */
     public void removeAttributeProperties(final String attributeName) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         attr.removeProperties();
     }
 
@@ -143,7 +142,7 @@ public final class DeviceManager {
      */
     public boolean isPolled(final String polledObject) throws DevFailed {
         try {
-            return AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList()).isPolled();
+            return device.getAttribute(polledObject).isPolled();
         } catch (final DevFailed e) {
             return device.getCommand(polledObject).isPolled();
         }
@@ -159,7 +158,7 @@ public final class DeviceManager {
      */
     public int getPollingPeriod(final String polledObject) throws DevFailed {
         try {
-            return AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList()).getPollingPeriod();
+            return device.getAttribute(polledObject).getPollingPeriod();
         } catch (final DevFailed e) {
             return device.getCommand(polledObject).getPollingPeriod();
         }
@@ -174,7 +173,7 @@ public final class DeviceManager {
      */
     public void startPolling(final String polledObject, final int pollingPeriod) throws DevFailed {
         try {
-            final AttributeImpl attr = AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList());
+            final AttributeImpl attr = device.getAttribute(polledObject);
             attr.configurePolling(pollingPeriod);
             device.configurePolling(attr);
         } catch (final DevFailed e) {
@@ -227,8 +226,7 @@ public final class DeviceManager {
             case ARCHIVE_EVENT:
             case USER_EVENT:
                 // get attribute value
-                final AttributeImpl attribute = AttributeGetterSetter.getAttribute(attributeName,
-                        device.getAttributeList());
+                final AttributeImpl attribute = device.getAttribute(attributeName);
                 try {
                     attribute.updateValue();
                     // push the event
@@ -256,8 +254,7 @@ public final class DeviceManager {
             case ARCHIVE_EVENT:
             case USER_EVENT:
                 // set attribute value
-                final AttributeImpl attribute = AttributeGetterSetter.getAttribute(attributeName,
-                        device.getAttributeList());
+                final AttributeImpl attribute = device.getAttribute(attributeName);
                 try {
                     attribute.updateValue(value);
                     // push the event
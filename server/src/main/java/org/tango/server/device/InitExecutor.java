@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.device;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes the lazy inits of all devices on a bounded pool of threads, shared by the server. The inits of a device are
+ * executed one after the other, in their submission order.
+ */
+public final class InitExecutor {
+
+    /**
+     * Maximum number of inits executed at the same time
+     */
+    public static final int THREADS = Integer.getInteger("org.tango.server.init.threads", 8);
+
+    private static final InitExecutor INSTANCE = new InitExecutor(THREADS);
+
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicLong initNr = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    InitExecutor(final int threads) {
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "DeviceInit-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        // no idle threads once the devices are initialized
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static InitExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get an executor for the inits of a device
+     *
+     * @param deviceName the device name, to name the thread during an init
+     * @return an executor running its tasks one after the other
+     */
+    Executor newDeviceExecutor(final String deviceName) {
+        return new DeviceExecutor(deviceName);
+    }
+
+    /**
+     * @return the number of inits waiting to be executed
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * @return the number of inits being executed
+     */
+    public int getActiveNr() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * @return the average duration between the submission of an init and its end, in milliseconds
+     */
+    public long getAverageLatency() {
+        final long count = initNr.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / count);
+    }
+
+    /**
+     * @return the maximum duration between the submission of an init and its end, in milliseconds
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+    }
+
+    private void initDone(final long latency) {
+        initNr.incrementAndGet();
+        totalLatency.addAndGet(latency);
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+    }
+
+    /**
+     * Submits the inits of a device to the pool one at a time
+     */
+    private final class DeviceExecutor implements Executor {
+        private final String threadName;
+        private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        private Runnable active;
+
+        DeviceExecutor(final String deviceName) {
+            threadName = deviceName + " Init";
+        }
+
+        @Override
+        public synchronized void execute(final Runnable command) {
+            final long submitted = System.nanoTime();
+            queueSize.incrementAndGet();
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    queueSize.decrementAndGet();
+                    final Thread thread = Thread.currentThread();
+                    final String name = thread.getName();
+                    thread.setName(threadName);
+                    try {
+                        command.run();
+                    } finally {
+                        thread.setName(name);
+                        initDone(System.nanoTime() - submitted);
+                        scheduleNext();
+                    }
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                pool.execute(active);
+            }
+        }
+    }
+}
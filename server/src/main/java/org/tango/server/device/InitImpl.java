@@ -29,10 +29,9 @@ import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -63,20 +62,10 @@ public final class InitImpl extends DeviceBehaviorObject {
     private final boolean isLazy;
     private final Object businessObject;
 
-    private static class ThreadFact implements ThreadFactory {
-        private final String name;
-
-        ThreadFact(final String name) {
-            this.name = name;
-        }
-
-        @Override
-        public Thread newThread(final Runnable r) {
-            return new Thread(r, name + " Init");
-        }
-    }
-
-    private final ExecutorService executor;
+    /**
+     * Executes the lazy inits on the threads shared by all devices
+     */
+    private final Executor executor;
     private Future<Void> future;
     private final AtomicBoolean isInitDoneCorrectly = new AtomicBoolean(false);
     private PollingManager pollingManager;
@@ -99,7 +88,7 @@ public final class InitImpl extends DeviceBehaviorObject {
         this.isLazy = isLazy;
         this.businessObject = businessObject;
         this.pollingManager = pollingManager;
-        executor = Executors.newSingleThreadExecutor(new ThreadFact(deviceName));
+        executor = InitExecutor.getInstance().newDeviceExecutor(deviceName);
     }
 
     /**
@@ -121,7 +110,9 @@ public final class InitImpl extends DeviceBehaviorObject {
                 }
             };
 
-            future = executor.submit(initRunnable);
+            final FutureTask<Void> task = new FutureTask<Void>(initRunnable);
+            future = task;
+            executor.execute(task);
         } else {
             doInit(stateImpl, statusImpl);
         }
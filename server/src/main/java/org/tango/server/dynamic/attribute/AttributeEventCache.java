@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.dynamic.attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.TimeVal;
+import fr.esrf.TangoApi.AttributeProxy;
+import fr.esrf.TangoApi.CallBack;
+import fr.esrf.TangoApi.DeviceAttribute;
+import fr.esrf.TangoApi.events.EventData;
+import fr.esrf.TangoDs.TangoConst;
+
+/**
+ * Last value of a tango attribute, fed by its change and periodic events. As both events come from different
+ * subscriptions, a value read before the current one is dropped.
+ */
+final class AttributeEventCache {
+
+    /**
+     * Notified of each new value or error
+     */
+    interface Listener {
+        void valueReceived(int index, DeviceAttribute value, DevFailed error);
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttributeEventCache.class);
+
+    private final String attributeName;
+    private final AttributeProxy proxy;
+    private final long maxAge;
+    private final int index;
+    private final Listener listener;
+    private final List<Integer> subscriptions = new ArrayList<Integer>();
+    private final Object updateLock = new Object();
+    private volatile DeviceAttribute lastValue;
+    private long lastReadTime = Long.MIN_VALUE;
+    private volatile long lastUpdate;
+    private volatile DevFailed lastError;
+
+    /**
+     * Subscribe to the change and periodic events of an attribute. At least one of them must be configured on the
+     * attribute.
+     *
+     * @param proxy the attribute
+     * @param maxAge the maximum time without events, in milliseconds, after which the value is stale. 0 for no limit:
+     *            the value is then stale only if the events are in error, for instance when the heartbeat of the device
+     *            is lost.
+     * @param index the index given to the listener
+     * @param listener notified of each event, may be null
+     * @throws DevFailed if the subscription failed
+     */
+    AttributeEventCache(final AttributeProxy proxy, final long maxAge, final int index, final Listener listener)
+            throws DevFailed {
+        this.proxy = proxy;
+        attributeName = proxy.fullName();
+        this.maxAge = TimeUnit.MILLISECONDS.toNanos(maxAge);
+        this.index = index;
+        this.listener = listener;
+        @SuppressWarnings("serial")
+        final CallBack callback = new CallBack() {
+            @Override
+            public void push_event(final EventData evt) {
+                if (evt.errors != null && evt.errors.length > 0) {
+                    update(null, new DevFailed(evt.errors));
+                } else if (evt.attr_value != null) {
+                    update(evt.attr_value, null);
+                }
+            }
+        };
+        DevFailed subscribeError = null;
+        for (final int eventType : new int[] { TangoConst.CHANGE_EVENT, TangoConst.PERIODIC_EVENT }) {
+            try {
+                subscriptions.add(proxy.subscribe_event(eventType, callback, new String[] {}));
+            } catch (final DevFailed e) {
+                LOGGER.debug("cannot subscribe to {} event {}: {}", attributeName, eventType,
+                        DevFailedUtils.toString(e));
+                subscribeError = e;
+            }
+        }
+        if (subscriptions.isEmpty()) {
+            throw subscribeError;
+        }
+    }
+
+    private void update(final DeviceAttribute value, final DevFailed error) {
+        synchronized (updateLock) {
+            if (error == null) {
+                if (!isNewer(value)) {
+                    LOGGER.debug("drop {} value read before the last one", attributeName);
+                    return;
+                }
+                lastValue = value;
+                lastUpdate = System.nanoTime();
+            }
+            lastError = error;
+            if (listener != null) {
+                listener.valueReceived(index, value, error);
+            }
+        }
+    }
+
+    /**
+     * @return false if the value was read before the last one. A value without read time is always kept.
+     */
+    private boolean isNewer(final DeviceAttribute value) {
+        final long readTime;
+        try {
+            final TimeVal time = value.getTimeVal();
+            readTime = TimeUnit.SECONDS.toMicros(time.tv_sec) + time.tv_usec;
+        } catch (final DevFailed e) {
+            LOGGER.debug("no read time for {}: {}", attributeName, DevFailedUtils.toString(e));
+            return true;
+        }
+        if (readTime < lastReadTime) {
+            return false;
+        }
+        lastReadTime = readTime;
+        return true;
+    }
+
+    /**
+     * @return the last value
+     * @throws DevFailed if no value has been received yet
+     */
+    DeviceAttribute getValue() throws DevFailed {
+        final DeviceAttribute value = lastValue;
+        if (value == null) {
+            final DevFailed error = lastError;
+            if (error != null) {
+                throw error;
+            }
+            throw DevFailedUtils.newDevFailed("NO_VALUE", "no event received yet from " + attributeName);
+        }
+        return value;
+    }
+
+    /**
+     * @return true if the events are in error, or if the last one is older than the maximum age
+     */
+    boolean isStale() {
+        return lastError != null || maxAge > 0 && System.nanoTime() - lastUpdate > maxAge;
+    }
+
+    void unsubscribe() {
+        for (final Integer id : subscriptions) {
+            try {
+                proxy.getDeviceProxy().unsubscribe_event(id);
+            } catch (final DevFailed e) {
+                LOGGER.error("cannot unsubscribe from {}: {}", attributeName, DevFailedUtils.toString(e));
+            }
+        }
+        subscriptions.clear();
+    }
+}
@@ -24,12 +24,14 @@
  */
 package org.tango.server.dynamic.attribute;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.math3.stat.StatUtils;
+import org.slf4j.LoggerFactory;
 import org.tango.server.StateMachineBehavior;
 import org.tango.server.attribute.AttributeConfiguration;
 import org.tango.server.attribute.AttributePropertiesImpl;
@@ -39,9 +41,11 @@ import org.tango.utils.DevFailedUtils;
 import org.tango.utils.TangoUtil;
 
 import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
 import fr.esrf.Tango.AttrWriteType;
 import fr.esrf.Tango.DevFailed;
 import fr.esrf.TangoApi.AttributeInfo;
+import fr.esrf.TangoApi.AttributeProxy;
 import fr.esrf.TangoApi.DeviceAttribute;
 import fr.esrf.TangoDs.TangoConst;
 import fr.soleil.tango.clientapi.InsertExtractUtils;
@@ -65,6 +69,12 @@ public class GroupAttribute implements IAttributeBehavior {
     private final String[] attributeNames;
     private final boolean isExternalRead;
     private DeviceAttribute[] readValues;
+    // events mode
+    private final Object subscriptionLock = new Object();
+    private volatile List<AttributeEventCache> eventCaches;
+    private RunningSum sum;
+    private int[] sourceDimX;
+    private int[] sourceDimY;
 
     /**
      *
@@ -120,8 +130,120 @@ public class GroupAttribute implements IAttributeBehavior {
         this.readValues = Arrays.copyOf(readValues, readValues.length);
     }
 
+    /**
+     * Serve the reads from the values received from the change or periodic events of the attributes, instead of
+     * reading them. The average is updated as the events arrive. The quality is INVALID when the value of an attribute
+     * is stale.
+     *
+     * @param maxAge the maximum time without events in milliseconds, 0 to rely only on the event errors (lost
+     *            heartbeat...)
+     * @throws DevFailed if none of the change and periodic events can be subscribed for an attribute
+     */
+    public void subscribeEvents(final long maxAge) throws DevFailed {
+        synchronized (subscriptionLock) {
+            if (eventCaches == null) {
+                synchronized (this) {
+                    sum = new RunningSum(attributeNames.length);
+                    sourceDimX = new int[attributeNames.length];
+                    sourceDimY = new int[attributeNames.length];
+                }
+                eventCaches = subscribe(maxAge);
+            }
+        }
+    }
+
+    /**
+     * Subscribe to all attributes. Must not hold this object lock, that is taken by the events.
+     */
+    private List<AttributeEventCache> subscribe(final long maxAge) throws DevFailed {
+        final AttributeEventCache.Listener listener = new AttributeEventCache.Listener() {
+            @Override
+            public void valueReceived(final int index, final DeviceAttribute value, final DevFailed error) {
+                if (value != null) {
+                    try {
+                        update(index, value);
+                    } catch (final DevFailed e) {
+                        DevFailedUtils.logDevFailed(e, LoggerFactory.getLogger(GroupAttribute.class));
+                    }
+                }
+            }
+        };
+        final List<AttributeEventCache> caches = new ArrayList<AttributeEventCache>(attributeNames.length);
+        try {
+            for (int i = 0; i < attributeNames.length; i++) {
+                caches.add(new AttributeEventCache(new AttributeProxy(attributeNames[i]), maxAge, i, listener));
+            }
+        } catch (final DevFailed e) {
+            for (final AttributeEventCache cache : caches) {
+                cache.unsubscribe();
+            }
+            throw e;
+        }
+        return caches;
+    }
+
+    /**
+     * Stop the events subscriptions, the reads go to the attributes again.
+     */
+    public void unsubscribeEvents() {
+        synchronized (subscriptionLock) {
+            if (eventCaches != null) {
+                for (final AttributeEventCache cache : eventCaches) {
+                    cache.unsubscribe();
+                }
+                eventCaches = null;
+            }
+        }
+    }
+
+    private synchronized void update(final int index, final DeviceAttribute value) throws DevFailed {
+        final double[] data;
+        if (attributeFormat.equals(AttrDataFormat.SCALAR)) {
+            data = new double[] { InsertExtractUtils.extractRead(value, AttrDataFormat.SCALAR, double.class) };
+        } else {
+            data = InsertExtractUtils.extractRead(value, AttrDataFormat.SPECTRUM, double[].class);
+        }
+        sum.update(index, data);
+        sourceDimX[index] = value.getDimX();
+        sourceDimY[index] = value.getDimY();
+    }
+
+    private synchronized AttributeValue getEventValue(final List<AttributeEventCache> caches) throws DevFailed {
+        boolean isStale = false;
+        for (final AttributeEventCache cache : caches) {
+            // throws if no value yet
+            cache.getValue();
+            isStale = isStale || cache.isStale();
+        }
+        final double[] avg = sum.getAverage();
+        final AttributeValue value;
+        if (attributeFormat.equals(AttrDataFormat.SCALAR)) {
+            value = new AttributeValue(avg[0]);
+        } else {
+            value = new AttributeValue(avg);
+            if (attributeFormat.equals(AttrDataFormat.IMAGE)) {
+                int maxDimX = 0;
+                int maxDimY = 0;
+                for (int i = 0; i < attributeNames.length; i++) {
+                    maxDimX = Math.max(maxDimX, sourceDimX[i]);
+                    maxDimY = Math.max(maxDimY, sourceDimY[i]);
+                }
+                value.setXDim(maxDimX);
+                value.setYDim(maxDimY);
+            }
+        }
+        if (isStale) {
+            value.setQuality(AttrQuality.ATTR_INVALID);
+        }
+        return value;
+    }
+
     @Override
     public AttributeValue getValue() throws DevFailed {
+        final List<AttributeEventCache> caches = eventCaches;
+        if (caches != null) {
+            return getEventValue(caches);
+        }
         AttributeValue value = null;
         final DeviceAttribute[] result;
         if (isExternalRead) {
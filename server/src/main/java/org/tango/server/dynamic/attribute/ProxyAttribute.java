@@ -36,9 +36,12 @@ import org.tango.server.attribute.ISetValueUpdater;
 import org.tango.utils.DevFailedUtils;
 
 import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
 import fr.esrf.Tango.AttrWriteType;
 import fr.esrf.Tango.DevFailed;
+import fr.esrf.TangoApi.DeviceAttribute;
 import fr.esrf.TangoDs.TangoConst;
+import fr.soleil.tango.clientapi.InsertExtractUtils;
 import fr.soleil.tango.clientapi.TangoAttribute;
 
 /**
@@ -58,6 +61,7 @@ public final class ProxyAttribute implements IAttributeBehavior, ISetValueUpdate
     private final TangoAttribute proxy;
     private final boolean isReadyOnly;
     private boolean autoUpdate = true;
+    private volatile AttributeEventCache events;
 
     /**
      *
@@ -105,8 +109,40 @@ public final class ProxyAttribute implements IAttributeBehavior, ISetValueUpdate
         this.autoUpdate = autoUpdate;
     }
 
+    /**
+     * Serve the reads from the last value received from the change or periodic events of the proxied attribute,
+     * instead of reading it. The quality is INVALID when the value is stale.
+     *
+     * @param maxAge the maximum time without events in milliseconds, 0 to rely only on the event errors (lost
+     *            heartbeat...)
+     * @throws DevFailed if none of the change and periodic events can be subscribed
+     */
+    public synchronized void subscribeEvents(final long maxAge) throws DevFailed {
+        if (events == null) {
+            events = new AttributeEventCache(proxy.getAttributeProxy(), maxAge, 0, null);
+        }
+    }
+
+    /**
+     * Stop the events subscription, the reads go to the proxied attribute again.
+     */
+    public synchronized void unsubscribeEvents() {
+        if (events != null) {
+            events.unsubscribe();
+            events = null;
+        }
+    }
+
     @Override
     public AttributeValue getValue() throws DevFailed {
+        final AttributeEventCache cache = events;
+        if (cache != null) {
+            final DeviceAttribute da = cache.getValue();
+            final AttributeValue value = new AttributeValue(InsertExtractUtils.extractRead(da, da.getDataFormat()));
+            value.setTime(da.getTime());
+            value.setQuality(cache.isStale() ? AttrQuality.ATTR_INVALID : da.getQuality());
+            return value;
+        }
         if (autoUpdate) {
             readValue.setValue(proxy.read());
             readValue.setQuality(proxy.getDeviceAttribute().getQuality());
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.dynamic.attribute;
+
+/**
+ * Element wise sum of the last arrays of several sources, updated with the difference of each new array. The sources
+ * may have different lengths, the missing elements count as 0. Not thread safe.
+ */
+final class RunningSum {
+
+    /**
+     * Number of updates after which the sum is computed again from the arrays, to avoid accumulating rounding errors
+     */
+    static final int RESYNC_PERIOD = 1024;
+
+    private final double[][] sourceValues;
+    private double[] sum = new double[0];
+    private int updateNr;
+
+    /**
+     * @param nbSources the number of sources
+     */
+    RunningSum(final int nbSources) {
+        sourceValues = new double[nbSources][];
+    }
+
+    /**
+     * Replace the array of a source
+     *
+     * @param index the source index
+     * @param data its new array
+     */
+    void update(final int index, final double[] data) {
+        final double[] old = sourceValues[index];
+        sourceValues[index] = data;
+        if (data.length > sum.length || old != null && old.length != data.length || ++updateNr % RESYNC_PERIOD == 0) {
+            // size changed, or avoid accumulating rounding errors
+            int maxLength = 0;
+            for (final double[] values : sourceValues) {
+                if (values != null && values.length > maxLength) {
+                    maxLength = values.length;
+                }
+            }
+            sum = new double[maxLength];
+            for (final double[] values : sourceValues) {
+                if (values != null) {
+                    for (int x = 0; x < values.length; x++) {
+                        sum[x] += values[x];
+                    }
+                }
+            }
+        } else {
+            for (int x = 0; x < data.length; x++) {
+                sum[x] += data[x] - (old == null ? 0 : old[x]);
+            }
+        }
+    }
+
+    /**
+     * @return the sum of all sources divided by their number, as long as the longest array
+     */
+    double[] getAverage() {
+        final double[] avg = new double[sum.length];
+        for (int x = 0; x < avg.length; x++) {
+            avg[x] = sum[x] / sourceValues.length;
+        }
+        return avg;
+    }
+}
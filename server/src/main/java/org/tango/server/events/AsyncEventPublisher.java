@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Sends attribute events from a dedicated thread, so that polling threads do not wait for the network. The events
+ * are checked and encoded by the polling thread when the value is read, the publisher thread sends these frames. The
+ * event counters are assigned when the frames are sent, so dropped or replaced events do not leave counter gaps.
+ */
+final class AsyncEventPublisher {
+
+    /**
+     * Sends an encoded event on the event sockets
+     */
+    interface EventSender {
+        void send(EventFrames event) throws DevFailed;
+    }
+
+    /**
+     * What to do when an event is pushed while the queue is full
+     */
+    enum OverflowPolicy {
+        /**
+         * Drop the oldest queued events
+         */
+        DROP_OLDEST,
+        /**
+         * A newer event replaces the last queued one of the same attribute and event type, so the latest value is
+         * never lost. Drops the oldest queued events if the attribute has no queued event.
+         */
+        COALESCE;
+
+        static OverflowPolicy parse(final String policy) {
+            try {
+                return valueOf(policy.toUpperCase(Locale.ENGLISH));
+            } catch (final IllegalArgumentException e) {
+                LoggerFactory.getLogger(AsyncEventPublisher.class).error(
+                        "unknown event queue overflow policy {}, using {}", policy, DROP_OLDEST);
+                return DROP_OLDEST;
+            }
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncEventPublisher.class);
+
+    private final EventSender sender;
+    private final OverflowPolicy policy;
+    private final BlockingQueue<Request> queue;
+    /**
+     * last queued request of each attribute, used to coalesce when the queue is full
+     */
+    private final ConcurrentMap<AttributeEventIndex.Channels, Request> pending = new ConcurrentHashMap<>();
+    private final AtomicLong dropNr = new AtomicLong();
+    private final AtomicLong coalescedNr = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean isStopped = false;
+
+    AsyncEventPublisher(final EventSender sender, final int capacity, final OverflowPolicy policy) {
+        this.sender = sender;
+        this.policy = policy;
+        queue = new ArrayBlockingQueue<>(capacity);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                publishLoop();
+            }
+        }, "Event publisher");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        logger.info("events are published asynchronously, queue size is {}, overflow policy is {}",
+                queue.remainingCapacity(), policy);
+        thread.start();
+    }
+
+    void stop() {
+        isStopped = true;
+        thread.interrupt();
+        queue.clear();
+        pending.clear();
+    }
+
+    /**
+     * Queue the events of an attribute
+     *
+     * @param attributeName the attribute name
+     * @param channels the subscriptions of the attribute
+     * @param events the events, encoded with the value to send
+     */
+    void submit(final String attributeName, final AttributeEventIndex.Channels channels,
+            final List<EventFrames> events) {
+        final Request request = new Request(attributeName, channels, events);
+        while (!queue.offer(request)) {
+            if (policy == OverflowPolicy.COALESCE) {
+                final Request previous = pending.get(channels);
+                if (previous != null) {
+                    final int replacedNr = previous.merge(events);
+                    if (replacedNr >= 0) {
+                        coalescedNr.addAndGet(replacedNr);
+                        return;
+                    }
+                    // already taken by the publisher thread
+                    pending.remove(channels, previous);
+                    continue;
+                }
+            }
+            final Request oldest = queue.poll();
+            if (oldest != null) {
+                final List<EventFrames> dropped = policy == OverflowPolicy.COALESCE ? oldest.take(pending)
+                        : oldest.events;
+                dropNr.addAndGet(dropped.size());
+            }
+        }
+        if (policy == OverflowPolicy.COALESCE) {
+            pending.put(channels, request);
+        }
+    }
+
+    private void publishLoop() {
+        while (!isStopped) {
+            final Request request;
+            try {
+                request = queue.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            final List<EventFrames> events = policy == OverflowPolicy.COALESCE ? request.take(pending)
+                    : request.events;
+            for (final EventFrames event : events) {
+                try {
+                    sender.send(event);
+                } catch (final DevFailed e) {
+                    DevFailedUtils.logDevFailed(e, logger);
+                } catch (final RuntimeException e) {
+                    logger.error("failed to publish event of " + request.attributeName, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of attribute events waiting to be published
+     */
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    long getDropNr() {
+        return dropNr.get();
+    }
+
+    /**
+     * @return the number of events replaced by a newer event of the same attribute and type
+     */
+    long getCoalescedNr() {
+        return coalescedNr.get();
+    }
+
+    private static final class Request {
+        private final String attributeName;
+        private final AttributeEventIndex.Channels channels;
+        private List<EventFrames> events;
+        private boolean isTaken = false;
+
+        Request(final String attributeName, final AttributeEventIndex.Channels channels,
+                final List<EventFrames> events) {
+            this.attributeName = attributeName;
+            this.channels = channels;
+            this.events = events;
+        }
+
+        /**
+         * Merge newer events of the same attribute into this request. A newer event replaces the queued one of the
+         * same subscription.
+         *
+         * @return the number of replaced events, -1 if this request is already being published
+         */
+        synchronized int merge(final List<EventFrames> newEvents) {
+            if (isTaken) {
+                return -1;
+            }
+            final List<EventFrames> merged = new ArrayList<>(events);
+            int replacedNr = 0;
+            for (final EventFrames newEvent : newEvents) {
+                boolean isReplaced = false;
+                for (int i = 0; i < merged.size() && !isReplaced; i++) {
+                    if (merged.get(i).getEvent() == newEvent.getEvent()) {
+                        merged.set(i, newEvent);
+                        isReplaced = true;
+                    }
+                }
+                if (isReplaced) {
+                    replacedNr++;
+                } else {
+                    merged.add(newEvent);
+                }
+            }
+            events = merged;
+            return replacedNr;
+        }
+
+        synchronized List<EventFrames> take(final ConcurrentMap<AttributeEventIndex.Channels, Request> pending) {
+            isTaken = true;
+            pending.remove(channels, this);
+            return events;
+        }
+    }
+}
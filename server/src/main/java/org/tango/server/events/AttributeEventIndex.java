@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.tango.server.servant.DeviceImpl;
+
+/**
+ * Index of the attribute event subscriptions, by device and attribute names (case insensitive). Lookups do not
+ * allocate, so that pushing an event for an attribute without subscribers costs a single map access.
+ */
+final class AttributeEventIndex {
+
+    private static final int NB_EVENT_TYPES = EventType.values().length;
+    private static final int NB_IDL = DeviceImpl.SERVER_VERSION - EventManager.MINIMUM_IDL_VERSION + 1;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Channels>> devices = new ConcurrentSkipListMap<>(
+            String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Get the event channels of an attribute
+     *
+     * @param deviceName the device name
+     * @param attributeName the attribute name
+     * @return the channels, or null if the attribute has never been subscribed
+     */
+    Channels get(final String deviceName, final String attributeName) {
+        final ConcurrentMap<String, Channels> attributes = devices.get(deviceName);
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.get(attributeName);
+    }
+
+    /**
+     * Register a subscription. Must not be called concurrently with {@link #remove(String, String, EventType, int)}.
+     *
+     * @param deviceName the device name
+     * @param attributeName the attribute name
+     * @param eventType the event type
+     * @param idlVersion the event IDL version
+     * @param eventImpl the subscription
+     */
+    void put(final String deviceName, final String attributeName, final EventType eventType, final int idlVersion,
+            final EventImpl eventImpl) {
+        final int index = getIndex(eventType, idlVersion);
+        if (index < 0) {
+            // never pushed
+            return;
+        }
+        ConcurrentMap<String, Channels> attributes = devices.get(deviceName);
+        if (attributes == null) {
+            attributes = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+            devices.put(deviceName, attributes);
+        }
+        Channels channels = attributes.get(attributeName);
+        if (channels == null) {
+            channels = new Channels();
+            attributes.put(attributeName, channels);
+        }
+        channels.events.set(index, eventImpl);
+    }
+
+    /**
+     * Unregister a subscription. Must not be called concurrently with
+     * {@link #put(String, String, EventType, int, EventImpl)}.
+     *
+     * @param deviceName the device name
+     * @param attributeName the attribute name
+     * @param eventType the event type
+     * @param idlVersion the event IDL version
+     */
+    void remove(final String deviceName, final String attributeName, final EventType eventType, final int idlVersion) {
+        final int index = getIndex(eventType, idlVersion);
+        final ConcurrentMap<String, Channels> attributes = devices.get(deviceName);
+        if (index < 0 || attributes == null) {
+            return;
+        }
+        final Channels channels = attributes.get(attributeName);
+        if (channels != null) {
+            channels.events.set(index, null);
+            if (channels.isEmpty()) {
+                attributes.remove(attributeName);
+                if (attributes.isEmpty()) {
+                    devices.remove(deviceName);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        devices.clear();
+    }
+
+    /**
+     * Events of IDL versions below the minimum share their name with the minimum version, and versions above the server
+     * one are never pushed.
+     */
+    private static int getIndex(final EventType eventType, final int idlVersion) {
+        if (idlVersion > DeviceImpl.SERVER_VERSION) {
+            return -1;
+        }
+        final int idl = Math.max(idlVersion, EventManager.MINIMUM_IDL_VERSION);
+        return eventType.ordinal() * NB_IDL + idl - EventManager.MINIMUM_IDL_VERSION;
+    }
+
+    /**
+     * The subscriptions of an attribute, one slot per event type and IDL version
+     */
+    static final class Channels {
+
+        private final AtomicReferenceArray<EventImpl> events = new AtomicReferenceArray<>(NB_EVENT_TYPES * NB_IDL);
+
+        /**
+         * @param eventType the event type
+         * @param idlVersion the event IDL version, between {@link EventManager#MINIMUM_IDL_VERSION} and
+         *            {@link DeviceImpl#SERVER_VERSION}
+         * @return the subscription, or null if none
+         */
+        EventImpl get(final EventType eventType, final int idlVersion) {
+            return events.get(getIndex(eventType, idlVersion));
+        }
+
+        boolean isEmpty() {
+            for (int i = 0; i < events.length(); i++) {
+                if (events.get(i) != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -56,10 +56,7 @@ public class ChangeEventTrigger implements IEventTrigger {
     private final AttributeImpl attribute;
     private AttributeValue previousValue;
     private AttributeValue value;
-    private double absolute;
-    private boolean checkAbsolute;
-    private double relative;
-    private boolean checkRelative;
+    private NumberChangeDetector detector;
     private DevFailed error;
     private DevFailed previousError;
     private boolean previousInitialized = false;
@@ -80,18 +77,23 @@ public class ChangeEventTrigger implements IEventTrigger {
     }
 
     public void setCriteria(final String absolute, final String relative) {
+        double absoluteValue = 0;
+        boolean checkAbsolute;
         try {
-            this.absolute = Double.parseDouble(absolute);
+            absoluteValue = Double.parseDouble(absolute);
             checkAbsolute = true;
         } catch (final NumberFormatException e) {
             checkAbsolute = false;
         }
+        double relativeValue = 0;
+        boolean checkRelative;
         try {
-            this.relative = Double.parseDouble(relative);
+            relativeValue = Double.parseDouble(relative);
             checkRelative = true;
         } catch (final NumberFormatException e) {
             checkRelative = false;
         }
+        detector = new NumberChangeDetector(checkAbsolute, absoluteValue, checkRelative, relativeValue);
     }
 
     @Override
@@ -162,29 +164,7 @@ public class ChangeEventTrigger implements IEventTrigger {
     }
 
     private boolean hasScalarNumberChanged() {
-        boolean hasChanged = false;
-        final double val = Double.parseDouble(value.getValue().toString());
-        final double previousVal = Double.parseDouble(previousValue.getValue().toString());
-        // absolute change
-        if (checkAbsolute) {
-            final double delta = val - previousVal;
-            hasChanged = Math.abs(delta) >= absolute;
-        }
-        // relative change
-        if (!hasChanged && checkRelative) {
-            final double delta;
-            if (previousVal == 0) {
-                if (val == 0) {
-                    delta = 0;
-                } else {
-                    delta = 100;
-                }
-            } else {
-                delta = (val - previousVal) / previousVal * 100.0;
-            }
-            hasChanged = Math.abs(delta) >= relative;
-        }
-        return hasChanged;
+        return detector.hasScalarChanged(value.getValue(), previousValue.getValue());
     }
 
     private boolean hasDevEncodedChanged() {
@@ -204,34 +184,7 @@ public class ChangeEventTrigger implements IEventTrigger {
         if (Array.getLength(value.getValue()) != Array.getLength(previousValue.getValue())) {
             hasChanged = true;
         } else {
-            final String[] val = ArrayUtils.toStringArray(value.getValue());
-            final String[] previousVal = ArrayUtils.toStringArray(previousValue.getValue());
-            for (int i = 0; i < previousVal.length; i++) {
-                final double valD = Double.parseDouble(val[i]);
-                final double previousValD = Double.parseDouble(previousVal[i]);
-                // absolute change
-                if (checkAbsolute) {
-                    final double delta = valD - previousValD;
-                    hasChanged = Math.abs(delta) >= absolute;
-                }
-                // relative change
-                if (!hasChanged && checkRelative) {
-                    final double delta;
-                    if (previousValD == 0) {
-                        if (valD == 0) {
-                            delta = 0;
-                        } else {
-                            delta = 100;
-                        }
-                    } else {
-                        delta = valD - previousValD * 100.0 / previousValD;
-                    }
-                    hasChanged = Math.abs(delta) >= relative;
-                }
-                if (hasChanged) {
-                    break;
-                }
-            }
+            hasChanged = detector.hasArrayChanged(value.getValue(), previousValue.getValue());
         }
         return hasChanged;
     }
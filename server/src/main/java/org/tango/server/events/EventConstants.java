@@ -46,6 +46,12 @@ interface EventConstants {
     static final long EVENT_RESUBSCRIBE_PERIOD = 600000;
     static final long EVENT_HEARTBEAT_PERIOD = 9000;
 
+    // Size of the asynchronous publication queue. Events are sent by the polling threads if 0
+    static final int PUBLISHER_QUEUE_SIZE = Integer.getInteger("org.tango.server.events.queue", 0);
+    // drop_oldest or coalesce
+    static final String PUBLISHER_OVERFLOW_POLICY = System.getProperty("org.tango.server.events.overflow",
+            "drop_oldest");
+
     // Used by sent object but not yet by client API
     static final String EXECUTE_METHOD = "";
     static final byte[] OBJECT_IDENTIFIER = {};
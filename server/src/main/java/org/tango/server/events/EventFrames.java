@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+/**
+ * An event encoded when it was triggered, waiting to be sent. Its counter is assigned when it is sent.
+ */
+final class EventFrames {
+
+    private final EventImpl event;
+    private final boolean isException;
+    private final byte[] data;
+
+    EventFrames(final EventImpl event, final boolean isException, final byte[] data) {
+        this.event = event;
+        this.isException = isException;
+        this.data = data;
+    }
+
+    EventImpl getEvent() {
+        return event;
+    }
+
+    boolean isException() {
+        return isException;
+    }
+
+    byte[] getData() {
+        return data;
+    }
+}
@@ -24,6 +24,8 @@
  */
 package org.tango.server.events;
 
+import java.util.Collection;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.ext.XLogger;
@@ -36,6 +38,7 @@ import org.tango.utils.DevFailedUtils;
 import org.zeromq.ZMQ;
 
 import fr.esrf.Tango.AttDataReady;
+import fr.esrf.Tango.AttributeValue_5;
 import fr.esrf.Tango.DevFailed;
 import fr.esrf.Tango.DevIntrChange;
 import fr.esrf.Tango.DevPipeData;
@@ -50,12 +53,18 @@ final class EventImpl {
     private final Logger logger = LoggerFactory.getLogger(EventImpl.class);
     private final XLogger xlogger = XLoggerFactory.getXLogger(EventImpl.class);
 
-    private AttributeImpl attribute;
+    private final AttributeImpl attribute;
+    // attribute value and event state may be accessed by polling threads and the event publisher thread
+    private final Object lock;
+    // the counter is assigned when the event is sent, so that clients receive consecutive counters in order
+    private final Object sendLock = new Object();
     private final IEventTrigger eventTrigger;
     private long subscribeTime;
     private int counter = 0;
     private final EventType eventType;
     private final boolean islatestIDLVersion;
+    private final String fullName;
+    private final byte[] fullNameBytes;
 
     /**
      * Create a Event object based on an AttributeImpl with its event parameters.
@@ -63,14 +72,13 @@ final class EventImpl {
      * @param attribute the attribute for specified event
      * @param eventType the event type
      * @param idlVersion the event IDL version
+     * @param fullName event full name
      * @throws DevFailed
      */
 
-    EventImpl(final AttributeImpl attribute, final EventType eventType, final int idlVersion) throws DevFailed {
-        this.attribute = attribute;
-        this.eventType = eventType;
-        islatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
-        eventTrigger = EventTriggerFactory.createEventTrigger(eventType, attribute);
+    EventImpl(final AttributeImpl attribute, final EventType eventType, final int idlVersion, final String fullName)
+            throws DevFailed {
+        this(attribute, eventType, idlVersion, fullName, EventTriggerFactory.createEventTrigger(eventType, attribute));
         logger.debug("event trigger for {} type is {}", attribute.getName(), eventTrigger.getClass());
         updateSubscribeTime();
     }
@@ -82,10 +90,8 @@ final class EventImpl {
      * @throws DevFailed
      */
 
-    EventImpl(final PipeImpl pipe, final int idlVersion) throws DevFailed {
-        this.eventType = EventType.PIPE_EVENT;
-        islatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
-        eventTrigger = new DefaultEventTrigger();
+    EventImpl(final PipeImpl pipe, final int idlVersion, final String fullName) throws DevFailed {
+        this(null, EventType.PIPE_EVENT, idlVersion, fullName, new DefaultEventTrigger());
         logger.debug("event trigger for {} type is {}", pipe.getName(), eventTrigger.getClass());
         updateSubscribeTime();
     }
@@ -96,14 +102,30 @@ final class EventImpl {
      * @throws DevFailed
      */
 
-    EventImpl(final int idlVersion) throws DevFailed {
-        this.eventType = EventType.INTERFACE_CHANGE_EVENT;
-        islatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
-        eventTrigger = new DefaultEventTrigger();
+    EventImpl(final int idlVersion, final String fullName) throws DevFailed {
+        this(null, EventType.INTERFACE_CHANGE_EVENT, idlVersion, fullName, new DefaultEventTrigger());
         logger.debug("event trigger for {} type is {}", eventTrigger.getClass());
         updateSubscribeTime();
     }
 
+    private EventImpl(final AttributeImpl attribute, final EventType eventType, final int idlVersion,
+            final String fullName, final IEventTrigger eventTrigger) {
+        this.attribute = attribute;
+        lock = attribute != null ? attribute : this;
+        this.eventType = eventType;
+        this.eventTrigger = eventTrigger;
+        islatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
+        this.fullName = fullName;
+        fullNameBytes = fullName.getBytes(ZMQ.CHARSET);
+    }
+
+    /**
+     * @return the event full name
+     */
+    String getFullName() {
+        return fullName;
+    }
+
     /**
      * Update the subscribe time to manage if subscribe is still active.
      */
@@ -125,17 +147,16 @@ final class EventImpl {
     /**
      * Fire an event containing a value.
      *
-     * @param eventSocket the socket to send event
-     * @param fullName event full name
+     * @param eventSockets the sockets to send event
      * @throws DevFailed
      */
 
-    void forcePushEvent(final ZMQ.Socket eventSocket, final String fullName) throws DevFailed {
+    void forcePushEvent(final Collection<ZMQ.Socket> eventSockets) throws DevFailed {
         xlogger.entry();
         if (eventType.equals(EventType.ATT_CONF_EVENT)) {
-            pushAttributeConfigEvent(eventSocket, fullName);
+            pushAttributeConfigEvent(eventSockets);
         } else {
-            sendAttributeEvent(eventSocket, fullName);
+            sendAttributeEvent(eventSockets);
         }
         xlogger.exit();
     }
@@ -143,23 +164,39 @@ final class EventImpl {
     /**
      * Fire an event containing a value is condition is valid.
      *
-     * @param eventSocket the socket to send event
-     * @param fullName event full name
+     * @param eventSockets the sockets to send event
      * @throws DevFailed
      */
 
-    void pushAttributeEvent(final ZMQ.Socket eventSocket, final String fullName) throws DevFailed {
+    void pushAttributeEvent(final Collection<ZMQ.Socket> eventSockets) throws DevFailed {
         xlogger.entry();
-        eventTrigger.setError(null);
-        eventTrigger.updateProperties();
-        final boolean sendEvent = isAttributeValueEvent()
-                && (eventTrigger.doCheck() && eventTrigger.isSendEvent() || !eventTrigger.doCheck());
-        if (sendEvent) {
-            sendAttributeEvent(eventSocket, fullName);
+        final EventFrames frames = prepareAttributeEvent();
+        if (frames != null) {
+            send(eventSockets, frames);
         }
         xlogger.exit();
     }
 
+    /**
+     * Check if the current value of the attribute must be sent and encode it. The value is captured under the
+     * attribute lock, the returned frames may be sent later.
+     *
+     * @return the event to send, or null if the condition is not valid
+     * @throws DevFailed
+     */
+    EventFrames prepareAttributeEvent() throws DevFailed {
+        synchronized (lock) {
+            eventTrigger.setError(null);
+            eventTrigger.updateProperties();
+            final boolean sendEvent = isAttributeValueEvent()
+                    && (eventTrigger.doCheck() && eventTrigger.isSendEvent() || !eventTrigger.doCheck());
+            if (!sendEvent) {
+                return null;
+            }
+            return new EventFrames(this, false, marshallAttributeValue());
+        }
+    }
+
     /**
      * check if is an attribute value
      *
@@ -171,127 +208,165 @@ final class EventImpl {
                 || eventType.equals(EventType.CHANGE_EVENT);
     }
 
-    private void sendAttributeEvent(final ZMQ.Socket eventSocket, final String fullName) throws DevFailed {
+    private void sendAttributeEvent(final Collection<ZMQ.Socket> eventSockets) throws DevFailed {
         xlogger.entry();
-        try {
-            eventSocket.sendMore(fullName);
-            eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(counter++, false), ZMQ.SNDMORE);
-            if (attribute.getBehavior() instanceof ForwardedAttribute) {
-                final ForwardedAttribute att = (ForwardedAttribute) attribute.getBehavior();
-                eventSocket.send(EventUtilities.marshallIDL5(att.getValue5()), 0);
-            } else {
-                if (islatestIDLVersion) {
-                    eventSocket.send(EventUtilities.marshallIDL5(attribute), 0);
-                } else {
-                    eventSocket.send(EventUtilities.marshallIDL4(attribute), 0);
-                }
-            }
-            logger.debug("sent event: {}", fullName);
-        } catch (final org.zeromq.ZMQException e) {
-            throw DevFailedUtils.newDevFailed(e);
+        final byte[] data;
+        synchronized (lock) {
+            data = marshallAttributeValue();
         }
-
+        send(eventSockets, false, data);
+        logger.debug("sent event: {}", fullName);
         xlogger.exit();
     }
 
+    private byte[] marshallAttributeValue() throws DevFailed {
+        if (attribute.getBehavior() instanceof ForwardedAttribute) {
+            final ForwardedAttribute att = (ForwardedAttribute) attribute.getBehavior();
+            // re-publish the value received from the root event, read it only if there is none
+            AttributeValue_5 value = att.getLastEventValue5();
+            if (value == null) {
+                value = att.getValue5();
+            }
+            return EventUtilities.marshallIDL5(value);
+        } else if (islatestIDLVersion) {
+            return EventUtilities.marshallIDL5(attribute);
+        } else {
+            return EventUtilities.marshallIDL4(attribute);
+        }
+    }
+
     /**
      * Send a data ready event
      *
-     * @param eventSocket the socket to send event
-     * @param fullName event full name
+     * @param eventSockets the sockets to send event
      * @param counter a counter value
      * @throws DevFailed
      */
-    void pushAttributeDataReadyEvent(final ZMQ.Socket eventSocket, final String fullName, final int counter)
+    void pushAttributeDataReadyEvent(final Collection<ZMQ.Socket> eventSockets, final int counter)
             throws DevFailed {
         xlogger.entry();
-        try {
-            final AttDataReady dataReady = new AttDataReady(attribute.getName(), attribute.getTangoType(), counter);
-            eventSocket.sendMore(fullName);
-            eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(counter, false), ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(dataReady), 0);
-            logger.debug("sent {} event: {}", EventType.DATA_READY_EVENT, fullName);
-        } catch (final org.zeromq.ZMQException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        }
-
+        final AttDataReady dataReady = new AttDataReady(attribute.getName(), attribute.getTangoType(), counter);
+        sendFrames(eventSockets, EventUtilities.marshall(counter, false), EventUtilities.marshall(dataReady));
+        logger.debug("sent {} event: {}", EventType.DATA_READY_EVENT, fullName);
         xlogger.exit();
     }
 
-    void pushAttributeConfigEvent(final ZMQ.Socket eventSocket, final String fullName) throws DevFailed {
+    void pushAttributeConfigEvent(final Collection<ZMQ.Socket> eventSockets) throws DevFailed {
         xlogger.entry();
-        try {
-            eventSocket.sendMore(fullName);
-            eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(counter++, false), ZMQ.SNDMORE);
+        final byte[] data;
+        synchronized (lock) {
             if (islatestIDLVersion) {
-                eventSocket.send(EventUtilities.marshallIDL5Config(attribute), 0);
+                data = EventUtilities.marshallIDL5Config(attribute);
             } else {
-                eventSocket.send(EventUtilities.marshallIDL4Config(attribute), 0);
+                data = EventUtilities.marshallIDL4Config(attribute);
             }
-            logger.debug("sent {} event: {}", EventType.ATT_CONF_EVENT, fullName);
-        } catch (final org.zeromq.ZMQException e) {
-            throw DevFailedUtils.newDevFailed(e);
         }
+        send(eventSockets, false, data);
+        logger.debug("sent {} event: {}", EventType.ATT_CONF_EVENT, fullName);
         xlogger.exit();
     }
 
-    void pushInterfaceChangeEvent(final ZMQ.Socket eventSocket, final String fullName,
-            final DevIntrChange deviceInterface) throws DevFailed {
+    void pushInterfaceChangeEvent(final Collection<ZMQ.Socket> eventSockets, final DevIntrChange deviceInterface)
+            throws DevFailed {
         xlogger.entry();
-        try {
-            eventSocket.sendMore(fullName);
-            eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(counter++, false), ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(deviceInterface), 0);
-            logger.debug("sent {} event: {}", EventType.INTERFACE_CHANGE_EVENT, fullName);
-        } catch (final org.zeromq.ZMQException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        }
+        send(eventSockets, false, EventUtilities.marshall(deviceInterface));
+        logger.debug("sent {} event: {}", EventType.INTERFACE_CHANGE_EVENT, fullName);
         xlogger.exit();
     }
 
-    void pushPipeEvent(final ZMQ.Socket eventSocket, final String fullName, final DevPipeData pipeData)
-            throws DevFailed {
+    void pushPipeEvent(final Collection<ZMQ.Socket> eventSockets, final DevPipeData pipeData) throws DevFailed {
         xlogger.entry();
-        try {
-            eventSocket.sendMore(fullName);
-            eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(counter++, false), ZMQ.SNDMORE);
-            eventSocket.send(EventUtilities.marshall(pipeData), 0);
-            logger.debug("sent {} event: {}", EventType.PIPE_EVENT, fullName);
-        } catch (final org.zeromq.ZMQException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        }
+        send(eventSockets, false, EventUtilities.marshall(pipeData));
+        logger.debug("sent {} event: {}", EventType.PIPE_EVENT, fullName);
         xlogger.exit();
     }
 
     /**
      * Fire an event containing a DevFailed.
      *
-     * @param eventSocket the socket to send event
-     * @param fullName event full name
+     * @param eventSockets the sockets to send event
      * @param devFailed the failed object to be sent.
      * @throws DevFailed
      */
-    void pushEvent(final ZMQ.Socket eventSocket, final String fullName, final DevFailed devFailed) throws DevFailed {
+    void pushEvent(final Collection<ZMQ.Socket> eventSockets, final DevFailed devFailed) throws DevFailed {
         xlogger.entry();
-        eventTrigger.updateProperties();
-        eventTrigger.setError(devFailed);
-        if (eventTrigger.doCheck() && eventTrigger.isSendEvent()) {
-            try {
-                eventSocket.sendMore(fullName);
-                eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-                eventSocket.send(EventUtilities.marshall(counter++, true), ZMQ.SNDMORE);
-                eventSocket.send(EventUtilities.marshall(devFailed), 0);
-                logger.debug("sent ERROR event: {}", fullName);
-            } catch (final org.zeromq.ZMQException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            }
+        final EventFrames frames = prepareErrorEvent(devFailed);
+        if (frames != null) {
+            send(eventSockets, frames);
         }
         xlogger.exit();
     }
 
+    /**
+     * Check if an error must be sent and encode it. The returned frames may be sent later.
+     *
+     * @param devFailed the failed object to be sent.
+     * @return the event to send, or null if the condition is not valid
+     * @throws DevFailed
+     */
+    EventFrames prepareErrorEvent(final DevFailed devFailed) throws DevFailed {
+        synchronized (lock) {
+            eventTrigger.updateProperties();
+            eventTrigger.setError(devFailed);
+            if (!eventTrigger.doCheck() || !eventTrigger.isSendEvent()) {
+                return null;
+            }
+            return new EventFrames(this, true, EventUtilities.marshall(devFailed));
+        }
+    }
+
+    /**
+     * Send a prepared event on all sockets
+     *
+     * @param eventSockets the sockets to send event
+     * @param frames the event, prepared by this object
+     * @throws DevFailed
+     */
+    void send(final Collection<ZMQ.Socket> eventSockets, final EventFrames frames) throws DevFailed {
+        send(eventSockets, frames.isException(), frames.getData());
+        logger.debug("sent event: {}", fullName);
+    }
+
+    /**
+     * Send an event with the next counter. The counter is assigned and the event sent under the same lock, so that an
+     * event dropped or replaced before being sent does not leave a gap, and events are received in counter order.
+     *
+     * @param eventSockets the sockets to send event
+     * @param isException true if the data is a marshalled DevFailed
+     * @param data the marshalled event data
+     * @throws DevFailed
+     */
+    private void send(final Collection<ZMQ.Socket> eventSockets, final boolean isException, final byte[] data)
+            throws DevFailed {
+        synchronized (sendLock) {
+            sendFrames(eventSockets, EventUtilities.marshall(counter++, isException), data);
+        }
+    }
+
+    /**
+     * Send the same frames on all sockets. The frames are encoded once for all endpoints, so that each endpoint
+     * receives the same counter.
+     *
+     * @param eventSockets the sockets to send event
+     * @param callInfo the marshalled call info, with the event counter
+     * @param data the marshalled event data
+     * @throws DevFailed
+     */
+    private void sendFrames(final Collection<ZMQ.Socket> eventSockets, final byte[] callInfo, final byte[] data)
+            throws DevFailed {
+        try {
+            for (final ZMQ.Socket eventSocket : eventSockets) {
+                // several polling threads may publish on the same socket: do not interleave multi-part messages
+                synchronized (eventSocket) {
+                    eventSocket.sendMore(fullNameBytes);
+                    eventSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
+                    eventSocket.send(callInfo, ZMQ.SNDMORE);
+                    eventSocket.send(data, 0);
+                }
+            }
+        } catch (final org.zeromq.ZMQException e) {
+            throw DevFailedUtils.newDevFailed(e);
+        }
+    }
+
 }
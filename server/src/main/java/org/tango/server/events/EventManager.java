@@ -52,7 +52,13 @@ import org.zeromq.ZMQ;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.SocketException;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -77,15 +83,23 @@ public final class EventManager {
     });
     private final Logger logger = LoggerFactory.getLogger(EventManager.class);
     private final XLogger xlogger = XLoggerFactory.getXLogger(EventManager.class);
-    //TODO not thread safe
-    private final Map<String, EventImpl> eventImplMap = new HashMap<>();
-    //TODO concurrency
-    private final Map<String, ZMQ.Socket> heartbeatEndpoints = new LinkedHashMap<>();
-    private final Map<String, ZMQ.Socket> eventEndpoints = new LinkedHashMap<>();
+    /**
+     * All subscriptions, by event full name. Subscriptions are added and removed under the lock of this manager, pushes
+     * only read it.
+     */
+    private final Map<String, EventImpl> eventImplMap = new ConcurrentHashMap<>();
+    /**
+     * Attribute subscriptions, by device and attribute names, so that pushing does not need to build event names.
+     */
+    private final AttributeEventIndex attributeEventIndex = new AttributeEventIndex();
+    // endpoint maps are never modified once published
+    private volatile Map<String, ZMQ.Socket> heartbeatEndpoints = Collections.emptyMap();
+    private volatile Map<String, ZMQ.Socket> eventEndpoints = Collections.emptyMap();
     private ZContext context;
     private int serverHWM = EventConstants.HWM_DEFAULT;
     private int clientHWN = EventConstants.HWM_DEFAULT;
-    private boolean isInitialized = false;
+    private volatile boolean isInitialized = false;
+    private volatile AsyncEventPublisher publisher;
 
     private EventManager() {
         // Check the         serverHWM
@@ -156,14 +170,28 @@ public final class EventManager {
             }
         });
         // Get the free ports and build endpoints
-        bindEndpoints(createSocket(), ip4Address, heartbeatEndpoints, SocketType.HEARTBEAT);
-        bindEndpoints(createSocket(), ip4Address, eventEndpoints, SocketType.EVENTS);
+        final Map<String, ZMQ.Socket> heartbeats = new LinkedHashMap<>();
+        final Map<String, ZMQ.Socket> events = new LinkedHashMap<>();
+        bindEndpoints(createSocket(), ip4Address, heartbeats, SocketType.HEARTBEAT);
+        bindEndpoints(createSocket(), ip4Address, events, SocketType.EVENTS);
+        heartbeatEndpoints = Collections.unmodifiableMap(heartbeats);
+        eventEndpoints = Collections.unmodifiableMap(events);
 
         // // TODO : without database?
         final String heartbeatName = EventUtilities.buildHeartBeatEventName(adminDeviceName);
         // Start the heartbeat thread
         heartBeatExecutor.scheduleAtFixedRate(new HeartbeatThread(heartbeatName), 0,
                 EventConstants.EVENT_HEARTBEAT_PERIOD, TimeUnit.MILLISECONDS);
+        if (EventConstants.PUBLISHER_QUEUE_SIZE > 0) {
+            publisher = new AsyncEventPublisher(new AsyncEventPublisher.EventSender() {
+                @Override
+                public void send(final EventFrames event) throws DevFailed {
+                    sendEvent(event);
+                }
+            }, EventConstants.PUBLISHER_QUEUE_SIZE,
+                    AsyncEventPublisher.OverflowPolicy.parse(EventConstants.PUBLISHER_OVERFLOW_POLICY));
+            publisher.start();
+        }
         isInitialized = true;
         xlogger.exit();
     }
@@ -249,25 +277,67 @@ public final class EventManager {
 
         // Check if subscription is out of time
         if (eventImpl != null && !eventImpl.isStillSubscribed()) {
-            logger.debug("{} not subscribed any more", fullName);
-            // System.out.println(fullName + "Not Subscribed any more");
-            eventImplMap.remove(fullName);
-
-            // if no subscribers, close sockets
-            if (eventImplMap.isEmpty()) {
-                logger.debug("no subscribers on server, closing resources");
-                close();
-            }
+            removeExpiredEvent(eventImpl, null, null, null, 0);
             eventImpl = null;
         }
 
         return eventImpl;
     }
 
+    /**
+     * Search the specified attribute EventImpl object in the subscriptions of an attribute
+     *
+     * @param deviceName the attribute device name
+     * @param attributeName the attribute name
+     * @param channels the subscriptions of the attribute
+     * @param eventType the event type
+     * @param idlVersion the event IDL version
+     * @return the specified EventImpl object if found, otherwise returns null.
+     */
+    private EventImpl getEventImpl(final String deviceName, final String attributeName,
+            final AttributeEventIndex.Channels channels, final EventType eventType, final int idlVersion) {
+        EventImpl eventImpl = channels.get(eventType, idlVersion);
+        if (eventImpl != null && !eventImpl.isStillSubscribed()) {
+            removeExpiredEvent(eventImpl, deviceName, attributeName, eventType, idlVersion);
+            eventImpl = null;
+        }
+        return eventImpl;
+    }
+
+    /**
+     * Get the subscriptions of an attribute
+     *
+     * @return the subscriptions, or null if none.
+     */
+    private AttributeEventIndex.Channels getAttributeChannels(final String deviceName, final String attributeName) {
+        if (!isInitialized) {
+            return null;
+        }
+        return attributeEventIndex.get(deviceName, attributeName);
+    }
+
+    private synchronized void removeExpiredEvent(final EventImpl eventImpl, final String deviceName,
+            final String attributeName, final EventType eventType, final int idlVersion) {
+        // may have been subscribed again in between
+        if (eventImpl.isStillSubscribed() || !eventImplMap.remove(eventImpl.getFullName(), eventImpl)) {
+            return;
+        }
+        logger.debug("{} not subscribed any more", eventImpl.getFullName());
+        if (attributeName != null) {
+            attributeEventIndex.remove(deviceName, attributeName, eventType, idlVersion);
+        }
+        // if no subscribers, close sockets
+        if (eventImplMap.isEmpty()) {
+            logger.debug("no subscribers on server, closing resources");
+            close();
+        }
+    }
+
     public boolean hasSubscriber(final String deviceName) {
         boolean hasSubscriber = false;
+        final String lowerDeviceName = deviceName.toLowerCase(Locale.ENGLISH);
         for (final String eventName : eventImplMap.keySet()) {
-            if (eventName.toLowerCase(Locale.ENGLISH).contains(deviceName.toLowerCase(Locale.ENGLISH))) {
+            if (eventName.contains(lowerDeviceName)) {
                 hasSubscriber = true;
                 break;
             }
@@ -278,7 +348,7 @@ public final class EventManager {
     /**
      * Close all zmq resources
      */
-    public void close() {
+    public synchronized void close() {
         xlogger.entry();
         logger.debug("closing all event resources");
 
@@ -291,17 +361,39 @@ public final class EventManager {
             }
         }
 
+        if (publisher != null) {
+            publisher.stop();
+            publisher = null;
+        }
+
         if (context != null) {
             // close all open sockets
             context.destroy();
         }
         eventImplMap.clear();
+        attributeEventIndex.clear();
 
         isInitialized = false;
         logger.debug("all event resources closed");
         xlogger.exit();
     }
 
+    /**
+     * @return the number of events waiting to be published, if published asynchronously
+     */
+    public int getEventQueueSize() {
+        final AsyncEventPublisher current = publisher;
+        return current == null ? 0 : current.getQueueSize();
+    }
+
+    /**
+     * @return the number of events dropped because the publication queue was full
+     */
+    public long getEventDropNr() {
+        final AsyncEventPublisher current = publisher;
+        return current == null ? 0 : current.getDropNr() + current.getCoalescedNr();
+    }
+
     /**
      * returns the connection parameters for specified event.
      */
@@ -321,11 +413,13 @@ public final class EventManager {
     }
 
     private String[] endpointsAsStringArray() {
-        List<String> svalue = new ArrayList<>(heartbeatEndpoints.size() + eventEndpoints.size());
+        final Map<String, ZMQ.Socket> heartbeats = heartbeatEndpoints;
+        final Map<String, ZMQ.Socket> events = eventEndpoints;
+        List<String> svalue = new ArrayList<>(heartbeats.size() + events.size());
 
-        for (int i = 0, size = heartbeatEndpoints.size(); i < size; ++i) {
-            svalue.add(Iterables.get(heartbeatEndpoints.keySet(), i));
-            svalue.add(Iterables.get(eventEndpoints.keySet(), i));
+        for (int i = 0, size = heartbeats.size(); i < size; ++i) {
+            svalue.add(Iterables.get(heartbeats.keySet(), i));
+            svalue.add(Iterables.get(events.keySet(), i));
         }
 
         return svalue.toArray(new String[svalue.size()]);
@@ -340,7 +434,8 @@ public final class EventManager {
      * @param pipe The specified event pipe
      * @return the connection parameters for specified event.
      */
-    public DevVarLongStringArray subcribe(final String deviceName, final PipeImpl pipe) throws DevFailed {
+    public synchronized DevVarLongStringArray subcribe(final String deviceName, final PipeImpl pipe)
+            throws DevFailed {
         xlogger.entry();
         // If first time start the ZMQ management
         if (!isInitialized) {
@@ -352,7 +447,7 @@ public final class EventManager {
         EventImpl eventImpl = eventImplMap.get(fullName);
         if (eventImpl == null) {
             // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(pipe, DeviceImpl.SERVER_VERSION);
+            eventImpl = new EventImpl(pipe, DeviceImpl.SERVER_VERSION, fullName);
             eventImplMap.put(fullName, eventImpl);
         } else {
             eventImpl.updateSubscribeTime();
@@ -371,7 +466,7 @@ public final class EventManager {
      * @param eventType The specified event type
      * @return the connection parameters for specified event.
      */
-    public DevVarLongStringArray subcribe(final String deviceName, final AttributeImpl attribute,
+    public synchronized DevVarLongStringArray subcribe(final String deviceName, final AttributeImpl attribute,
             final EventType eventType, final int idlVersion) throws DevFailed {
         xlogger.entry();
         // If first time start the ZMQ management
@@ -389,8 +484,9 @@ public final class EventManager {
                 fwdAttr.subscribe(eventType);
             }
             // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(attribute, eventType, idlVersion);
+            eventImpl = new EventImpl(attribute, eventType, idlVersion, fullName);
             eventImplMap.put(fullName, eventImpl);
+            attributeEventIndex.put(deviceName, attribute.getName(), eventType, idlVersion, eventImpl);
         } else {
             eventImpl.updateSubscribeTime();
         }
@@ -406,7 +502,7 @@ public final class EventManager {
      * @param deviceName The specified event device name
      * @return the connection parameters.
      */
-    public DevVarLongStringArray subcribe(final String deviceName) throws DevFailed {
+    public synchronized DevVarLongStringArray subcribe(final String deviceName) throws DevFailed {
         xlogger.entry();
         // If first time start the ZMQ management
         if (!isInitialized) {
@@ -418,7 +514,7 @@ public final class EventManager {
         EventImpl eventImpl = eventImplMap.get(fullName);
         if (eventImpl == null) {
             // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(DeviceImpl.SERVER_VERSION);
+            eventImpl = new EventImpl(DeviceImpl.SERVER_VERSION, fullName);
             eventImplMap.put(fullName, eventImpl);
         } else {
             eventImpl.updateSubscribeTime();
@@ -448,14 +544,10 @@ public final class EventManager {
     public void pushAttributeEvent(final String deviceName, final String attributeName, final DevFailed devFailed)
             throws DevFailed {
         xlogger.entry();
-        for (final EventType eventType : EventType.values()) {
-            final String fullName5 = EventUtilities.buildEventName(deviceName, attributeName, eventType);
-            final EventImpl eventImpl5 = getEventImpl(fullName5);
-            if (eventImpl5 != null) {
-                for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                    eventImpl5.pushEvent(eventSocket, fullName5, devFailed);
-                }
-            }
+        final AttributeEventIndex.Channels channels = getAttributeChannels(deviceName, attributeName);
+        if (channels != null) {
+            publishAttributeEvents(attributeName, channels, prepareAttributeEvents(deviceName, attributeName,
+                    channels, devFailed));
         }
         xlogger.exit();
     }
@@ -468,12 +560,80 @@ public final class EventManager {
      */
     public void pushAttributeEvent(final String deviceName, final String attributeName) throws DevFailed {
         xlogger.entry();
-        for (final EventType eventType : EventType.values()) {
-            pushAttributeEvent(deviceName, attributeName, eventType);
+        final AttributeEventIndex.Channels channels = getAttributeChannels(deviceName, attributeName);
+        if (channels != null) {
+            publishAttributeEvents(attributeName, channels, prepareAttributeEvents(deviceName, attributeName,
+                    channels, null));
         }
         xlogger.exit();
     }
 
+    /**
+     * Check which events of an attribute must be sent and encode them with the current value of the attribute
+     *
+     * @param deviceName Specified event device
+     * @param attributeName specified event attribute name
+     * @param channels the subscriptions of the attribute
+     * @param devFailed the attribute failed error to be sent as event, or null to send its value
+     * @return the events to send
+     * @throws DevFailed
+     */
+    private List<EventFrames> prepareAttributeEvents(final String deviceName, final String attributeName,
+            final AttributeEventIndex.Channels channels, final DevFailed devFailed) throws DevFailed {
+        final List<EventFrames> events = new ArrayList<>(2);
+        for (final EventType eventType : EventType.values()) {
+            if (devFailed == null) {
+                for (int idl = MINIMUM_IDL_VERSION; idl <= DeviceImpl.SERVER_VERSION; idl++) {
+                    final EventImpl eventImpl = getEventImpl(deviceName, attributeName, channels, eventType, idl);
+                    if (eventImpl != null) {
+                        addEvent(events, eventImpl.prepareAttributeEvent());
+                    }
+                }
+            } else {
+                final EventImpl eventImpl5 = getEventImpl(deviceName, attributeName, channels, eventType,
+                        DeviceImpl.SERVER_VERSION);
+                if (eventImpl5 != null) {
+                    addEvent(events, eventImpl5.prepareErrorEvent(devFailed));
+                }
+            }
+        }
+        return events;
+    }
+
+    private static void addEvent(final List<EventFrames> events, final EventFrames event) {
+        if (event != null) {
+            events.add(event);
+        }
+    }
+
+    /**
+     * Send the events of an attribute, or queue them if they are published asynchronously
+     */
+    private void publishAttributeEvents(final String attributeName, final AttributeEventIndex.Channels channels,
+            final List<EventFrames> events) throws DevFailed {
+        if (events.isEmpty()) {
+            return;
+        }
+        final AsyncEventPublisher current = publisher;
+        if (current == null) {
+            for (final EventFrames event : events) {
+                sendEvent(event);
+            }
+        } else {
+            current.submit(attributeName, channels, events);
+        }
+    }
+
+    /**
+     * Send a prepared event on all endpoints
+     *
+     * @param event the event to send
+     * @throws DevFailed
+     */
+    private void sendEvent(final EventFrames event) throws DevFailed {
+        event.getEvent().send(eventEndpoints.values(), event);
+    }
+
     /**
      * fire event
      *
@@ -485,16 +645,21 @@ public final class EventManager {
     public void pushAttributeEvent(final String deviceName, final String attributeName, final EventType eventType)
             throws DevFailed {
         xlogger.entry();
+        final AttributeEventIndex.Channels channels = getAttributeChannels(deviceName, attributeName);
+        if (channels != null) {
+            pushAttributeEvent(deviceName, attributeName, channels, eventType);
+        }
+        xlogger.exit();
+    }
+
+    private void pushAttributeEvent(final String deviceName, final String attributeName,
+            final AttributeEventIndex.Channels channels, final EventType eventType) throws DevFailed {
         for (int idl = MINIMUM_IDL_VERSION; idl <= DeviceImpl.SERVER_VERSION; idl++) {
-            final String fullName = EventUtilities.buildEventName(deviceName, attributeName, eventType, idl);
-            final EventImpl eventImpl = getEventImpl(fullName);
+            final EventImpl eventImpl = getEventImpl(deviceName, attributeName, channels, eventType, idl);
             if (eventImpl != null) {
-                for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                    eventImpl.pushAttributeEvent(eventSocket, fullName);
-                }
+                eventImpl.pushAttributeEvent(eventEndpoints.values());
             }
         }
-        xlogger.exit();
     }
 
     /**
@@ -508,12 +673,9 @@ public final class EventManager {
     public void forceAttributePushEvent(final String deviceName, final String attributeName, final EventType eventType)
             throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildEventName(deviceName, attributeName, eventType);
-        final EventImpl eventImpl = getEventImpl(fullName);
+        final EventImpl eventImpl = getLatestEventImpl(deviceName, attributeName, eventType);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                eventImpl.pushAttributeEvent(eventSocket, fullName);
-            }
+            eventImpl.pushAttributeEvent(eventEndpoints.values());
         }
         xlogger.exit();
     }
@@ -529,25 +691,31 @@ public final class EventManager {
     public void pushAttributeDataReadyEvent(final String deviceName, final String attributeName, final int counter)
             throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildEventName(deviceName, attributeName, EventType.DATA_READY_EVENT);
-        final EventImpl eventImpl = getEventImpl(fullName);
+        final EventImpl eventImpl = getLatestEventImpl(deviceName, attributeName, EventType.DATA_READY_EVENT);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                eventImpl.pushAttributeDataReadyEvent(eventSocket, fullName, counter);
-            }
+            eventImpl.pushAttributeDataReadyEvent(eventEndpoints.values(), counter);
         }
         xlogger.exit();
     }
 
+    private EventImpl getLatestEventImpl(final String deviceName, final String attributeName,
+            final EventType eventType) {
+        final AttributeEventIndex.Channels channels = getAttributeChannels(deviceName, attributeName);
+        if (channels == null) {
+            return null;
+        }
+        return getEventImpl(deviceName, attributeName, channels, eventType, DeviceImpl.SERVER_VERSION);
+    }
+
     public void pushAttributeConfigEvent(final String deviceName, final String attributeName) throws DevFailed {
         xlogger.entry();
-        for (int idl = 4; idl <= DeviceImpl.SERVER_VERSION; idl++) {
-            final String fullName = EventUtilities.buildEventName(deviceName, attributeName, EventType.ATT_CONF_EVENT,
-                    idl);
-            final EventImpl eventImpl = getEventImpl(fullName);
-            if (eventImpl != null) {
-                for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                    eventImpl.pushAttributeConfigEvent(eventSocket, fullName);
+        final AttributeEventIndex.Channels channels = getAttributeChannels(deviceName, attributeName);
+        if (channels != null) {
+            for (int idl = MINIMUM_IDL_VERSION; idl <= DeviceImpl.SERVER_VERSION; idl++) {
+                final EventImpl eventImpl = getEventImpl(deviceName, attributeName, channels,
+                        EventType.ATT_CONF_EVENT, idl);
+                if (eventImpl != null) {
+                    eventImpl.pushAttributeConfigEvent(eventEndpoints.values());
                 }
             }
         }
@@ -560,9 +728,7 @@ public final class EventManager {
         final String fullName = EventUtilities.buildDeviceEventName(deviceName, EventType.INTERFACE_CHANGE_EVENT);
         final EventImpl eventImpl = getEventImpl(fullName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                eventImpl.pushInterfaceChangeEvent(eventSocket, fullName, deviceInterface);
-            }
+            eventImpl.pushInterfaceChangeEvent(eventEndpoints.values(), deviceInterface);
         }
         xlogger.exit();
     }
@@ -572,11 +738,8 @@ public final class EventManager {
         final String fullName = EventUtilities.buildPipeEventName(deviceName, pipeName);
         final EventImpl eventImpl = getEventImpl(fullName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                eventImpl.pushPipeEvent(eventSocket, fullName,
-                        new DevPipeData(pipeName, TangoIDLUtil.getTime(blob.getTime()), blob.getValue()
-                                .getDevPipeBlobObject()));
-            }
+            eventImpl.pushPipeEvent(eventEndpoints.values(), new DevPipeData(pipeName,
+                    TangoIDLUtil.getTime(blob.getTime()), blob.getValue().getDevPipeBlobObject()));
         }
         xlogger.exit();
     }
@@ -587,9 +750,7 @@ public final class EventManager {
         final String fullName = EventUtilities.buildPipeEventName(deviceName, pipeName);
         final EventImpl eventImpl = getEventImpl(fullName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
-                eventImpl.pushEvent(eventSocket, fullName, devFailed);
-            }
+            eventImpl.pushEvent(eventEndpoints.values(), devFailed);
         }
         xlogger.exit();
     }
@@ -607,9 +768,11 @@ public final class EventManager {
     class HeartbeatThread implements Runnable {
 
         private final String heartbeatName;
+        private final byte[] callInfo;
 
-        HeartbeatThread(final String heartbeatName) {
+        HeartbeatThread(final String heartbeatName) throws DevFailed {
             this.heartbeatName = heartbeatName;
+            callInfo = EventUtilities.marshall(0, false);
         }
 
         @Override
@@ -621,12 +784,13 @@ public final class EventManager {
                 try {
                     heartbeatSocket.sendMore(heartbeatName);
                     heartbeatSocket.send(EventConstants.LITTLE_ENDIAN, ZMQ.SNDMORE);
-                    heartbeatSocket.send(EventUtilities.marshall(0, false), 0);
+                    heartbeatSocket.send(callInfo, 0);
                     // heartbeatSocket.send("0");
-                } catch (final DevFailed e) {
-                    DevFailedUtils.logDevFailed(e, logger);
+                    logger.debug("Heartbeat sent for {}", heartbeatName);
+                } catch (final RuntimeException e) {
+                    // an exception would cancel the next heartbeats
+                    logger.error("failed to send heartbeat for " + heartbeatName, e);
                 }
-                logger.debug("Heartbeat sent for {}", heartbeatName);
             }
             xlogger.exit();
         }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacorb.orb.CDROutputStream;
+import org.omg.CORBA.MARSHAL;
+
+/**
+ * CDR stream for event payloads. The encoded data is copied once into the frame to send, with the C++ alignment
+ * prefix, whereas {@link CDROutputStream#getBufferCopy()} goes through an intermediate stream. The copy goes through
+ * {@link CDROutputStream#write(OutputStream, int, int)}, like {@link CDROutputStream#getBufferCopy()}, so that large
+ * arrays whose write has been deferred by JacORB are included. Each thread reuses its stream from one event to the
+ * next.
+ */
+final class EventOutputStream extends CDROutputStream {
+
+    private static final byte[] CPP_ALIGNMENT = { (byte) 0xc0, (byte) 0xde, (byte) 0xc0, (byte) 0xde, (byte) 0xc0,
+            (byte) 0xde, (byte) 0xc0, (byte) 0xde };
+    /**
+     * A stream that has encoded more bytes is not kept, so that a thread does not hold a large buffer after a large
+     * event
+     */
+    private static final int MAX_REUSED_SIZE = 64 * 1024;
+    private static final ThreadLocal<EventOutputStream> streams = new ThreadLocal<EventOutputStream>();
+
+    /**
+     * @return the empty stream of the current thread, to give back with {@link #release()}
+     */
+    static EventOutputStream get() {
+        EventOutputStream os = streams.get();
+        if (os == null) {
+            os = new EventOutputStream();
+            streams.set(os);
+        }
+        return os;
+    }
+
+    /**
+     * Empty the stream for the next event of the thread, which also drops the deferred arrays of the event
+     */
+    void release() {
+        if (size() > MAX_REUSED_SIZE) {
+            streams.remove();
+            close();
+        } else {
+            reset();
+        }
+    }
+
+    /**
+     * Build the frame to send
+     *
+     * @param alignment number of C++ alignment bytes to add at beginning: 0, 4 or 8
+     * @return the encoded data after C++ alignment
+     */
+    byte[] toFrame(final int alignment) {
+        final int size = size();
+        final FrameStream frame = new FrameStream(alignment + size);
+        frame.write(CPP_ALIGNMENT, 0, alignment);
+        try {
+            write(frame, 0, size);
+        } catch (final IOException e) {
+            throw new MARSHAL(e.toString());
+        }
+        return frame.data;
+    }
+
+    /**
+     * Writes into an array of the final size
+     */
+    private static final class FrameStream extends OutputStream {
+        private final byte[] data;
+        private int position;
+
+        FrameStream(final int size) {
+            data = new byte[size];
+        }
+
+        @Override
+        public void write(final int b) {
+            data[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            System.arraycopy(b, off, data, position, len);
+            position += len;
+        }
+    }
+}
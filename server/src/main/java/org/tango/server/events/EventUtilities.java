@@ -28,7 +28,6 @@ import java.util.ArrayList;
 import java.util.Locale;
 import java.util.StringTokenizer;
 
-import org.jacorb.orb.CDROutputStream;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.tango.client.database.DatabaseFactory;
@@ -123,46 +122,6 @@ class EventUtilities {
         return fullName;
     }
 
-    /**
-     * Add 8 bytes at beginning for C++ alignment
-     *
-     * @param data buffer to be aligned
-     * @return buffer after c++ alignment.
-     */
-    static byte[] cppAlignmentAdd8(final byte[] data) {
-        xlogger.entry();
-        final byte[] buffer = new byte[data.length + 8];
-        buffer[0] = (byte) 0xc0;
-        buffer[1] = (byte) 0xde;
-        buffer[2] = (byte) 0xc0;
-        buffer[3] = (byte) 0xde;
-        buffer[4] = (byte) 0xc0;
-        buffer[5] = (byte) 0xde;
-        buffer[6] = (byte) 0xc0;
-        buffer[7] = (byte) 0xde;
-        System.arraycopy(data, 0, buffer, 8, data.length);
-        xlogger.exit();
-        return buffer;
-    }
-
-    /**
-     * Add 4 bytes at beginning for C++ alignment
-     *
-     * @param data buffer to be aligned
-     * @return buffer after c++ alignment.
-     */
-    static byte[] cppAlignment(final byte[] data) {
-        xlogger.entry();
-        final byte[] buffer = new byte[data.length + 4];
-        buffer[0] = (byte) 0xc0;
-        buffer[1] = (byte) 0xde;
-        buffer[2] = (byte) 0xc0;
-        buffer[3] = (byte) 0xde;
-        System.arraycopy(data, 0, buffer, 4, data.length);
-        xlogger.exit();
-        return buffer;
-    }
-
     /**
      * Marshall the attribute with attribute Value
      *
@@ -172,13 +131,13 @@ class EventUtilities {
      */
     static byte[] marshallIDL5(final AttributeValue_5 attributeValue) throws DevFailed {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             AttributeValue_5Helper.write(os, attributeValue);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -191,13 +150,13 @@ class EventUtilities {
      */
     static byte[] marshallIDL4(final AttributeValue_4 attributeValue) throws DevFailed {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             AttributeValue_4Helper.write(os, attributeValue);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -238,13 +197,13 @@ class EventUtilities {
      */
     static byte[] marshall(final AttDataReady dataReady) throws DevFailed {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             AttDataReadyHelper.write(os, dataReady);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -257,13 +216,13 @@ class EventUtilities {
     static byte[] marshallIDL4Config(final AttributeImpl attribute) throws DevFailed {
         xlogger.entry();
         final AttributeConfig_3 config = TangoIDLAttributeUtil.toAttributeConfig3(attribute);
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             AttributeConfig_3Helper.write(os, config);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -276,13 +235,13 @@ class EventUtilities {
     static byte[] marshallIDL5Config(final AttributeImpl attribute) throws DevFailed {
         xlogger.entry();
         final AttributeConfig_5 config = TangoIDLAttributeUtil.toAttributeConfig5(attribute);
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             AttributeConfig_5Helper.write(os, config);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -295,13 +254,13 @@ class EventUtilities {
      */
     static byte[] marshall(final DevFailed devFailed) throws DevFailed {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             DevErrorListHelper.write(os, devFailed.errors);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
@@ -317,39 +276,39 @@ class EventUtilities {
         xlogger.entry();
         final ZmqCallInfo zmqCallInfo = new ZmqCallInfo(EventConstants.ZMQ_RELEASE, counter,
                 EventConstants.EXECUTE_METHOD, EventConstants.OBJECT_IDENTIFIER, isException);
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             ZmqCallInfoHelper.write(os, zmqCallInfo);
             xlogger.exit();
             // EventManager.dump(os.getBufferCopy());
-            return os.getBufferCopy();
+            return os.toFrame(0);
         } finally {
-            os.close();
+            os.release();
         }
     }
 
     static byte[] marshall(final DevIntrChange deviceInterface) {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             DevIntrChangeHelper.write(os, deviceInterface);
             xlogger.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame(4);
         } finally {
-            os.close();
+            os.release();
         }
 
     }
 
     static byte[] marshall(final DevPipeData pipeData) {
         xlogger.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventOutputStream os = EventOutputStream.get();
         try {
             DevPipeDataHelper.write(os, pipeData);
             xlogger.exit();
-            return cppAlignmentAdd8(os.getBufferCopy());
+            return os.toFrame(8);
         } finally {
-            os.close();
+            os.release();
         }
 
     }
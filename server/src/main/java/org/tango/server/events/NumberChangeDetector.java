@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.lang.reflect.Array;
+
+/**
+ * Detect a change between two numerical values, scalars or arrays, according to absolute and relative change criteria.
+ * Arrays are compared directly on their primitive type and the comparison stops at the first change.
+ */
+final class NumberChangeDetector {
+
+    /**
+     * When set, double and float arrays checked only with an absolute criterion are compared by blocks: the loop over
+     * a block has no early exit, so that it may be vectorized by the JIT. Faster on large arrays that seldom change,
+     * slower on arrays that change in their first elements.
+     */
+    static final boolean BULK_COMPARE = Boolean.getBoolean("org.tango.server.events.bulkCompare");
+    private static final int BLOCK_SIZE = 1024;
+
+    private final boolean checkAbsolute;
+    private final double absolute;
+    private final boolean checkRelative;
+    private final double relative;
+
+    /**
+     * @param checkAbsolute true if the absolute criterion is set
+     * @param absolute the absolute change
+     * @param checkRelative true if the relative criterion is set
+     * @param relative the relative change, in percent
+     */
+    NumberChangeDetector(final boolean checkAbsolute, final double absolute, final boolean checkRelative,
+            final double relative) {
+        this.checkAbsolute = checkAbsolute;
+        this.absolute = absolute;
+        this.checkRelative = checkRelative;
+        this.relative = relative;
+    }
+
+    /**
+     * Compare two numbers
+     *
+     * @param value the value, a Number or a String
+     * @param previousValue the previous value, of the same type
+     * @return true if the change is over one of the criteria
+     */
+    boolean hasScalarChanged(final Object value, final Object previousValue) {
+        return hasChanged(toDouble(value), toDouble(previousValue));
+    }
+
+    private static double toDouble(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    /**
+     * Compare two arrays of numbers of the same length
+     *
+     * @param value the value, a primitive or Number array
+     * @param previousValue the previous value, of the same type
+     * @return true if the change of one element is over one of the criteria
+     */
+    boolean hasArrayChanged(final Object value, final Object previousValue) {
+        if (value instanceof double[] && previousValue instanceof double[]) {
+            return hasChanged((double[]) value, (double[]) previousValue);
+        } else if (value instanceof float[] && previousValue instanceof float[]) {
+            return hasChanged((float[]) value, (float[]) previousValue);
+        } else if (value instanceof int[] && previousValue instanceof int[]) {
+            return hasChanged((int[]) value, (int[]) previousValue);
+        } else if (value instanceof short[] && previousValue instanceof short[]) {
+            return hasChanged((short[]) value, (short[]) previousValue);
+        } else if (value instanceof long[] && previousValue instanceof long[]) {
+            return hasChanged((long[]) value, (long[]) previousValue);
+        } else if (value instanceof byte[] && previousValue instanceof byte[]) {
+            return hasChanged((byte[]) value, (byte[]) previousValue);
+        }
+        // boxed or mixed arrays
+        final int length = Array.getLength(value);
+        for (int i = 0; i < length; i++) {
+            if (hasChanged(toDouble(Array.get(value, i)), toDouble(Array.get(previousValue, i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasChanged(final double value, final double previousValue) {
+        boolean hasChanged = false;
+        // absolute change
+        if (checkAbsolute) {
+            hasChanged = Math.abs(value - previousValue) >= absolute;
+        }
+        // relative change
+        if (!hasChanged && checkRelative) {
+            final double delta;
+            if (previousValue == 0) {
+                if (value == 0) {
+                    delta = 0;
+                } else {
+                    delta = 100;
+                }
+            } else {
+                delta = (value - previousValue) / previousValue * 100.0;
+            }
+            hasChanged = Math.abs(delta) >= relative;
+        }
+        return hasChanged;
+    }
+
+    private boolean hasChanged(final double[] value, final double[] previousValue) {
+        if (BULK_COMPARE && checkAbsolute && !checkRelative) {
+            return hasChangedBulk(value, previousValue);
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final float[] value, final float[] previousValue) {
+        if (BULK_COMPARE && checkAbsolute && !checkRelative) {
+            return hasChangedBulk(value, previousValue);
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final int[] value, final int[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final short[] value, final short[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final long[] value, final long[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final byte[] value, final byte[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Absolute criterion only: maximum delta by block
+     */
+    private boolean hasChangedBulk(final double[] value, final double[] previousValue) {
+        for (int start = 0; start < value.length; start += BLOCK_SIZE) {
+            final int end = Math.min(start + BLOCK_SIZE, value.length);
+            double max = 0;
+            for (int i = start; i < end; i++) {
+                final double delta = Math.abs(value[i] - previousValue[i]);
+                if (delta > max) {
+                    max = delta;
+                }
+            }
+            if (max >= absolute) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChangedBulk(final float[] value, final float[] previousValue) {
+        for (int start = 0; start < value.length; start += BLOCK_SIZE) {
+            final int end = Math.min(start + BLOCK_SIZE, value.length);
+            double max = 0;
+            for (int i = start; i < end; i++) {
+                final double delta = Math.abs((double) value[i] - previousValue[i]);
+                if (delta > max) {
+                    max = delta;
+                }
+            }
+            if (max >= absolute) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
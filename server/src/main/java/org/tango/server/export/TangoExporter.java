@@ -30,6 +30,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +65,8 @@ public final class TangoExporter implements IExporter {
     private final String pid;
     private final Map<String, Class<?>> tangoClasses;
     private final List<DeviceClassBuilder> deviceClassList = new ArrayList<DeviceClassBuilder>();
+    private int exportThreads = Constants.EXPORT_THREADS;
+    private int exportBatchSize = Constants.EXPORT_BATCH_SIZE;
 
     public TangoExporter(final String hostName, final String serverName, final String pid,
             final Map<String, Class<?>> tangoClasses) {
@@ -83,43 +92,129 @@ public final class TangoExporter implements IExporter {
         ((AdminDevice) dev.getBusinessObject()).setTangoExporter(this);
         ((AdminDevice) dev.getBusinessObject()).setClassList(deviceClassList);
 
+        // init polling pool config, before the devices start their polling
+        TangoCacheManager.initPoolConf();
+
         // load server class
         exportDevices();
 
-        // init polling pool config
-        TangoCacheManager.initPoolConf();
-
         // clear tango db cache (used only for server start-up phase)
         DatabaseFactory.getDatabase().clearCache();
     }
 
     /**
-     * Export all devices except admin device
+     * Export all devices except admin device. The devices are built by {@link Constants#EXPORT_THREADS} threads, and
+     * registered in the tango db by batches of {@link Constants#EXPORT_BATCH_SIZE}, while the next ones are being
+     * built.
      *
      * @throws DevFailed
      */
     @Override
     public void exportDevices() throws DevFailed {
-        // load server class
-        for (final Entry<String, Class<?>> entry : tangoClasses.entrySet()) {
-            final String tangoClass = entry.getKey();
-            final Class<?> deviceClass = entry.getValue();
-            logger.debug("loading class {}", deviceClass.getCanonicalName());
-            final DeviceClassBuilder deviceClassBuilder = new DeviceClassBuilder(deviceClass, tangoClass);
-            deviceClassList.add(deviceClassBuilder);
-            // export all its devices
-            final String[] deviceList = DatabaseFactory.getDatabase().getDeviceList(serverName, tangoClass);
-            logger.debug("devices found  {}", Arrays.toString(deviceList));
-            // if (deviceList.length == 0) {
-            // DevFailedUtils.throwDevFailed(ExceptionMessages.DB_ACCESS, "No device defined in database for class "
-            // + tangoClass);
-            // }
+        final ExecutorService builders = exportThreads > 1 ? Executors.newFixedThreadPool(exportThreads,
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "DeviceExport-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }) : null;
+        try {
+            // load server class
+            for (final Entry<String, Class<?>> entry : tangoClasses.entrySet()) {
+                final String tangoClass = entry.getKey();
+                final Class<?> deviceClass = entry.getValue();
+                logger.debug("loading class {}", deviceClass.getCanonicalName());
+                final DeviceClassBuilder deviceClassBuilder = new DeviceClassBuilder(deviceClass, tangoClass);
+                deviceClassList.add(deviceClassBuilder);
+                // export all its devices
+                final String[] deviceList = DatabaseFactory.getDatabase().getDeviceList(serverName, tangoClass);
+                logger.debug("devices found  {}", Arrays.toString(deviceList));
+                // if (deviceList.length == 0) {
+                // DevFailedUtils.throwDevFailed(ExceptionMessages.DB_ACCESS, "No device defined in database for class "
+                // + tangoClass);
+                // }
+                exportDevices(deviceList, deviceClassBuilder, builders);
+            }
+        } finally {
+            if (builders != null) {
+                builders.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Build the devices of a class and export them by batches. The devices are added to the class in the tango db
+     * order.
+     *
+     * @param deviceList the device names
+     * @param classBuilder the class
+     * @param builders the threads building the devices, null to build them in the current thread
+     * @throws DevFailed
+     */
+    private void exportDevices(final String[] deviceList, final DeviceClassBuilder classBuilder,
+            final ExecutorService builders) throws DevFailed {
+        final List<Future<DeviceImpl>> builds = new ArrayList<Future<DeviceImpl>>(deviceList.length);
+        if (builders != null) {
             for (final String deviceName : deviceList) {
-                buildDevice(deviceName, deviceClassBuilder);
+                builds.add(builders.submit(new Callable<DeviceImpl>() {
+                    @Override
+                    public DeviceImpl call() throws DevFailed {
+                        return classBuilder.createDevice(deviceName);
+                    }
+                }));
+            }
+        }
+        final List<DeviceImpl> batch = new ArrayList<DeviceImpl>(exportBatchSize);
+        try {
+            for (int i = 0; i < deviceList.length; i++) {
+                final DeviceImpl dev;
+                if (builders == null) {
+                    dev = classBuilder.createDevice(deviceList[i]);
+                } else {
+                    dev = getBuiltDevice(builds.get(i));
+                }
+                classBuilder.addDevice(dev);
+                batch.add(dev);
+                if (batch.size() >= exportBatchSize || i == deviceList.length - 1) {
+                    logger.debug("exporting {} devices of class {}", batch.size(), classBuilder.getClassName());
+                    ORBUtils.exportDevices(batch, hostName, pid);
+                    batch.clear();
+                }
+            }
+        } finally {
+            // stop the builds after an error
+            for (final Future<DeviceImpl> build : builds) {
+                build.cancel(true);
             }
         }
     }
 
+    private static DeviceImpl getBuiltDevice(final Future<DeviceImpl> build) throws DevFailed {
+        try {
+            return build.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw DevFailedUtils.newDevFailed(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof DevFailed) {
+                throw (DevFailed) e.getCause();
+            }
+            throw DevFailedUtils.newDevFailed(e.getCause());
+        }
+    }
+
+    void setExportThreads(final int exportThreads) {
+        this.exportThreads = exportThreads;
+    }
+
+    void setExportBatchSize(final int exportBatchSize) {
+        this.exportBatchSize = exportBatchSize;
+    }
+
     /**
      * Unexport all except admin device
      *
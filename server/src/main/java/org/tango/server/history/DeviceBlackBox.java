@@ -24,16 +24,18 @@
  */
 package org.tango.server.history;
 
+import java.net.InetAddress;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.omg.CORBA.BAD_OPERATION;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tango.orb.HostNameCache;
 import org.tango.orb.ServerRequestInterceptor;
 import org.tango.server.Constants;
 import org.tango.server.ExceptionMessages;
@@ -44,94 +46,197 @@ import fr.esrf.Tango.DevFailed;
 import fr.esrf.Tango.DevSource;
 import fr.esrf.Tango.LockerLanguage;
 
+/**
+ * The last requests of a device. Requests are recorded as they come, in a ring written without lock; they are
+ * formatted only when the black box is read.
+ */
 public final class DeviceBlackBox {
+
+    private static final int CAPACITY = Constants.QUEUE_CAPACITY - 1;
+    // operations whose text is not "operation argument"
+    private static final String COMMAND_INOUT_4 = "command_inout_4";
+    private static final String WRITE_READ_ATTRIBUTES_5 = "write_read_attributes_5";
+
     private final Logger logger = LoggerFactory.getLogger(DeviceBlackBox.class);
     private final Logger clientRequestsLogger = LoggerFactory.getLogger(Constants.CLIENT_REQUESTS_LOGGER);
-    private final Queue<String> blackbox = new ArrayDeque<String>(Constants.QUEUE_CAPACITY);
+    private final AtomicReferenceArray<Record> blackbox = new AtomicReferenceArray<Record>(CAPACITY);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private enum Kind {
+        HOST, SOURCE, SOURCE_AND_CLIENT, CLIENT
+    }
+
+    /**
+     * A request. The client host name is looked up when the record is formatted.
+     */
+    private static final class Record {
+        private final long sequence;
+        private final long time = System.currentTimeMillis();
+        private final Kind kind;
+        private final String message;
+        private final Object argument;
+        private final DevSource devSource;
+        private final ClntIdent clt;
+        private final InetAddress address;
+
+        Record(final long sequence, final Kind kind, final String message, final Object argument,
+                final DevSource devSource, final ClntIdent clt) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.message = message;
+            this.argument = argument;
+            this.devSource = devSource;
+            this.clt = clt;
+            address = kind == Kind.HOST || kind == Kind.SOURCE_AND_CLIENT ? ServerRequestInterceptor.getInstance()
+                    .getClientAddress() : null;
+        }
+    }
 
     public String[] toArray(final int size) throws DevFailed {
-        if (blackbox.size() == 0) {
+        final long last = sequence.get();
+        final int available = (int) Math.min(last, CAPACITY);
+        if (available == 0) {
             DevFailedUtils.throwDevFailed(ExceptionMessages.BLACK_BOX_EMPTY, "blackbox is emty");
         }
-        final String[] blackboxArray = blackbox.toArray(new String[blackbox.size()]);
-        String[] result;
-        if (size < Constants.QUEUE_CAPACITY && size < blackbox.size()) {
-            result = new String[size];
-            System.arraycopy(blackboxArray, blackboxArray.length - size, result, 0, result.length);
-        } else {
-            result = blackboxArray;
+        final int length = Math.min(Math.max(size, 0), available);
+        final DateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss:SSS");
+        final String[] result = new String[length];
+        int count = 0;
+        // most recent first
+        for (long seq = last - 1; seq >= last - available && count < length; seq--) {
+            final Record record = blackbox.get((int) (seq % CAPACITY));
+            // skip the records overwritten during the copy
+            if (record != null && record.sequence == seq) {
+                result[count++] = dateFormat.format(new Date(record.time)) + " : " + format(record);
+            }
+        }
+        if (count < length) {
+            final String[] copy = new String[count];
+            System.arraycopy(result, 0, copy, 0, count);
+            return copy;
         }
-        ArrayUtils.reverse(result);
         return result;
     }
 
     public void insertInblackBox(final String message) {
-        final StringBuilder sb = new StringBuilder(message).append(insertHostName());
-        offerInblackBox(sb.toString());
+        insertInblackBox(message, null, null, null);
+    }
+
+    public void insertInblackBox(final String message, final DevSource devSource) {
+        insertInblackBox(message, null, devSource, null);
+    }
+
+    public void insertInblackBox(final String message, final DevSource devSource, final ClntIdent clt) {
+        insertInblackBox(message, null, devSource, clt);
+    }
+
+    public void insertInblackBox(final String message, final ClntIdent clt) {
+        insertInblackBox(message, null, null, clt);
     }
 
-    private synchronized void offerInblackBox(final String message) {
-        while (blackbox.size() >= Constants.QUEUE_CAPACITY - 1) {
-            blackbox.poll();
+    /**
+     * Record a request
+     *
+     * @param message the operation
+     * @param argument appended to the operation when read, an array or any object. May be null
+     * @param devSource the source, may be null
+     * @param clt the client identity, may be null
+     */
+    public void insertInblackBox(final String message, final Object argument, final DevSource devSource,
+            final ClntIdent clt) {
+        final Kind kind;
+        if (devSource == null) {
+            kind = clt == null ? Kind.HOST : Kind.CLIENT;
+        } else {
+            kind = clt == null ? Kind.SOURCE : Kind.SOURCE_AND_CLIENT;
         }
-        final DateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss:SSS");
-        final StringBuilder sb = new StringBuilder(dateFormat.format(new Date()));
-        sb.append(" : ").append(message);
-        clientRequestsLogger.debug(message);
-        final boolean isInserted = blackbox.offer(sb.toString());
-        if (!isInserted) {
-            logger.debug("{} not inserted in black box queue ", sb);
+        final long seq = sequence.getAndIncrement();
+        final Record record = new Record(seq, kind, message, argument, devSource, clt);
+        blackbox.set((int) (seq % CAPACITY), record);
+        if (clientRequestsLogger.isDebugEnabled()) {
+            clientRequestsLogger.debug(format(record));
         }
     }
 
-    public void insertInblackBox(final String message, final DevSource devSource) {
-        final StringBuilder sb = insertSource(message, devSource);
-        offerInblackBox(sb.toString());
+    /**
+     * Format a record. The client host name is taken from the cache, so that the DNS is never waited for.
+     */
+    private String format(final Record record) {
+        final StringBuilder sb = new StringBuilder();
+        insertOperation(sb, record);
+        switch (record.kind) {
+            case HOST:
+                insertHostName(sb, record);
+                break;
+            case SOURCE:
+                insertSource(sb, record);
+                break;
+            case SOURCE_AND_CLIENT:
+                insertSource(sb, record);
+                insertHostName(sb, record);
+                sb.append(" ").append(getClient(record.clt, true));
+                break;
+            case CLIENT:
+            default:
+                sb.append(" from  \"").append(getClient(record.clt, false)).append("\"");
+                break;
+        }
+        return sb.toString();
     }
 
-    public void insertInblackBox(final String message, final DevSource devSource, final ClntIdent clt) {
-        final StringBuilder sb = insertSource(message, devSource);
+    private String getClient(final ClntIdent clt, final boolean verbose) {
         String cli = "";
         try {
             if (clt.discriminator() == LockerLanguage.CPP) {
-                cli = "(CPP/Python client with PID " + Integer.valueOf(clt.cpp_clnt()).toString() + ")";
+                cli = Integer.toString(clt.cpp_clnt());
+                if (verbose) {
+                    cli = "(CPP/Python client with PID " + cli + ")";
+                }
             } else {
-                cli = "(Java client with main class " + clt.java_clnt().MainClass + ")";
+                cli = clt.java_clnt().MainClass;
+                if (verbose) {
+                    cli = "(Java client with main class " + cli + ")";
+                }
             }
         } catch (final BAD_OPERATION e) {
             // ignore
             logger.debug("{}", e);
         }
-        sb.append(insertHostName()).append(" ").append(cli);
-        offerInblackBox(sb.toString());
+        return cli;
     }
 
-    private StringBuilder insertHostName() {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(" requested from ").append(ServerRequestInterceptor.getInstance().getClientHostName());
-        return sb;
+    /**
+     * Insert the operation with the same text as when the records were formatted on insert
+     */
+    private static void insertOperation(final StringBuilder sb, final Record record) {
+        switch (record.message) {
+            case COMMAND_INOUT_4:
+                sb.append("Operation ").append(COMMAND_INOUT_4).append(" (cmd = ").append(record.argument).append(")");
+                break;
+            case WRITE_READ_ATTRIBUTES_5:
+                sb.append(WRITE_READ_ATTRIBUTES_5).append(" ");
+                break;
+            default:
+                sb.append(record.message);
+                if (record.argument instanceof Object[]) {
+                    sb.append(" ").append(Arrays.toString((Object[]) record.argument));
+                } else if (record.argument != null) {
+                    sb.append(" ").append(record.argument);
+                }
+                break;
+        }
     }
 
-    private StringBuilder insertSource(final String message, final DevSource devSource) {
-        final StringBuilder sb = new StringBuilder(message);
-        sb.append(" from ").append(devSource.toString());
-        return sb;
+    private void insertHostName(final StringBuilder sb, final Record record) {
+        sb.append(" requested from ");
+        if (record.address == null) {
+            sb.append((String) null);
+        } else {
+            sb.append(HostNameCache.getInstance().getCachedHostName(record.address));
+        }
     }
 
-    public void insertInblackBox(final String message, final ClntIdent clt) {
-        String cli = "";
-        try {
-            if (clt.discriminator() == LockerLanguage.CPP) {
-                cli = Integer.valueOf(clt.cpp_clnt()).toString();
-            } else {
-                cli = clt.java_clnt().MainClass;
-            }
-        } catch (final BAD_OPERATION e) {
-            // ignore
-            logger.debug("{}", e);
-        }
-        final StringBuilder sb = new StringBuilder(message);
-        sb.append(" from  \"").append(cli).append("\"");
-        offerInblackBox(sb.toString());
+    private void insertSource(final StringBuilder sb, final Record record) {
+        sb.append(" from ").append(record.devSource.toString());
     }
 }
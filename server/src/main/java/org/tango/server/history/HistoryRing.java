@@ -0,0 +1,457 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.history;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.tango.utils.ArrayUtils;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+
+/**
+ * The records of a polled attribute or command. Times, qualities and dimensions are kept in primitive arrays allocated
+ * with the first record. A scalar value takes one element of a primitive array; the values of a spectrum or an image
+ * are copied in an array kept for the slot of the record, and reused as long as the size does not change. Errors are
+ * stored only for the records that have failed, which have no value.
+ * <p>
+ * Records are numbered from 0, the oldest one, to {@link #size()} - 1, the last one. This class is not thread safe.
+ */
+public final class HistoryRing {
+
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private final boolean withWritePart;
+    private int capacity;
+    private int head;
+    private int size;
+    private long[] times;
+    private byte[] qualities;
+    private int[] readDimX;
+    private int[] readDimY;
+    private int[] writeDimX;
+    private int[] writeDimY;
+    private Column read;
+    private Column write;
+    private final Map<Integer, DevError[]> errors = new HashMap<Integer, DevError[]>();
+
+    /**
+     * @param capacity the maximum number of records
+     * @param withWritePart true to record a write value with each read value
+     */
+    public HistoryRing(final int capacity, final boolean withWritePart) {
+        this.capacity = Math.max(capacity, 1);
+        this.withWritePart = withWritePart;
+    }
+
+    /**
+     * Add a record, replacing the oldest one if the ring is full. If the type of the values changes, all the previous
+     * records are removed.
+     *
+     * @param time the time of the record, in milliseconds
+     * @param quality the quality of the read value
+     * @param readValue the read value: a scalar, an array, or a 2D array (flattened), may be null
+     * @param readX the x dimension of the read value
+     * @param readY the y dimension of the read value
+     * @param writeValue the write value, ignored if the ring has no write part
+     * @param writeX the x dimension of the write value
+     * @param writeY the y dimension of the write value
+     * @param error the error of a failed record, the values are then ignored. May be null or empty if no error
+     */
+    public void add(final long time, final AttrQuality quality, final Object readValue, final int readX,
+            final int readY, final Object writeValue, final int writeX, final int writeY, final DevError[] error) {
+        final boolean hasError = error != null && error.length != 0;
+        if (times != null && !hasError
+                && (!read.accepts(readValue) || withWritePart && !write.accepts(writeValue))) {
+            // a value of another type: the previous records could not be returned with it
+            clear();
+        }
+        if (times == null) {
+            allocate();
+        }
+        final int slot = head;
+        times[slot] = time;
+        qualities[slot] = (byte) quality.value();
+        readDimX[slot] = readX;
+        readDimY[slot] = readY;
+        if (withWritePart) {
+            writeDimX[slot] = writeX;
+            writeDimY[slot] = writeY;
+        }
+        if (!errors.isEmpty()) {
+            errors.remove(slot);
+        }
+        if (hasError) {
+            errors.put(slot, Arrays.copyOf(error, error.length));
+            read.set(slot, null);
+            if (withWritePart) {
+                write.set(slot, null);
+            }
+        } else {
+            read.set(slot, readValue);
+            if (withWritePart) {
+                write.set(slot, writeValue);
+            }
+        }
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * Change the maximum number of records. The last records are kept.
+     *
+     * @param capacity the new maximum number of records
+     */
+    public void setCapacity(final int capacity) {
+        final int newCapacity = Math.max(capacity, 1);
+        if (newCapacity == this.capacity) {
+            return;
+        }
+        if (times == null) {
+            this.capacity = newCapacity;
+            return;
+        }
+        final HistoryRing resized = new HistoryRing(newCapacity, withWritePart);
+        for (int i = Math.max(size - newCapacity, 0); i < size; i++) {
+            final int slot = slot(i);
+            resized.add(times[slot], getQuality(i), read.get(slot), readDimX[slot], readDimY[slot],
+                    withWritePart ? write.get(slot) : null, withWritePart ? writeDimX[slot] : 0,
+                    withWritePart ? writeDimY[slot] : 0, errors.get(slot));
+        }
+        this.capacity = newCapacity;
+        head = resized.head;
+        size = resized.size;
+        times = resized.times;
+        qualities = resized.qualities;
+        readDimX = resized.readDimX;
+        readDimY = resized.readDimY;
+        writeDimX = resized.writeDimX;
+        writeDimY = resized.writeDimY;
+        read = resized.read;
+        write = resized.write;
+        errors.clear();
+        errors.putAll(resized.errors);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all records and release their memory
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        times = null;
+        qualities = null;
+        readDimX = null;
+        readDimY = null;
+        writeDimX = null;
+        writeDimY = null;
+        read = null;
+        write = null;
+        errors.clear();
+    }
+
+    public long getTime(final int record) {
+        return times[slot(record)];
+    }
+
+    public AttrQuality getQuality(final int record) {
+        return AttrQuality.from_int(qualities[slot(record)]);
+    }
+
+    public int getReadDimX(final int record) {
+        return readDimX[slot(record)];
+    }
+
+    public int getReadDimY(final int record) {
+        return readDimY[slot(record)];
+    }
+
+    public int getWriteDimX(final int record) {
+        return withWritePart ? writeDimX[slot(record)] : 0;
+    }
+
+    public int getWriteDimY(final int record) {
+        return withWritePart ? writeDimY[slot(record)] : 0;
+    }
+
+    /**
+     * @param record the record number
+     * @return the error of the record, or null if it has not failed
+     */
+    public DevError[] getErrors(final int record) {
+        return errors.isEmpty() ? null : errors.get(slot(record));
+    }
+
+    /**
+     * Get the values of the last records in a single array, from the last record to the record from, read value
+     * followed by write value for each record. Failed records have no value.
+     *
+     * @param from the number of the oldest record to get
+     * @return an array of the type of the values (of primitives for numbers), or null if there is no value
+     */
+    public Object getValues(final int from) {
+        if (times == null) {
+            return null;
+        }
+        int length = 0;
+        boolean hasValue = false;
+        for (int i = size - 1; i >= from; i--) {
+            final int slot = slot(i);
+            if (read.lengths[slot] >= 0) {
+                hasValue = true;
+                length += read.lengths[slot];
+            }
+            if (withWritePart && write.lengths[slot] >= 0) {
+                hasValue = true;
+                length += write.lengths[slot];
+            }
+        }
+        if (!hasValue) {
+            return null;
+        }
+        final Object values = Array.newInstance(read.type != null ? read.type : write.type, length);
+        int position = 0;
+        for (int i = size - 1; i >= from; i--) {
+            final int slot = slot(i);
+            position = read.copyTo(slot, values, position);
+            if (withWritePart) {
+                position = write.copyTo(slot, values, position);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Estimate the memory taken by the records. The content of strings, of other objects values and of errors is not
+     * counted.
+     *
+     * @return the size in bytes
+     */
+    public long getMemoryFootprint() {
+        if (times == null) {
+            return 0;
+        }
+        long bytes = ARRAY_HEADER_SIZE * 4L + capacity * (8L + 1 + 4 * 2);
+        bytes += read.getMemoryFootprint();
+        if (withWritePart) {
+            bytes += ARRAY_HEADER_SIZE * 2L + capacity * 4L * 2 + write.getMemoryFootprint();
+        }
+        for (final DevError[] error : errors.values()) {
+            bytes += ARRAY_HEADER_SIZE + REFERENCE_SIZE * error.length;
+        }
+        return bytes;
+    }
+
+    private void allocate() {
+        times = new long[capacity];
+        qualities = new byte[capacity];
+        readDimX = new int[capacity];
+        readDimY = new int[capacity];
+        read = new Column(capacity);
+        if (withWritePart) {
+            writeDimX = new int[capacity];
+            writeDimY = new int[capacity];
+            write = new Column(capacity);
+        }
+    }
+
+    private int slot(final int record) {
+        return (head - size + record + capacity) % capacity;
+    }
+
+    private static int getElementSize(final Class<?> type) {
+        final int elementSize;
+        if (type == double.class || type == long.class) {
+            elementSize = 8;
+        } else if (type == int.class || type == float.class) {
+            elementSize = 4;
+        } else if (type == short.class || type == char.class) {
+            elementSize = 2;
+        } else if (type == byte.class || type == boolean.class) {
+            elementSize = 1;
+        } else {
+            elementSize = REFERENCE_SIZE;
+        }
+        return elementSize;
+    }
+
+    /**
+     * The values of the records. The type of the values is set by the first value, wrappers being stored as
+     * primitives. A value of another type is refused, see {@link #accepts(Object)}.
+     */
+    private static final class Column {
+        private final int[] lengths;
+        private Class<?> type;
+        private boolean isScalar;
+        // scalars: one element per slot
+        private Object scalars;
+        // arrays: one array per slot
+        private Object[] arrays;
+
+        Column(final int capacity) {
+            lengths = new int[capacity];
+            Arrays.fill(lengths, -1);
+        }
+
+        /**
+         * @param value a value to set
+         * @return false if the value is of another type than the previous ones
+         */
+        boolean accepts(final Object value) {
+            if (value == null || type == null) {
+                return true;
+            }
+            // the type of an image is the type of its elements, without flattening it
+            Class<?> valueType = value.getClass();
+            final boolean isArray = valueType.isArray();
+            while (valueType.isArray()) {
+                valueType = valueType.getComponentType();
+            }
+            return isArray != isScalar && isOfType(valueType);
+        }
+
+        /**
+         * @param slot the slot
+         * @param value a value accepted by {@link #accepts(Object)}, or null
+         */
+        void set(final int slot, final Object value) {
+            if (value == null) {
+                lengths[slot] = -1;
+                return;
+            }
+            final Object flatValue = flatten(value);
+            final boolean isArray = flatValue.getClass().isArray();
+            final Class<?> valueType = getValueType(flatValue, isArray);
+            if (type == null) {
+                setType(valueType, isArray);
+            }
+            if (isScalar) {
+                Array.set(scalars, slot, flatValue);
+                lengths[slot] = 1;
+            } else {
+                final int length = Array.getLength(flatValue);
+                Object array = arrays[slot];
+                if (array == null || Array.getLength(array) != length) {
+                    array = Array.newInstance(type, length);
+                    arrays[slot] = array;
+                }
+                if (valueType == type) {
+                    System.arraycopy(flatValue, 0, array, 0, length);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        Array.set(array, i, Array.get(flatValue, i));
+                    }
+                }
+                lengths[slot] = length;
+            }
+        }
+
+        /**
+         * @return the value of a slot, a wrapper for scalars, or null
+         */
+        Object get(final int slot) {
+            if (lengths[slot] < 0) {
+                return null;
+            }
+            return isScalar ? Array.get(scalars, slot) : arrays[slot];
+        }
+
+        int copyTo(final int slot, final Object destination, final int position) {
+            final int length = lengths[slot];
+            if (length < 0) {
+                return position;
+            }
+            final Object source = isScalar ? scalars : arrays[slot];
+            final int sourcePosition = isScalar ? slot : 0;
+            if (destination.getClass().getComponentType() == type) {
+                System.arraycopy(source, sourcePosition, destination, position, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    Array.set(destination, position + i, Array.get(source, sourcePosition + i));
+                }
+            }
+            return position + length;
+        }
+
+        long getMemoryFootprint() {
+            long bytes = ARRAY_HEADER_SIZE + 4L * lengths.length;
+            if (scalars != null) {
+                bytes += ARRAY_HEADER_SIZE + (long) getElementSize(type) * lengths.length;
+            } else if (arrays != null) {
+                bytes += ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * arrays.length;
+                final int elementSize = getElementSize(type);
+                for (final Object array : arrays) {
+                    if (array != null) {
+                        bytes += ARRAY_HEADER_SIZE + (long) elementSize * Array.getLength(array);
+                    }
+                }
+            }
+            return bytes;
+        }
+
+        private boolean isOfType(final Class<?> valueType) {
+            return valueType == type || valueType == ClassUtils.primitiveToWrapper(type);
+        }
+
+        private static Object flatten(final Object value) {
+            if (value.getClass().isArray() && value.getClass().getComponentType().isArray()) {
+                return ArrayUtils.from2DArrayToArray(value);
+            }
+            return value;
+        }
+
+        private static Class<?> getValueType(final Object flatValue, final boolean isArray) {
+            return isArray ? flatValue.getClass().getComponentType() : flatValue.getClass();
+        }
+
+        private void setType(final Class<?> valueType, final boolean isArray) {
+            final Class<?> primitive = ClassUtils.wrapperToPrimitive(valueType);
+            type = primitive == null ? valueType : primitive;
+            isScalar = !isArray;
+            if (isScalar) {
+                scalars = Array.newInstance(type, lengths.length);
+                arrays = null;
+            } else {
+                arrays = new Object[lengths.length];
+                scalars = null;
+            }
+        }
+    }
+}
@@ -25,10 +25,6 @@
 package org.tango.server.idl;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.tango.attribute.AttributeTangoType;
 import org.tango.server.ExceptionMessages;
@@ -49,44 +45,6 @@ import fr.esrf.Tango.DevState;
  */
 public final class CleverAttrValUnion {
 
-    private static final Map<AttributeDataType, String> METHOD_MAP = new HashMap<AttributeDataType, String>();
-
-    static {
-        METHOD_MAP.put(AttributeDataType.ATT_BOOL, "bool_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_SHORT, "short_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_USHORT, "ushort_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_LONG, "long_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ULONG, "ulong_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_LONG64, "long64_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ULONG64, "ulong64_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_FLOAT, "float_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_DOUBLE, "double_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_STRING, "string_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_STATE, "state_att_value");
-        METHOD_MAP.put(AttributeDataType.DEVICE_STATE, "dev_state_att");
-        METHOD_MAP.put(AttributeDataType.ATT_UCHAR, "uchar_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ENCODED, "encoded_att_value");
-    }
-
-    private static final Map<AttributeDataType, Class<?>> PARAM_MAP = new HashMap<AttributeDataType, Class<?>>();
-
-    static {
-        PARAM_MAP.put(AttributeDataType.ATT_BOOL, boolean[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_SHORT, short[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_USHORT, short[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_LONG, int[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ULONG, int[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_LONG64, long[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ULONG64, long[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_FLOAT, float[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_DOUBLE, double[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_STRING, String[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_STATE, DevState[].class);
-        PARAM_MAP.put(AttributeDataType.DEVICE_STATE, DevState.class);
-        PARAM_MAP.put(AttributeDataType.ATT_UCHAR, byte[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ENCODED, DevEncoded[].class);
-    }
-
     private CleverAttrValUnion() {
 
     }
@@ -106,20 +64,7 @@ public final class CleverAttrValUnion {
             if (discriminator.value() == AttributeDataType._ATT_NO_DATA) {
                 throw DevFailedUtils.newDevFailed("there is not data");
             }
-            try {
-                final Method method = union.getClass().getMethod(METHOD_MAP.get(discriminator));
-                result = method.invoke(union);
-            } catch (final IllegalArgumentException e) {
-                DevFailedUtils.throwDevFailed(e);
-            } catch (final IllegalAccessException e) {
-                DevFailedUtils.throwDevFailed(e);
-            } catch (final InvocationTargetException e) {
-                DevFailedUtils.throwDevFailed(e.getCause());
-            } catch (final SecurityException e) {
-                DevFailedUtils.throwDevFailed(e);
-            } catch (final NoSuchMethodException e) {
-                DevFailedUtils.throwDevFailed(e);
-            }
+            result = getArray(union, discriminator);
             if (format.equals(AttrDataFormat.SCALAR) && !discriminator.equals(AttributeDataType.DEVICE_STATE)) {
                 // for scalar except state, get only first value
                 result = Array.get(result, 0);
@@ -154,21 +99,97 @@ public final class CleverAttrValUnion {
             }
         }
         try {
-            final Method method = union.getClass().getMethod(METHOD_MAP.get(discriminator),
-                    PARAM_MAP.get(discriminator));
-            method.invoke(union, array);
-        } catch (final IllegalArgumentException e) {
+            setArray(union, discriminator, array);
+        } catch (final ClassCastException e) {
             DevFailedUtils.throwDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
                     + " is not of the good type");
-        } catch (final IllegalAccessException e) {
-            DevFailedUtils.throwDevFailed(e);
-        } catch (final InvocationTargetException e) {
-            DevFailedUtils.throwDevFailed(e.getCause());
-        } catch (final SecurityException e) {
-            DevFailedUtils.throwDevFailed(e);
-        } catch (final NoSuchMethodException e) {
-            DevFailedUtils.throwDevFailed(e);
         }
         return union;
     }
+
+    private static Object getArray(final AttrValUnion union, final AttributeDataType discriminator)
+            throws DevFailed {
+        switch (discriminator.value()) {
+            case AttributeDataType._ATT_BOOL:
+                return union.bool_att_value();
+            case AttributeDataType._ATT_SHORT:
+                return union.short_att_value();
+            case AttributeDataType._ATT_USHORT:
+                return union.ushort_att_value();
+            case AttributeDataType._ATT_LONG:
+                return union.long_att_value();
+            case AttributeDataType._ATT_ULONG:
+                return union.ulong_att_value();
+            case AttributeDataType._ATT_LONG64:
+                return union.long64_att_value();
+            case AttributeDataType._ATT_ULONG64:
+                return union.ulong64_att_value();
+            case AttributeDataType._ATT_FLOAT:
+                return union.float_att_value();
+            case AttributeDataType._ATT_DOUBLE:
+                return union.double_att_value();
+            case AttributeDataType._ATT_STRING:
+                return union.string_att_value();
+            case AttributeDataType._ATT_STATE:
+                return union.state_att_value();
+            case AttributeDataType._DEVICE_STATE:
+                return union.dev_state_att();
+            case AttributeDataType._ATT_UCHAR:
+                return union.uchar_att_value();
+            case AttributeDataType._ATT_ENCODED:
+                return union.encoded_att_value();
+            default:
+                throw DevFailedUtils.newDevFailed("unsupported type " + discriminator.value());
+        }
+    }
+
+    private static void setArray(final AttrValUnion union, final AttributeDataType discriminator, final Object array)
+            throws DevFailed {
+        switch (discriminator.value()) {
+            case AttributeDataType._ATT_BOOL:
+                union.bool_att_value((boolean[]) array);
+                break;
+            case AttributeDataType._ATT_SHORT:
+                union.short_att_value((short[]) array);
+                break;
+            case AttributeDataType._ATT_USHORT:
+                union.ushort_att_value((short[]) array);
+                break;
+            case AttributeDataType._ATT_LONG:
+                union.long_att_value((int[]) array);
+                break;
+            case AttributeDataType._ATT_ULONG:
+                union.ulong_att_value((int[]) array);
+                break;
+            case AttributeDataType._ATT_LONG64:
+                union.long64_att_value((long[]) array);
+                break;
+            case AttributeDataType._ATT_ULONG64:
+                union.ulong64_att_value((long[]) array);
+                break;
+            case AttributeDataType._ATT_FLOAT:
+                union.float_att_value((float[]) array);
+                break;
+            case AttributeDataType._ATT_DOUBLE:
+                union.double_att_value((double[]) array);
+                break;
+            case AttributeDataType._ATT_STRING:
+                union.string_att_value((String[]) array);
+                break;
+            case AttributeDataType._ATT_STATE:
+                union.state_att_value((DevState[]) array);
+                break;
+            case AttributeDataType._DEVICE_STATE:
+                union.dev_state_att((DevState) array);
+                break;
+            case AttributeDataType._ATT_UCHAR:
+                union.uchar_att_value((byte[]) array);
+                break;
+            case AttributeDataType._ATT_ENCODED:
+                union.encoded_att_value((DevEncoded[]) array);
+                break;
+            default:
+                throw DevFailedUtils.newDevFailed("unsupported type " + discriminator.value());
+        }
+    }
 }
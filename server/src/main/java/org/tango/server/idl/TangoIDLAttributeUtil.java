@@ -153,7 +153,7 @@ public final class TangoIDLAttributeUtil {
                 value.w_dim.dim_x = write.getXDim();
                 value.w_dim.dim_y = write.getYDim();
             } else {
-                value.value = CleverAttrValUnion.set(attributeImpl.getTangoType(), readValue);
+                value.value = toAttrValUnion(attributeImpl, read);
             }
             value.quality = read.getQuality();
             value.time = TangoIDLUtil.getTime(read.getTime());
@@ -190,7 +190,7 @@ public final class TangoIDLAttributeUtil {
                 value4.w_dim.dim_x = write.getXDim();
                 value4.w_dim.dim_y = write.getYDim();
             } else {
-                value4.value = CleverAttrValUnion.set(attributeImpl.getTangoType(), readValue);
+                value4.value = toAttrValUnion(attributeImpl, read);
             }
             value4.quality = read.getQuality();
             value4.time = TangoIDLUtil.getTime(read.getTime());
@@ -206,6 +206,18 @@ public final class TangoIDLAttributeUtil {
         return value4;
     }
 
+    /**
+     * Convert a read value, reusing the union built when the attribute has been updated
+     */
+    private static AttrValUnion toAttrValUnion(final AttributeImpl attributeImpl, final AttributeValue read)
+            throws DevFailed {
+        final AttrValUnion union = attributeImpl.getReadValueUnion(read);
+        if (union != null) {
+            return union;
+        }
+        return CleverAttrValUnion.set(attributeImpl.getTangoType(), read.getValue());
+    }
+
     private static Object readWriteInArray(final Object readValue, final Object writeValue) {
         Object insert = null;
         if (readValue.getClass().isArray()) {// spectrum & image
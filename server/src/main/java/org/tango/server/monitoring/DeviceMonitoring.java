@@ -24,6 +24,8 @@
  */
 package org.tango.server.monitoring;
 
+import java.util.concurrent.ConcurrentMap;
+
 import org.tango.server.history.DeviceBlackBox;
 
 import fr.esrf.Tango.ClntIdent;
@@ -31,43 +33,74 @@ import fr.esrf.Tango.DevFailed;
 import fr.esrf.Tango.DevSource;
 
 public class DeviceMonitoring {
-    private static final String SEPARATOR = " - ";
     private final String deviceName;
     private final DeviceBlackBox blackbox;
     private final TangoStats monitoring;
+    private final ConcurrentMap<String, RequestStats> operations;
 
     public DeviceMonitoring(final String deviceName) {
         this.deviceName = deviceName;
         blackbox = new DeviceBlackBox();
         monitoring = TangoStats.getInstance();
+        operations = monitoring.getDeviceStats(deviceName);
     }
 
     public long startRequest(final String request) {
-        blackbox.insertInblackBox(request);
-        return monitoring.addRequest(deviceName + SEPARATOR + request);
+        return startRequest(request, null, null, null);
     }
 
     public long startRequest(final String request, final ClntIdent clt) {
-        blackbox.insertInblackBox(request, clt);
-        return monitoring.addRequest(deviceName + SEPARATOR + request);
+        return startRequest(request, null, null, clt);
     }
 
     public long startRequest(final String request, final DevSource devSource) {
-        blackbox.insertInblackBox(request, devSource);
-        return monitoring.addRequest(deviceName + SEPARATOR + request);
+        return startRequest(request, null, devSource, null);
     }
 
     public long startRequest(final String request, final DevSource devSource, final ClntIdent clt) {
-        blackbox.insertInblackBox(request, devSource, clt);
-        return monitoring.addRequest(deviceName + SEPARATOR + request);
+        return startRequest(request, null, devSource, clt);
+    }
+
+    /**
+     * Record the start of a request. The argument is converted to string only if the black box is read.
+     *
+     * @param operation the operation name, a constant
+     * @param argument the attribute names (String[]) or the command name, may be null
+     * @param devSource the source, may be null
+     * @param clt the client identity, may be null
+     * @return the start time of the request, for {@link #endRequest(String, long)}
+     */
+    public long startRequest(final String operation, final Object argument, final DevSource devSource,
+            final ClntIdent clt) {
+        blackbox.insertInblackBox(operation, argument, devSource, clt);
+        monitoring.addRequest(getStats(operation));
+        return System.nanoTime();
+    }
+
+    private RequestStats getStats(final String operation) {
+        RequestStats stats = operations.get(operation);
+        if (stats == null) {
+            stats = new RequestStats(deviceName, operation);
+            final RequestStats previous = operations.putIfAbsent(operation, stats);
+            if (previous != null) {
+                stats = previous;
+            }
+        }
+        return stats;
     }
 
     public void addError() {
         monitoring.addError();
     }
 
-    public void endRequest(final long id) {
-        monitoring.endRequest(id);
+    /**
+     * Record the end of a request
+     *
+     * @param operation the operation name, as given to startRequest
+     * @param start the value returned by startRequest
+     */
+    public void endRequest(final String operation, final long start) {
+        monitoring.endRequest(getStats(operation), start);
     }
 
     public String[] getBlackBox(final int size) throws DevFailed {
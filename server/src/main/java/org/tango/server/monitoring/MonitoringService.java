@@ -34,11 +34,15 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 
+import org.tango.orb.HostNameCache;
+
 public class MonitoringService {
 
     private static final String FR_SOLEIL_MANAGEMENT_TYPE_TANGO_PARSER_STATS = "org.tango.server:type=TangoServerStats";
+    private static final String HOST_NAME_CACHE_TYPE = "org.tango.server:type=HostNameCache";
     private final TangoStats tangoStats;
     private ObjectName objectName;
+    private ObjectName hostNameCacheName;
 
     public MonitoringService(final String serverName) {
         tangoStats = TangoStats.getInstance();
@@ -51,6 +55,8 @@ public class MonitoringService {
         try {
             objectName = new ObjectName(FR_SOLEIL_MANAGEMENT_TYPE_TANGO_PARSER_STATS);
             mbServer.registerMBean(tangoStats, objectName);
+            hostNameCacheName = new ObjectName(HOST_NAME_CACHE_TYPE);
+            mbServer.registerMBean(HostNameCache.getInstance(), hostNameCacheName);
         } catch (final MalformedObjectNameException e) {
             // ignore
         } catch (final InstanceAlreadyExistsException e) {
@@ -65,6 +71,9 @@ public class MonitoringService {
     public void stop() {
         try {
             ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            if (hostNameCacheName != null) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(hostNameCacheName);
+            }
         } catch (final MBeanRegistrationException e) {
             // ignore
         } catch (final InstanceNotFoundException e) {
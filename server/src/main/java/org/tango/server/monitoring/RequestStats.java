@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.monitoring;
+
+/**
+ * Statistics of an operation of a device
+ */
+final class RequestStats {
+
+    private final String deviceName;
+    private final String operation;
+    private final StripedCounter requestNr = new StripedCounter();
+    /**
+     * created by the first duration, most operations are only counted
+     */
+    private volatile LatencyHistogram durations;
+
+    RequestStats(final String deviceName, final String operation) {
+        this.deviceName = deviceName;
+        this.operation = operation;
+    }
+
+    void addRequest() {
+        requestNr.increment();
+    }
+
+    void addDuration(final long nanos) {
+        LatencyHistogram histogram = durations;
+        if (histogram == null) {
+            synchronized (this) {
+                histogram = durations;
+                if (histogram == null) {
+                    histogram = new LatencyHistogram(false);
+                    durations = histogram;
+                }
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    long getRequestNr() {
+        return requestNr.sum();
+    }
+
+    /**
+     * @return the durations, null if none has been recorded
+     */
+    LatencyHistogram getDurations() {
+        return durations;
+    }
+
+    void reset() {
+        requestNr.reset();
+        final LatencyHistogram histogram = durations;
+        if (histogram != null) {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return deviceName + " - " + operation;
+    }
+}
@@ -53,6 +53,26 @@ public interface TangoMXBean {
 
     long getErrorNr();
 
+    /**
+     * @return the median duration of the timed requests (see {@link TangoStats}), in milliseconds
+     */
+    double getRequestDurationP50();
+
+    /**
+     * @return the 99th percentile of the requests durations, in milliseconds
+     */
+    double getRequestDurationP99();
+
+    /**
+     * @return the 99.9th percentile of the requests durations, in milliseconds
+     */
+    double getRequestDurationP999();
+
+    /**
+     * @return the number of requests and durations percentiles, by device and operation
+     */
+    String[] getRequestStats();
+
     void resetStats();
 
 }
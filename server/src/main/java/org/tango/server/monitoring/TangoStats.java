@@ -24,38 +24,50 @@
  */
 package org.tango.server.monitoring;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-
-import org.tango.server.Chronometer;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * TODO: Error stats
+ * Statistics of the requests of all devices of the server. Requests are counted by device and operation, and their
+ * durations are kept in histograms. Recording a request does not lock nor build strings.
+ * <p>
+ * All requests are counted, but only the durations of the operations that end their request are recorded:
+ * read_attributes_4/5, write_attributes_4, command_inout, command_inout_4 and command_inout_history_4. The durations,
+ * their percentiles and the max request cover these operations.
  *
  * @author abeille
  *
  */
 public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
 
-    private final Chronometer periodChrono = new Chronometer();
-    private final Map<Long, Chronometer> chronoMap = new ConcurrentHashMap<Long, Chronometer>();
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+
     // private final NotificationBroadcasterSupport broadcaster = new NotificationBroadcasterSupport();
+    private final ConcurrentMap<String, ConcurrentMap<String, RequestStats>> devices =
+            new ConcurrentHashMap<String, ConcurrentMap<String, RequestStats>>();
+    private final StripedCounter requestNr = new StripedCounter();
+    private final StripedCounter errorNr = new StripedCounter();
+    private final LatencyHistogram durations = new LatencyHistogram(true);
+    private final StripedCounter totalRequestDuration = new StripedCounter();
+    private final AtomicLong periodStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong minRequestDuration = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxRequestDuration = new AtomicLong(0);
     private String serverName = "";
-    private volatile long seqNumber = 0;
-    private volatile String lastRequest = "";
+    private volatile RequestStats lastRequest;
+    private volatile RequestStats maxRequest;
+    private volatile long periodRequestNr = 0;
+    private volatile long periodNr = 0;
     private volatile long requestsPerSecond = 0;
-    private volatile long minRequestsPerSecond = 0;
+    private volatile long minRequestsPerSecond = Long.MAX_VALUE;
     private volatile long maxRequestsPerSecond = 0;
-    private volatile long averageRequestsPerSecond = 0;
     private volatile long totalRequestsPerSecond = 0;
-    private volatile long requestsPerSecondTemp = 0;
     private volatile long lastRequestDuration = 0;
-    private volatile long minRequestDuration = Long.MAX_VALUE;
-    private volatile long maxRequestDuration = Long.MIN_VALUE;
-    private volatile long averageRequestDuration = 0;
-    private volatile long totalRequestDuration = 0;
-    private volatile String maxRequest = "";
-    private volatile long errorNr = 0;
 
     private static final TangoStats INSTANCE = new TangoStats();
 
@@ -67,23 +79,28 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
     }
 
     @Override
-    public void resetStats() {
-        seqNumber = 0;
-        lastRequest = "";
+    public synchronized void resetStats() {
+        for (final Map<String, RequestStats> operations : devices.values()) {
+            for (final RequestStats stats : operations.values()) {
+                stats.reset();
+            }
+        }
+        requestNr.reset();
+        errorNr.reset();
+        durations.reset();
+        totalRequestDuration.reset();
+        periodStart.set(System.nanoTime());
+        minRequestDuration.set(Long.MAX_VALUE);
+        maxRequestDuration.set(0);
+        lastRequest = null;
+        maxRequest = null;
+        periodRequestNr = 0;
+        periodNr = 0;
         requestsPerSecond = 0;
-        minRequestsPerSecond = 0;
+        minRequestsPerSecond = Long.MAX_VALUE;
         maxRequestsPerSecond = 0;
-        averageRequestsPerSecond = 0;
         totalRequestsPerSecond = 0;
-        requestsPerSecondTemp = 0;
         lastRequestDuration = 0;
-        minRequestDuration = Long.MAX_VALUE;
-        maxRequestDuration = Long.MIN_VALUE;
-        maxRequest = "";
-        averageRequestDuration = 0;
-        totalRequestDuration = 0;
-        errorNr = 0;
-        chronoMap.clear();
     }
 
     public void setServerName(final String serverName) {
@@ -97,7 +114,8 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
 
     @Override
     public String getLastRequest() {
-        return lastRequest;
+        final RequestStats request = lastRequest;
+        return request == null ? "" : request.toString();
     }
 
     @Override
@@ -105,34 +123,64 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
         return requestsPerSecond;
     }
 
-    private synchronized long getNextSeqNumber() {
-        return seqNumber++;
+    /**
+     * Get the operations statistics of a device
+     *
+     * @param deviceName the device name
+     * @return the statistics by operation name
+     */
+    ConcurrentMap<String, RequestStats> getDeviceStats(final String deviceName) {
+        ConcurrentMap<String, RequestStats> operations = devices.get(deviceName);
+        if (operations == null) {
+            operations = new ConcurrentHashMap<String, RequestStats>();
+            final ConcurrentMap<String, RequestStats> previous = devices.putIfAbsent(deviceName, operations);
+            if (previous != null) {
+                operations = previous;
+            }
+        }
+        return operations;
     }
 
-    public long addRequest(final String lastRequest) {
-        this.lastRequest = lastRequest;
-        final Chronometer chrono = new Chronometer();
-        chrono.start();
-        final long id = getNextSeqNumber();
-        if (chronoMap.size() > 10000) {
-            // manage memory
-            chronoMap.clear();
-        }
-        chronoMap.put(id, chrono);
-        if (periodChrono.isOver()) {
+    /**
+     * Forget the statistics of a deleted device
+     *
+     * @param deviceName the device name
+     */
+    public void removeDevice(final String deviceName) {
+        devices.remove(deviceName);
+    }
+
+    /**
+     * Count a request
+     *
+     * @param stats the statistics of the operation
+     */
+    void addRequest(final RequestStats stats) {
+        stats.addRequest();
+        requestNr.increment();
+        lastRequest = stats;
+        final long now = System.nanoTime();
+        final long start = periodStart.get();
+        if (now - start >= PERIOD && periodStart.compareAndSet(start, now)) {
             // Create a JMX Notification
             // final Notification notification = new Notification(AttributeChangeNotification.ATTRIBUTE_CHANGE, this,
             // id,
             // Double.toString(requestsPerSecond));
             // // Send a JMX notification.
             // broadcaster.sendNotification(notification);
-            requestsPerSecond = requestsPerSecondTemp;
-            requestsPerSecondTemp = 0;
-            periodChrono.start(1000);
-        } else {
-            this.requestsPerSecondTemp++;
+            final long total = requestNr.sum();
+            final long rate = (total - periodRequestNr) * PERIOD / (now - start);
+            periodRequestNr = total;
+            requestsPerSecond = rate;
+            if (rate < minRequestsPerSecond) {
+                minRequestsPerSecond = rate;
+            }
+            if (rate > maxRequestsPerSecond) {
+                maxRequestsPerSecond = rate;
+            }
+            totalRequestsPerSecond = totalRequestsPerSecond + rate;
+            periodNr++;
         }
-        return id;
     }
 
     // @Override
@@ -160,31 +208,33 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
     // }
 
     public long getSeqNumber() {
-        return seqNumber;
-    }
-
-    public void endRequest(final long id) {
-        final Chronometer chrono = chronoMap.get(id);
-        if (chrono != null) {
-            lastRequestDuration = chrono.getElapsedTime();
-            chronoMap.remove(id);
-            if (lastRequestDuration < minRequestDuration) {
-                minRequestDuration = lastRequestDuration;
-            } else if (lastRequestDuration > maxRequestDuration) {
-                maxRequestDuration = lastRequestDuration;
-                maxRequest = lastRequest;
-            }
-            totalRequestDuration = totalRequestDuration + lastRequestDuration;
-            averageRequestDuration = totalRequestDuration / getSeqNumber();
+        return requestNr.sum();
+    }
 
-            if (requestsPerSecond < minRequestsPerSecond) {
-                minRequestsPerSecond = requestsPerSecond;
-            } else if (requestsPerSecond > maxRequestsPerSecond) {
-                maxRequestsPerSecond = requestsPerSecond;
+    /**
+     * End a request
+     *
+     * @param stats the statistics of the operation
+     * @param start the start of the request, from {@link System#nanoTime()}
+     */
+    void endRequest(final RequestStats stats, final long start) {
+        final long nanos = System.nanoTime() - start;
+        stats.addDuration(nanos);
+        durations.record(nanos);
+        totalRequestDuration.add(nanos);
+        final long duration = TimeUnit.NANOSECONDS.toMillis(nanos);
+        lastRequestDuration = duration;
+        long min = minRequestDuration.get();
+        while (duration < min && !minRequestDuration.compareAndSet(min, duration)) {
+            min = minRequestDuration.get();
+        }
+        long max = maxRequestDuration.get();
+        while (duration > max) {
+            if (maxRequestDuration.compareAndSet(max, duration)) {
+                maxRequest = stats;
+                break;
             }
-            totalRequestsPerSecond = totalRequestsPerSecond + requestsPerSecond;
-            averageRequestsPerSecond = totalRequestsPerSecond / getSeqNumber();
-
+            max = maxRequestDuration.get();
         }
     }
 
@@ -195,31 +245,72 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
 
     @Override
     public String getMaxRequest() {
-        return maxRequest;
+        final RequestStats request = maxRequest;
+        return request == null ? "" : request.toString();
     }
 
     @Override
     public long getMaxRequestDuration() {
-        return maxRequestDuration;
+        return maxRequestDuration.get();
     }
 
     @Override
     public long getMinRequestDuration() {
-        return minRequestDuration;
+        return minRequestDuration.get();
     }
 
     @Override
     public long getAverageRequestDuration() {
-        return averageRequestDuration;
+        final long count = durations.getCount();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRequestDuration.sum() / count);
+    }
+
+    @Override
+    public double getRequestDurationP50() {
+        return durations.getPercentile(50);
+    }
+
+    @Override
+    public double getRequestDurationP99() {
+        return durations.getPercentile(99);
+    }
+
+    @Override
+    public double getRequestDurationP999() {
+        return durations.getPercentile(99.9);
+    }
+
+    @Override
+    public String[] getRequestStats() {
+        final List<String> result = new ArrayList<String>();
+        for (final Map<String, RequestStats> operations : devices.values()) {
+            for (final RequestStats stats : operations.values()) {
+                final long count = stats.getRequestNr();
+                if (count == 0) {
+                    continue;
+                }
+                final StringBuilder sb = new StringBuilder(stats.toString()).append(": ").append(count)
+                        .append(" requests");
+                final LatencyHistogram histogram = stats.getDurations();
+                if (histogram != null && histogram.getCount() > 0) {
+                    final double[] percentiles = histogram.getPercentiles(50, 99, 99.9);
+                    sb.append(", p50 = ").append(percentiles[0]).append(" ms, p99 = ").append(percentiles[1])
+                            .append(" ms, p999 = ").append(percentiles[2]).append(" ms");
+                }
+                result.add(sb.toString());
+            }
+        }
+        Collections.sort(result);
+        return result.toArray(new String[result.size()]);
     }
 
     public void addError() {
-        errorNr++;
+        errorNr.increment();
     }
 
     @Override
     public long getErrorNr() {
-        return errorNr;
+        return errorNr.sum();
     }
 
     @Override
@@ -229,12 +320,13 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/{
 
     @Override
     public long getAverageRequestsPerSecond() {
-        return averageRequestsPerSecond;
+        final long nr = periodNr;
+        return nr == 0 ? 0 : totalRequestsPerSecond / nr;
     }
 
     @Override
     public long getMinRequestsPerSecond() {
-        return minRequestsPerSecond;
+        return periodNr == 0 ? 0 : minRequestsPerSecond;
     }
 
 }
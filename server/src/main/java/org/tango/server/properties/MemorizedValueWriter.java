@@ -0,0 +1,280 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.properties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.client.database.DatabaseFactory;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Write-behind persistence of the memorized attribute values in tango db. The values written between two flushes
+ * are coalesced per attribute, so that only the last one is stored. The values of a device are flushed every
+ * {@link #FLUSH_PERIOD} milliseconds and when the device is deleted (at init and at server shutdown). With a period
+ * of 0, values are stored synchronously.
+ * <p>
+ * Unlike the synchronous store, a failure to store a value is not reported to the client that wrote it: it is logged
+ * at error level, counted in {@link #getFailureCount()} and the value is retried at the next flush.
+ */
+public final class MemorizedValueWriter {
+
+    /**
+     * Flush period in milliseconds, 0 to store the values synchronously
+     */
+    public static final long FLUSH_PERIOD = Long.getLong("org.tango.server.memorized.flushPeriod", 500);
+
+    private static final MemorizedValueWriter INSTANCE = new MemorizedValueWriter();
+
+    private final Logger logger = LoggerFactory.getLogger(MemorizedValueWriter.class);
+    private final ConcurrentMap<String, DeviceValues> devices = new ConcurrentHashMap<String, DeviceValues>();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong storeCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private volatile long lastFlushLag;
+    private final AtomicLong maxFlushLag = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    private MemorizedValueWriter() {
+    }
+
+    public static MemorizedValueWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Write memorized properties of an attribute
+     *
+     * @param deviceName the device name
+     * @param attributeName the attribute name
+     * @param properties the properties to store, that replace the pending ones of this attribute
+     * @throws DevFailed if stored synchronously and failed. With a flush period, store failures are only logged.
+     */
+    public void write(final String deviceName, final String attributeName, final Map<String, String[]> properties)
+            throws DevFailed {
+        writeCount.incrementAndGet();
+        if (FLUSH_PERIOD <= 0) {
+            DatabaseFactory.getDatabase().setAttributeProperties(deviceName, attributeName, properties);
+            storeCount.incrementAndGet();
+            return;
+        }
+        // the device may be removed between its get and the put, it is then created again
+        while (!getDevice(deviceName).put(attributeName, properties)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Store the pending values of a deleted device and stop its periodic flush. The next write of the device starts
+     * it again.
+     *
+     * @param deviceName the device name
+     */
+    public void removeDevice(final String deviceName) {
+        final DeviceValues device;
+        synchronized (this) {
+            device = devices.remove(deviceName);
+        }
+        if (device != null) {
+            device.task.cancel(false);
+            device.close();
+            device.flush();
+            for (final String attributeName : device.values.keySet()) {
+                logger.error("memorized value of {}/{} lost, tango db is not reachable", deviceName, attributeName);
+            }
+        }
+    }
+
+    /**
+     * @return the number of values written by the devices
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return the number of values stored in tango db. Lower than the written count when values are coalesced.
+     */
+    public long getStoreCount() {
+        return storeCount.get();
+    }
+
+    /**
+     * @return the number of failed stores. The values are retried at the next flush.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return the age in milliseconds of the oldest value not yet stored, 0 if none
+     */
+    public long getPendingLag() {
+        long oldest = Long.MAX_VALUE;
+        for (final DeviceValues device : devices.values()) {
+            for (final PendingValue value : device.values.values()) {
+                oldest = Math.min(oldest, value.since);
+            }
+        }
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    /**
+     * @return the delay in milliseconds between the first write of the value and its store, for the last stored
+     *         value
+     */
+    public long getLastFlushLag() {
+        return lastFlushLag;
+    }
+
+    /**
+     * @return the maximum delay in milliseconds between the first write of a value and its store
+     */
+    public long getMaxFlushLag() {
+        return maxFlushLag.get();
+    }
+
+    private DeviceValues getDevice(final String deviceName) {
+        DeviceValues device = devices.get(deviceName);
+        if (device == null) {
+            synchronized (this) {
+                device = devices.get(deviceName);
+                if (device == null) {
+                    final DeviceValues newDevice = new DeviceValues(deviceName);
+                    newDevice.task = getExecutor().scheduleWithFixedDelay(new Runnable() {
+                        @Override
+                        public void run() {
+                            newDevice.flush();
+                        }
+                    }, FLUSH_PERIOD, FLUSH_PERIOD, TimeUnit.MILLISECONDS);
+                    devices.put(deviceName, newDevice);
+                    device = newDevice;
+                }
+            }
+        }
+        return device;
+    }
+
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Memorized values writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    private static final class PendingValue {
+        private final Map<String, String[]> properties;
+        /**
+         * time of the first write not stored
+         */
+        private final long since;
+
+        PendingValue(final Map<String, String[]> properties, final long since) {
+            this.properties = properties;
+            this.since = since;
+        }
+    }
+
+    private final class DeviceValues {
+        private final String deviceName;
+        private final ConcurrentMap<String, PendingValue> values = new ConcurrentHashMap<String, PendingValue>();
+        private ScheduledFuture<?> task;
+        /**
+         * set under the lock of values, so that no value is put after the last flush
+         */
+        private boolean isRemoved;
+
+        DeviceValues(final String deviceName) {
+            this.deviceName = deviceName;
+        }
+
+        /**
+         * @return false if the device has been removed, the value is not put
+         */
+        boolean put(final String attributeName, final Map<String, String[]> properties) {
+            synchronized (values) {
+                if (isRemoved) {
+                    return false;
+                }
+                final PendingValue previous = values.get(attributeName);
+                final long since = previous == null ? System.currentTimeMillis() : previous.since;
+                values.put(attributeName, new PendingValue(properties, since));
+                return true;
+            }
+        }
+
+        void close() {
+            synchronized (values) {
+                isRemoved = true;
+            }
+        }
+
+        /**
+         * Flushes of a device are serialized, so that an older value is never stored after a newer one
+         */
+        synchronized void flush() {
+            for (final String attributeName : values.keySet()) {
+                final PendingValue value = values.remove(attributeName);
+                if (value == null) {
+                    continue;
+                }
+                try {
+                    DatabaseFactory.getDatabase().setAttributeProperties(deviceName, attributeName, value.properties);
+                    storeCount.incrementAndGet();
+                    final long lag = System.currentTimeMillis() - value.since;
+                    lastFlushLag = lag;
+                    long max = maxFlushLag.get();
+                    while (lag > max && !maxFlushLag.compareAndSet(max, lag)) {
+                        max = maxFlushLag.get();
+                    }
+                } catch (final DevFailed e) {
+                    // retry at next flush, unless a newer value has been written
+                    values.putIfAbsent(attributeName, value);
+                    failureCount.incrementAndGet();
+                    logger.error("failed to memorize {}/{}: {}", new Object[] { deviceName, attributeName,
+                            DevFailedUtils.toString(e) });
+                }
+            }
+        }
+    }
+}
@@ -36,9 +36,9 @@ import org.tango.utils.DevFailedUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class PropertiesUtils {
 
@@ -46,20 +46,20 @@ public final class PropertiesUtils {
     /**
      * Map to request device properties once
      */
-    private static Map<String, Map<String, String[]>> devicePropertiesCache = new HashMap<String, Map<String, String[]>>();
+    private static Map<String, Map<String, String[]>> devicePropertiesCache = new ConcurrentHashMap<String, Map<String, String[]>>();
     /**
      * Map to request class properties once
      */
-    private static Map<String, Map<String, String[]>> classPropertiesCache = new HashMap<String, Map<String, String[]>>();
+    private static Map<String, Map<String, String[]>> classPropertiesCache = new ConcurrentHashMap<String, Map<String, String[]>>();
 
     /**
      * Map to request device pipe properties once
      */
-    private static Map<String, Map<String, String[]>> devicePipePropertiesCache = new HashMap<String, Map<String, String[]>>();
+    private static Map<String, Map<String, String[]>> devicePipePropertiesCache = new ConcurrentHashMap<String, Map<String, String[]>>();
     /**
      * Map to request class pie properties once
      */
-    private static Map<String, Map<String, String[]>> classPipePropertiesCache = new HashMap<String, Map<String, String[]>>();
+    private static Map<String, Map<String, String[]>> classPipePropertiesCache = new ConcurrentHashMap<String, Map<String, String[]>>();
 
     private PropertiesUtils() {
 
@@ -99,7 +99,9 @@ public final class PropertiesUtils {
             properties = devicePipePropertiesCache.get(fullPipeName);
         } else {
             properties = DatabaseFactory.getDatabase().getDevicePipeProperties(deviceName, pipeName);
-            devicePipePropertiesCache.put(fullPipeName, properties);
+            if (properties != null) {
+                devicePipePropertiesCache.put(fullPipeName, properties);
+            }
         }
         return properties;
     }
@@ -110,7 +112,9 @@ public final class PropertiesUtils {
             properties = devicePropertiesCache.get(deviceName);
         } else {
             properties = DatabaseFactory.getDatabase().getDeviceProperties(deviceName);
-            devicePropertiesCache.put(deviceName, properties);
+            if (properties != null) {
+                devicePropertiesCache.put(deviceName, properties);
+            }
         }
         return properties;
     }
@@ -121,7 +125,9 @@ public final class PropertiesUtils {
             properties = classPropertiesCache.get(className);
         } else {
             properties = DatabaseFactory.getDatabase().getClassProperties(className);
-            classPropertiesCache.put(className, properties);
+            if (properties != null) {
+                classPropertiesCache.put(className, properties);
+            }
         }
         return properties;
     }
@@ -133,7 +139,9 @@ public final class PropertiesUtils {
             properties = classPipePropertiesCache.get(fullPipeName);
         } else {
             properties = DatabaseFactory.getDatabase().getClassProperties(className, pipeName);
-            classPipePropertiesCache.put(fullPipeName, properties);
+            if (properties != null) {
+                classPipePropertiesCache.put(fullPipeName, properties);
+            }
         }
         return properties;
     }
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.tango.server.Constants;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.IAlarmListener;
+import org.tango.server.device.StateImpl;
+import org.tango.server.device.StatusImpl;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Check the attributes alarms for the state of a device (StateCheckAttrAlarm property). The alarmed attributes are
+ * tracked as their values are updated, by clients, polling or events. Only the non polled attributes whose value is
+ * older than {@link Constants#STATE_CHECK_ALARMS_MAX_AGE} are read, in parallel if the device transaction type allows
+ * it. The reader threads are shared by all devices; when they are all busy, the checking thread reads the attribute
+ * itself, so that an attribute that checks the state of another device of the server cannot exhaust them.
+ */
+final class AttributeAlarmChecker implements IAlarmListener {
+
+    private static final ThreadPoolExecutor READERS = new ThreadPoolExecutor(Constants.STATE_CHECK_ALARMS_THREADS,
+            Constants.STATE_CHECK_ALARMS_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "StateCheckAttrAlarm-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    static {
+        READERS.allowCoreThreadTimeOut(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(AttributeAlarmChecker.class);
+    private final String deviceName;
+    /**
+     * attributes whose alarm state has changed since the last check
+     */
+    private final Map<String, AttributeImpl> changed = new ConcurrentHashMap<String, AttributeImpl>();
+    /**
+     * attributes in alarm, as reported to state and status
+     */
+    private final Map<String, AttributeImpl> alarmed = new ConcurrentHashMap<String, AttributeImpl>();
+    private StateImpl reportedState;
+    private StatusImpl reportedStatus;
+    /**
+     * time before which no attribute value is too old
+     */
+    private long nextStaleTime;
+
+    AttributeAlarmChecker(final String deviceName) {
+        this.deviceName = deviceName;
+    }
+
+    @Override
+    public void alarmChanged(final AttributeImpl attribute) {
+        changed.put(attribute.getName(), attribute);
+    }
+
+    /**
+     * Track the alarm state of an attribute
+     *
+     * @param attribute the attribute
+     */
+    synchronized void add(final AttributeImpl attribute) {
+        attribute.setAlarmListener(this);
+        nextStaleTime = 0;
+        if (attribute.isAlarm()) {
+            alarmChanged(attribute);
+        }
+    }
+
+    /**
+     * Stop tracking an attribute
+     *
+     * @param attribute the attribute
+     */
+    synchronized void remove(final AttributeImpl attribute) {
+        attribute.setAlarmListener(null);
+        changed.remove(attribute.getName());
+        alarmed.remove(attribute.getName());
+    }
+
+    /**
+     * Update the state and the status with the attributes alarms
+     *
+     * @param attributes the attributes of the device
+     * @param stateImpl the state
+     * @param statusImpl the status
+     * @param parallel true if the attributes may be read concurrently
+     * @return true if an attribute is in alarm
+     * @throws DevFailed
+     */
+    synchronized boolean check(final List<AttributeImpl> attributes, final StateImpl stateImpl,
+            final StatusImpl statusImpl, final boolean parallel) throws DevFailed {
+        readStaleAttributes(attributes, parallel);
+        if (stateImpl != reportedState || statusImpl != reportedStatus) {
+            // state or status have been rebuilt, report again all alarms
+            reportedState = stateImpl;
+            reportedStatus = statusImpl;
+            changed.putAll(alarmed);
+        }
+        for (final String name : changed.keySet()) {
+            // removed before reading its alarm state, so that a concurrent change is not lost
+            final AttributeImpl attr = changed.remove(name);
+            if (attr == null) {
+                continue;
+            }
+            if (attr.isOutOfLimits()) {
+                // update device state and status with alarm
+                logger.debug("{} is out of limits", attr.getName());
+                alarmed.put(attr.getName(), attr);
+                stateImpl.addAttributeAlarm(attr.getName());
+                statusImpl.addAttributeAlarm(attr.getName(), attr.isAlarmToHigh());
+            } else if (attr.isDeltaAlarm()) {
+                logger.debug("{} has a delta alarm", attr.getName());
+                // update device state and status with alarm
+                alarmed.put(attr.getName(), attr);
+                stateImpl.addAttributeAlarm(attr.getName());
+                statusImpl.addDeltaAttributeAlarm(attr.getName());
+            } else {
+                alarmed.remove(attr.getName());
+                statusImpl.removeAttributeAlarm(attr.getName());
+                stateImpl.removeAttributeAlarm(attr.getName());
+            }
+        }
+        if (!alarmed.isEmpty()) {
+            // the state may have been updated by the device since the alarm has been reported
+            stateImpl.addAttributeAlarm(alarmed.keySet().iterator().next());
+        }
+        return !alarmed.isEmpty();
+    }
+
+    private void readStaleAttributes(final List<AttributeImpl> attributes, final boolean parallel) {
+        final long now = System.currentTimeMillis();
+        if (now < nextStaleTime) {
+            return;
+        }
+        long next = now + Constants.STATE_CHECK_ALARMS_MAX_AGE;
+        final List<AttributeImpl> staleAttributes = new ArrayList<AttributeImpl>();
+        for (final AttributeImpl attr : attributes) {
+            if (attr.isPolled() || attr.isFwdAttribute() || attr.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)
+                    || attr.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
+                // refresh value only if not polled
+                continue;
+            }
+            final long staleTime = attr.getValueUpdateTime() + Constants.STATE_CHECK_ALARMS_MAX_AGE;
+            if (staleTime <= now) {
+                staleAttributes.add(attr);
+            } else if (staleTime < next) {
+                next = staleTime;
+            }
+        }
+        logger.debug("State: Number of attribute(s) to read: {}", staleAttributes.size());
+        if (parallel && staleAttributes.size() > 1) {
+            readConcurrently(staleAttributes);
+        } else {
+            for (final AttributeImpl attr : staleAttributes) {
+                read(attr);
+            }
+        }
+        nextStaleTime = next;
+    }
+
+    private void readConcurrently(final List<AttributeImpl> staleAttributes) {
+        final List<Future<?>> futures = new ArrayList<Future<?>>(staleAttributes.size());
+        for (final AttributeImpl attr : staleAttributes) {
+            futures.add(READERS.submit(new Runnable() {
+                @Override
+                public void run() {
+                    MDC.put(DeviceImpl.MDC_KEY, deviceName);
+                    read(attr);
+                }
+            }));
+        }
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException e) {
+                logger.debug("State: attribute read failed", e.getCause());
+            }
+        }
+    }
+
+    private static void read(final AttributeImpl attr) {
+        try {
+            synchronized (attr) {
+                attr.updateValue();
+            }
+        } catch (final DevFailed e) {
+        }
+    }
+}
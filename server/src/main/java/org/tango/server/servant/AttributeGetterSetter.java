@@ -30,8 +30,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import net.sf.ehcache.CacheException;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.ext.XLogger;
@@ -78,19 +76,32 @@ public final class AttributeGetterSetter {
 
     public static AttributeImpl getAttribute(final String name, final List<AttributeImpl> attributeList)
             throws DevFailed {
-        AttributeImpl result = null;
-        for (final AttributeImpl attribute : attributeList) {
-            if (attribute.getName().equalsIgnoreCase(name)) {
-                result = attribute;
-                break;
-            }
-        }
+        final AttributeImpl result = findAttribute(name, attributeList);
         if (result == null) {
             DevFailedUtils.throwDevFailed(ExceptionMessages.ATTR_NOT_FOUND, name + DOES_NOT_EXIST);
         }
         return result;
     }
 
+    /**
+     * Find an attribute. Uses the name index of the device's attribute list.
+     *
+     * @param name
+     * @param attributeList
+     * @return The attribute, or null if not found
+     */
+    public static AttributeImpl findAttribute(final String name, final List<AttributeImpl> attributeList) {
+        if (attributeList instanceof PollableList) {
+            return ((PollableList<AttributeImpl>) attributeList).find(name);
+        }
+        for (final AttributeImpl attribute : attributeList) {
+            if (attribute.getName().equalsIgnoreCase(name)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
     static void setAttributeValue4(final AttributeValue_4[] values, final List<AttributeImpl> attributeList,
             final StateImpl stateImpl, final AroundInvokeImpl aroundInvoke, final ClntIdent clientID)
             throws MultiDevFailed {
@@ -181,6 +192,7 @@ public final class AttributeGetterSetter {
             AttributeImpl att = null;
             try {
                 att = getAttribute(names[i], attributeList);
+                final AttributeValue_5 eventValue = fromCache ? getLastEventValue5(att) : null;
                 if (source.equals(DevSource.DEV) && att.isPolled() && att.getPollingPeriod() == 0) {
                     // attribute is polled, so throw exception except
                     back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(
@@ -189,6 +201,9 @@ public final class AttributeGetterSetter {
                             0,
                             DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_NOT_ALLOWED, ATTRIBUTE + names[i]
                                     + " value is available only by CACHE"));
+                } else if (eventValue != null) {
+                    // forwarded attribute: the value received from the root event is the cache
+                    back[i] = eventValue;
                 } else if (!deviceName.equalsIgnoreCase(ServerManager.getInstance().getAdminDeviceName())
                         && source.equals(DevSource.CACHE) && !att.isPolled()) {
                     // attribute is not polled, so throw exception except for admin device
@@ -227,15 +242,8 @@ public final class AttributeGetterSetter {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue5(att, readValue, att.getWriteValue());
                 }
                 // profiler.stop().print();
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], AttrDataFormat.FMT_UNKNOWN, 0,
-                            (DevFailed) e.getCause());
-                } else {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], att.getFormat(),
-                            att.getTangoType(),
-                            DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache"));
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], AttrDataFormat.FMT_UNKNOWN, 0, e);
             }
             // aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, callType,
             // att.getName()));
@@ -282,6 +290,13 @@ public final class AttributeGetterSetter {
         return back;
     }
 
+    private static AttributeValue_5 getLastEventValue5(final AttributeImpl att) {
+        if (att.getBehavior() instanceof ForwardedAttribute) {
+            return ((ForwardedAttribute) att.getBehavior()).getLastEventValue5();
+        }
+        return null;
+    }
+
     private static boolean isFromCache(final DevSource source) {
         boolean fromCache = false;
         if (source.equals(DevSource.CACHE) || source.equals(DevSource.CACHE_DEV)) {
@@ -342,11 +357,8 @@ public final class AttributeGetterSetter {
                 } else {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue4(att, readValue, att.getWriteValue());
                 }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue4Error(names[i], AttrDataFormat.FMT_UNKNOWN,
-                            (DevFailed) e.getCause());
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue4Error(names[i], AttrDataFormat.FMT_UNKNOWN, e);
             }
         }
         // get attributes values
@@ -432,10 +444,8 @@ public final class AttributeGetterSetter {
                 } else {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue3(att, readValue, att.getWriteValue());
                 }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue3Error(names[i], (DevFailed) e.getCause());
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue3Error(names[i], e);
             }
         }
         // get attributes values
@@ -503,18 +513,12 @@ public final class AttributeGetterSetter {
         for (final Entry<Integer, AttributeImpl> attribute : cacheAttributes.entrySet()) {
             final AttributeImpl att = attribute.getValue();
             final int i = attribute.getKey();
-            try {
-                LOGGER.debug("read from CACHE {}", att.getName());
-                final AttributeValue readValue = cacheManager.getAttributeCacheElement(att);
-                if (readValue == null) {
-                    throw DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache");
-                } else {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue(att, readValue);
-                }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                }
+            LOGGER.debug("read from CACHE {}", att.getName());
+            final AttributeValue readValue = cacheManager.getAttributeCacheElement(att);
+            if (readValue == null) {
+                throw DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache");
+            } else {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue(att, readValue);
             }
         }
         // get attributes values
@@ -42,17 +42,29 @@ public class CommandGetter {
      * @throws DevFailed
      */
     public static CommandImpl getCommand(final String name, final List<CommandImpl> commandList) throws DevFailed {
-        CommandImpl result = null;
-        for (final CommandImpl command : commandList) {
-            if (command.getName().equalsIgnoreCase(name)) {
-                result = command;
-                break;
-            }
-        }
+        final CommandImpl result = findCommand(name, commandList);
         if (result == null) {
             DevFailedUtils.throwDevFailed(ExceptionMessages.COMMAND_NOT_FOUND, "Command " + name + " not found");
         }
         return result;
     }
 
+    /**
+     * Find a command. Uses the name index of the device's command list.
+     *
+     * @param name
+     * @return The command, or null if not found
+     */
+    public static CommandImpl findCommand(final String name, final List<CommandImpl> commandList) {
+        if (commandList instanceof PollableList) {
+            return ((PollableList<CommandImpl>) commandList).find(name);
+        }
+        for (final CommandImpl command : commandList) {
+            if (command.getName().equalsIgnoreCase(name)) {
+                return command;
+            }
+        }
+        return null;
+    }
+
 }
@@ -61,6 +61,7 @@ import org.tango.server.pipe.PipeImpl;
 import org.tango.server.properties.ClassPropertyImpl;
 import org.tango.server.properties.DevicePropertiesImpl;
 import org.tango.server.properties.DevicePropertyImpl;
+import org.tango.server.properties.MemorizedValueWriter;
 import org.tango.server.properties.PropertiesUtils;
 import org.tango.server.schedule.DeviceScheduler;
 import org.tango.utils.DevFailedUtils;
@@ -96,6 +97,12 @@ public class DeviceImpl extends Device_5POA {
     private static final String NOT_IMPORTANT_ERROR = "not important error";
     private static final String READ_ASKED_FOR_0_ATTRIBUTES = "read asked for 0 attributes";
     private static final String READ_ERROR = "READ_ERROR";
+    private static final String READ_ATTRIBUTES_4 = "read_attributes_4";
+    private static final String READ_ATTRIBUTES_5 = "read_attributes_5";
+    private static final String WRITE_ATTRIBUTES_4 = "write_attributes_4";
+    private static final String COMMAND_INOUT = "command_inout";
+    private static final String COMMAND_INOUT_4 = "command_inout_4";
+    private static final String COMMAND_INOUT_HISTORY_4 = "command_inout_history_4";
     /**
      * Recreating a device does not delete locking object. So maintain a
      * reference
@@ -122,11 +129,11 @@ public class DeviceImpl extends Device_5POA {
     /**
      * the device's attributes
      */
-    private final List<AttributeImpl> attributeList = new ArrayList<AttributeImpl>();
+    private final PollableList<AttributeImpl> attributeList = new PollableList<AttributeImpl>();
     /**
      * the device's commands
      */
-    private final List<CommandImpl> commandList = new ArrayList<CommandImpl>();
+    private final PollableList<CommandImpl> commandList = new PollableList<CommandImpl>();
 
     // default attributes
     /**
@@ -211,6 +218,7 @@ public class DeviceImpl extends Device_5POA {
      * Check all attributes alarms while get state of the device
      */
     private boolean stateCheckAttrAlarm = false;
+    private final AttributeAlarmChecker alarmChecker;
     private int minPolling = 0;
     private DeviceScheduler deviceScheduler;
 
@@ -242,6 +250,7 @@ public class DeviceImpl extends Device_5POA {
         this.deviceType = deviceType;
         deviceMonitoring = new DeviceMonitoring(deviceName);
         deviceLock = new DeviceLocker(txType, businessObject.getClass());
+        alarmChecker = new AttributeAlarmChecker(deviceName);
 
         this.businessObject = businessObject;
         if (CLIENT_LOCKING_MAP.containsKey(deviceName)) {
@@ -476,15 +485,9 @@ public class DeviceImpl extends Device_5POA {
      */
     public synchronized void addAttribute(final AttributeImpl attribute) throws DevFailed {
         // add attribute only if it doesn't exists
-        AttributeImpl result = null;
-        for (final AttributeImpl attr : attributeList) {
-            if (attr.getName().equalsIgnoreCase(attribute.getName())) {
-                result = attribute;
-                break;
-            }
-        }
-        if (result == null) {
+        if (attributeList.find(attribute.getName()) == null) {
             attributeList.add(attribute);
+            alarmChecker.add(attribute);
             // set default polling configuration
             if (attrPollRingDepth.containsKey(attribute.getName().toLowerCase(Locale.ENGLISH))) {
                 attribute.setPollRingDepth(attrPollRingDepth.get(attribute.getName().toLowerCase(Locale.ENGLISH)));
@@ -505,6 +508,7 @@ public class DeviceImpl extends Device_5POA {
             return;
         }
         pollingManager.removeAttributePolling(attribute.getName());
+        alarmChecker.remove(attribute);
         statusImpl.removeAttributeAlarm(attribute.getName());
         stateImpl.removeAttributeAlarm(attribute.getName());
         attributeList.remove(attribute);
@@ -556,6 +560,17 @@ public class DeviceImpl extends Device_5POA {
         return new ArrayList<AttributeImpl>(attributeList);
     }
 
+    /**
+     * Get an attribute
+     *
+     * @param name
+     * @return The attribute
+     * @throws DevFailed
+     */
+    public AttributeImpl getAttribute(final String name) throws DevFailed {
+        return AttributeGetterSetter.getAttribute(name, attributeList);
+    }
+
     /**
      * Get a command
      *
@@ -696,6 +711,8 @@ public class DeviceImpl extends Device_5POA {
         PropertiesUtils.clearCache();
         PropertiesUtils.clearDeviceCache(name);
         PropertiesUtils.clearClassCache(className);
+        // store the pending memorized values before they are applied again by init
+        MemorizedValueWriter.getInstance().removeDevice(name);
         stopPolling();
         pollingManager.removeAll();
         if (deviceScheduler != null) {
@@ -1083,7 +1100,7 @@ public class DeviceImpl extends Device_5POA {
             checkInitialization();
         }
 
-        deviceMonitoring.startRequest("read_attributes_4 " + Arrays.toString(names), source, clIdent);
+        final long request = deviceMonitoring.startRequest(READ_ATTRIBUTES_4, names, source, clIdent);
         clientIdentity.set(clIdent);
         if (names.length == 0) {
             throw DevFailedUtils.newDevFailed(READ_ERROR, READ_ASKED_FOR_0_ATTRIBUTES);
@@ -1105,6 +1122,8 @@ public class DeviceImpl extends Device_5POA {
                 // not inserted in DevFailed.
                 DevFailedUtils.throwDevFailed(e);
             }
+        } finally {
+            deviceMonitoring.endRequest(READ_ATTRIBUTES_4, request);
         }
         xlogger.exit();
         // profilerPeriod.stop().print();
@@ -1136,8 +1155,7 @@ public class DeviceImpl extends Device_5POA {
             checkInitialization();
         }
         // profiler.start("blackbox");
-        final long request = deviceMonitoring.startRequest("read_attributes_5 " + Arrays.toString(names), source,
-                clIdent);
+        final long request = deviceMonitoring.startRequest(READ_ATTRIBUTES_5, names, source, clIdent);
         // profiler.start("locking");
         clientIdentity.set(clIdent);
         if (names.length == 0) {
@@ -1163,7 +1181,7 @@ public class DeviceImpl extends Device_5POA {
                 DevFailedUtils.throwDevFailed(e);
             }
         } finally {
-            deviceMonitoring.endRequest(request);
+            deviceMonitoring.endRequest(READ_ATTRIBUTES_5, request);
         }
 
         // profiler.stop().print();
@@ -1265,7 +1283,7 @@ public class DeviceImpl extends Device_5POA {
             names[i] = values[i].name;
         }
         logger.debug("writing {}", Arrays.toString(names));
-        deviceMonitoring.startRequest("write_attributes_4 " + Arrays.toString(names), clIdent);
+        final long request = deviceMonitoring.startRequest(WRITE_ATTRIBUTES_4, names, null, clIdent);
         clientIdentity.set(clIdent);
         if (!name.equalsIgnoreCase(getAdminDeviceName())) {
             clientLocking.checkClientLocking(clIdent, names);
@@ -1284,6 +1302,8 @@ public class DeviceImpl extends Device_5POA {
                 // not inserted in DevFailed.
                 DevFailedUtils.throwDevFailed(e);
             }
+        } finally {
+            deviceMonitoring.endRequest(WRITE_ATTRIBUTES_4, request);
         }
         xlogger.exit();
     }
@@ -1308,7 +1328,7 @@ public class DeviceImpl extends Device_5POA {
         for (int i = 0; i < names.length; i++) {
             names[i] = values[i].name;
         }
-        deviceMonitoring.startRequest("write_read_attributes_4 " + Arrays.toString(names), clIdent);
+        deviceMonitoring.startRequest("write_read_attributes_4", names, null, clIdent);
         clientIdentity.set(clIdent);
         AttributeValue_4[] val = null;
         if (!name.equalsIgnoreCase(getAdminDeviceName())) {
@@ -1347,7 +1367,7 @@ public class DeviceImpl extends Device_5POA {
     @Override
     public AttributeValue_5[] write_read_attributes_5(final AttributeValue_4[] writeValues, final String[] readNames,
             final ClntIdent clIdent) throws MultiDevFailed, DevFailed {
-        deviceMonitoring.startRequest("write_read_attributes_5 ", clIdent);
+        deviceMonitoring.startRequest("write_read_attributes_5", clIdent);
         clientIdentity.set(clIdent);
         final String[] names = new String[writeValues.length];
         for (int i = 0; i < names.length; i++) {
@@ -1490,7 +1510,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry();
         // checkInitialization();
-        deviceMonitoring.startRequest("command_query " + commandName);
+        deviceMonitoring.startRequest("command_query", commandName, null, null);
         final CommandImpl foundCmd = getCommand(commandName);
         final DevCmdInfo tmp = new DevCmdInfo();
         tmp.cmd_name = foundCmd.getName();
@@ -1515,7 +1535,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry();
         // checkInitialization();
-        deviceMonitoring.startRequest("command_query_2 " + commandName);
+        deviceMonitoring.startRequest("command_query_2", commandName, null, null);
         final CommandImpl foundCmd = getCommand(commandName);
         final DevCmdInfo_2 tmp = new DevCmdInfo_2();
         tmp.cmd_name = foundCmd.getName();
@@ -1545,7 +1565,7 @@ public class DeviceImpl extends Device_5POA {
         if (!command.equalsIgnoreCase(DeviceImpl.STATE_NAME) && !command.equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
             checkInitialization();
         }
-        final long request = deviceMonitoring.startRequest("command_inout " + command);
+        final long request = deviceMonitoring.startRequest(COMMAND_INOUT, command, null, null);
         clientIdentity.set(null);
         Any argout = null;
         try {
@@ -1560,7 +1580,7 @@ public class DeviceImpl extends Device_5POA {
                 DevFailedUtils.throwDevFailed(e);
             }
         } finally {
-            deviceMonitoring.endRequest(request);
+            deviceMonitoring.endRequest(COMMAND_INOUT, request);
         }
         xlogger.exit();
         return argout;
@@ -1585,7 +1605,7 @@ public class DeviceImpl extends Device_5POA {
         if (!command.equalsIgnoreCase(DeviceImpl.STATE_NAME) && !command.equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
             checkInitialization();
         }
-        deviceMonitoring.startRequest("command_inout_2 " + command, source);
+        deviceMonitoring.startRequest("command_inout_2", command, source, null);
         clientIdentity.set(null);
         Any argout = null;
         try {
@@ -1627,8 +1647,7 @@ public class DeviceImpl extends Device_5POA {
                 && !commandName.equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
             checkInitialization();
         }
-        final long request = deviceMonitoring.startRequest("Operation command_inout_4 (cmd = " + commandName + ")",
-                source, clIdent);
+        final long request = deviceMonitoring.startRequest(COMMAND_INOUT_4, commandName, source, clIdent);
         clientIdentity.set(clIdent);
         Any argout = null;
         if (!name.equalsIgnoreCase(getAdminDeviceName())) {
@@ -1646,7 +1665,7 @@ public class DeviceImpl extends Device_5POA {
                 DevFailedUtils.throwDevFailed(e);
             }
         } finally {
-            deviceMonitoring.endRequest(request);
+            deviceMonitoring.endRequest(COMMAND_INOUT_4, request);
         }
         xlogger.exit();
         return argout;
@@ -1667,7 +1686,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry();
         checkInitialization();
-        deviceMonitoring.startRequest("command_inout_history_2 " + commandName);
+        deviceMonitoring.startRequest("command_inout_history_2", commandName, null, null);
         // TODO command_inout_history_2
         // returncommandHistory.get(command).toArray(n)
         return new DevCmdHistory[] {};
@@ -1688,7 +1707,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry();
         checkInitialization();
-        final long request = deviceMonitoring.startRequest("command_inout_history_4 " + commandName);
+        final long request = deviceMonitoring.startRequest(COMMAND_INOUT_HISTORY_4, commandName, null, null);
         final CommandImpl command = getCommand(commandName);
 
         DevCmdHistory_4 history = null;
@@ -1704,7 +1723,7 @@ public class DeviceImpl extends Device_5POA {
                 DevFailedUtils.throwDevFailed(e);
             }
         } finally {
-            deviceMonitoring.endRequest(request);
+            deviceMonitoring.endRequest(COMMAND_INOUT_HISTORY_4, request);
         }
         return history;
     }
@@ -1787,7 +1806,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(Arrays.toString(attributeNames));
         // checkInitialization();
-        deviceMonitoring.startRequest("get_attribute_config_5 " + Arrays.toString(attributeNames));
+        deviceMonitoring.startRequest("get_attribute_config_5", attributeNames, null, null);
         // check if we must retrieve all attributes config
         final int length = attributeNames.length;
         boolean getAllConfig = false;
@@ -1840,7 +1859,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(Arrays.toString(attributeNames));
         // checkInitialization();
-        deviceMonitoring.startRequest("get_attribute_config_3 " + Arrays.toString(attributeNames));
+        deviceMonitoring.startRequest("get_attribute_config_3", attributeNames, null, null);
         // check if we must retrieve all attributes config
         final int length = attributeNames.length;
         boolean getAllConfig = false;
@@ -1890,7 +1909,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(Arrays.toString(attributeNames));
         // checkInitialization();
-        deviceMonitoring.startRequest("get_attribute_config_2 " + Arrays.toString(attributeNames));
+        deviceMonitoring.startRequest("get_attribute_config_2", attributeNames, null, null);
         // check if we must retrieve all attributes config
         final int length = attributeNames.length;
         boolean getAllConfig = false;
@@ -1942,7 +1961,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry();
         // checkInitialization();
-        deviceMonitoring.startRequest("get_attribute_config " + Arrays.toString(attributeNames));
+        deviceMonitoring.startRequest("get_attribute_config", attributeNames, null, null);
         // check if we must retrieve all attributes config
         final int length = attributeNames.length;
         boolean getAllConfig = false;
@@ -2125,14 +2144,7 @@ public class DeviceImpl extends Device_5POA {
      * @throws DevFailed
      */
     public synchronized void addCommand(final CommandImpl command) throws DevFailed {
-        CommandImpl result = null;
-        for (final CommandImpl cmd : commandList) {
-            if (command.getName().equalsIgnoreCase(cmd.getName())) {
-                result = command;
-                break;
-            }
-        }
-        if (result == null) {
+        if (commandList.find(command.getName()) == null) {
             commandList.add(command);
             // set default polling configuration
             if (cmdPollRingDepth.containsKey(command.getName().toLowerCase(Locale.ENGLISH))) {
@@ -2376,37 +2388,8 @@ public class DeviceImpl extends Device_5POA {
     }
 
     private void checkAlarms() throws DevFailed {
-        final List<AttributeImpl> attrs = getAttributeList();
-        logger.debug("State: Number of attribute(s) to read: {}", attrs.size() - 2);
-
-        for (final AttributeImpl attr : attrs) {
-            try {
-                if (!attr.getName().equals(STATE_NAME) && !attr.getName().equals(STATUS_NAME)) {
-                    synchronized (attr) {
-                        if (!attr.isPolled() && !attr.isFwdAttribute()) {
-                            // refresh value only if not polled
-                            attr.updateValue();
-                        }
-                    }
-                }
-            } catch (final DevFailed e) {
-            }
-
-            if (attr.isOutOfLimits()) {
-                // update device state and status with alarm
-                logger.debug("{} is out of limits", attr.getName());
-                stateImpl.addAttributeAlarm(attr.getName());
-                statusImpl.addAttributeAlarm(attr.getName(), attr.isAlarmToHigh());
-            } else if (attr.isDeltaAlarm()) {
-                logger.debug("{} has a delta alarm", attr.getName());
-                // update device state and status with alarm
-                stateImpl.addAttributeAlarm(attr.getName());
-                statusImpl.addDeltaAttributeAlarm(attr.getName());
-            } else {
-                statusImpl.removeAttributeAlarm(attr.getName());
-                stateImpl.removeAttributeAlarm(attr.getName());
-            }
-        }
+        // attributes may be read concurrently only if the device does not serialize them
+        alarmChecker.check(getAttributeList(), stateImpl, statusImpl, deviceLock.getAttributeLock() == null);
         state = stateImpl.getState();
     }
 
@@ -2578,7 +2561,7 @@ public class DeviceImpl extends Device_5POA {
     public PipeConfig[] get_pipe_config_5(final String[] names) throws DevFailed {
         xlogger.entry(Arrays.toString(names));
         // checkInitialization();
-        deviceMonitoring.startRequest("get_pipe_config_5 " + Arrays.toString(names));
+        deviceMonitoring.startRequest("get_pipe_config_5", names, null, null);
         // check if we must retrieve all attributes config
         final int length = names.length;
         boolean getAllConfig = false;
@@ -2628,7 +2611,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(name);
         final PipeImpl pipe = getPipe(name, pipeList);
-        deviceMonitoring.startRequest("read_pipe_5 " + name, clIdent);
+        deviceMonitoring.startRequest("read_pipe_5", name, null, clIdent);
         clientIdentity.set(clIdent);
         DevPipeData result = null;
         try {
@@ -2657,7 +2640,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(value.name);
         final PipeImpl pipe = getPipe(value.name, pipeList);
-        deviceMonitoring.startRequest("write_pipe_5 " + value.name, clIdent);
+        deviceMonitoring.startRequest("write_pipe_5", value.name, null, clIdent);
         clientIdentity.set(clIdent);
         try {
             aroundInvokeImpl.aroundInvoke(new InvocationContext(ContextType.PRE_PIPE_WRITE, CallType.UNKNOWN, clIdent,
@@ -2683,7 +2666,7 @@ public class DeviceImpl extends Device_5POA {
         MDC.put(MDC_KEY, name);
         xlogger.entry(name);
         final PipeImpl pipe = getPipe(name, pipeList);
-        deviceMonitoring.startRequest("write_read_pipe_5 " + name, clIdent);
+        deviceMonitoring.startRequest("write_read_pipe_5", name, null, clIdent);
         clientIdentity.set(clIdent);
         DevPipeData result = null;
         try {
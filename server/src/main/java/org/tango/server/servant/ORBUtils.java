@@ -24,6 +24,8 @@
  */
 package org.tango.server.servant;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
 
@@ -36,10 +38,13 @@ import org.omg.PortableServer.POAPackage.WrongAdapter;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
+import org.tango.client.database.Database;
 import org.tango.client.database.DatabaseFactory;
 import org.tango.client.database.DeviceExportInfo;
+import org.tango.client.database.ITangoDB;
 import org.tango.orb.IORDump;
 import org.tango.orb.ORBManager;
+import org.tango.server.monitoring.TangoStats;
 import org.tango.utils.DevFailedUtils;
 
 import fr.esrf.Tango.DevFailed;
@@ -63,6 +68,36 @@ public final class ORBUtils {
         }
     }
 
+    /**
+     * Export several devices. With a tango db, they are registered together.
+     * 
+     * @param devices
+     * @param hostName
+     * @param pid
+     * @throws DevFailed
+     */
+    public static void exportDevices(final List<DeviceImpl> devices, final String hostName, final String pid)
+            throws DevFailed {
+        if (DatabaseFactory.isUseDb()) {
+            final List<DeviceExportInfo> infos = new ArrayList<DeviceExportInfo>(devices.size());
+            for (final DeviceImpl dev : devices) {
+                infos.add(activateDevice(dev, hostName, pid));
+            }
+            final ITangoDB database = DatabaseFactory.getDatabase();
+            if (database instanceof Database) {
+                ((Database) database).exportDevices(infos);
+            } else {
+                for (final DeviceExportInfo info : infos) {
+                    database.exportDevice(info);
+                }
+            }
+        } else {
+            for (final DeviceImpl dev : devices) {
+                exportDeviceWithoutDatabase(dev);
+            }
+        }
+    }
+
     /**
      * description : This method exports a device to the outside world. This is done by sending its CORBA network
      * parameter (mainly the IOR) to the Tango database
@@ -73,7 +108,17 @@ public final class ORBUtils {
     private static void exportDeviceWithDatabase(final DeviceImpl dev, final String hostName, final String pid)
             throws DevFailed {
         XLOGGER.entry(dev.getName());
+        DatabaseFactory.getDatabase().exportDevice(activateDevice(dev, hostName, pid));
+        XLOGGER.exit();
+    }
 
+    /**
+     * Activate the CORBA object of a device
+     * 
+     * @return the network parameters of the device to register in the tango db
+     */
+    private static DeviceExportInfo activateDevice(final DeviceImpl dev, final String hostName, final String pid)
+            throws DevFailed {
         final ORB orb = ORBManager.getOrb();
         // Activate the CORBA object incarnated by the Java object
         final Device_5 d = dev._this(orb);
@@ -90,11 +135,8 @@ public final class ORBUtils {
             DevFailedUtils.throwDevFailed(e);
         }
 
-        final DeviceExportInfo info = new DeviceExportInfo(dev.getName(), orb.object_to_string(d), hostName,
+        return new DeviceExportInfo(dev.getName(), orb.object_to_string(d), hostName,
                 Integer.toString(DeviceImpl.SERVER_VERSION), pid, dev.getClassName());
-        DatabaseFactory.getDatabase().exportDevice(info);
-
-        XLOGGER.exit();
     }
 
     private static void exportDeviceWithoutDatabase(final DeviceImpl dev) throws DevFailed {
@@ -143,6 +185,7 @@ public final class ORBUtils {
         } catch (final WrongPolicy e) {
             DevFailedUtils.throwDevFailed(e);
         }
+        TangoStats.getInstance().removeDevice(device.getName());
         XLOGGER.exit();
     }
 
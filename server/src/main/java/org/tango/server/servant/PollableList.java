@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.tango.server.IPollable;
+
+/**
+ * The attributes or commands of a device, indexed by their lower case name. Reads and lookups do not lock and may run
+ * concurrently with additions and removals, which are serialized.
+ * @param <T> attribute or command type
+ */
+final class PollableList<T extends IPollable> extends AbstractList<T> implements RandomAccess {
+
+    private final CopyOnWriteArrayList<T> list = new CopyOnWriteArrayList<T>();
+    private final ConcurrentMap<String, T> index = new ConcurrentHashMap<String, T>();
+
+    /**
+     * Find an element
+     *
+     * @param name the name, case insensitive
+     * @return the first element with this name, or null
+     */
+    T find(final String name) {
+        if (name == null) {
+            return null;
+        }
+        return index.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public T get(final int i) {
+        return list.get(i);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * Iterate over a snapshot of the elements
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return list.iterator();
+    }
+
+    @Override
+    public synchronized void add(final int i, final T element) {
+        list.add(i, element);
+        final String key = element.getName().toLowerCase(Locale.ENGLISH);
+        final T previous = index.get(key);
+        if (previous == null || list.indexOf(element) < list.indexOf(previous)) {
+            index.put(key, element);
+        }
+    }
+
+    @Override
+    public synchronized T set(final int i, final T element) {
+        final T previous = list.set(i, element);
+        unindex(previous);
+        index.putIfAbsent(element.getName().toLowerCase(Locale.ENGLISH), element);
+        return previous;
+    }
+
+    @Override
+    public synchronized T remove(final int i) {
+        final T previous = list.remove(i);
+        unindex(previous);
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(final Object element) {
+        final int i = list.indexOf(element);
+        if (i < 0) {
+            return false;
+        }
+        remove(i);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        list.clear();
+        index.clear();
+    }
+
+    /**
+     * Remove an element from the index, falling back to a remaining element of the same name if any
+     */
+    private void unindex(final T element) {
+        final String key = element.getName().toLowerCase(Locale.ENGLISH);
+        if (index.get(key) == element) {
+            index.remove(key);
+            for (final T other : list) {
+                if (other.getName().equalsIgnoreCase(key)) {
+                    index.put(key, other);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -121,6 +121,12 @@ public final class JTangoTest {
     private double[] doubleSpectrum = {};
     @Attribute
     private double[][] doubleImage = {};
+    @Attribute(transferValueOwnership = true)
+    private double[] doubleSpectrumNoCopy = {};
+    @Attribute(isMemorized = true)
+    private double[] memorizedSpectrum = {};
+    @Attribute(isMemorized = true)
+    private int[][] memorizedImage = {};
     private byte byteScalar = 1;
     @Attribute
     private byte[] byteSpectrum = {};
@@ -515,6 +521,30 @@ public final class JTangoTest {
         System.arraycopy(doubleSpectrum, 0, this.doubleSpectrum, 0, doubleSpectrum.length);
     }
 
+    public double[] getDoubleSpectrumNoCopy() {
+        return Arrays.copyOf(doubleSpectrumNoCopy, doubleSpectrumNoCopy.length);
+    }
+
+    public void setDoubleSpectrumNoCopy(final double[] doubleSpectrumNoCopy) {
+        this.doubleSpectrumNoCopy = Arrays.copyOf(doubleSpectrumNoCopy, doubleSpectrumNoCopy.length);
+    }
+
+    public double[] getMemorizedSpectrum() {
+        return memorizedSpectrum;
+    }
+
+    public void setMemorizedSpectrum(final double[] memorizedSpectrum) {
+        this.memorizedSpectrum = memorizedSpectrum;
+    }
+
+    public int[][] getMemorizedImage() {
+        return memorizedImage;
+    }
+
+    public void setMemorizedImage(final int[][] memorizedImage) {
+        this.memorizedImage = memorizedImage;
+    }
+
     public double[][] getDoubleImage() {
         return ArrayUtils.copyOf(doubleImage);
     }
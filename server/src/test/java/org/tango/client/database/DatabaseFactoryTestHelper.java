@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.client.database;
+
+/**
+ * Gives the tests of other packages access to the test hooks of {@link DatabaseFactory}
+ */
+public final class DatabaseFactoryTestHelper {
+
+    private DatabaseFactoryTestHelper() {
+    }
+
+    /**
+     * Use a tango db implementation for all tango hosts
+     *
+     * @param database
+     */
+    public static void setDatabase(final ITangoDB database) {
+        DatabaseFactory.setDatabase(database);
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.logging;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.tango.server.servant.DeviceImpl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import fr.esrf.Tango.DevFailed;
+
+public class DeviceAppenderTest {
+
+    private static final String DEVICE = "test/logged/1";
+    private static final long NO_PERIODIC_FLUSH = TimeUnit.HOURS.toMillis(1);
+
+    private final RecordingSender sender = new RecordingSender();
+    private DeviceAppender appender;
+
+    @After
+    public void stop() {
+        if (appender != null && appender.isStarted()) {
+            appender.stop();
+        }
+        MDC.remove(DeviceImpl.MDC_KEY);
+    }
+
+    @Test
+    public void sendsByBatches() throws InterruptedException {
+        appender = new DeviceAppender(sender, "test/log/batch", DEVICE, 3, 100, NO_PERIODIC_FLUSH);
+        appender.start();
+        append(Level.DEBUG, 7);
+        final String[] first = sender.next();
+        assertThat(first.length, equalTo(3 * 6));
+        assertThat(first[3], equalTo("log 0"));
+        assertThat(first[9], equalTo("log 1"));
+        assertThat(first[15], equalTo("log 2"));
+        appender.stop();
+        int received = 3;
+        while (received < 7) {
+            final String[] records = sender.next();
+            assertTrue(records.length <= 3 * 6);
+            for (int i = 3; i < records.length; i += 6) {
+                assertThat(records[i], equalTo("log " + received++));
+            }
+        }
+        awaitSent(7);
+        assertThat(appender.getDroppedCount(), equalTo(0L));
+    }
+
+    @Test
+    public void flushesPeriodically() throws InterruptedException {
+        appender = new DeviceAppender(sender, "test/log/period", DEVICE, 100, 100, 50);
+        appender.start();
+        append(Level.INFO, 2);
+        final String[] records = sender.next();
+        assertThat(records.length, equalTo(2 * 6));
+        assertThat(records[1], equalTo("INFO"));
+        assertThat(records[3], equalTo("log 0"));
+        assertThat(records[9], equalTo("log 1"));
+    }
+
+    @Test
+    public void samplesThenDrops() throws InterruptedException {
+        appender = new DeviceAppender(sender, "test/log/drop", DEVICE, 100, 8, NO_PERIODIC_FLUSH);
+        appender.start();
+        // from 6 waiting logs, only warnings and errors are kept
+        append(Level.DEBUG, 8);
+        assertThat(appender.getSampledCount(), equalTo(2L));
+        append(Level.WARN, 3);
+        assertThat(appender.getDroppedCount(), equalTo(1L));
+        appender.stop();
+        final String[] records = sender.next();
+        assertThat(records.length, equalTo(8 * 6));
+        assertThat(records[6 * 6 + 1], equalTo("WARN"));
+        awaitSent(8);
+        assertThat(appender.getCallCount(), equalTo(1L));
+    }
+
+    @Test
+    public void ignoresOtherDevices() throws InterruptedException {
+        appender = new DeviceAppender(sender, "test/log/other", DEVICE, 1, 100, NO_PERIODIC_FLUSH);
+        appender.start();
+        MDC.put(DeviceImpl.MDC_KEY, "test/logged/2");
+        appender.doAppend(newEvent(Level.ERROR, "other"));
+        append(Level.INFO, 1);
+        assertThat(sender.next()[3], equalTo("log 0"));
+        awaitSent(1);
+    }
+
+    @Test
+    public void flushThreadEndsWithLastAppender() throws InterruptedException {
+        final String target = "test/log/shared";
+        final DeviceAppender other = new DeviceAppender(sender, target, DEVICE, 1, 100, NO_PERIODIC_FLUSH);
+        appender = new DeviceAppender(sender, target, DEVICE, 1, 100, NO_PERIODIC_FLUSH);
+        appender.start();
+        other.start();
+        other.stop();
+        append(Level.INFO, 1);
+        assertThat(sender.next()[3], equalTo("log 0"));
+        appender.stop();
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (isFlushThreadAlive(target) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat(isFlushThreadAlive(target), equalTo(false));
+        // a new start gets a new thread
+        appender.start();
+        append(Level.INFO, 1);
+        assertThat(sender.next()[3], equalTo("log 0"));
+    }
+
+    private static boolean isFlushThreadAlive(final String target) {
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("DeviceAppender flush to " + target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitSent(final long count) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (appender.getSentCount() < count && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat(appender.getSentCount(), equalTo(count));
+    }
+
+    private void append(final Level level, final int count) {
+        MDC.put(DeviceImpl.MDC_KEY, DEVICE);
+        for (int i = 0; i < count; i++) {
+            appender.doAppend(newEvent(level, "log " + i));
+        }
+    }
+
+    private static LoggingEvent newEvent(final Level level, final String message) {
+        return new LoggingEvent(DeviceAppenderTest.class.getName(),
+                (Logger) LoggerFactory.getLogger(DeviceAppenderTest.class), level, message, null, null);
+    }
+
+    private static final class RecordingSender implements DeviceAppender.LogSender {
+        private final BlockingQueue<String[]> calls = new LinkedBlockingQueue<String[]>();
+
+        @Override
+        public void send(final String[] records) throws DevFailed {
+            calls.add(records);
+        }
+
+        String[] next() throws InterruptedException {
+            final String[] records = calls.poll(5, TimeUnit.SECONDS);
+            assertTrue("no log sent", records != null);
+            return records;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PollingThreadPoolTest {
+
+    private PollingThreadPool pool;
+
+    @After
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void oneThreadPerDeviceUntilFull() {
+        pool = new PollingThreadPool(2, new String[0]);
+        pool.addDevice("test/dev/1");
+        pool.addDevice("test/dev/2");
+        pool.addDevice("test/dev/3");
+        assertThat(pool.getThreadCount(), equalTo(2));
+        assertThat(pool.getThreadId("test/dev/1"), equalTo(1));
+        assertThat(pool.getThreadId("test/dev/2"), equalTo(2));
+        assertThat(pool.getThreadId("test/dev/3"), equalTo(1));
+    }
+
+    @Test
+    public void configuredAffinity() {
+        pool = new PollingThreadPool(3, new String[] { "test/dev/1,test/dev/3", "test/dev/2" });
+        pool.addDevice("test/dev/2");
+        pool.addDevice("TEST/DEV/3");
+        pool.addDevice("test/dev/4");
+        assertThat(pool.getThreadId("test/dev/3"), equalTo(1));
+        assertThat(pool.getThreadId("test/dev/2"), equalTo(2));
+        assertThat(pool.getThreadId("test/dev/4"), equalTo(3));
+        assertThat(pool.getThreadId("test/dev/1"), equalTo(0));
+        assertThat(pool.getPoolConf(), equalTo(new String[] { "test/dev/1,test/dev/3", "test/dev/2", "test/dev/4" }));
+    }
+
+    @Test
+    public void configurationIsKept() {
+        pool = new PollingThreadPool(2, new String[] { "test/dev/1", "test/dev/2" });
+        assertThat(pool.addDevice("test/dev/2"), equalTo(false));
+        assertThat(pool.addDevice("test/dev/3"), equalTo(true));
+        assertThat(pool.addDevice("test/dev/3"), equalTo(false));
+        pool.removeDevice("test/dev/2");
+        assertThat(pool.getThreadId("test/dev/2"), equalTo(0));
+        assertThat(pool.getThreadId("test/dev/3"), equalTo(1));
+        assertThat(pool.getPoolConf(), equalTo(new String[] { "test/dev/1,test/dev/3", "test/dev/2" }));
+        pool.addDevice("test/dev/2");
+        assertThat(pool.getThreadId("test/dev/2"), equalTo(2));
+    }
+
+    @Test
+    public void configurationLargerThanPool() {
+        pool = new PollingThreadPool(1, new String[] { "test/dev/1", "test/dev/2" });
+        assertThat(pool.getPoolConf(), equalTo(new String[] { "test/dev/1,test/dev/2" }));
+        pool.addDevice("test/dev/2");
+        assertThat(pool.getThreadId("test/dev/2"), equalTo(1));
+    }
+
+    @Test
+    public void sameExecutorForADevice() {
+        pool = new PollingThreadPool(4, new String[0]);
+        assertThat(pool.getExecutor("test/dev/1"), equalTo(pool.getExecutor("Test/Dev/1")));
+        pool.removeDevice("test/dev/1");
+        assertThat(pool.getThreadId("test/dev/1"), equalTo(0));
+    }
+}
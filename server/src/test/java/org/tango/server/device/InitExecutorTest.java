@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.device;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class InitExecutorTest {
+
+    @Test(timeout = 10000)
+    public void initsOfADeviceInOrder() throws InterruptedException {
+        final InitExecutor initExecutor = new InitExecutor(4);
+        final Executor device = initExecutor.newDeviceExecutor("test/init/1");
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            final int index = i;
+            device.execute(new Runnable() {
+                @Override
+                public void run() {
+                    maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                    order.add(index);
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        assertThat(maxRunning.get(), equalTo(1));
+        for (int i = 0; i < 50; i++) {
+            assertThat(order.get(i), equalTo(i));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void threadsAreBounded() throws InterruptedException {
+        final InitExecutor initExecutor = new InitExecutor(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(5);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            initExecutor.newDeviceExecutor("test/init/" + i).execute(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                    }
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        // 2 inits are running, the 3 other ones are waiting
+        assertThat(initExecutor.getQueueSize(), equalTo(3));
+        release.countDown();
+        done.await();
+        assertThat(maxRunning.get(), equalTo(2));
+        TimeUnit.MILLISECONDS.sleep(10);
+        assertThat(initExecutor.getQueueSize(), equalTo(0));
+        assertTrue(initExecutor.getMaxLatency() >= 100);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.dynamic.attribute;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RunningSumTest {
+
+    private static final int NB_SOURCES = 3;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void missingElementsCountAsZero() {
+        final RunningSum sum = new RunningSum(NB_SOURCES);
+        sum.update(0, new double[] { 3, 6 });
+        assertArrayEquals(new double[] { 1, 2 }, sum.getAverage(), DELTA);
+        sum.update(1, new double[] { 3, 3, 9 });
+        assertArrayEquals(new double[] { 2, 3, 3 }, sum.getAverage(), DELTA);
+        // the longest source shrinks
+        sum.update(1, new double[] { 3 });
+        assertArrayEquals(new double[] { 2, 2 }, sum.getAverage(), DELTA);
+    }
+
+    @Test
+    public void differentLengthsAcrossResync() {
+        final Random random = new Random(42);
+        final RunningSum sum = new RunningSum(NB_SOURCES);
+        final double[][] values = new double[NB_SOURCES][];
+        for (int i = 0; i < 3 * RunningSum.RESYNC_PERIOD; i++) {
+            final int index = random.nextInt(NB_SOURCES);
+            // mostly the same length, sometimes another one
+            final double[] data = new double[random.nextInt(10) == 0 ? 1 + random.nextInt(5) : 4];
+            for (int x = 0; x < data.length; x++) {
+                data[x] = random.nextDouble() * 1e6;
+            }
+            values[index] = data;
+            sum.update(index, data);
+            assertArrayEquals("update " + i, average(values), sum.getAverage(), DELTA);
+        }
+    }
+
+    @Test
+    public void resyncRemovesRoundingErrors() {
+        final RunningSum sum = new RunningSum(2);
+        final double[] big = new double[] { 1e16 };
+        final double[] zero = new double[] { 0 };
+        sum.update(1, new double[] { 1 });
+        sum.update(0, zero);
+        // 1 + 1e16 is rounded to 1e16, so the running sum loses the 1 of the other source
+        for (int i = 2; i < RunningSum.RESYNC_PERIOD; i++) {
+            sum.update(0, i % 2 == 0 ? big : zero);
+        }
+        assertArrayEquals(new double[] { 0 }, sum.getAverage(), 0);
+        // the next update is computed again from the arrays
+        sum.update(0, zero);
+        assertArrayEquals(new double[] { 0.5 }, sum.getAverage(), 0);
+    }
+
+    private static double[] average(final double[][] values) {
+        int maxLength = 0;
+        for (final double[] data : values) {
+            if (data != null) {
+                maxLength = Math.max(maxLength, data.length);
+            }
+        }
+        final double[] avg = new double[maxLength];
+        for (final double[] data : values) {
+            if (data != null) {
+                for (int x = 0; x < data.length; x++) {
+                    avg[x] += data[x] / values.length;
+                }
+            }
+        }
+        return avg;
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.tango.server.events.AsyncEventPublisher.OverflowPolicy;
+
+import fr.esrf.Tango.DevFailed;
+
+public class AsyncEventPublisherTest {
+
+    // publisher threads are started after the submissions, so that events stay in the queue
+
+    @Test
+    public void dropOldest() throws Exception {
+        final RecordingSender sender = new RecordingSender();
+        final AsyncEventPublisher publisher = new AsyncEventPublisher(sender, 2, OverflowPolicy.DROP_OLDEST);
+        final AttributeEventIndex.Channels channels = new AttributeEventIndex.Channels();
+        final EventImpl change = newEvent("change");
+        for (int i = 0; i < 3; i++) {
+            publisher.submit("attr", channels, events(frames(change, i)));
+        }
+        assertThat(publisher.getQueueSize(), equalTo(2));
+        assertThat(publisher.getDropNr(), equalTo(1L));
+        assertThat(publisher.getCoalescedNr(), equalTo(0L));
+
+        // each queued event is sent with the value it was submitted with
+        assertThat(sender.await(publisher, 2), equalTo(Arrays.asList("change=1", "change=2")));
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        final RecordingSender sender = new RecordingSender();
+        final AsyncEventPublisher publisher = new AsyncEventPublisher(sender, 2, OverflowPolicy.COALESCE);
+        final AttributeEventIndex.Channels channels1 = new AttributeEventIndex.Channels();
+        final AttributeEventIndex.Channels channels2 = new AttributeEventIndex.Channels();
+        final AttributeEventIndex.Channels channels3 = new AttributeEventIndex.Channels();
+        final EventImpl change1 = newEvent("change1");
+        final EventImpl archive1 = newEvent("archive1");
+        final EventImpl change2 = newEvent("change2");
+        final EventImpl change3 = newEvent("change3");
+        for (int i = 0; i < 3; i++) {
+            publisher.submit("attr1", channels1, events(frames(change1, i)));
+            publisher.submit("attr2", channels2, events(frames(change2, i)));
+        }
+        // an archive event of attr1 is merged with its queued change event
+        publisher.submit("attr1", channels1, events(frames(archive1, 10)));
+        assertThat(publisher.getQueueSize(), equalTo(2));
+        assertThat(publisher.getCoalescedNr(), equalTo(4L));
+        assertThat(publisher.getDropNr(), equalTo(0L));
+
+        publisher.submit("attr3", channels3, events(frames(change3, 0)));
+        assertThat(publisher.getQueueSize(), equalTo(2));
+        assertThat(publisher.getDropNr(), equalTo(2L));
+        // attr1 has been dropped, it can be queued again
+        publisher.submit("attr1", channels1, events(frames(change1, 3)));
+        assertThat(publisher.getDropNr(), equalTo(3L));
+        assertThat(publisher.getCoalescedNr(), equalTo(4L));
+
+        // the latest value of each queued attribute is sent
+        assertThat(sender.await(publisher, 2), equalTo(Arrays.asList("change3=0", "change1=3")));
+    }
+
+    @Test
+    public void coalesceOnlyWhenFull() throws Exception {
+        final RecordingSender sender = new RecordingSender();
+        final AsyncEventPublisher publisher = new AsyncEventPublisher(sender, 10, OverflowPolicy.COALESCE);
+        final AttributeEventIndex.Channels channels = new AttributeEventIndex.Channels();
+        final EventImpl change = newEvent("change");
+        for (int i = 0; i < 3; i++) {
+            publisher.submit("attr", channels, events(frames(change, i)));
+        }
+        assertThat(publisher.getQueueSize(), equalTo(3));
+        assertThat(publisher.getCoalescedNr(), equalTo(0L));
+
+        assertThat(sender.await(publisher, 3), equalTo(Arrays.asList("change=0", "change=1", "change=2")));
+    }
+
+    @Test
+    public void coalesceKeepsLatestValue() throws Exception {
+        final RecordingSender sender = new RecordingSender();
+        final AsyncEventPublisher publisher = new AsyncEventPublisher(sender, 1, OverflowPolicy.COALESCE);
+        final AttributeEventIndex.Channels channels = new AttributeEventIndex.Channels();
+        final EventImpl change = newEvent("change");
+        final EventImpl periodic = newEvent("periodic");
+        publisher.submit("attr", channels, events(frames(change, 0), frames(periodic, 0)));
+        publisher.submit("attr", channels, events(frames(change, 1)));
+        publisher.submit("attr", channels, events(frames(periodic, 2)));
+        assertThat(publisher.getQueueSize(), equalTo(1));
+        assertThat(publisher.getCoalescedNr(), equalTo(2L));
+
+        assertThat(sender.await(publisher, 2), equalTo(Arrays.asList("change=1", "periodic=2")));
+    }
+
+    @Test
+    public void parsePolicy() {
+        assertThat(OverflowPolicy.parse("coalesce"), equalTo(OverflowPolicy.COALESCE));
+        assertThat(OverflowPolicy.parse("drop_oldest"), equalTo(OverflowPolicy.DROP_OLDEST));
+        assertThat(OverflowPolicy.parse("unknown"), equalTo(OverflowPolicy.DROP_OLDEST));
+    }
+
+    private static EventImpl newEvent(final String name) throws DevFailed {
+        return new EventImpl(5, name);
+    }
+
+    private static EventFrames frames(final EventImpl event, final int value) {
+        return new EventFrames(event, false, new byte[] { (byte) value });
+    }
+
+    private static List<EventFrames> events(final EventFrames... frames) {
+        return Arrays.asList(frames);
+    }
+
+    /**
+     * Records the sent events as name=value
+     */
+    private static final class RecordingSender implements AsyncEventPublisher.EventSender {
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void send(final EventFrames event) {
+            sent.add(event.getEvent().getFullName() + "=" + event.getData()[0]);
+        }
+
+        List<String> await(final AsyncEventPublisher publisher, final int count) throws InterruptedException {
+            publisher.start();
+            final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count && System.nanoTime() < end) {
+                Thread.sleep(1);
+            }
+            // nothing else must be sent
+            Thread.sleep(50);
+            publisher.stop();
+            synchronized (sent) {
+                return new ArrayList<String>(sent);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tango.utils.ArrayUtils;
+
+/**
+ * Cost of checking the change event criteria on large unchanged spectrums, for each numerical type. Run with
+ * -Dorg.tango.server.events.bulkCompare=true to measure the block comparison of double and float arrays.
+ */
+public class ChangeDetectionPerf {
+
+    private static final int SIZE = 100000;
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    private static final NumberChangeDetector DETECTOR = new NumberChangeDetector(true, 1, false, 0);
+    private static final NumberChangeDetector RELATIVE_DETECTOR = new NumberChangeDetector(false, 0, true, 1);
+
+    private static final double[] DOUBLES = new double[SIZE];
+    private static final double[] PREVIOUS_DOUBLES = new double[SIZE];
+    private static final float[] FLOATS = new float[SIZE];
+    private static final float[] PREVIOUS_FLOATS = new float[SIZE];
+    private static final int[] INTS = new int[SIZE];
+    private static final int[] PREVIOUS_INTS = new int[SIZE];
+    private static final short[] SHORTS = new short[SIZE];
+    private static final short[] PREVIOUS_SHORTS = new short[SIZE];
+    private static final long[] LONGS = new long[SIZE];
+    private static final long[] PREVIOUS_LONGS = new long[SIZE];
+    private static final byte[] BYTES = new byte[SIZE];
+    private static final byte[] PREVIOUS_BYTES = new byte[SIZE];
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            DOUBLES[i] = i + 0.25;
+            FLOATS[i] = i + 0.25f;
+            INTS[i] = i;
+            SHORTS[i] = (short) i;
+            LONGS[i] = i;
+            BYTES[i] = (byte) i;
+        }
+        System.arraycopy(DOUBLES, 0, PREVIOUS_DOUBLES, 0, SIZE);
+        System.arraycopy(FLOATS, 0, PREVIOUS_FLOATS, 0, SIZE);
+        System.arraycopy(INTS, 0, PREVIOUS_INTS, 0, SIZE);
+        System.arraycopy(SHORTS, 0, PREVIOUS_SHORTS, 0, SIZE);
+        System.arraycopy(LONGS, 0, PREVIOUS_LONGS, 0, SIZE);
+        System.arraycopy(BYTES, 0, PREVIOUS_BYTES, 0, SIZE);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void doubleArray() {
+        DETECTOR.hasArrayChanged(DOUBLES, PREVIOUS_DOUBLES);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void doubleArrayRelative() {
+        RELATIVE_DETECTOR.hasArrayChanged(DOUBLES, PREVIOUS_DOUBLES);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void floatArray() {
+        DETECTOR.hasArrayChanged(FLOATS, PREVIOUS_FLOATS);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void intArray() {
+        DETECTOR.hasArrayChanged(INTS, PREVIOUS_INTS);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void shortArray() {
+        DETECTOR.hasArrayChanged(SHORTS, PREVIOUS_SHORTS);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void longArray() {
+        DETECTOR.hasArrayChanged(LONGS, PREVIOUS_LONGS);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void byteArray() {
+        DETECTOR.hasArrayChanged(BYTES, PREVIOUS_BYTES);
+    }
+
+    /**
+     * The former comparison, through string conversion
+     */
+    @Test
+    @PerfTest(invocations = 20)
+    public void doubleArrayThroughStrings() {
+        final String[] val = ArrayUtils.toStringArray(DOUBLES);
+        final String[] previousVal = ArrayUtils.toStringArray(PREVIOUS_DOUBLES);
+        for (int i = 0; i < previousVal.length; i++) {
+            if (DETECTOR.hasChanged(Double.parseDouble(val[i]), Double.parseDouble(previousVal[i]))) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.AttributeDim;
+import fr.esrf.Tango.AttributeValue_5;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.TimeVal;
+import fr.esrf.TangoDs.TangoConst;
+
+/**
+ * Cost of encoding an attribute event, which is done once per event whatever the number of endpoints.
+ */
+public class EventMarshallingPerf {
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    private static final AttributeValue_5 SCALAR = buildValue(AttrDataFormat.SCALAR, 1, 0);
+    private static final AttributeValue_5 SPECTRUM = buildValue(AttrDataFormat.SPECTRUM, 1024, 0);
+    private static final AttributeValue_5 IMAGE = buildValue(AttrDataFormat.IMAGE, 512, 512);
+
+    private static AttributeValue_5 buildValue(final AttrDataFormat format, final int dimX, final int dimY) {
+        final AttrValUnion union = new AttrValUnion();
+        final int dataType;
+        if (format == AttrDataFormat.IMAGE) {
+            union.short_att_value(new short[dimX * dimY]);
+            dataType = TangoConst.Tango_DEV_SHORT;
+        } else {
+            union.double_att_value(new double[dimX]);
+            dataType = TangoConst.Tango_DEV_DOUBLE;
+        }
+        return new AttributeValue_5(union, AttrQuality.ATTR_VALID, format, dataType, new TimeVal(0, 0, 0), "perf",
+                new AttributeDim(dimX, dimY), new AttributeDim(0, 0), new DevError[0]);
+    }
+
+    @Test
+    @PerfTest(invocations = 100000)
+    public void scalar() throws DevFailed {
+        EventUtilities.marshallIDL5(SCALAR);
+    }
+
+    @Test
+    @PerfTest(invocations = 100000)
+    public void spectrum() throws DevFailed {
+        EventUtilities.marshallIDL5(SPECTRUM);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void image() throws DevFailed {
+        EventUtilities.marshallIDL5(IMAGE);
+    }
+}
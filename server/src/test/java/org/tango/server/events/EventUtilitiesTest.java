@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.jacorb.orb.CDROutputStream;
+import org.junit.Test;
+
+import fr.esrf.Tango.AttDataReady;
+import fr.esrf.Tango.AttDataReadyHelper;
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.AttributeDim;
+import fr.esrf.Tango.AttributeValue_5;
+import fr.esrf.Tango.AttributeValue_5Helper;
+import fr.esrf.Tango.DevEncoded;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.TimeVal;
+import fr.esrf.Tango.ZmqCallInfo;
+import fr.esrf.Tango.ZmqCallInfoHelper;
+
+public class EventUtilitiesTest {
+
+    private static final byte[] CPP_ALIGNMENT = { (byte) 0xc0, (byte) 0xde, (byte) 0xc0, (byte) 0xde };
+
+    @Test
+    public void marshallWithAlignment() throws DevFailed {
+        final AttDataReady dataReady = new AttDataReady("attr", 5, 12);
+        final CDROutputStream os = new CDROutputStream();
+        AttDataReadyHelper.write(os, dataReady);
+        final byte[] expected = os.getBufferCopy();
+        os.close();
+
+        final byte[] frame = EventUtilities.marshall(dataReady);
+        assertThat(frame.length, equalTo(expected.length + CPP_ALIGNMENT.length));
+        assertThat(Arrays.copyOf(frame, CPP_ALIGNMENT.length), equalTo(CPP_ALIGNMENT));
+        assertThat(Arrays.copyOfRange(frame, CPP_ALIGNMENT.length, frame.length), equalTo(expected));
+    }
+
+    @Test
+    public void marshallCallInfo() throws DevFailed {
+        final CDROutputStream os = new CDROutputStream();
+        ZmqCallInfoHelper.write(os, new ZmqCallInfo(EventConstants.ZMQ_RELEASE, 3, EventConstants.EXECUTE_METHOD,
+                EventConstants.OBJECT_IDENTIFIER, false));
+        final byte[] expected = os.getBufferCopy();
+        os.close();
+
+        assertThat(EventUtilities.marshall(3, false), equalTo(expected));
+    }
+
+    @Test
+    public void marshallScalar() throws DevFailed {
+        final AttrValUnion union = new AttrValUnion();
+        union.double_att_value(new double[] { 1.5 });
+        checkFrame(attributeValue(union, AttrDataFormat.SCALAR, 1, 0));
+    }
+
+    @Test
+    public void marshallSpectrum() throws DevFailed {
+        final AttrValUnion union = new AttrValUnion();
+        union.uchar_att_value(bytes(100000));
+        checkFrame(attributeValue(union, AttrDataFormat.SPECTRUM, 100000, 0));
+    }
+
+    @Test
+    public void marshallImage() throws DevFailed {
+        final AttrValUnion union = new AttrValUnion();
+        union.uchar_att_value(bytes(1024 * 1024));
+        checkFrame(attributeValue(union, AttrDataFormat.IMAGE, 1024, 1024));
+    }
+
+    @Test
+    public void marshallLargeEncoded() throws DevFailed {
+        final AttrValUnion union = new AttrValUnion();
+        union.encoded_att_value(new DevEncoded[] { new DevEncoded("jpeg", bytes(3 * 1024 * 1024 + 3)) });
+        checkFrame(attributeValue(union, AttrDataFormat.SCALAR, 1, 0));
+    }
+
+    @Test
+    public void reusedStreamStartsEmpty() throws DevFailed {
+        // the same thread encodes a call info, a large value that is not kept, then small values
+        final AttrValUnion large = new AttrValUnion();
+        large.uchar_att_value(bytes(100000));
+        final AttrValUnion small = new AttrValUnion();
+        small.double_att_value(new double[] { 1.5 });
+        EventUtilities.marshall(1, true);
+        checkFrame(attributeValue(large, AttrDataFormat.SPECTRUM, 100000, 0));
+        checkFrame(attributeValue(small, AttrDataFormat.SCALAR, 1, 0));
+        checkFrame(attributeValue(small, AttrDataFormat.SCALAR, 1, 0));
+        marshallCallInfo();
+    }
+
+    private static AttributeValue_5 attributeValue(final AttrValUnion union, final AttrDataFormat format,
+            final int dimX, final int dimY) {
+        return new AttributeValue_5(union, AttrQuality.ATTR_VALID, format, 0, new TimeVal(1, 2, 3), "attr",
+                new AttributeDim(dimX, dimY), new AttributeDim(0, 0), new DevError[0]);
+    }
+
+    private static byte[] bytes(final int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + 7);
+        }
+        return data;
+    }
+
+    private static void checkFrame(final AttributeValue_5 value) throws DevFailed {
+        final CDROutputStream os = new CDROutputStream();
+        AttributeValue_5Helper.write(os, value);
+        final byte[] expected = os.getBufferCopy();
+        os.close();
+
+        final byte[] frame = EventUtilities.marshallIDL5(value);
+        assertThat(frame.length, equalTo(expected.length + CPP_ALIGNMENT.length));
+        assertThat(Arrays.copyOf(frame, CPP_ALIGNMENT.length), equalTo(CPP_ALIGNMENT));
+        assertThat(Arrays.equals(Arrays.copyOfRange(frame, CPP_ALIGNMENT.length, frame.length), expected),
+                equalTo(true));
+    }
+}
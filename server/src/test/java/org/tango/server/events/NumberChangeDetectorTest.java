@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class NumberChangeDetectorTest {
+
+    private final NumberChangeDetector absolute = new NumberChangeDetector(true, 1, false, 0);
+    private final NumberChangeDetector relative = new NumberChangeDetector(false, 0, true, 10);
+
+    @Test
+    public void scalar() {
+        assertThat(absolute.hasScalarChanged(10.0, 10.5), equalTo(false));
+        assertThat(absolute.hasScalarChanged(10.0, 11.0), equalTo(true));
+        assertThat(absolute.hasScalarChanged((short) 3, (short) 1), equalTo(true));
+        assertThat(absolute.hasScalarChanged("3", "2.5"), equalTo(false));
+        assertThat(relative.hasScalarChanged(105L, 100L), equalTo(false));
+        assertThat(relative.hasScalarChanged(90L, 100L), equalTo(true));
+        assertThat(relative.hasScalarChanged(0, 0), equalTo(false));
+        assertThat(relative.hasScalarChanged(1, 0), equalTo(true));
+    }
+
+    @Test
+    public void arrays() {
+        assertThat(absolute.hasArrayChanged(new double[] { 1, 2, 3 }, new double[] { 1, 2, 3.5 }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new double[] { 1, 2, 3 }, new double[] { 1, 2, 4 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new float[] { 1, 2, 3 }, new float[] { 1, 2, 3.5f }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new float[] { 1, 2, 3 }, new float[] { 0, 2, 3 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new int[] { 1, 2, 3 }, new int[] { 1, 2, 3 }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new int[] { 1, 2, 3 }, new int[] { 1, 5, 3 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new short[] { 1, 2 }, new short[] { 1, 2 }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new short[] { 1, 2 }, new short[] { 1, -2 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new long[] { 1, 2 }, new long[] { 1, 2 }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new long[] { 1, 2 }, new long[] { 3, 2 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new byte[] { 1, 2 }, new byte[] { 1, 2 }), equalTo(false));
+        assertThat(absolute.hasArrayChanged(new byte[] { 1, 2 }, new byte[] { 1, 4 }), equalTo(true));
+        assertThat(absolute.hasArrayChanged(new Double[] { 1.0, 2.0 }, new Double[] { 1.0, 4.0 }), equalTo(true));
+    }
+
+    @Test
+    public void relativeArrays() {
+        // 1000 -> 1050 is 5%, but 50 with the former precedence error
+        assertThat(relative.hasArrayChanged(new double[] { 1050 }, new double[] { 1000 }), equalTo(false));
+        assertThat(relative.hasArrayChanged(new int[] { 1, 1200 }, new int[] { 1, 1000 }), equalTo(true));
+        assertThat(relative.hasArrayChanged(new int[] { 0, 0 }, new int[] { 0, 0 }), equalTo(false));
+        assertThat(relative.hasArrayChanged(new int[] { 0, 1 }, new int[] { 0, 0 }), equalTo(true));
+    }
+
+    @Test
+    public void noCriteria() {
+        final NumberChangeDetector none = new NumberChangeDetector(false, 0, false, 0);
+        assertThat(none.hasArrayChanged(new double[] { 1 }, new double[] { 1000 }), equalTo(false));
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.export;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.tango.client.database.DatabaseFactory;
+import org.tango.client.database.DatabaseFactoryTestHelper;
+import org.tango.client.database.ITangoDB;
+import org.tango.orb.ORBManager;
+import org.tango.server.annotation.Attribute;
+import org.tango.server.annotation.Device;
+import org.tango.server.annotation.Init;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Time for a server with many devices to be ready, depending on the number of threads building them. The devices are
+ * exported one by one to an in-process stand-in of the tango db, through {@link ITangoDB#exportDevice}, that simulates
+ * the network round trip and the processing time of each exported device. The pipelined export of a real tango db is
+ * covered by NoCacheDatabaseTest.
+ */
+public class TangoExporterPerf {
+
+    private static final int NB_DEVICES = 5000;
+    private static final String CLASS_NAME = "ExportDevice";
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long EXPORT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    @Device
+    public static final class ExportDevice {
+        @Attribute
+        private double value;
+
+        @Init
+        public void init() throws InterruptedException {
+            // stands for reading the device configuration
+            Thread.sleep(1);
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public void setValue(final double value) {
+            this.value = value;
+        }
+    }
+
+    @BeforeClass
+    public static void initOrb() throws DevFailed {
+        // the test configuration logs each device creation
+        ((Logger) LoggerFactory.getLogger("org.tango")).setLevel(Level.INFO);
+        ORBManager.init(false, "dserver/TangoExporterPerf/1");
+    }
+
+    @Test
+    @PerfTest(invocations = 1)
+    public void sequential() throws Exception {
+        export("sequential", 1);
+    }
+
+    @Test
+    @PerfTest(invocations = 1)
+    public void parallel() throws Exception {
+        export("parallel", 8);
+    }
+
+    private void export(final String domain, final int threads) throws Exception {
+        final String[] devices = new String[NB_DEVICES];
+        for (int i = 0; i < NB_DEVICES; i++) {
+            devices[i] = domain + "/export/" + i;
+        }
+        DatabaseFactory.setNoDbDevices(devices, CLASS_NAME);
+        DatabaseFactoryTestHelper.setDatabase(newSlowExportDatabase(DatabaseFactory.getDatabase()));
+        final TangoExporter exporter = new TangoExporter(InetAddress.getLocalHost().getHostName(), "TangoExporterPerf/1", "0",
+                Collections.<String, Class<?>> singletonMap(CLASS_NAME, ExportDevice.class));
+        exporter.setExportThreads(threads);
+        exporter.exportDevices();
+        exporter.unexportDevices();
+    }
+
+    /**
+     * @param database the stand-in of the tango db for all requests but the exports
+     * @return a tango db which exports wait like a remote tango db
+     */
+    private static ITangoDB newSlowExportDatabase(final ITangoDB database) {
+        return (ITangoDB) Proxy.newProxyInstance(ITangoDB.class.getClassLoader(), new Class<?>[] { ITangoDB.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args)
+                            throws Throwable {
+                        if (method.getName().equals("exportDevice")) {
+                            LockSupport.parkNanos(ROUND_TRIP_NANOS + EXPORT_NANOS);
+                        }
+                        try {
+                            return method.invoke(database, args);
+                        } catch (final InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.history;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tango.orb.ORBManager;
+import org.tango.server.attribute.AttributeHistory;
+import org.tango.server.attribute.AttributeValue;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.TangoDs.TangoConst;
+
+/**
+ * Cost of recording the value of a polled spectrum attribute in a deep poll ring, and of reading the whole history.
+ */
+public class AttributeHistoryPerf {
+
+    private static final int DEPTH = 1000;
+    private static final int LENGTH = 1000;
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    private static final AttributeHistory HISTORY = new AttributeHistory("spectrum", true, TangoConst.Tango_DEV_DOUBLE,
+            AttrDataFormat.SPECTRUM);
+    private static final DevError[] NO_ERROR = new DevError[0];
+    private static AttributeValue writeValue;
+
+    @BeforeClass
+    public static void fill() throws DevFailed {
+        // to create the Any of the replies
+        ORBManager.init(false, "dserver/AttributeHistoryPerf/1");
+        HISTORY.setMaxSize(DEPTH);
+        writeValue = new AttributeValue(new double[LENGTH], AttrQuality.ATTR_VALID);
+        for (int i = 0; i < DEPTH; i++) {
+            add();
+        }
+    }
+
+    private static void add() throws DevFailed {
+        HISTORY.addToHistory(new AttributeValue(new double[LENGTH], AttrQuality.ATTR_VALID), writeValue, NO_ERROR);
+    }
+
+    @Test
+    @PerfTest(invocations = 100000)
+    public void insert() throws DevFailed {
+        add();
+    }
+
+    @Test
+    @PerfTest(invocations = 50)
+    public void read() throws DevFailed {
+        HISTORY.getAttrHistory5(DEPTH);
+    }
+}
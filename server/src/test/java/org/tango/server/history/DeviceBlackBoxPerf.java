@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.history;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import fr.esrf.Tango.ClntIdent;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevSource;
+
+/**
+ * Cost of recording a request in the black box, paid by every client request, and of reading it.
+ */
+public class DeviceBlackBoxPerf {
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    private static final DeviceBlackBox BLACK_BOX = new DeviceBlackBox();
+    private static final ClntIdent CLIENT = new ClntIdent();
+    static {
+        CLIENT.cpp_clnt(1234);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000000, threads = 4)
+    public void insert() {
+        BLACK_BOX.insertInblackBox("read_attributes_5", DevSource.CACHE_DEV, CLIENT);
+    }
+
+    @Test
+    @PerfTest(invocations = 1000)
+    public void read() throws DevFailed {
+        BLACK_BOX.insertInblackBox("command_inout_4", CLIENT);
+        BLACK_BOX.toArray(50);
+    }
+}
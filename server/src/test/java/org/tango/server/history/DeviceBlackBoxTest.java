@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.history;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.tango.server.Constants;
+
+import fr.esrf.Tango.ClntIdent;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevSource;
+
+public class DeviceBlackBoxTest {
+
+    @Test(expected = DevFailed.class)
+    public void empty() throws DevFailed {
+        new DeviceBlackBox().toArray(10);
+    }
+
+    @Test
+    public void lastRequestsFirst() throws DevFailed {
+        final DeviceBlackBox blackBox = new DeviceBlackBox();
+        final ClntIdent client = new ClntIdent();
+        client.cpp_clnt(1234);
+        for (int i = 0; i < Constants.QUEUE_CAPACITY * 2; i++) {
+            blackBox.insertInblackBox("request " + i, DevSource.DEV);
+        }
+        blackBox.insertInblackBox("last", client);
+
+        final String[] result = blackBox.toArray(3);
+        assertThat(result.length, equalTo(3));
+        assertTrue(result[0], result[0].endsWith(" : last from  \"1234\""));
+        final int last = Constants.QUEUE_CAPACITY * 2 - 1;
+        assertTrue(result[1], result[1].endsWith(" : request " + last + " from DEV"));
+        assertTrue(result[2], result[2].endsWith(" : request " + (last - 1) + " from DEV"));
+
+        // the ring only keeps the last requests
+        assertThat(blackBox.toArray(Integer.MAX_VALUE).length, equalTo(Constants.QUEUE_CAPACITY - 1));
+    }
+
+    @Test
+    public void sameTextAsFormattedOnInsert() throws DevFailed {
+        final DeviceBlackBox blackBox = new DeviceBlackBox();
+        blackBox.insertInblackBox("get_attribute_config_5", new String[] { "a", "b" }, DevSource.CACHE, null);
+        blackBox.insertInblackBox("command_inout_4", "State", DevSource.DEV, null);
+        blackBox.insertInblackBox("Operation ping", DevSource.DEV);
+
+        final String[] result = blackBox.toArray(3);
+        assertTrue(result[0], result[0].endsWith(" : Operation ping from DEV"));
+        assertTrue(result[1], result[1].endsWith(" : Operation command_inout_4 (cmd = State) from DEV"));
+        assertTrue(result[2], result[2].endsWith(" : get_attribute_config_5 [a, b] from CACHE"));
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.history;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevState;
+import fr.esrf.Tango.ErrSeverity;
+
+public class HistoryRingTest {
+
+    private static final DevError[] NO_ERROR = new DevError[0];
+
+    @Test
+    public void scalars() {
+        final HistoryRing ring = new HistoryRing(3, true);
+        for (int i = 1; i <= 5; i++) {
+            ring.add(i, AttrQuality.ATTR_VALID, Double.valueOf(i), 1, 0, Double.valueOf(-i), 1, 0, NO_ERROR);
+        }
+        assertThat(ring.size(), equalTo(3));
+        assertThat(ring.getTime(0), equalTo(3L));
+        assertThat(ring.getTime(2), equalTo(5L));
+        // last record first, read then write
+        assertThat((double[]) ring.getValues(0), equalTo(new double[] { 5, -5, 4, -4, 3, -3 }));
+        assertThat((double[]) ring.getValues(2), equalTo(new double[] { 5, -5 }));
+    }
+
+    @Test
+    public void spectrums() {
+        final HistoryRing ring = new HistoryRing(2, false);
+        final int[] value = new int[] { 1, 2, 3 };
+        ring.add(1, AttrQuality.ATTR_VALID, value, 3, 0, null, 0, 0, NO_ERROR);
+        // the value is copied
+        value[0] = 10;
+        ring.add(2, AttrQuality.ATTR_ALARM, value, 3, 0, null, 0, 0, NO_ERROR);
+        ring.add(3, AttrQuality.ATTR_VALID, new int[] { 4 }, 1, 0, null, 0, 0, NO_ERROR);
+        assertThat((int[]) ring.getValues(0), equalTo(new int[] { 4, 10, 2, 3 }));
+        assertThat(ring.getQuality(0), equalTo(AttrQuality.ATTR_ALARM));
+        assertThat(ring.getReadDimX(1), equalTo(1));
+    }
+
+    @Test
+    public void images() {
+        final HistoryRing ring = new HistoryRing(2, false);
+        ring.add(1, AttrQuality.ATTR_VALID, new short[][] { { 1, 2 }, { 3, 4 } }, 2, 2, null, 0, 0, NO_ERROR);
+        assertThat((short[]) ring.getValues(0), equalTo(new short[] { 1, 2, 3, 4 }));
+        assertThat(ring.getReadDimY(0), equalTo(2));
+    }
+
+    @Test
+    public void objects() {
+        final HistoryRing ring = new HistoryRing(2, false);
+        ring.add(1, AttrQuality.ATTR_VALID, DevState.ON, 1, 0, null, 0, 0, NO_ERROR);
+        ring.add(2, AttrQuality.ATTR_VALID, DevState.FAULT, 1, 0, null, 0, 0, NO_ERROR);
+        assertThat((DevState[]) ring.getValues(0), equalTo(new DevState[] { DevState.FAULT, DevState.ON }));
+    }
+
+    @Test
+    public void errors() {
+        final HistoryRing ring = new HistoryRing(3, false);
+        final DevError[] error = new DevError[] { new DevError("reason", ErrSeverity.ERR, "desc", "origin") };
+        ring.add(1, AttrQuality.ATTR_VALID, 1L, 1, 0, null, 0, 0, NO_ERROR);
+        ring.add(2, AttrQuality.ATTR_INVALID, 2L, 1, 0, null, 0, 0, error);
+        ring.add(3, AttrQuality.ATTR_VALID, 3L, 1, 0, null, 0, 0, null);
+        assertThat(ring.getErrors(1)[0].reason, equalTo("reason"));
+        assertThat(ring.getErrors(2), equalTo(null));
+        // failed records have no value
+        assertThat((long[]) ring.getValues(0), equalTo(new long[] { 3, 1 }));
+        // the error is dropped with its record
+        ring.add(4, AttrQuality.ATTR_VALID, 4L, 1, 0, null, 0, 0, NO_ERROR);
+        ring.add(5, AttrQuality.ATTR_VALID, 5L, 1, 0, null, 0, 0, NO_ERROR);
+        assertThat(ring.getErrors(0), equalTo(null));
+        assertThat(ring.getValues(3), equalTo(null));
+    }
+
+    @Test
+    public void resize() {
+        final HistoryRing ring = new HistoryRing(4, false);
+        for (int i = 1; i <= 6; i++) {
+            ring.add(i, AttrQuality.ATTR_VALID, new float[] { i }, 1, 0, null, 0, 0, NO_ERROR);
+        }
+        ring.setCapacity(2);
+        assertThat(ring.size(), equalTo(2));
+        assertThat((float[]) ring.getValues(0), equalTo(new float[] { 6, 5 }));
+        ring.setCapacity(3);
+        ring.add(7, AttrQuality.ATTR_VALID, new float[] { 7 }, 1, 0, null, 0, 0, NO_ERROR);
+        assertThat((float[]) ring.getValues(0), equalTo(new float[] { 7, 6, 5 }));
+    }
+
+    @Test
+    public void typeChangeClearsRecords() {
+        final HistoryRing ring = new HistoryRing(4, false);
+        ring.add(1, AttrQuality.ATTR_VALID, Integer.valueOf(1), 1, 0, null, 0, 0, NO_ERROR);
+        ring.add(2, AttrQuality.ATTR_VALID, Integer.valueOf(2), 1, 0, null, 0, 0, NO_ERROR);
+        ring.add(3, AttrQuality.ATTR_VALID, new int[] { 3, 4 }, 2, 0, null, 0, 0, NO_ERROR);
+        assertThat(ring.size(), equalTo(1));
+        assertThat(ring.getTime(0), equalTo(3L));
+        assertThat((int[]) ring.getValues(0), equalTo(new int[] { 3, 4 }));
+        ring.add(4, AttrQuality.ATTR_VALID, new double[] { 5 }, 1, 0, null, 0, 0, NO_ERROR);
+        assertThat(ring.size(), equalTo(1));
+        assertThat((double[]) ring.getValues(0), equalTo(new double[] { 5 }));
+    }
+
+    @Test
+    public void memoryFootprint() {
+        final HistoryRing ring = new HistoryRing(1000, false);
+        assertThat(ring.getMemoryFootprint(), equalTo(0L));
+        for (int i = 0; i < 1000; i++) {
+            ring.add(i, AttrQuality.ATTR_VALID, new double[100], 100, 0, null, 0, 0, NO_ERROR);
+        }
+        final long footprint = ring.getMemoryFootprint();
+        assertThat(footprint > 800000 && footprint < 900000, equalTo(true));
+        ring.clear();
+        assertThat(ring.getMemoryFootprint(), equalTo(0L));
+    }
+}
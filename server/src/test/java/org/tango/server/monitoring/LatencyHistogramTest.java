@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.monitoring;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverAllValues() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            final int bucket = LatencyHistogram.getBucket(micros);
+            assertTrue(bucket == previous || bucket == previous + 1);
+            assertTrue(micros <= LatencyHistogram.getBucketMax(bucket));
+            // less than 12.5% error
+            assertTrue(LatencyHistogram.getBucketMax(bucket) - micros <= micros / LatencyHistogram.SUB_BUCKETS);
+            previous = bucket;
+        }
+        assertThat(LatencyHistogram.getBucket(Long.MAX_VALUE), equalTo(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void percentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram(true);
+        assertThat(histogram.getPercentile(50), equalTo(0.0));
+        // 1 to 1000 ms
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat(histogram.getCount(), equalTo(1000L));
+        final double[] percentiles = histogram.getPercentiles(50, 99, 99.9);
+        assertTrue(Double.toString(percentiles[0]), percentiles[0] >= 500 && percentiles[0] < 500 * 1.125);
+        assertTrue(Double.toString(percentiles[1]), percentiles[1] >= 990 && percentiles[1] < 990 * 1.125);
+        assertTrue(Double.toString(percentiles[2]), percentiles[2] >= 999 && percentiles[2] < 999 * 1.125);
+        histogram.reset();
+        assertThat(histogram.getCount(), equalTo(0L));
+    }
+}
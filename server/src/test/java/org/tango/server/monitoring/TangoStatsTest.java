@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.monitoring;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Test;
+
+public class TangoStatsTest {
+
+    private static final String DEVICE_NAME = "test/stats/1";
+
+    @Test
+    public void removedDeviceIsForgotten() {
+        final TangoStats stats = TangoStats.getInstance();
+        final ConcurrentMap<String, RequestStats> operations = stats.getDeviceStats(DEVICE_NAME);
+        operations.put("command_inout", new RequestStats(DEVICE_NAME, "command_inout"));
+        assertThat(stats.getDeviceStats(DEVICE_NAME) == operations, equalTo(true));
+
+        stats.removeDevice(DEVICE_NAME);
+        assertThat(stats.getDeviceStats(DEVICE_NAME).isEmpty(), equalTo(true));
+        stats.removeDevice(DEVICE_NAME);
+    }
+
+    @Test
+    public void noDurationBeforeFirstRequest() {
+        final TangoStats stats = TangoStats.getInstance();
+        stats.resetStats();
+        assertThat(stats.getMaxRequestDuration(), equalTo(0L));
+        assertThat(stats.getAverageRequestDuration(), equalTo(0L));
+    }
+
+    @Test
+    public void durationsAreCreatedByTheFirstOne() {
+        final RequestStats request = new RequestStats(DEVICE_NAME, "ping");
+        request.addRequest();
+        assertThat(request.getDurations() == null, equalTo(true));
+
+        request.addDuration(1000);
+        assertThat(request.getDurations().getCount(), equalTo(1L));
+        request.reset();
+        assertThat(request.getDurations().getCount(), equalTo(0L));
+    }
+}
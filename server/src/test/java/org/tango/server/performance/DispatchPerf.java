@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.performance;
+
+import java.lang.reflect.Method;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.tango.server.attribute.AttributeConfiguration;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.attribute.ReflectAttributeBehavior;
+import org.tango.server.command.CommandConfiguration;
+import org.tango.server.command.ReflectCommandBehavior;
+import org.tango.server.idl.CleverAttrValUnion;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DispLevel;
+
+/**
+ * Cost of dispatching attribute reads and writes and commands to the device methods, compared with the former
+ * reflection path that resolved the parameter types and the union accessors on each call.
+ */
+public class DispatchPerf {
+
+    private static final int INVOCATIONS = 200000;
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    public static final class Device {
+        private double value;
+
+        public double getValue() {
+            return value;
+        }
+
+        public void setValue(final double value) {
+            this.value = value;
+        }
+
+        public double increment(final double delta) {
+            value += delta;
+            return value;
+        }
+    }
+
+    private static final Device DEVICE = new Device();
+    private static final Method GETTER;
+    private static final Method SETTER;
+    private static final Method COMMAND;
+    private static final ReflectAttributeBehavior ATTRIBUTE;
+    private static final ReflectCommandBehavior CMD;
+    private static final AttributeValue WRITE_VALUE;
+    private static final AttrValUnion UNION = new AttrValUnion();
+    static {
+        try {
+            GETTER = Device.class.getMethod("getValue");
+            SETTER = Device.class.getMethod("setValue", double.class);
+            COMMAND = Device.class.getMethod("increment", double.class);
+            final AttributeConfiguration config = new AttributeConfiguration();
+            config.setName("value");
+            config.setType(double.class);
+            ATTRIBUTE = new ReflectAttributeBehavior(config, DEVICE, GETTER, SETTER);
+            CMD = new ReflectCommandBehavior(COMMAND, DEVICE, new CommandConfiguration("increment", double.class,
+                    double.class, "", "", DispLevel.OPERATOR, false, 0));
+            WRITE_VALUE = new AttributeValue(2.0);
+        } catch (final Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        UNION.double_att_value(new double[] { 1.0 });
+    }
+
+    private static Level previousLevel;
+
+    @BeforeClass
+    public static void disableDebug() {
+        // the test configuration logs each read
+        final Logger logger = (Logger) LoggerFactory.getLogger("org.tango");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterClass
+    public static void restoreLevel() {
+        // null inherits the level of the parent logger again
+        ((Logger) LoggerFactory.getLogger("org.tango")).setLevel(previousLevel);
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void read() throws DevFailed {
+        ATTRIBUTE.getValue();
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void write() throws DevFailed {
+        ATTRIBUTE.setValue(WRITE_VALUE);
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void command() throws DevFailed {
+        CMD.execute(1.0);
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void extractWriteValue() throws DevFailed {
+        CleverAttrValUnion.get(UNION, AttrDataFormat.SCALAR);
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void readReflection() throws Exception {
+        new AttributeValue(GETTER.invoke(DEVICE));
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void writeReflection() throws Exception {
+        final Class<?> param = toPrimitive(SETTER.getParameterTypes()[0]);
+        final Class<?> input = toPrimitive(WRITE_VALUE.getValue().getClass());
+        if (param.isAssignableFrom(input) && SETTER.getParameterTypes().length == 1) {
+            SETTER.invoke(DEVICE, WRITE_VALUE.getValue());
+        }
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void commandReflection() throws Exception {
+        final Object arg = 1.0;
+        final Class<?> param = toPrimitive(COMMAND.getParameterTypes()[0]);
+        final Class<?> input = toPrimitive(arg.getClass());
+        if (param.isAssignableFrom(input)) {
+            COMMAND.invoke(DEVICE, arg);
+        }
+    }
+
+    @Test
+    @PerfTest(invocations = INVOCATIONS)
+    public void extractWriteValueReflection() throws Exception {
+        UNION.getClass().getMethod("double_att_value").invoke(UNION);
+    }
+
+    private static Class<?> toPrimitive(final Class<?> type) {
+        if (Number.class.isAssignableFrom(type) || Boolean.class.isAssignableFrom(type)) {
+            return ClassUtils.wrapperToPrimitive(type);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.performance;
+
+import org.databene.contiperf.PerfTest;
+import org.databene.contiperf.junit.ContiPerfRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.cache.CacheEntryFactory;
+import org.tango.server.cache.PollingCache;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Cost of the polling cache without any device access: one poll (refresh) and one client read from cache.
+ */
+public class PollingCachePerf {
+
+    @Rule
+    public ContiPerfRule rule = new ContiPerfRule();
+
+    private static final PollingCache CACHE = new PollingCache("perf", new CacheEntryFactory() {
+        private final AttributeValue value = new AttributeValue();
+
+        @Override
+        public Object createEntry() {
+            return value;
+        }
+    });
+
+    @Test
+    @PerfTest(invocations = 1000000)
+    public void refreshAndGet() throws DevFailed {
+        CACHE.refresh();
+        CACHE.get();
+    }
+
+    @Test
+    @PerfTest(invocations = 1000000, threads = 4)
+    public void concurrentGet() throws DevFailed {
+        CACHE.get();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.tango.DeviceState;
+import org.tango.server.Constants;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.device.StateImpl;
+import org.tango.server.device.StatusImpl;
+
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevState;
+
+public class AttributeAlarmCheckerTest {
+
+    private static AttributeImpl attribute(final String name, final boolean polled, final long updateTime) {
+        final AttributeImpl attribute = mock(AttributeImpl.class);
+        when(attribute.getName()).thenReturn(name);
+        when(attribute.isPolled()).thenReturn(polled);
+        when(attribute.getValueUpdateTime()).thenReturn(updateTime);
+        return attribute;
+    }
+
+    @Test
+    public void readOnlyStaleAttributes() throws DevFailed {
+        final AttributeImpl stale = attribute("stale", false, 0);
+        final AttributeImpl stale2 = attribute("stale2", false, 0);
+        final AttributeImpl fresh = attribute("fresh", false, System.currentTimeMillis() + 60000);
+        final AttributeImpl polled = attribute("polled", true, 0);
+        final AttributeImpl state = attribute(DeviceImpl.STATE_NAME, false, 0);
+        final List<AttributeImpl> attributes = Arrays.asList(stale, stale2, fresh, polled, state);
+        final AttributeAlarmChecker checker = new AttributeAlarmChecker("test/alarm/1");
+        for (final AttributeImpl attribute : attributes) {
+            checker.add(attribute);
+        }
+        checker.check(attributes, new StateImpl(this, null, null), new StatusImpl(this, null, null), true);
+        verify(stale).updateValue();
+        verify(stale2).updateValue();
+        verify(fresh, never()).updateValue();
+        verify(polled, never()).updateValue();
+        verify(state, never()).updateValue();
+    }
+
+    @Test
+    public void alarmsAreTrackedIncrementally() throws DevFailed {
+        final AttributeImpl attribute = attribute("doubleScalar", true, 0);
+        final List<AttributeImpl> attributes = Arrays.asList(attribute);
+        final StateImpl stateImpl = new StateImpl(this, null, null);
+        final StatusImpl statusImpl = new StatusImpl(this, null, null);
+        final AttributeAlarmChecker checker = new AttributeAlarmChecker("test/alarm/1");
+        checker.add(attribute);
+        assertThat(checker.check(attributes, stateImpl, statusImpl, false), equalTo(false));
+
+        when(attribute.isOutOfLimits()).thenReturn(true);
+        when(attribute.isAlarmToHigh()).thenReturn(true);
+        checker.alarmChanged(attribute);
+        assertThat(checker.check(attributes, stateImpl, statusImpl, false), equalTo(true));
+        assertThat(stateImpl.getState(), equalTo(DevState.ALARM));
+        assertThat(statusImpl.updateStatus(DeviceState.ALARM).contains("Value too high for doubleScalar"),
+                equalTo(true));
+        // nothing has changed, alarm is kept
+        assertThat(checker.check(attributes, stateImpl, statusImpl, false), equalTo(true));
+        verify(attribute, times(1)).isAlarmToHigh();
+
+        when(attribute.isOutOfLimits()).thenReturn(false);
+        checker.alarmChanged(attribute);
+        assertThat(checker.check(attributes, stateImpl, statusImpl, false), equalTo(false));
+        assertThat(statusImpl.updateStatus(DeviceState.ON).contains("doubleScalar"), equalTo(false));
+    }
+
+    @Test
+    public void callerReadsWhenReadersAreBusy() throws DevFailed {
+        // each read waits for all the others: the check completes only if no read waits for a free reader thread
+        final int nbAttributes = Constants.STATE_CHECK_ALARMS_THREADS + 1;
+        final CountDownLatch started = new CountDownLatch(nbAttributes);
+        final List<Boolean> released = new ArrayList<Boolean>();
+        final List<AttributeImpl> attributes = new ArrayList<AttributeImpl>();
+        final AttributeAlarmChecker checker = new AttributeAlarmChecker("test/alarm/1");
+        for (int i = 0; i < nbAttributes; i++) {
+            final AttributeImpl attribute = attribute("attr" + i, false, 0);
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(final InvocationOnMock invocation) throws InterruptedException {
+                    started.countDown();
+                    final boolean isReleased = started.await(5, TimeUnit.SECONDS);
+                    synchronized (released) {
+                        released.add(isReleased);
+                    }
+                    return null;
+                }
+            }).when(attribute).updateValue();
+            attributes.add(attribute);
+            checker.add(attribute);
+        }
+        checker.check(attributes, new StateImpl(this, null, null), new StatusImpl(this, null, null), true);
+        synchronized (released) {
+            assertThat(released.size(), equalTo(nbAttributes));
+            assertThat(released.contains(false), equalTo(false));
+        }
+    }
+}
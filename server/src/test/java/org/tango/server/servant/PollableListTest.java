@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.tango.server.IPollable;
+
+public class PollableListTest {
+
+    private static IPollable pollable(final String name) {
+        final IPollable pollable = mock(IPollable.class);
+        when(pollable.getName()).thenReturn(name);
+        return pollable;
+    }
+
+    @Test
+    public void findIgnoresCase() {
+        final PollableList<IPollable> list = new PollableList<IPollable>();
+        final IPollable att = pollable("doubleScalar");
+        list.add(pollable("State"));
+        list.add(att);
+        assertThat(list.size(), equalTo(2));
+        assertThat(list.find("DOUBLESCALAR"), sameInstance(att));
+        assertThat(list.find("doublescalar"), sameInstance(att));
+        assertThat(list.find("unknown"), nullValue());
+        assertThat(list.find(null), nullValue());
+    }
+
+    @Test
+    public void removeKeepsIndexConsistent() {
+        final PollableList<IPollable> list = new PollableList<IPollable>();
+        final IPollable first = pollable("att");
+        final IPollable second = pollable("ATT");
+        list.add(first);
+        list.add(second);
+        assertThat(list.find("att"), sameInstance(first));
+        list.remove(first);
+        assertThat(list.find("att"), sameInstance(second));
+        list.remove(second);
+        assertThat(list.find("att"), nullValue());
+        assertThat(list.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void clear() {
+        final PollableList<IPollable> list = new PollableList<IPollable>();
+        list.add(pollable("cmd"));
+        list.clear();
+        assertThat(list.find("cmd"), nullValue());
+        assertThat(list.isEmpty(), equalTo(true));
+    }
+}
@@ -109,6 +109,7 @@ public class AttributeTest extends NoDBDeviceManager {
                                         { 10046546554.0065420205D, 2545600.18424325D, 25487098778.9165041000787D } },
 
                                 "doubleImage" },
+                        { new double[] { 3400.258D, 3500.012D, 3600.234D }, "doubleSpectrumNoCopy" },
                         // DOUBLE dynamic
                         { 1002500.125D, "doubleDynamic" },
                         { new double[] { 3400.258D, 3500.012D, 3600.234D }, "double[]Dynamic" },
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.testserver;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+import org.tango.client.database.DatabaseFactory;
+import org.tango.server.Constants;
+import org.tango.server.properties.MemorizedValueWriter;
+
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.TangoApi.DeviceAttribute;
+import fr.esrf.TangoApi.DeviceProxy;
+
+public class MemorizedTest extends NoDBDeviceManager {
+
+    @Test
+    public void memorizeSpectrum() throws DevFailed {
+        final DeviceProxy dev = new DeviceProxy(deviceName);
+        final long stored = MemorizedValueWriter.getInstance().getStoreCount();
+        for (int i = 0; i < 10; i++) {
+            final DeviceAttribute da = new DeviceAttribute("memorizedSpectrum");
+            da.insert(new double[] { i, 2, 3 });
+            dev.write_attribute(da);
+        }
+        MemorizedValueWriter.getInstance().removeDevice(JTangoTest.NO_DB_DEVICE_NAME);
+        final Map<String, String[]> properties = DatabaseFactory.getDatabase().getAttributeProperties(
+                JTangoTest.NO_DB_DEVICE_NAME, "memorizedSpectrum");
+        assertThat(properties.get(Constants.MEMORIZED_VALUE), equalTo(new String[] { "9.0", "2.0", "3.0" }));
+        // coalesced writes
+        assertThat(MemorizedValueWriter.getInstance().getStoreCount() - stored < 10, equalTo(true));
+    }
+
+    @Test
+    public void memorizeImageAtInit() throws DevFailed {
+        final DeviceProxy dev = new DeviceProxy(deviceName);
+        final DeviceAttribute da = new DeviceAttribute("memorizedImage");
+        da.insert(new int[] { 1, 2, 3, 4, 5, 6 }, 3, 2);
+        dev.write_attribute(da);
+        // init stores the pending values before applying them
+        dev.command_inout("Init");
+        final DeviceAttribute result = dev.read_attribute("memorizedImage");
+        // read part, followed by the write part
+        assertThat(Arrays.copyOf(result.extractLongArray(), 6), equalTo(new int[] { 1, 2, 3, 4, 5, 6 }));
+        assertThat(result.getDimX(), equalTo(3));
+        assertThat(result.getDimY(), equalTo(2));
+    }
+}